@@ -18,11 +18,23 @@
 
 package org.automateit.core;
 
+import java.util.concurrent.Callable;
+
 import org.openqa.selenium.WebDriver;
 
 /**
  * Globally-accessible single instance class that retrieves the WebDriver implementation
  * being used.
+ * 
+ * Each test thread owns its own web driver, so tests can run in parallel 
+ * (testng parallel="methods") and reports/screenshots use the browser or device 
+ * of the test that asked for it. Threads started by a test do not see the test's
+ * web driver unless it is handed off to them with <code>wrap</code> or <code>attach</code>.
+ * 
+ * A thread that owns no web driver gets the most recently set web driver only 
+ * while all web drivers were set by one thread, which keeps single-threaded runs
+ * working as before. Once tests set web drivers from several threads (a parallel
+ * run) there is no fallback, so no thread ever reads another test's browser.
  */
 public class CommonWebDriver {
 
@@ -32,9 +44,24 @@ public class CommonWebDriver {
     private static CommonWebDriver instance = new CommonWebDriver();
     
     /**
-     * Web Driver object
+     * Web Driver object for each thread
+     */
+    private final ThreadLocal<WebDriver> driver = new ThreadLocal<WebDriver>();
+    
+    /**
+     * The most recently set web driver, used by threads that do not own one
+     */
+    private volatile WebDriver lastDriver = null;
+    
+    /**
+     * The thread that set the web drivers, while only one thread did
      */
-    private WebDriver driver = null;
+    private volatile Thread ownerThread = null;
+    
+    /**
+     * If web drivers were set from more than one thread
+     */
+    private volatile boolean parallel = false;
    
     /**
      * Default Constructor
@@ -49,27 +76,152 @@ public class CommonWebDriver {
     public static CommonWebDriver getInstance() { return instance; }
     
     /**
-     * Set the web driver object to be shared
+     * Set the web driver object to be used by the current thread
      * 
      * @param driver 
      */
-    public void setWebDriver(WebDriver driver) { this.driver = driver; }
+    public void setWebDriver(WebDriver driver) { 
+        
+        this.driver.set(driver); 
+        
+        this.lastDriver = driver;
+        
+        synchronized(this) {
+            
+            if(ownerThread == null) ownerThread = Thread.currentThread();
+            else if(ownerThread != Thread.currentThread()) parallel = true;
+            
+        }
+    
+    }
     
     /**
-     * Get the web driver object being used in this session
+     * Get the web driver object being used in this session (thread). A thread 
+     * that owns none gets the most recently set web driver, unless web drivers 
+     * were set from several threads.
+     * 
+     * @return the web driver, null if there is none for the current thread
+     */
+    public WebDriver getWebDriver() { 
+        
+        WebDriver webDriver = this.driver.get();
+        
+        if(webDriver != null || parallel) return webDriver;
+        
+        return this.lastDriver; 
+    
+    }
+    
+    /**
+     * Get the web driver object owned by the current thread, without falling
+     * back to the most recently set web driver of another thread
+     * 
+     * @return the web driver, null if the current thread owns none
+     */
+    public WebDriver getThreadWebDriver() { return this.driver.get(); }
+    
+    /**
+     * Return if the current thread owns a web driver
      * 
      * @return 
      */
-    public WebDriver getWebDriver() { return this.driver; }
+    public boolean hasWebDriver() { return this.driver.get() != null; }
+    
+    /**
+     * Hand off a web driver to the current thread (a child thread of a test),
+     * without changing the most recently set web driver.
+     * 
+     * @param driver 
+     */
+    public void attach(WebDriver driver) { this.driver.set(driver); }
     
     /**
-     * Close the web driver (quit)
+     * Remove the web driver from the current thread, without quitting it.
+     */
+    public void detach() { this.driver.remove(); }
+    
+    /**
+     * Forget a web driver that is returned to the session pool or quit: remove it
+     * from the current thread if it is the thread's web driver, and stop handing it
+     * to threads that do not own one. It is not quit.
+     * 
+     * @param webDriver 
+     */
+    public void release(WebDriver webDriver) {
+        
+        if(webDriver == null) return;
+        
+        if(this.driver.get() == webDriver) detach();
+        
+        if(webDriver == lastDriver) lastDriver = null;
+        
+    }
+    
+    /**
+     * Wrap a task so it runs with the web driver of the current thread.
+     * 
+     * @param task
+     * 
+     * @return 
+     */
+    public Runnable wrap(final Runnable task) {
+        
+        final WebDriver webDriver = getWebDriver();
+        
+        return new Runnable() {
+            
+            public void run() {
+                
+                attach(webDriver);
+                
+                try { task.run(); }
+                finally { detach(); }
+                
+            }
+            
+        };
+        
+    }
+    
+    /**
+     * Wrap a task so it runs with the web driver of the current thread.
+     * 
+     * @param task
+     * 
+     * @return 
+     */
+    public <T> Callable<T> wrap(final Callable<T> task) {
+        
+        final WebDriver webDriver = getWebDriver();
+        
+        return new Callable<T>() {
+            
+            public T call() throws Exception {
+                
+                attach(webDriver);
+                
+                try { return task.call(); }
+                finally { detach(); }
+                
+            }
+            
+        };
+        
+    }
+    
+    /**
+     * Close the web driver of the current thread (quit). A thread that owns no
+     * web driver closes nothing, so it never quits the web driver of another test.
      */
     public void close() {
         
-        if(driver == null) return;
+        WebDriver webDriver = getThreadWebDriver();
+        
+        if(webDriver == null) return;
+        
+        release(webDriver);
         
-        try { driver.quit(); }
+        try { webDriver.quit(); }
         catch(Exception e) { }
         
     }
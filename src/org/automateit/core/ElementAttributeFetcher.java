@@ -0,0 +1,223 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.ElementAttributesBean;
+
+/**
+ * This class fetches one attribute, and the displayed and enabled state, of 
+ * all the candidates of a text search in one javascript call, so the matching
+ * is done locally instead of with a few web driver round trips per candidate.
+ * 
+ * Web drivers that can not run javascript (e.g. native mobile apps) fall back
+ * to asking each element for the attribute, and ask for the displayed and 
+ * enabled state only when a search needs it. It is configured in 
+ * automateit.properties:
+ * 
+ * batchAttributeFetch=true
+ * 
+ * @author mburnside
+ */
+public class ElementAttributeFetcher {
+    
+    /**
+     * Property for if the attributes of search candidates are fetched in one javascript call
+     */
+    public static final String BATCH_ATTRIBUTE_FETCH = "batchAttributeFetch";
+    
+    /**
+     * The attribute name for the visible text of the element (as getText)
+     */
+    public static final String TEXT = "text";
+    
+    /**
+     * Returns the attribute (arguments[1]), displayed and enabled state of each element (arguments[0])
+     */
+    private static final String SCRIPT = 
+            "var elements = arguments[0], name = arguments[1], rows = [];"
+            + "for (var i = 0; i < elements.length; i++) { var e = elements[i], s = window.getComputedStyle(e);"
+            + "  var displayed = !!(e.offsetWidth || e.offsetHeight || e.getClientRects().length) && s.visibility !== 'hidden' && s.display !== 'none';"
+            + "  var value = name === 'text' ? (displayed ? (e.innerText || e.textContent) : '') : (name === 'value' && 'value' in e) ? e.value : e.getAttribute(name);"
+            + "  rows.push([value == null ? null : String(value), displayed, !e.disabled]); }"
+            + "return rows;";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ElementAttributeFetcher.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ElementAttributeFetcher instance = new ElementAttributeFetcher();
+    
+    /**
+     * The web drivers that can not run the script
+     */
+    private final Map<WebDriver, Boolean> unsupported = Collections.synchronizedMap(new WeakHashMap<WebDriver, Boolean>());
+    
+    /**
+     * Default Constructor.
+     */
+    public ElementAttributeFetcher() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ElementAttributeFetcher getInstance() { return instance; }
+    
+    /**
+     * Return if the attributes are fetched in one javascript call.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        String enabled = CommonProperties.getInstance().get(BATCH_ATTRIBUTE_FETCH);
+        
+        return (enabled == null) || Boolean.valueOf(enabled.trim());
+        
+    }
+    
+    /**
+     * Fetch an attribute, and the displayed and enabled state, of the elements.
+     * 
+     * @param driver
+     * @param elements
+     * @param attribute the attribute name, or TEXT for the visible text
+     * 
+     * @return the attributes of each element, in the same order
+     */
+    public List<ElementAttributesBean> fetch(WebDriver driver, List<WebElement> elements, String attribute) {
+        
+        if(elements.isEmpty()) return new ArrayList<ElementAttributesBean>();
+        
+        if(isEnabled() && (driver instanceof JavascriptExecutor) && !unsupported.containsKey(driver)) {
+            
+            try { return fetchWithScript((JavascriptExecutor)driver, elements, attribute); }
+            catch(StaleElementReferenceException e) { throw e; }
+            catch(WebDriverException e) { 
+                
+                logger.debug("Unable to fetch attributes with javascript, asking each element instead: " + e.getMessage());
+                
+                // only remember drivers that can not run javascript at all, other errors (timeouts, navigation) fall back for this call only
+                if(isUnsupported(e)) unsupported.put(driver, Boolean.TRUE); 
+            
+            }
+            
+        }
+        
+        return fetchEach(elements, attribute);
+        
+    }
+    
+    /**
+     * Return if the error means the web driver (context) can not run javascript,
+     * e.g. a native mobile app context.
+     * 
+     * @param e
+     * 
+     * @return 
+     */
+    private boolean isUnsupported(WebDriverException e) {
+        
+        if(e instanceof UnsupportedCommandException) return true;
+        
+        String message = String.valueOf(e.getMessage()).toLowerCase();
+        
+        return message.contains("not implemented") || message.contains("not yet implemented") || message.contains("unknown command") || message.contains("not supported");
+        
+    }
+    
+    /**
+     * Fetch the attributes of all the elements in one javascript call.
+     * 
+     * @param executor
+     * @param elements
+     * @param attribute
+     * 
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    private List<ElementAttributesBean> fetchWithScript(JavascriptExecutor executor, List<WebElement> elements, String attribute) {
+        
+        List<Object> rows = (List<Object>)executor.executeScript(SCRIPT, elements, attribute);
+        
+        if((rows == null) || (rows.size() != elements.size())) throw new WebDriverException("Unexpected result of the attribute script: " + rows);
+        
+        List<ElementAttributesBean> attributes = new ArrayList<ElementAttributesBean>(elements.size());
+        
+        for(int i = 0; i < elements.size(); i++) {
+            
+            List<Object> row = (List<Object>)rows.get(i);
+            
+            attributes.add(new ElementAttributesBean(elements.get(i), (String)row.get(0), (Boolean)row.get(1), (Boolean)row.get(2)));
+            
+        }
+        
+        return attributes;
+        
+    }
+    
+    /**
+     * Fetch the attribute of each element, the displayed and enabled state are
+     * asked of the element only if they are needed.
+     * 
+     * @param elements
+     * @param attribute
+     * 
+     * @return 
+     */
+    private List<ElementAttributesBean> fetchEach(List<WebElement> elements, String attribute) {
+        
+        List<ElementAttributesBean> attributes = new ArrayList<ElementAttributesBean>(elements.size());
+        
+        for(WebElement element: elements) {
+            
+            if(element == null) continue;
+            
+            String value = TEXT.equals(attribute) ? element.getText() : element.getAttribute(attribute);
+            
+            attributes.add(new ElementAttributesBean(element, value, null, null));
+            
+        }
+        
+        return attributes;
+        
+    }
+    
+}
@@ -0,0 +1,427 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.WebDriver;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.PerformanceCapture;
+import org.automateit.util.StartupPerformanceBean;
+
+/**
+ * This class creates web driver sessions (browsers or mobile app sessions) and 
+ * records their startup time in <code>PerformanceCapture</code>, separate from 
+ * page load and test time.
+ * 
+ * When pre-warming is enabled, the next session is created on a background 
+ * thread ahead of time, so the next test gets a session that is already started:
+ * 
+ * prewarmSessions=true
+ * 
+ * Only one pre-warmed session is kept. Asking for a session with different 
+ * settings (key) quits the pre-warmed one.
+ * 
+ * @author mburnside
+ */
+public class SessionPrewarmer {
+    
+    /**
+     * Property to create the next web driver session in the background
+     */
+    public static final String PREWARM_SESSIONS = "prewarmSessions";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(SessionPrewarmer.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static SessionPrewarmer instance = new SessionPrewarmer();
+    
+    /**
+     * If sessions are pre-warmed
+     */
+    private final boolean enabled;
+    
+    /**
+     * The background thread that creates sessions
+     */
+    private final ExecutorService executor;
+    
+    /**
+     * The pre-warmed sessions being created or ready, by key
+     */
+    private final Map<String, PrewarmTask> sessions = new HashMap<String, PrewarmTask>();
+    
+    /**
+     * The last session asked for on each thread, so it can be pre-warmed again
+     */
+    private final ThreadLocal<SessionRequest> lastRequest = new ThreadLocal<SessionRequest>();
+    
+    /**
+     * Default Constructor.
+     */
+    public SessionPrewarmer() {
+        
+        this.enabled = Boolean.valueOf(CommonProperties.getInstance().get(PREWARM_SESSIONS));
+        
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            
+            public Thread newThread(Runnable runnable) {
+                
+                Thread thread = new Thread(runnable, "session-prewarmer");
+                
+                thread.setDaemon(true);
+                
+                return thread;
+                
+            }
+            
+        });
+        
+        Runtime.getRuntime().addShutdownHook(new Thread("session-prewarmer-shutdown") {
+            
+            @Override
+            public void run() { discard(null, true); }
+            
+        });
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static SessionPrewarmer getInstance() { return instance; }
+    
+    /**
+     * Return if sessions are pre-warmed.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return enabled; }
+    
+    /**
+     * Get a web driver session for the key. A pre-warmed session is used if there 
+     * is one (waiting for it to finish starting if needed), otherwise the session 
+     * is created now. The startup is recorded in <code>PerformanceCapture</code>.
+     * 
+     * @param key The key of the session settings
+     * @param creator Creates a new session
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public WebDriver getWebDriver(String key, Callable<WebDriver> creator) throws Exception {
+        
+        long start = System.nanoTime();
+        
+        lastRequest.set(new SessionRequest(key, creator));
+        
+        try {
+            
+            // a pre-warmed session for other settings would never be used
+            discard(key);
+            
+            PrewarmTask task = null;
+            
+            synchronized(this) { task = sessions.remove(key); }
+            
+            if(task != null) {
+                
+                try { 
+                    
+                    PrewarmedSession session = task.future.get();
+                    
+                    PerformanceCapture.getInstance().addStartup(new StartupPerformanceBean(key, session.startupTime, elapsed(start), true));
+                    
+                    logger.info("Using pre-warmed web driver session: " + key);
+                    
+                    return session.driver;
+                    
+                }
+                catch(Exception e) { logger.warn("Pre-warmed web driver session failed to start, creating a new one: " + e.getMessage()); }
+                
+            }
+            
+            long createStart = System.nanoTime();
+            
+            WebDriver driver = creator.call();
+            
+            PerformanceCapture.getInstance().addStartup(new StartupPerformanceBean(key, elapsed(createStart), elapsed(start), false));
+            
+            return driver;
+            
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Start creating the next session for the key in the background, if
+     * pre-warming is enabled and one is not already being created.
+     * 
+     * @param key The key of the session settings
+     * @param creator Creates a new session
+     */
+    public synchronized void prewarm(final String key, final Callable<WebDriver> creator) {
+        
+        if(!enabled || sessions.containsKey(key)) return;
+        
+        logger.info("Pre-warming the next web driver session: " + key);
+        
+        PrewarmTask task = new PrewarmTask(creator);
+        
+        task.future = executor.submit(task);
+        
+        sessions.put(key, task);
+        
+    }
+    
+    /**
+     * Start creating a session with the same settings as the last session asked 
+     * for on this thread. Use this when only one session can run at a time 
+     * (one mobile device), after the current session has been quit.
+     */
+    public void prewarmLast() {
+        
+        SessionRequest request = lastRequest.get();
+        
+        if(request != null) prewarm(request.key, request.creator);
+        
+    }
+    
+    /**
+     * Quit all pre-warmed sessions, except the one for the key. A session that
+     * has not started launching is cancelled. The others are quit on the 
+     * background thread once they have started, so the caller does not wait.
+     * 
+     * @param keepKey The key to keep, or null to quit all
+     */
+    public void discard(String keepKey) { discard(keepKey, false); }
+    
+    /**
+     * Quit all pre-warmed sessions, except the one for the key.
+     * 
+     * @param keepKey The key to keep, or null to quit all
+     * @param wait true to wait for the sessions being launched and quit them on this thread (JVM shutdown)
+     */
+    private void discard(String keepKey, boolean wait) {
+        
+        List<PrewarmTask> discarded = new ArrayList<PrewarmTask>();
+        
+        synchronized(this) {
+            
+            Iterator<Map.Entry<String, PrewarmTask>> iterator = sessions.entrySet().iterator();
+            
+            while(iterator.hasNext()) {
+                
+                Map.Entry<String, PrewarmTask> entry = iterator.next();
+                
+                if(keepKey != null && keepKey.equals(entry.getKey())) continue;
+                
+                discarded.add(entry.getValue());
+                
+                iterator.remove();
+                
+            }
+            
+        }
+        
+        for(final PrewarmTask task: discarded) {
+            
+            // not started yet, the session is never launched
+            if(task.cancel()) continue;
+            
+            Runnable quit = new Runnable() {
+                
+                public void run() {
+                    
+                    try { 
+                        
+                        PrewarmedSession session = task.future.get();
+                        
+                        if(session != null) session.driver.quit(); 
+                    
+                    }
+                    catch(Exception e) { }
+                    
+                }
+                
+            };
+            
+            if(wait) quit.run();
+            else {
+                
+                // queued behind the launch on the single background thread
+                try { executor.submit(quit); }
+                catch(Exception e) { quit.run(); }
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Get the time (milli-sec) since the start.
+     * 
+     * @param start System.nanoTime at the start
+     * 
+     * @return 
+     */
+    private static long elapsed(long start) { return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start); }
+    
+    /**
+     * A pre-warmed session and how long it took to start.
+     */
+    private static class PrewarmedSession {
+        
+        /**
+         * The web driver session
+         */
+        private final WebDriver driver;
+        
+        /**
+         * The amount of time (milli-sec) it took to create the session
+         */
+        private final long startupTime;
+        
+        /**
+         * Constructor
+         * 
+         * @param driver
+         * @param startupTime 
+         */
+        private PrewarmedSession(WebDriver driver, long startupTime) {
+            
+            this.driver = driver;
+            this.startupTime = startupTime;
+            
+        }
+        
+    }
+    
+    /**
+     * Creates a pre-warmed session on the background thread, unless it was 
+     * cancelled before it started.
+     */
+    private static class PrewarmTask implements Callable<PrewarmedSession> {
+        
+        /**
+         * Creates a new session
+         */
+        private final Callable<WebDriver> creator;
+        
+        /**
+         * Set when the task starts, or when it is cancelled before it started
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        
+        /**
+         * The result of the task
+         */
+        private Future<PrewarmedSession> future = null;
+        
+        /**
+         * Constructor
+         * 
+         * @param creator 
+         */
+        private PrewarmTask(Callable<WebDriver> creator) { this.creator = creator; }
+        
+        /**
+         * Create the session.
+         * 
+         * @return the session, null if the task was cancelled
+         * 
+         * @throws Exception 
+         */
+        public PrewarmedSession call() throws Exception {
+            
+            if(!claimed.compareAndSet(false, true)) return null;
+            
+            long start = System.nanoTime();
+            
+            WebDriver driver = creator.call();
+            
+            return new PrewarmedSession(driver, elapsed(start));
+            
+        }
+        
+        /**
+         * Cancel the task if it has not started.
+         * 
+         * @return true if it was cancelled, false if it already started
+         */
+        private boolean cancel() { return claimed.compareAndSet(false, true); }
+        
+    }
+    
+    /**
+     * The settings of a session that was asked for.
+     */
+    private static class SessionRequest {
+        
+        /**
+         * The key of the session settings
+         */
+        private final String key;
+        
+        /**
+         * Creates a new session
+         */
+        private final Callable<WebDriver> creator;
+        
+        /**
+         * Constructor
+         * 
+         * @param key
+         * @param creator 
+         */
+        private SessionRequest(String key, Callable<WebDriver> creator) {
+            
+            this.key = key;
+            this.creator = creator;
+            
+        }
+        
+    }
+    
+}
\ No newline at end of file
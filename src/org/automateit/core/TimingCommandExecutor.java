@@ -0,0 +1,199 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.core;
+
+import java.io.IOException;
+
+import java.lang.reflect.Method;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.WebDriver;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+
+import org.automateit.util.CommandProfiler;
+
+/**
+ * This class times the round trips of a web driver to the browser driver or 
+ * Appium server (the wire time) for the CommandProfiler. It wraps the command 
+ * executor of a RemoteWebDriver, so it works for every browser and mobile driver.
+ * 
+ * Screenshots taken for the report are framework time, not wire time.
+ * 
+ * It also counts, per session, the commands that may change what is on the 
+ * screen (anything other than finding and reading elements, screenshots and 
+ * the like), so a copy of the screen can tell when it is out of date.
+ * 
+ * @author mburnside
+ */
+public class TimingCommandExecutor implements CommandExecutor {
+    
+    /**
+     * The commands that only read from the screen or the session
+     */
+    private static final Set<String> READ_COMMANDS = new HashSet<String>(Arrays.asList(
+            DriverCommand.FIND_ELEMENT, DriverCommand.FIND_ELEMENTS, DriverCommand.FIND_CHILD_ELEMENT, DriverCommand.FIND_CHILD_ELEMENTS,
+            DriverCommand.GET_PAGE_SOURCE, DriverCommand.GET_ELEMENT_ATTRIBUTE, DriverCommand.GET_ELEMENT_PROPERTY, DriverCommand.GET_ELEMENT_TEXT,
+            DriverCommand.GET_ELEMENT_TAG_NAME, DriverCommand.IS_ELEMENT_DISPLAYED, DriverCommand.IS_ELEMENT_ENABLED, DriverCommand.IS_ELEMENT_SELECTED,
+            DriverCommand.GET_ELEMENT_LOCATION, DriverCommand.GET_ELEMENT_SIZE, DriverCommand.GET_ELEMENT_RECT, DriverCommand.GET_ELEMENT_VALUE_OF_CSS_PROPERTY,
+            DriverCommand.SCREENSHOT, DriverCommand.ELEMENT_SCREENSHOT, DriverCommand.GET_CURRENT_URL, DriverCommand.GET_TITLE, DriverCommand.STATUS,
+            DriverCommand.GET_CAPABILITIES, DriverCommand.GET_LOG, DriverCommand.GET_AVAILABLE_LOG_TYPES, DriverCommand.SET_TIMEOUT, 
+            DriverCommand.IMPLICITLY_WAIT, DriverCommand.GET_CURRENT_WINDOW_SIZE, DriverCommand.GET_SCREEN_ORIENTATION));
+    
+    /**
+     * The number of commands that may have changed the screen, per session
+     */
+    private static final Map<SessionId, AtomicLong> screenChanges = Collections.synchronizedMap(new WeakHashMap<SessionId, AtomicLong>());
+    
+    /**
+     * The command executor of the web driver
+     */
+    private final CommandExecutor executor;
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(TimingCommandExecutor.class);
+    
+    /**
+     * Constructor
+     * 
+     * @param executor 
+     */
+    public TimingCommandExecutor(CommandExecutor executor) { this.executor = executor; }
+    
+    /**
+     * Execute the command and time the round trip.
+     * 
+     * @param command
+     * 
+     * @return
+     * 
+     * @throws IOException 
+     */
+    public Response execute(Command command) throws IOException {
+        
+        if((command.getSessionId() != null) && !READ_COMMANDS.contains(command.getName())) getScreenChanges(command.getSessionId()).incrementAndGet();
+        
+        long start = System.nanoTime();
+        
+        try { return executor.execute(command); }
+        finally { CommandProfiler.getInstance().addWireTime(System.nanoTime() - start, DriverCommand.SCREENSHOT.equals(command.getName())); }
+        
+    }
+    
+    /**
+     * Time the round trips of the web driver, if it is not timed already.
+     * 
+     * @param driver 
+     */
+    public static void instrument(WebDriver driver) {
+        
+        if(CommandProfiler.getInstance().isEnabled()) install(driver);
+        
+    }
+    
+    /**
+     * Wrap the command executor of the web driver, if it is not wrapped already.
+     * 
+     * @param driver 
+     * 
+     * @return if the command executor of the web driver is wrapped
+     */
+    public static boolean install(WebDriver driver) {
+        
+        if(!(driver instanceof RemoteWebDriver)) return false;
+        
+        RemoteWebDriver remoteWebDriver = (RemoteWebDriver)driver;
+        
+        CommandExecutor executor = remoteWebDriver.getCommandExecutor();
+        
+        if(executor == null) return false;
+        
+        if(executor instanceof TimingCommandExecutor) return true;
+        
+        try { 
+            
+            Method setCommandExecutor = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            
+            setCommandExecutor.setAccessible(true);
+            
+            setCommandExecutor.invoke(remoteWebDriver, new TimingCommandExecutor(executor));
+            
+            return true;
+            
+        }
+        catch(Exception e) { logger.warn("Unable to time the web driver round trips: " + e); return false; }
+        
+    }
+    
+    /**
+     * Get the number of commands of the web driver that may have changed the 
+     * screen since its command executor was wrapped.
+     * 
+     * @param driver
+     * 
+     * @return the number of commands, -1 if the commands are not counted
+     */
+    public static long getScreenChangeCount(WebDriver driver) {
+        
+        if(!(driver instanceof RemoteWebDriver) || !(((RemoteWebDriver)driver).getCommandExecutor() instanceof TimingCommandExecutor)) return -1;
+        
+        SessionId sessionId = ((RemoteWebDriver)driver).getSessionId();
+        
+        return (sessionId == null) ? -1 : getScreenChanges(sessionId).get();
+        
+    }
+    
+    /**
+     * Get the counter of the commands that may have changed the screen of a session.
+     * 
+     * @param sessionId
+     * 
+     * @return 
+     */
+    private static AtomicLong getScreenChanges(SessionId sessionId) {
+        
+        synchronized(screenChanges) {
+            
+            AtomicLong changes = screenChanges.get(sessionId);
+            
+            if(changes == null) screenChanges.put(sessionId, changes = new AtomicLong());
+            
+            return changes;
+            
+        }
+        
+    }
+    
+}
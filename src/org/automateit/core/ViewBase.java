@@ -27,6 +27,7 @@ import java.io.ObjectInputStream;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.apache.commons.io.FileUtils;
 
@@ -44,13 +45,19 @@ import static org.openqa.selenium.support.ui.ExpectedConditions.presenceOfElemen
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
 import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfElementLocated;
 
+import org.automateit.jfr.FindElementEvent;
+
 import org.automateit.ocr.OCRProcessor;
 
 import org.automateit.reports.ReportsManager;
-import org.automateit.reports.ExtentReporter;
+
+import org.automateit.screenshot.ScreenshotController;
+import org.automateit.screenshot.ScreenshotPolicy;
 
 import org.automateit.util.CommandList;
 import org.automateit.util.CommonProperties;
+import org.automateit.util.ElementAttributesBean;
+import org.automateit.util.SleepProfiler;
 import org.automateit.util.Utils;
 
 /**
@@ -129,6 +136,9 @@ public class ViewBase {
         // (reports, events, testng, etc)
         CommonWebDriver.getInstance().setWebDriver(driver); 
         
+        // split the time of each command into framework, round trips and waits
+        TimingCommandExecutor.instrument(driver);
+        
         this.driver = driver;
         this.wait = new WebDriverWait(this.driver, timeoutInSeconds);
         
@@ -201,7 +211,22 @@ public class ViewBase {
      */
     public void addScreenshotToReport() throws Exception {
                
-        try { utils.addScreenshotToReport(ExtentReporter.REPORTS_DIRECTORY); }
+        try { addScreenshotToReport(ScreenshotPolicy.ACTION); }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Take a screenshot for the capture event and add it to the test results 
+     * report, if the configured screenshot policy allows it.
+     * 
+     * @param event
+     * 
+     * @throws Exception 
+     */
+    protected void addScreenshotToReport(int event) throws Exception {
+               
+        try { ScreenshotController.getInstance().addScreenshotToReport(event); }
         catch(Exception e) { throw e; }
         
     }
@@ -219,7 +244,11 @@ public class ViewBase {
                 
         try { 
             
-            FileUtils.copyFile(((TakesScreenshot)CommonWebDriver.getInstance().getWebDriver()).getScreenshotAs(OutputType.FILE), new File(screenshotFilename));
+            WebDriver webDriver = CommonWebDriver.getInstance().getThreadWebDriver();
+            
+            if(webDriver == null) throw new Exception("Unable to take a screenshot, the current thread has no web driver");
+            
+            FileUtils.copyFile(((TakesScreenshot)webDriver).getScreenshotAs(OutputType.FILE), new File(screenshotFilename));
             
             OCRProcessor ocrProcessor = new OCRProcessor();
             
@@ -297,15 +326,12 @@ public class ViewBase {
     }
     
     /**
-     * Thread.sleep in milliseconds. Makes less code to type.
+     * Thread.sleep in milliseconds. Makes less code to type. The delay is
+     * accounted for by the SleepProfiler.
      * 
      * @param milliseconds 
      */
-    protected void delay(long milliseconds) {
-        
-        try { Thread.sleep(milliseconds); } catch(Exception e) { }
-        
-    }
+    protected void delay(long milliseconds) { SleepProfiler.getInstance().sleep(milliseconds); }
     
     /**
      * Log the exception.
@@ -433,16 +459,29 @@ public class ViewBase {
      */
     protected WebElement find(By by) { 
         
+        FindElementEvent event = new FindElementEvent();
+        
+        event.begin();
+        
+        long start = SleepProfiler.getInstance().startWait();
+        
         try { 
             
-            if(this.wait == null) this.wait = new WebDriverWait(this.driver, timeoutInSeconds);
-            return wait.until(presenceOfElementLocated(by));
+            WebElement element = waitForPresence(by, timeoutInSeconds);
+            
+            event.setElementCount(1);
+            
+            return element;
             
         }
         catch(Exception e) { throw e; }
         finally { 
             
-            try { addScreenshotToReport(); }
+            event.complete("find", by, this);
+            
+            SleepProfiler.getInstance().addWait(start);
+            
+            try { addScreenshotToReport(ScreenshotPolicy.ELEMENT_LOOKUP); }
             catch(Exception le) { }
             
         }
@@ -458,15 +497,87 @@ public class ViewBase {
      */
     protected List<WebElement> findElements(By by) { 
         
-        try { return this.driver.findElements(by); } 
+        FindElementEvent event = new FindElementEvent();
+        
+        event.begin();
+        
+        long start = SleepProfiler.getInstance().startWait();
+        
+        try { 
+            
+            // the wait engine waits for at least one element as the implicit wait would
+            List<WebElement> elements = WaitEngine.getInstance().isEnabled() ? WaitEngine.getInstance().findElements(this.driver, by) : this.driver.findElements(by);
+            
+            event.setElementCount(elements.size());
+            
+            return elements; 
+        
+        } 
         catch(Exception e) { throw e; }
         finally { 
             
-            try { addScreenshotToReport(); }
+            event.complete("findElements", by, this);
+            
+            SleepProfiler.getInstance().addWait(start);
+            
+            try { addScreenshotToReport(ScreenshotPolicy.ELEMENT_LOOKUP); }
             catch(Exception le) { }
             
         }
         
-    } 
+    }
+
+    /**
+     * Find WebElements with the value of one attribute and their displayed and
+     * enabled state, fetched for all of them in one call where possible.
+     *
+     * @param by
+     * @param attribute the attribute name, or ElementAttributeFetcher.TEXT for the visible text
+     *
+     * @return The web elements and their attributes
+     */
+    protected List<ElementAttributesBean> findElementsWithAttribute(By by, String attribute) {
+
+        try { return ElementAttributeFetcher.getInstance().fetch(this.driver, findElements(by), attribute); }
+        catch(Exception e) { throw e; }
+
+    }
+
+    /**
+     * Wait until an element is present, with the wait engine if it is enabled.
+     * 
+     * @param by
+     * @param timeout (seconds) used if the locator type has no budget
+     * 
+     * @return The web element
+     */
+    protected WebElement waitForPresence(By by, long timeout) {
+        
+        if(WaitEngine.getInstance().isEnabled()) return WaitEngine.getInstance().find(this.driver, by, timeout);
+        
+        if(this.wait == null) this.wait = new WebDriverWait(this.driver, timeoutInSeconds);
+        
+        return ((timeout == timeoutInSeconds) ? this.wait : new WebDriverWait(this.driver, timeout)).until(presenceOfElementLocated(by));
+        
+    }
+    
+    /**
+     * Wait until a condition returns a value that is not null or false, with 
+     * the wait engine if it is enabled.
+     * 
+     * @param operation the name of the condition for the wait statistics (e.g. clickable)
+     * @param by the locator the condition is about, or null
+     * @param timeout (seconds) used if the locator type has no budget
+     * @param condition
+     * 
+     * @return The value of the condition
+     */
+    protected <T> T waitUntil(String operation, By by, long timeout, Function<WebDriver, T> condition) {
+        
+        if(WaitEngine.getInstance().isEnabled()) return WaitEngine.getInstance().until(this.driver, operation, (by == null) ? null : WaitEngine.getInstance().getLocatorType(by), timeout, condition);
+        
+        return (new WebDriverWait(this.driver, timeout)).until(condition);
+        
+    }
             
 }
\ No newline at end of file
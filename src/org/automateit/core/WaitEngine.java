@@ -0,0 +1,466 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.WaitStatisticsBean;
+
+/**
+ * This class is the wait engine shared by the page and screen classes. A wait 
+ * polls its condition fast at first (most elements are already there) and then
+ * backs off exponentially, so long waits do not flood the web driver with round
+ * trips. Each locator type (id, xpath, className, AccessibilityId ...) can have
+ * its own budget, and the time each condition took to become true is recorded 
+ * so the budgets can be tuned from real data.
+ * 
+ * The engine does the waiting for element lookups, so the implicit wait of the
+ * web driver is kept at zero while it is enabled: the implicit wait requested 
+ * by the page and screen classes is used as the budget of element list lookups.
+ * 
+ * It is configured in automateit.properties:
+ * 
+ * waitEngineEnabled=false
+ * waitInitialPollInterval=50
+ * waitMaxPollInterval=1000
+ * waitBackoffFactor=2
+ * waitBudget.id=
+ * waitBudget.xpath=
+ * waitBudget.className=
+ * ...
+ * 
+ * @author mburnside
+ */
+public class WaitEngine {
+    
+    /**
+     * Property to enable the wait engine
+     */
+    public static final String WAIT_ENGINE_ENABLED = "waitEngineEnabled";
+    
+    /**
+     * Property for the time (milli-sec) between the first polls
+     */
+    public static final String WAIT_INITIAL_POLL_INTERVAL = "waitInitialPollInterval";
+    
+    /**
+     * Property for the longest time (milli-sec) between polls
+     */
+    public static final String WAIT_MAX_POLL_INTERVAL = "waitMaxPollInterval";
+    
+    /**
+     * Property for the factor the time between polls grows by after each poll
+     */
+    public static final String WAIT_BACKOFF_FACTOR = "waitBackoffFactor";
+    
+    /**
+     * Prefix of the properties for the budget (seconds) of each locator type
+     */
+    public static final String WAIT_BUDGET_PREFIX = "waitBudget.";
+    
+    /**
+     * The default time (milli-sec) between the first polls
+     */
+    private static final long DEFAULT_INITIAL_POLL_INTERVAL = 50;
+    
+    /**
+     * The default longest time (milli-sec) between polls
+     */
+    private static final long DEFAULT_MAX_POLL_INTERVAL = 1000;
+    
+    /**
+     * The default factor the time between polls grows by
+     */
+    private static final double DEFAULT_BACKOFF_FACTOR = 2;
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(WaitEngine.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static WaitEngine instance = new WaitEngine();
+    
+    /**
+     * The statistics of each condition
+     */
+    private final Map<String, WaitStatisticsBean> statistics = new ConcurrentHashMap<String, WaitStatisticsBean>();
+    
+    /**
+     * The implicit wait (seconds) requested for each web driver
+     */
+    private final Map<WebDriver, Long> implicitWaits = Collections.synchronizedMap(new WeakHashMap<WebDriver, Long>());
+    
+    /**
+     * Default Constructor.
+     */
+    public WaitEngine() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static WaitEngine getInstance() { return instance; }
+    
+    /**
+     * Return if the wait engine is enabled. It is off unless waitEngineEnabled is
+     * set, because it turns off the implicit wait of the web driver.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        String enabled = CommonProperties.getInstance().get(WAIT_ENGINE_ENABLED);
+        
+        return (enabled != null) && Boolean.valueOf(enabled.trim());
+        
+    }
+    
+    /**
+     * Set the implicit wait of the web driver. While the engine is enabled the
+     * implicit wait of the web driver stays at zero and the time is used as the
+     * budget of element list lookups instead.
+     * 
+     * @param driver
+     * @param seconds 
+     */
+    public void setImplicitWait(WebDriver driver, long seconds) {
+        
+        if(!isEnabled()) { driver.manage().timeouts().implicitlyWait(seconds, TimeUnit.SECONDS); return; }
+        
+        // only one round trip per web driver to turn the implicit wait off
+        if(implicitWaits.put(driver, seconds) == null) driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+        
+    }
+    
+    /**
+     * Get the implicit wait (seconds) requested for the web driver.
+     * 
+     * @param driver
+     * 
+     * @return the implicit wait, 0 if none was requested
+     */
+    public long getImplicitWait(WebDriver driver) {
+        
+        Long seconds = implicitWaits.get(driver);
+        
+        return (seconds == null) ? 0 : seconds;
+        
+    }
+    
+    /**
+     * Find an element, waiting until it is present.
+     * 
+     * @param driver
+     * @param by
+     * @param timeout (seconds) used if the locator type has no budget
+     * 
+     * @return the element
+     * 
+     * @throws TimeoutException if the element is not present in time
+     */
+    public WebElement find(WebDriver driver, final By by, long timeout) {
+        
+        prepare(driver);
+        
+        return until(driver, "find", getLocatorType(by), timeout, new Function<WebDriver, WebElement>() {
+            
+            public WebElement apply(WebDriver driver) { return driver.findElement(by); }
+        
+        });
+        
+    }
+    
+    /**
+     * Find elements, waiting until at least one is present as an implicit wait 
+     * would, using the implicit wait requested for the web driver.
+     * 
+     * @param driver
+     * @param by
+     * 
+     * @return the elements, empty if none were present in time
+     */
+    public List<WebElement> findElements(WebDriver driver, final By by) {
+        
+        prepare(driver);
+        
+        try {
+            
+            return until(driver, "findElements", getLocatorType(by), getImplicitWait(driver), new Function<WebDriver, List<WebElement>>() {
+            
+                public List<WebElement> apply(WebDriver driver) { 
+                    
+                    List<WebElement> elements = driver.findElements(by); 
+                    
+                    return elements.isEmpty() ? null : elements;
+                
+                }
+        
+            });
+            
+        }
+        catch(TimeoutException e) { return new ArrayList<WebElement>(); }
+        
+    }
+    
+    /**
+     * Wait until the condition returns a value that is not null or false.
+     * The condition is polled fast at first and then less often, up to the 
+     * budget of the locator type or else the timeout.
+     * 
+     * @param driver
+     * @param operation the name of the operation (e.g. find, clickable)
+     * @param locatorType the locator type (e.g. id, xpath), or null
+     * @param timeout (seconds) used if the locator type has no budget
+     * @param condition
+     * 
+     * @return the value of the condition
+     * 
+     * @throws TimeoutException if the condition is not met in time
+     */
+    public <T> T until(WebDriver driver, String operation, String locatorType, long timeout, Function<WebDriver, T> condition) {
+        
+        String name = (locatorType == null) ? operation : operation + " " + locatorType;
+        
+        long budget = TimeUnit.SECONDS.toNanos(getBudget(locatorType, timeout));
+        
+        long interval = getInitialPollInterval();
+        
+        long start = System.nanoTime();
+        
+        long polls = 0;
+        
+        RuntimeException last = null;
+        
+        while(true) {
+            
+            polls++;
+            
+            try {
+                
+                T value = condition.apply(driver);
+                
+                if((value != null) && !Boolean.FALSE.equals(value)) {
+                    
+                    getStatistics(name).addMet(System.nanoTime() - start, polls);
+                    
+                    return value;
+                    
+                }
+                
+            }
+            catch(NotFoundException e) { last = e; }
+            catch(StaleElementReferenceException e) { last = e; }
+            
+            long remaining = budget - (System.nanoTime() - start);
+            
+            if(remaining <= 0) {
+                
+                getStatistics(name).addTimeout(System.nanoTime() - start);
+                
+                throw new TimeoutException("Waited " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms (" + polls + " polls) for: " + name, last);
+                
+            }
+            
+            try { Thread.sleep(Math.min(interval, TimeUnit.NANOSECONDS.toMillis(remaining) + 1)); }
+            catch(InterruptedException e) { Thread.currentThread().interrupt(); throw new TimeoutException("Interrupted waiting for: " + name, e); }
+            
+            interval = Math.min(getMaxPollInterval(), (long)Math.ceil(interval * getBackoffFactor()));
+            
+        }
+        
+    }
+    
+    /**
+     * Get the statistics of each condition, the most time waiting first.
+     * 
+     * @return 
+     */
+    public List<WaitStatisticsBean> getStatistics() {
+        
+        List<WaitStatisticsBean> list = new ArrayList<WaitStatisticsBean>(statistics.values());
+        
+        Collections.sort(list, new Comparator<WaitStatisticsBean>() {
+            
+            public int compare(WaitStatisticsBean a, WaitStatisticsBean b) { return Long.compare(b.getTotalTime(), a.getTotalTime()); }
+        
+        });
+        
+        return list;
+        
+    }
+    
+    /**
+     * Clear the statistics.
+     */
+    public void clear() { statistics.clear(); }
+    
+    /**
+     * Get a summary of the waits for logs.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        StringBuilder metrics = new StringBuilder("Waits:");
+        
+        for(WaitStatisticsBean bean: getStatistics()) {
+            
+            metrics.append(" ").append(bean.getCondition()).append(" ").append(bean.getCount()).append(" met (p50 ").append(bean.getTime(50)).append(" ms, p99 ")
+                    .append(bean.getTime(99)).append(" ms, ").append(String.format("%.1f", bean.getAveragePolls())).append(" polls), ").append(bean.getTimeoutCount()).append(" timeouts;");
+            
+        }
+        
+        return metrics.toString();
+        
+    }
+    
+    /**
+     * Get the locator type of a locator: the text between "By." and ":" of the 
+     * locator (id, xpath, className, AccessibilityId ...).
+     * 
+     * @param by
+     * 
+     * @return the locator type, or null if it is not known
+     */
+    public String getLocatorType(By by) {
+        
+        String locator = String.valueOf(by);
+        
+        int colon = locator.indexOf(':');
+        
+        if(!locator.startsWith("By.") || (colon < 0)) return null;
+        
+        return locator.substring(3, colon).trim();
+        
+    }
+    
+    /**
+     * Get the budget (seconds) of a locator type. The budget can only shorten
+     * the timeout passed in, so explicit timeouts and the 0 second timeout of
+     * fast-fail lookups are never raised.
+     * 
+     * @param locatorType
+     * @param timeout (seconds) of the wait
+     * 
+     * @return the smaller of the budget and the timeout, or the timeout if the locator type has no budget
+     */
+    public long getBudget(String locatorType, long timeout) {
+        
+        if(locatorType == null) return timeout;
+        
+        try { return Math.min(Long.parseLong(CommonProperties.getInstance().get(WAIT_BUDGET_PREFIX + locatorType).trim()), timeout); }
+        catch(Exception e) { return timeout; }
+        
+    }
+    
+    /**
+     * Make sure the implicit wait of the web driver does not block the polls,
+     * for web drivers whose implicit wait was not set through the engine.
+     * 
+     * @param driver 
+     */
+    private void prepare(WebDriver driver) {
+        
+        if(!implicitWaits.containsKey(driver)) setImplicitWait(driver, 0);
+        
+    }
+    
+    /**
+     * Get the statistics of a condition.
+     * 
+     * @param name
+     * 
+     * @return 
+     */
+    private WaitStatisticsBean getStatistics(String name) {
+        
+        WaitStatisticsBean bean = statistics.get(name);
+        
+        if(bean == null) {
+            
+            statistics.putIfAbsent(name, new WaitStatisticsBean(name));
+            
+            bean = statistics.get(name);
+            
+        }
+        
+        return bean;
+        
+    }
+    
+    /**
+     * Get the time (milli-sec) between the first polls.
+     * 
+     * @return 
+     */
+    private long getInitialPollInterval() {
+        
+        try { return Math.max(1, Long.parseLong(CommonProperties.getInstance().get(WAIT_INITIAL_POLL_INTERVAL).trim())); }
+        catch(Exception e) { return DEFAULT_INITIAL_POLL_INTERVAL; }
+        
+    }
+    
+    /**
+     * Get the longest time (milli-sec) between polls.
+     * 
+     * @return 
+     */
+    private long getMaxPollInterval() {
+        
+        try { return Math.max(1, Long.parseLong(CommonProperties.getInstance().get(WAIT_MAX_POLL_INTERVAL).trim())); }
+        catch(Exception e) { return DEFAULT_MAX_POLL_INTERVAL; }
+        
+    }
+    
+    /**
+     * Get the factor the time between polls grows by after each poll.
+     * 
+     * @return 
+     */
+    private double getBackoffFactor() {
+        
+        try { return Math.max(1, Double.parseDouble(CommonProperties.getInstance().get(WAIT_BACKOFF_FACTOR).trim())); }
+        catch(Exception e) { return DEFAULT_BACKOFF_FACTOR; }
+        
+    }
+    
+}
@@ -10,6 +10,8 @@ import org.automateit.test.TestBase;
 
 import org.automateit.core.CommonWebDriver;
 
+import org.automateit.screenshot.ScreenshotPolicy;
+
 /**
  * All specific Step Definition classes should EXTEND this class. It provides:
  * 
@@ -27,7 +29,7 @@ public class StepDefinitionsBase extends TestBase {
     @AfterStep
     public void afterStep() {
         
-        try { addScreenshotToReport(); }
+        try { addScreenshotToReport(ScreenshotPolicy.STEP_COMPLETED); }
         catch(Exception e) { }
 
 
@@ -36,7 +38,7 @@ public class StepDefinitionsBase extends TestBase {
     @After
     public void afterScenario() {
         
-        try { if(CommonWebDriver.getInstance().getWebDriver() != null) CommonWebDriver.getInstance().getWebDriver().quit(); }
+        try { CommonWebDriver.getInstance().close(); }
         catch(Exception e) { }
        
     }
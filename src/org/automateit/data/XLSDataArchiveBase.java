@@ -26,6 +26,8 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.Sheet;
+
+import org.automateit.jfr.ReportWriteEvent;
         
 /**
  * Data archive base class for archiving to XLS or XLSX (Excel) files.
@@ -48,6 +50,10 @@ public class XLSDataArchiveBase extends DataArchiveBase {
      */
     public void saveData(Workbook workbook, String filename) throws Exception {
         
+        ReportWriteEvent event = new ReportWriteEvent();
+        
+        event.begin();
+        
         try {
             
             CreationHelper createHelper = workbook.getCreationHelper();
@@ -78,6 +84,7 @@ public class XLSDataArchiveBase extends DataArchiveBase {
         
         }
         catch(Exception e) { log.error(e); throw e; }
+        finally { event.complete("saveData", filename, this); }
         
     }
     
@@ -23,6 +23,8 @@ import org.testng.ITestResult;
 
 import org.apache.log4j.Logger;
 
+import org.automateit.jfr.AlertDispatchEvent;
+
 import org.automateit.util.Utils;
 
 /**
@@ -114,9 +116,14 @@ public class AlertEvent extends Thread {
         if(!ignoreAlertKeywords && errorMessageIgnore(result.getThrowable().getMessage())) return;
         
         for(AlertHandler alertHandler : alertHandlers) {
+            
+            AlertDispatchEvent event = new AlertDispatchEvent();
+            
+            event.begin();
     
             try { alertHandler.execute(result); }
             catch(Exception e) { logger.info(e); }
+            finally { event.complete("sendAlert", result.getName(), alertHandler); }
             
         }
         
@@ -142,8 +149,13 @@ public class AlertEvent extends Thread {
             
             logger.info("Sending alert to alert handler: " + alertHandler);
     
+            AlertDispatchEvent event = new AlertDispatchEvent();
+            
+            event.begin();
+    
             try { alertHandler.execute(message); }
             catch(Exception e) { logger.error(e); }
+            finally { event.complete("sendAlert", message, alertHandler); }
             
         }
         
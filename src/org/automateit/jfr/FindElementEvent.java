@@ -0,0 +1,48 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the Java Flight Recorder event of finding web elements.
+ * 
+ * @author mburnside
+ */
+@Name("org.automateit.FindElement")
+@Label("Find Element")
+@Description("ViewBase find and findElements")
+public class FindElementEvent extends FrameworkEvent {
+    
+    /**
+     * The number of elements found
+     */
+    @Label("Elements Found")
+    protected int elementCount;
+    
+    /**
+     * Set the number of elements found.
+     * 
+     * @param elementCount 
+     */
+    public void setElementCount(int elementCount) { this.elementCount = elementCount; }
+    
+}
@@ -0,0 +1,95 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * This class is the base of the Java Flight Recorder events for the hot 
+ * operations of the framework. Each event has the operation, the locator and 
+ * the page class name, and JFR records the start time, duration and thread.
+ * 
+ * Record a suite with:
+ * 
+ * java -XX:StartFlightRecording=filename=automateit.jfr,settings=profile ...
+ * 
+ * and inspect the "Automate It!" events with JDK Mission Control or 'jfr print'.
+ * When no recording is running the events are not committed and the cost is a 
+ * single enabled check per operation.
+ * 
+ * Usage:
+ * 
+ * FindElementEvent event = new FindElementEvent();
+ * 
+ * event.begin();
+ * 
+ * try { ... }
+ * finally { event.complete("find", by, this); }
+ * 
+ * @author mburnside
+ */
+@Category("Automate It!")
+public abstract class FrameworkEvent extends Event {
+    
+    /**
+     * The framework operation
+     */
+    @Label("Operation")
+    protected String operation;
+    
+    /**
+     * The locator, coordinates or file the operation acts on
+     */
+    @Label("Locator")
+    @Description("The locator, coordinates or file the operation acts on")
+    protected String locator;
+    
+    /**
+     * The class name of the page/screen object executing the operation
+     */
+    @Label("Page Class")
+    protected String pageClass;
+    
+    /**
+     * Complete the operation and commit the event, if it is recorded.
+     * 
+     * @param operation
+     * @param locator
+     * @param page the page/screen object, may be null
+     */
+    public void complete(String operation, Object locator, Object page) {
+        
+        end();
+        
+        if(!shouldCommit()) return;
+        
+        this.operation = operation;
+        
+        this.locator = (locator == null) ? null : String.valueOf(locator);
+        
+        this.pageClass = (page == null) ? null : page.getClass().getName();
+        
+        commit();
+        
+    }
+    
+}
@@ -0,0 +1,220 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.metrics;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import io.prometheus.client.exporter.common.TextFormat;
+
+import org.apache.log4j.Logger;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class is an embedded HTTP endpoint (/metrics) that serves the live 
+ * Prometheus metrics of a running test suite, so Prometheus can scrape long 
+ * runs instead of receiving a push per test.
+ * 
+ * It is configured in automateit.properties:
+ * 
+ * metricsEndpointEnabled=false
+ * metricsEndpointPort=9404
+ * 
+ * @author mburnside
+ */
+public class MetricsEndpoint {
+    
+    /**
+     * Property for the port of the endpoint
+     */
+    public static final String METRICS_ENDPOINT_PORT = "metricsEndpointPort";
+    
+    /**
+     * The default port of the endpoint
+     */
+    public static final int DEFAULT_PORT = 9404;
+    
+    /**
+     * The path of the endpoint
+     */
+    public static final String PATH = "/metrics";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(MetricsEndpoint.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static MetricsEndpoint instance = new MetricsEndpoint();
+    
+    /**
+     * The HTTP server, null if not started
+     */
+    private HttpServer server = null;
+    
+    /**
+     * Default Constructor.
+     */
+    public MetricsEndpoint() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static MetricsEndpoint getInstance() { return instance; }
+    
+    /**
+     * Start the endpoint if it is enabled and not already started.
+     */
+    public synchronized void start() {
+        
+        if(server != null || !PrometheusMetrics.getInstance().isEnabled()) return;
+        
+        int port = DEFAULT_PORT;
+        
+        try { port = Integer.parseInt(CommonProperties.getInstance().get(METRICS_ENDPOINT_PORT).trim()); }
+        catch(Exception e) { }
+        
+        try {
+            
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            
+            server.createContext(PATH, new MetricsHandler());
+            
+            server.setExecutor(Executors.newSingleThreadExecutor(new ThreadFactory() {
+                
+                public Thread newThread(Runnable runnable) {
+                    
+                    Thread thread = new Thread(runnable, "metrics-endpoint");
+                    
+                    thread.setDaemon(true);
+                    
+                    return thread;
+                    
+                }
+                
+            }));
+            
+            // the server's dispatcher thread is a daemon only if it is started from a daemon
+            // thread, otherwise it would keep the JVM running after the tests complete
+            final HttpServer httpServer = server;
+            
+            Thread starter = new Thread("metrics-endpoint-start") {
+                
+                @Override
+                public void run() { httpServer.start(); }
+                
+            };
+            
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            
+            Runtime.getRuntime().addShutdownHook(new Thread("metrics-endpoint-shutdown") {
+                
+                @Override
+                public void run() { MetricsEndpoint.this.stop(); }
+                
+            });
+            
+            logger.info("Metrics endpoint started: http://localhost:" + port + PATH);
+            
+        }
+        catch(Exception e) { 
+            
+            logger.error("Unable to start the metrics endpoint on port: " + port, e); 
+            
+            server = null;
+        
+        }
+        
+    }
+    
+    /**
+     * Stop the endpoint.
+     */
+    public synchronized void stop() {
+        
+        if(server == null) return;
+        
+        server.stop(0);
+        
+        ((ExecutorService)server.getExecutor()).shutdownNow();
+        
+        server = null;
+        
+    }
+    
+    /**
+     * Return if the endpoint is started.
+     * 
+     * @return 
+     */
+    public synchronized boolean isStarted() { return server != null; }
+    
+    /**
+     * Writes the metrics in the Prometheus text format.
+     */
+    private static class MetricsHandler implements HttpHandler {
+        
+        /**
+         * Handle a scrape.
+         * 
+         * @param exchange
+         * 
+         * @throws java.io.IOException 
+         */
+        public void handle(HttpExchange exchange) throws java.io.IOException {
+            
+            try {
+                
+                exchange.getResponseHeaders().set("Content-Type", TextFormat.CONTENT_TYPE_004);
+                
+                exchange.sendResponseHeaders(200, 0);
+                
+                Writer writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+                
+                TextFormat.write004(writer, PrometheusMetrics.getInstance().getRegistry().metricFamilySamples());
+                
+                writer.flush();
+                
+            }
+            finally { exchange.close(); }
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,226 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.Histogram;
+
+import org.automateit.screenshot.ScreenshotSink;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class has the live Prometheus metrics of a running test suite: test 
+ * outcomes, page load times, framework command counts, web driver session 
+ * startup times and screenshots written. They are served by the MetricsEndpoint.
+ * 
+ * Nothing is recorded unless the endpoint is enabled in automateit.properties:
+ * 
+ * metricsEndpointEnabled=false
+ * 
+ * @author mburnside
+ */
+public class PrometheusMetrics {
+    
+    /**
+     * Property to enable the metrics endpoint (and recording the metrics)
+     */
+    public static final String METRICS_ENDPOINT_ENABLED = "metricsEndpointEnabled";
+    
+    /**
+     * The prefix of all metric names
+     */
+    public static final String PREFIX = "automateit_";
+    
+    /**
+     * The instance of this object
+     */
+    private static PrometheusMetrics instance = new PrometheusMetrics();
+    
+    /**
+     * The registry of the metrics, separate from the default registry
+     */
+    private final CollectorRegistry registry = new CollectorRegistry();
+    
+    /**
+     * If the metrics are recorded
+     */
+    private final boolean enabled;
+    
+    /**
+     * Test outcomes by result (passed, failed, skipped)
+     */
+    private final Counter tests = Counter.build().name(PREFIX + "tests_total").help("Tests run by result.").labelNames("result").register(registry);
+    
+    /**
+     * Test durations
+     */
+    private final Histogram testDuration = Histogram.build().name(PREFIX + "test_duration_seconds").help("Test duration in seconds.")
+            .buckets(1, 5, 10, 30, 60, 120, 300, 600, 1800).register(registry);
+    
+    /**
+     * Page load times by page
+     */
+    private final Histogram pageLoad = Histogram.build().name(PREFIX + "page_load_seconds").help("Page load time measured by the test in seconds.").labelNames("page")
+            .buckets(0.1, 0.25, 0.5, 1, 2, 4, 8, 16, 32).register(registry);
+    
+    /**
+     * Framework commands by command
+     */
+    private final Counter commands = Counter.build().name(PREFIX + "commands_total").help("Framework commands run by command.").labelNames("command").register(registry);
+    
+    /**
+     * Web driver session startup times
+     */
+    private final Histogram sessionStartup = Histogram.build().name(PREFIX + "driver_session_startup_seconds").help("Web driver session startup time in seconds.").labelNames("prewarmed")
+            .buckets(0.5, 1, 2, 4, 8, 16, 32, 64).register(registry);
+    
+    /**
+     * Default Constructor.
+     */
+    public PrometheusMetrics() { 
+        
+        this.enabled = Boolean.valueOf(CommonProperties.getInstance().get(METRICS_ENDPOINT_ENABLED));
+        
+        new ScreenshotCollector().register(registry);
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static PrometheusMetrics getInstance() { return instance; }
+    
+    /**
+     * Return if the metrics are recorded.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return enabled; }
+    
+    /**
+     * Get the registry of the metrics.
+     * 
+     * @return 
+     */
+    public CollectorRegistry getRegistry() { return registry; }
+    
+    /**
+     * Record a test outcome.
+     * 
+     * @param result passed, failed or skipped
+     * @param millis the duration of the test
+     */
+    public void recordTest(String result, long millis) {
+        
+        if(!enabled) return;
+        
+        tests.labels(result).inc();
+        
+        testDuration.observe(millis / 1000.0);
+        
+    }
+    
+    /**
+     * Record a page load.
+     * 
+     * @param pageName
+     * @param nanos 
+     */
+    public void recordPageLoad(String pageName, long nanos) {
+        
+        if(!enabled || pageName == null) return;
+        
+        pageLoad.labels(pageName).observe(nanos / (double)TimeUnit.SECONDS.toNanos(1));
+        
+    }
+    
+    /**
+     * Record a framework command. The command is the name before any arguments
+     * (e.g. "click" for "click: //a"), so the number of label values stays small.
+     * 
+     * @param command 
+     */
+    public void recordCommand(String command) {
+        
+        if(!enabled || command == null) return;
+        
+        int end = 0;
+        
+        while(end < command.length() && (Character.isLetterOrDigit(command.charAt(end)) || command.charAt(end) == '_')) end++;
+        
+        commands.labels((end == 0) ? "other" : command.substring(0, end)).inc();
+        
+    }
+    
+    /**
+     * Record the startup of a web driver session.
+     * 
+     * @param millis
+     * @param prewarmed 
+     */
+    public void recordSessionStartup(long millis, boolean prewarmed) {
+        
+        if(!enabled) return;
+        
+        sessionStartup.labels(String.valueOf(prewarmed)).observe(millis / 1000.0);
+        
+    }
+    
+    /**
+     * Reads the screenshot metrics when the metrics are scraped, so nothing is
+     * added to writing screenshots.
+     */
+    private static class ScreenshotCollector extends Collector {
+        
+        /**
+         * Get the screenshot metrics.
+         * 
+         * @return 
+         */
+        @Override
+        public List<MetricFamilySamples> collect() {
+            
+            ScreenshotSink sink = ScreenshotSink.getInstance();
+            
+            List<MetricFamilySamples> samples = new ArrayList<MetricFamilySamples>();
+            
+            samples.add(new CounterMetricFamily(PREFIX + "screenshots_written_total", "Screenshots written.", sink.getWrittenCount()));
+            samples.add(new CounterMetricFamily(PREFIX + "screenshot_bytes_written_total", "Screenshot bytes written.", sink.getWrittenBytes()));
+            samples.add(new CounterMetricFamily(PREFIX + "screenshot_writes_failed_total", "Screenshots that could not be written.", sink.getFailedCount()));
+            samples.add(new GaugeMetricFamily(PREFIX + "screenshot_writes_pending", "Screenshots waiting to be written.", sink.getPendingCount()));
+            
+            return samples;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,493 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.mobile;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.java_client.AppiumDriver;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import org.automateit.core.BooleanCapabilities;
+import org.automateit.core.SessionPrewarmer;
+import org.automateit.core.StringCapabilities;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class is a pool of Appium sessions, one per device, so tests can reuse 
+ * a running session instead of creating a new one (and reinstalling the app)
+ * for every test.
+ * 
+ * Before a pooled session is reused, the app is reset with a reset strategy:
+ * 
+ * none - leave the app as it is
+ * restart - terminate and activate the app
+ * clearData - reset the app (clears app data)
+ * reinstall - remove, install and activate the app
+ * 
+ * The strategy is chosen per test with <code>setResetStrategy</code>, or by 
+ * <code>setForAppReset</code> (true is reinstall, false is none), otherwise the 
+ * default in automateit.properties is used:
+ * 
+ * appiumSessionPoolEnabled=false
+ * appiumResetStrategy=restart
+ * 
+ * @author mburnside
+ */
+public class AppiumSessionPool {
+    
+    /**
+     * Property to enable the Appium session pool
+     */
+    public static final String APPIUM_SESSION_POOL_ENABLED = "appiumSessionPoolEnabled";
+    
+    /**
+     * Property for the default reset strategy
+     */
+    public static final String APPIUM_RESET_STRATEGY = "appiumResetStrategy";
+    
+    /**
+     * Reset strategy - leave the app as it is
+     */
+    public static final String RESET_NONE = "none";
+    
+    /**
+     * Reset strategy - terminate and activate the app
+     */
+    public static final String RESET_RESTART = "restart";
+    
+    /**
+     * Reset strategy - reset the app, clearing its data
+     */
+    public static final String RESET_CLEAR_DATA = "clearData";
+    
+    /**
+     * Reset strategy - remove, install and activate the app
+     */
+    public static final String RESET_REINSTALL = "reinstall";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(AppiumSessionPool.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static AppiumSessionPool instance = new AppiumSessionPool();
+    
+    /**
+     * If the pool is enabled
+     */
+    private final boolean enabled;
+    
+    /**
+     * The default reset strategy
+     */
+    private final String defaultResetStrategy;
+    
+    /**
+     * The reset strategy chosen for the next session on this thread
+     */
+    private final ThreadLocal<String> resetStrategy = new ThreadLocal<String>();
+    
+    /**
+     * The idle session for each device
+     */
+    private final Map<String, PooledSession> idle = new HashMap<String, PooledSession>();
+    
+    /**
+     * The leased sessions
+     */
+    private final Map<WebDriver, PooledSession> leased = new IdentityHashMap<WebDriver, PooledSession>();
+    
+    /**
+     * Metric - the number of leases
+     */
+    private final AtomicLong leaseCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of leases served by an idle session
+     */
+    private final AtomicLong hitCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of pooled sessions quit because a health check or reset failed
+     */
+    private final AtomicLong evictionCount = new AtomicLong(0);
+    
+    /**
+     * Default Constructor.
+     */
+    public AppiumSessionPool() {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        this.enabled = Boolean.valueOf(properties.get(APPIUM_SESSION_POOL_ENABLED));
+        
+        String strategy = properties.get(APPIUM_RESET_STRATEGY);
+        
+        this.defaultResetStrategy = (strategy == null || strategy.trim().length() == 0) ? RESET_RESTART : strategy.trim();
+        
+        Runtime.getRuntime().addShutdownHook(new Thread("appium-session-pool-shutdown") {
+            
+            @Override
+            public void run() { shutdown(); }
+            
+        });
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static AppiumSessionPool getInstance() { return instance; }
+    
+    /**
+     * Return if the pool is enabled.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return enabled; }
+    
+    /**
+     * Choose the reset strategy for the next session leased on this thread.
+     * 
+     * @param strategy 
+     */
+    public void setResetStrategy(String strategy) { resetStrategy.set(strategy); }
+    
+    /**
+     * Lease an Appium session for the device. An idle session for the device with 
+     * the same capabilities is reset and reused, otherwise a new session is created.
+     * 
+     * @param desiredCapabilities The capabilities of the session
+     * @param creator Creates a new session
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public AppiumDriver lease(DesiredCapabilities desiredCapabilities, Callable<WebDriver> creator) throws Exception {
+        
+        leaseCount.incrementAndGet();
+        
+        String deviceKey = getDeviceKey();
+        
+        String sessionKey = getSessionKey(desiredCapabilities);
+        
+        String strategy = getResetStrategy();
+        
+        PooledSession pooled = null;
+        
+        synchronized(this) { pooled = idle.remove(deviceKey); }
+        
+        try {
+            
+            if(pooled != null) {
+                
+                if(pooled.sessionKey.equals(sessionKey) && reset(pooled.driver, strategy)) {
+                    
+                    hitCount.incrementAndGet();
+                    
+                    synchronized(this) { leased.put(pooled.driver, pooled); }
+                    
+                    logger.info("Reusing pooled Appium session for device: " + deviceKey + ", reset strategy: " + strategy);
+                    
+                    return pooled.driver;
+                    
+                }
+                
+                // different capabilities or the reset failed, the device can only run one session
+                evictionCount.incrementAndGet();
+                
+                try { pooled.driver.quit(); }
+                catch(Exception e) { }
+                
+            }
+            
+            AppiumDriver driver = (AppiumDriver)SessionPrewarmer.getInstance().getWebDriver(deviceKey + "|" + sessionKey, creator);
+            
+            synchronized(this) { leased.put(driver, new PooledSession(deviceKey, sessionKey, driver)); }
+            
+            return driver;
+            
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Return a leased session to the pool, keeping it running for the next test
+     * on the device. A session that was not leased from this pool is quit.
+     * 
+     * @param driver 
+     */
+    public void release(WebDriver driver) {
+        
+        if(driver == null) return;
+        
+        PooledSession pooled = null;
+        
+        PooledSession replaced = null;
+        
+        synchronized(this) { 
+            
+            pooled = leased.remove(driver); 
+            
+            if(pooled != null) replaced = idle.put(pooled.deviceKey, pooled);
+        
+        }
+        
+        if(pooled == null) {
+            
+            try { driver.quit(); }
+            catch(Exception e) { }
+            
+        }
+        
+        if(replaced != null) {
+            
+            try { replaced.driver.quit(); }
+            catch(Exception e) { }
+            
+        }
+        
+    }
+    
+    /**
+     * Quit all idle sessions.
+     */
+    public void shutdown() {
+        
+        Map<String, PooledSession> sessions = null;
+        
+        synchronized(this) { sessions = new HashMap<String, PooledSession>(idle); idle.clear(); }
+        
+        for(PooledSession pooled: sessions.values()) {
+            
+            try { pooled.driver.quit(); }
+            catch(Exception e) { }
+            
+        }
+        
+    }
+    
+    /**
+     * Get the number of leases.
+     * 
+     * @return 
+     */
+    public long getLeaseCount() { return leaseCount.get(); }
+    
+    /**
+     * Get the number of leases served by an idle session.
+     * 
+     * @return 
+     */
+    public long getHitCount() { return hitCount.get(); }
+    
+    /**
+     * Get the number of pooled sessions quit because a health check or reset failed.
+     * 
+     * @return 
+     */
+    public long getEvictionCount() { return evictionCount.get(); }
+    
+    /**
+     * Get the metrics of the pool as a string for logging.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        return "Appium session pool [leases=" + getLeaseCount() + ", hits=" + getHitCount() + ", evictions=" + getEvictionCount() + "]";
+        
+    }
+    
+    /**
+     * Get the reset strategy for this lease: chosen for the test, chosen by 
+     * <code>setForAppReset</code>, or the default.
+     * 
+     * @return 
+     */
+    private String getResetStrategy() {
+        
+        String strategy = resetStrategy.get();
+        
+        resetStrategy.remove();
+        
+        if(strategy != null) return strategy;
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        if(properties.getForceAppResetInstall()) return properties.getReInstallApp() ? RESET_REINSTALL : RESET_NONE;
+        
+        return defaultResetStrategy;
+        
+    }
+    
+    /**
+     * Reset the app in a pooled session. This is also the health check of the session.
+     * 
+     * @param driver
+     * @param strategy
+     * 
+     * @return false if the session could not be reset
+     */
+    private boolean reset(AppiumDriver driver, String strategy) {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        String appId = properties.isAndroid() ? properties.get(StringCapabilities.APP_PACKAGE_CAPS.getCapability()) : properties.get(StringCapabilities.BUNDLE_ID.getCapability());
+        
+        try {
+            
+            // health check, a round trip to the device
+            driver.getOrientation();
+            
+            if(RESET_NONE.equalsIgnoreCase(strategy)) return true;
+            
+            if(RESET_CLEAR_DATA.equalsIgnoreCase(strategy)) { driver.resetApp(); return true; }
+            
+            if(appId == null) throw new Exception("The app package or bundle id is not configured, unable to " + strategy + " the app");
+            
+            if(RESET_RESTART.equalsIgnoreCase(strategy)) {
+                
+                driver.terminateApp(appId);
+                driver.activateApp(appId);
+                
+                return true;
+                
+            }
+            
+            if(RESET_REINSTALL.equalsIgnoreCase(strategy)) {
+                
+                String app = properties.get(StringCapabilities.APP.getCapability());
+                
+                if(app == null) throw new Exception("The app is not configured, unable to reinstall the app");
+                
+                driver.removeApp(appId);
+                driver.installApp(app);
+                driver.activateApp(appId);
+                
+                return true;
+                
+            }
+            
+            throw new Exception("Unknown Appium reset strategy: " + strategy);
+            
+        }
+        catch(Exception e) { 
+            
+            logger.warn("Unable to reset pooled Appium session, a new session will be created: " + e.getMessage());
+            
+            return false; 
+        
+        }
+        
+    }
+    
+    /**
+     * Get the key of the device: the Appium server plus the device udid or name.
+     * 
+     * @return 
+     */
+    private String getDeviceKey() {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        String device = properties.get(StringCapabilities.UDID.getCapability());
+        
+        if(device == null) device = properties.get(StringCapabilities.DEVICE_NAME.getCapability());
+        
+        return properties.get(StringCapabilities.URL.getCapability()) + "|" + device;
+        
+    }
+    
+    /**
+     * Get the key of the session capabilities, without the reset capabilities
+     * (the reset is done by the reset strategy).
+     * 
+     * @param desiredCapabilities
+     * 
+     * @return 
+     */
+    private String getSessionKey(DesiredCapabilities desiredCapabilities) {
+        
+        Map<String, Object> capabilities = new TreeMap<String, Object>(desiredCapabilities.asMap());
+        
+        capabilities.remove(BooleanCapabilities.NO_RESET.getCapability());
+        capabilities.remove(BooleanCapabilities.FULL_RESET.getCapability());
+        capabilities.remove(BooleanCapabilities.REINSTALL_APP.getCapability());
+        
+        return capabilities.toString();
+        
+    }
+    
+    /**
+     * An Appium session in the pool.
+     */
+    private static class PooledSession {
+        
+        /**
+         * The key of the device
+         */
+        private final String deviceKey;
+        
+        /**
+         * The key of the session capabilities
+         */
+        private final String sessionKey;
+        
+        /**
+         * The Appium session
+         */
+        private final AppiumDriver driver;
+        
+        /**
+         * Constructor
+         * 
+         * @param deviceKey
+         * @param sessionKey
+         * @param driver 
+         */
+        private PooledSession(String deviceKey, String sessionKey, AppiumDriver driver) {
+            
+            this.deviceKey = deviceKey;
+            this.sessionKey = sessionKey;
+            this.driver = driver;
+            
+        }
+        
+    }
+    
+}
@@ -27,13 +27,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
 
 import org.testng.Assert; 
 
 import org.openqa.selenium.By; 
+import org.openqa.selenium.WebDriver; 
 import org.openqa.selenium.WebElement; 
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.RemoteWebElement;
@@ -53,11 +54,16 @@ import io.appium.java_client.touch.WaitOptions;
 import io.appium.java_client.MobileElement;
 
 import org.automateit.core.Capabilities;
+import org.automateit.core.SessionPrewarmer;
 import org.automateit.core.ViewBase;
+import org.automateit.core.ElementAttributeFetcher;
+import org.automateit.core.WaitEngine;
 import org.automateit.core.BooleanCapabilities;
 import org.automateit.core.StringCapabilities;
 import org.automateit.data.DataDrivenInput;
+import org.automateit.jfr.GestureEvent;
 import org.automateit.core.CommonWebDriver;
+import org.automateit.util.ElementAttributesBean;
  
 /**
  * This class is the base class for all other screen classes to use.
@@ -159,7 +165,7 @@ public class BaseScreen extends ViewBase {
         
         createNewWebDriver();
             
-        this.driver.manage().timeouts().implicitlyWait(Long.valueOf(properties.get("timeout")), TimeUnit.SECONDS);
+        WaitEngine.getInstance().setImplicitWait(this.driver, Long.valueOf(properties.get("timeout")));
        
     }
     
@@ -246,9 +252,18 @@ public class BaseScreen extends ViewBase {
             
         commandList.addToList("tap: " + x + "," + y);
         
-        TouchAction touchAction = new TouchAction(this.driver);
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
+        
+        try {
+        
+            TouchAction touchAction = new TouchAction(this.driver);
             
-        touchAction.tap(PointOption.point(x, y)).perform();
+            touchAction.tap(PointOption.point(x, y)).perform();
+            
+        }
+        finally { event.complete("tap", x + "," + y, this); }
        
     }
     
@@ -271,9 +286,18 @@ public class BaseScreen extends ViewBase {
             
         commandList.addToList("tap: " + webelement);
         
-        TouchAction touchAction = new TouchAction(this.driver);
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
+        
+        try {
+        
+            TouchAction touchAction = new TouchAction(this.driver);
            
-        touchAction.tap(PointOption.point(webelement.getLocation().getX(), webelement.getLocation().getY())).perform();
+            touchAction.tap(PointOption.point(webelement.getLocation().getX(), webelement.getLocation().getY())).perform();
+            
+        }
+        finally { event.complete("tap", webelement, this); }
         
     }
     
@@ -291,6 +315,10 @@ public class BaseScreen extends ViewBase {
         commandList.addToList("tap: " + locator);
         
         TouchAction touchAction = new TouchAction(this.driver);
+        
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
             
         try { 
             
@@ -300,6 +328,7 @@ public class BaseScreen extends ViewBase {
         
         }
         catch(Exception e) { throw new BaseScreenException(e); }  
+        finally { event.complete("tap", locator, this); }
          
     }
     
@@ -338,9 +367,18 @@ public class BaseScreen extends ViewBase {
             
         commandList.addToList("scroll: start: " + startX + ":" + startY + ", end: " + endX + ":" + endY + ", duration: " + duration);
         
-        TouchAction touchAction = new TouchAction(this.driver);
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
+        
+        try {
+        
+            TouchAction touchAction = new TouchAction(this.driver);
            
-        touchAction.press(PointOption.point(startX, startY)).waitAction((new WaitOptions()).withDuration(Duration.ofSeconds(duration))).moveTo(PointOption.point(endX, endY)).release().perform(); 
+            touchAction.press(PointOption.point(startX, startY)).waitAction((new WaitOptions()).withDuration(Duration.ofSeconds(duration))).moveTo(PointOption.point(endX, endY)).release().perform(); 
+            
+        }
+        finally { event.complete("scroll", startX + "," + startY + "-" + endX + "," + endY, this); }
        
     }
     
@@ -364,13 +402,22 @@ public class BaseScreen extends ViewBase {
             
         commandList.addToList("Scroll Down");
         
-        JavascriptExecutor js = (JavascriptExecutor) driver;
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
+        
+        try {
+        
+            JavascriptExecutor js = (JavascriptExecutor) driver;
  
-        HashMap<String, String> scrollObject = new HashMap<String, String>();
+            HashMap<String, String> scrollObject = new HashMap<String, String>();
 
-        scrollObject.put("direction", "down");
+            scrollObject.put("direction", "down");
    
-        js.executeScript("mobile: scroll", scrollObject);
+            js.executeScript("mobile: scroll", scrollObject);
+            
+        }
+        finally { event.complete("scrollDown", null, this); }
 
     }
     
@@ -385,6 +432,10 @@ public class BaseScreen extends ViewBase {
             
         commandList.addToList("Scroll Up");
         
+        GestureEvent event = new GestureEvent();
+        
+        event.begin();
+        
         try {
              
             JavascriptExecutor js = (JavascriptExecutor) driver;
@@ -399,9 +450,35 @@ public class BaseScreen extends ViewBase {
             
         }
         catch(Exception e) { throw new BaseScreenException(e); }
-        
+        finally { event.complete("scrollUp", null, this); }
+
     }
-    
+
+    /**
+     * Find WebElements with the value of one attribute, from a copy of the
+     * screen if screen snapshots are enabled, so only the element the search
+     * settles on is found on the device.
+     *
+     * @param by
+     * @param attribute the attribute name, or ElementAttributeFetcher.TEXT for the visible text
+     *
+     * @return The web elements and their attributes
+     */
+    @Override
+    protected List<ElementAttributesBean> findElementsWithAttribute(By by, String attribute) {
+
+        if(ScreenSnapshotEngine.getInstance().isEnabled()) {
+
+            List<ElementAttributesBean> elements = ScreenSnapshotEngine.getInstance().find(this.driver, by, attribute);
+
+            if(elements != null) return elements;
+
+        }
+
+        return super.findElementsWithAttribute(by, attribute);
+
+    }
+
     /**
      * Return the web element matching the type and containing the text.
      * 
@@ -420,13 +497,11 @@ public class BaseScreen extends ViewBase {
         
         try {
              
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                if(!element.isDisplayed() || !element.isEnabled()) continue;
-               
-                String data1 = element.getAttribute("name");
+                String data1 = element.getValue();
                
                 if(data1 == null) continue;
                 
@@ -436,7 +511,8 @@ public class BaseScreen extends ViewBase {
                    
                 logger.info("Checking element text value: " + data + "|" + data.contains(text));
                 
-                if(data.contains(text)) return element;
+                // only ask if the element is displayed and enabled when its text matches
+                if(data.contains(text) && element.isUsable()) return element.getElement();
                 
             }
             
@@ -506,13 +582,11 @@ public class BaseScreen extends ViewBase {
         
         try {
              
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                if(!element.isDisplayed() || !element.isEnabled()) continue;
-               
-                String data1 = element.getAttribute("name");
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -522,11 +596,11 @@ public class BaseScreen extends ViewBase {
                    
                 logger.info("Checking element text value: " + data);
                 
-                if(data.contains(text)) {
+                if(data.contains(text) && element.isUsable()) {
                     
                     if(foundFirstOccurrance) {
                         
-                        element.click();
+                        element.getElement().click();
                         
                         delay(2000);
                       
@@ -563,11 +637,11 @@ public class BaseScreen extends ViewBase {
        
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -575,7 +649,7 @@ public class BaseScreen extends ViewBase {
                    
                 if(data.contains(text1) || data.contains(text2)) {
                    
-                    element.click();
+                    element.getElement().click();
                     
                     delay(2000);
                         
@@ -629,11 +703,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name");
+                String data = element.getValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -643,7 +717,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.toLowerCase().trim().equals(text.trim().toLowerCase())) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(2000);
                         
@@ -656,7 +730,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.trim().equals(text.trim())) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(2000);
                         
@@ -694,11 +768,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name");
+                String data = element.getValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -706,7 +780,7 @@ public class BaseScreen extends ViewBase {
                 
                 if(data.trim().equals(text1.trim()) || data.trim().equals(text2.trim())) {
                     
-                    element.click();
+                    element.getElement().click();
                     
                     delay(2000);
                         
@@ -761,13 +835,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                
                 if(element == null) continue;
                 
-                String data1 = element.getAttribute("name");
+                String data1 = element.getValue();
                 
                 if((data1 == null) || (data1.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -826,11 +900,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = this.driver.findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -885,13 +959,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(element == null) continue;
                 
-                String data1 = element.getText();
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -950,13 +1024,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "contentDescription");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(element == null) continue;
                 
-                String data1 = element.getAttribute("contentDescription");
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -1015,13 +1089,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "contentDescription");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(element == null) continue;
                 
-                String data1 = element.getAttribute("contentDescription");
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -1165,13 +1239,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "contentDescription");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(element == null) continue;
                 
-                String data1 = element.getAttribute("contentDescription");
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -1181,8 +1255,8 @@ public class BaseScreen extends ViewBase {
                 
                 logger.info("Checking text value of attribute: " + data);
                    
-                if(ignoreCase) { if(data.toLowerCase().contains(text.toLowerCase())) return element; }
-                else { if(data.contains(text)) return element; }
+                if(ignoreCase) { if(data.toLowerCase().contains(text.toLowerCase())) return element.getElement(); }
+                else { if(data.contains(text)) return element.getElement(); }
                 
             }
             
@@ -1209,13 +1283,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "contentDescription");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(element == null) continue;
                 
-                String data1 = element.getAttribute("contentDescription");
+                String data1 = element.getValue();
                 
                 if(data1 == null) continue;
                 
@@ -1229,7 +1303,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.toLowerCase().equals(text.toLowerCase())) {
                         
-                        return element;
+                        return element.getElement();
                     
                     } 
                     
@@ -1238,7 +1312,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.equals(text)) {
         
-                        return element;
+                        return element.getElement();
                 
                     }
                     
@@ -1290,11 +1364,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1453,13 +1527,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
           
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
                 if(!element.isDisplayed()) continue;
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1469,7 +1543,7 @@ public class BaseScreen extends ViewBase {
                 
                     if(data.toLowerCase().contains(text.toLowerCase())) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(3000);
                     
@@ -1482,7 +1556,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.contains(text)) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(3000);
                     
@@ -1538,11 +1612,11 @@ public class BaseScreen extends ViewBase {
         
         try {
           
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1552,7 +1626,7 @@ public class BaseScreen extends ViewBase {
                 
                     if(data.toLowerCase().equals(text.toLowerCase())) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(3000);
                     
@@ -1565,7 +1639,7 @@ public class BaseScreen extends ViewBase {
                     
                     if(data.equals(text)) {
                     
-                        element.click();
+                        element.getElement().click();
                     
                         delay(3000);
                     
@@ -1624,11 +1698,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1655,11 +1729,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1686,13 +1760,13 @@ public class BaseScreen extends ViewBase {
         
         try {
            
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1724,13 +1798,13 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1769,17 +1843,17 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                    
-                String value = element.getAttribute("name").trim();
+                String value = element.getTrimmedValue();
                  
                 if((value == null) || (value.trim().length() == 0)) continue; // null or blank, so ignore
                 
                 logger.info("Checking for " + value + "|" + text);
                
-                if(value.trim().equals(text)) return ((RemoteWebElement) element).getId();
+                if(value.trim().equals(text)) return ((RemoteWebElement) element.getElement()).getId();
                 
             }
           
@@ -1846,11 +1920,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(elementType));    
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(elementType), "name");    
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1881,11 +1955,11 @@ public class BaseScreen extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(elementType));    
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(elementType), "name");    
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1981,15 +2055,15 @@ public class BaseScreen extends ViewBase {
             
             commandList.addToList("getWebElementAtLocationByClassNameAndNameAttributeValue:" + className + "|" + name);
             
-            List<WebElement> elements = findElements(By.className(className));    
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");    
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
-                if(data.contains(name)) return element;
+                if(data.contains(name)) return element.getElement();
                 
             }
             
@@ -2017,17 +2091,17 @@ public class BaseScreen extends ViewBase {
             
             commandList.addToList("getWebElementAtLocationByClassNameAndValueAttributeValue:" + className + "|" + value);
             
-            List<WebElement> elements = findElements(By.className(className));    
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);    
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 //logger.info("Data found1: " + value + "|" + data);
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
-                if(data.trim().contains(value.trim())) return element;
+                if(data.trim().contains(value.trim())) return element.getElement();
                 
             }
             
@@ -2055,15 +2129,15 @@ public class BaseScreen extends ViewBase {
             
             commandList.addToList("getWebElementAtLocationByClassNameAndValueAttributeValue:" + className + "|" + value);
             
-            List<WebElement> elements = findElements(By.className(className));    
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);    
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
-                if(data.trim().equals(value.trim())) return element;
+                if(data.trim().equals(value.trim())) return element.getElement();
                 
             }
             
@@ -2257,17 +2331,17 @@ public class BaseScreen extends ViewBase {
         
         try {
           
-            List<WebElement> elements = findElements(By.className(elementType));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(elementType), attributeName);
             
-            for (WebElement element:elements) {
+            for (ElementAttributesBean element:elements) {
                    
                 try {
                    
-                    String value = element.getAttribute(attributeName).trim();
+                    String value = element.getTrimmedValue();
                   
                     if((value == null) || (value.trim().length() == 0)) continue; // null or blank, so ignore
                  
-                    if(value.trim().equals(attributeValue)) return element;
+                    if(value.trim().equals(attributeValue)) return element.getElement();
                 }
                 catch(Exception e2) { }
              
@@ -2434,13 +2508,13 @@ public class BaseScreen extends ViewBase {
             
             if(properties.isAndroid()) webElement.click();
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
             webElement.sendKeys(text);
             
             minimizeKeyboard();
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
            
         }
         catch(Exception e) { printDOM(); throw new BaseScreenException(e); }
@@ -2469,11 +2543,11 @@ public class BaseScreen extends ViewBase {
             
             if(text == null) return;
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
             webElement.sendKeys(text);
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
         }
         catch(Exception e) { printDOM(); throw new BaseScreenException(e); }
@@ -2504,11 +2578,11 @@ public class BaseScreen extends ViewBase {
             
             webElement.click();
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
             webElement.sendKeys(text);
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
         }
         catch(Exception e) { printDOM(); throw new BaseScreenException(e); }
@@ -2564,13 +2638,13 @@ public class BaseScreen extends ViewBase {
             
             if(properties.isAndroid()) webElement.click();
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
             
             webElement.sendKeys(text);
             
             minimizeKeyboard();
             
-            try { Thread.sleep(1000); } catch(Exception e) { }
+            delay(1000);
            
         }
         catch(Exception e) { printDOM(); throw new BaseScreenException(e); }
@@ -2853,7 +2927,7 @@ public class BaseScreen extends ViewBase {
                     elements.get(0).getLocation().getX(),
                     elements.get(0).getLocation().getY());
 
-            List<WebElement> newElements = this.driver.findElements(By.className(className));
+            List<WebElement> newElements = findElements(By.className(className));
 
             List<String> newOptions = new ArrayList<String>();
             
@@ -2954,7 +3028,7 @@ public class BaseScreen extends ViewBase {
             commandList.addToList("searchAndSelectTextFromDropDown:" + text + "|" + className);
 
             // fetch all visible options found in drop down
-            List<WebElement> elements = this.driver.findElements(By.className(className));
+            List<WebElement> elements = findElements(By.className(className));
 
 	    try { webElement = getWebElementAtLocationByClassNameAndValueAttributeValue(className, text); }
             catch (Exception e) { }
@@ -3062,16 +3136,14 @@ public class BaseScreen extends ViewBase {
         
         try {
              
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), attributeName);
             
             logger.debug("Elements found for classname: " + className + "|" + elements);
             logger.debug("Number of elements found for classname: " + className + "|" + elements.size());
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                if(!element.isDisplayed() || !element.isEnabled()) continue;
-               
-                String data1 = element.getAttribute(attributeName);
+                String data1 = element.getValue();
                 
                 logger.debug("data1 value:" + data1);
                 
@@ -3083,7 +3155,7 @@ public class BaseScreen extends ViewBase {
                    
                 logger.debug("Checking element text value: " + data);
                 
-                if(data.contains(text)) return;
+                if(data.contains(text) && element.isUsable()) return;
                 
             }
             
@@ -3272,15 +3344,37 @@ public class BaseScreen extends ViewBase {
         
         try {
             
+            // keep the session running for the next test on this device
+            if(AppiumSessionPool.getInstance().isEnabled()) {
+                
+                AppiumSessionPool.getInstance().release(this.driver);
+                
+                logger.info("Webdriver returned to the session pool");
+                
+                return;
+                
+            }
+            
             if(this.driver != null) driver.quit(); 
             
             logger.info("Webdriver closed");
             
+            // the device is free now, start the session for the next test
+            SessionPrewarmer.getInstance().prewarmLast();
+            
         }
         catch(Exception e) { }
         
     }
     
+    /**
+     * Choose how the app is reset when the next test reuses a pooled session
+     * on the device (none, restart, clearData, reinstall).
+     * 
+     * @param strategy 
+     */
+    public void setAppResetStrategy(String strategy) { AppiumSessionPool.getInstance().setResetStrategy(strategy); }
+    
     /**
      * Allow for setting the timeout manually (if needed)
      * 
@@ -3293,7 +3387,7 @@ public class BaseScreen extends ViewBase {
         try { 
             
             logger.info("The timeout value is set to (seconds): " + timeout);
-            driver.manage().timeouts().implicitlyWait(Long.valueOf(timeout), TimeUnit.SECONDS);
+            WaitEngine.getInstance().setImplicitWait(driver, Long.valueOf(timeout));
         
         }
         catch(Exception e) { throw new BaseScreenException(e); }
@@ -3353,8 +3447,26 @@ public class BaseScreen extends ViewBase {
                 
             }
             
-            if(properties.isAndroid()) this.driver = new AndroidDriver(new URL(properties.get(StringCapabilities.URL.getCapability())), desiredCapabilities);
-            else this.driver = new IOSDriver(new URL(properties.get(StringCapabilities.URL.getCapability())), desiredCapabilities);
+            final URL url = new URL(properties.get(StringCapabilities.URL.getCapability()));
+            
+            final DesiredCapabilities sessionCapabilities = desiredCapabilities;
+            
+            final boolean android = properties.isAndroid();
+            
+            Callable<WebDriver> creator = new Callable<WebDriver>() {
+                
+                public WebDriver call() throws Exception {
+                    
+                    if(android) return new AndroidDriver(url, sessionCapabilities);
+                    else return new IOSDriver(url, sessionCapabilities);
+                    
+                }
+                
+            };
+            
+            // reuses a pooled session for the device, or a pre-warmed session if there is one, and records the startup time
+            if(AppiumSessionPool.getInstance().isEnabled()) this.driver = (AppiumDriver<WebElement>)AppiumSessionPool.getInstance().lease(desiredCapabilities, creator);
+            else this.driver = (AppiumDriver<WebElement>)SessionPrewarmer.getInstance().getWebDriver(url + "|" + desiredCapabilities.asMap(), creator);
             
             setTimeout();
             
@@ -3363,7 +3475,7 @@ public class BaseScreen extends ViewBase {
             hasBeenInitialized = true;
             
             logger.info("Successfully made new web driver instance, now set the timeout value: " + properties.get("timeout"));
-            this.driver.manage().timeouts().implicitlyWait(Long.valueOf(properties.get("timeout")), TimeUnit.SECONDS);
+            WaitEngine.getInstance().setImplicitWait(this.driver, Long.valueOf(properties.get("timeout")));
           
             logger.info("New webdriver created successfully: " + this.driver);
             
@@ -3550,7 +3662,7 @@ public class BaseScreen extends ViewBase {
             
             delay(5000);
    
-            List<WebElement> allnotifications = this.driver.findElements(By.id("android:id/title"));
+            List<WebElement> allnotifications = findElements(By.id("android:id/title"));
    
             logger.info("Number of notifications: " + allnotifications.size());
  
@@ -0,0 +1,263 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.mobile;
+
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.automateit.util.ScreenNodeBean;
+
+/**
+ * This class is a copy of the screen of a mobile app, parsed from the page 
+ * source in one pass. The elements are indexed by class name, name, value, 
+ * content description and resource id, so element queries are answered 
+ * without a round trip to the Appium server.
+ * 
+ * @author mburnside
+ */
+public class ScreenSnapshot {
+    
+    /**
+     * All the elements, in document order
+     */
+    private final List<ScreenNodeBean> nodes = new ArrayList<ScreenNodeBean>();
+    
+    /**
+     * The elements by class name
+     */
+    private final Map<String, List<ScreenNodeBean>> byClassName = new HashMap<String, List<ScreenNodeBean>>();
+    
+    /**
+     * The elements by name
+     */
+    private final Map<String, List<ScreenNodeBean>> byName = new HashMap<String, List<ScreenNodeBean>>();
+    
+    /**
+     * The elements by value
+     */
+    private final Map<String, List<ScreenNodeBean>> byValue = new HashMap<String, List<ScreenNodeBean>>();
+    
+    /**
+     * The elements by content description
+     */
+    private final Map<String, List<ScreenNodeBean>> byContentDescription = new HashMap<String, List<ScreenNodeBean>>();
+    
+    /**
+     * The elements by resource id
+     */
+    private final Map<String, List<ScreenNodeBean>> byResourceId = new HashMap<String, List<ScreenNodeBean>>();
+    
+    /**
+     * When (nano-sec) the page source was taken
+     */
+    private final long taken = System.nanoTime();
+    
+    /**
+     * The number of commands that may have changed the screen when the page source was taken, -1 if not counted
+     */
+    private final long screenChangeCount;
+    
+    /**
+     * Constructor
+     * 
+     * @param pageSource
+     * @param screenChangeCount the number of commands that may have changed the screen, -1 if not counted
+     * 
+     * @throws Exception 
+     */
+    public ScreenSnapshot(String pageSource, long screenChangeCount) throws Exception {
+        
+        this.screenChangeCount = screenChangeCount;
+        
+        try { parse(pageSource); }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Parse the page source and index its elements.
+     * 
+     * @param pageSource
+     * 
+     * @throws Exception 
+     */
+    private void parse(String pageSource) throws Exception {
+        
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        
+        // the page source never needs a DTD or external entities
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        
+        SAXParser parser = factory.newSAXParser();
+        
+        final Map<String, Integer> positions = new HashMap<String, Integer>();
+        
+        parser.parse(new InputSource(new StringReader(pageSource)), new DefaultHandler() {
+            
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                
+                Integer position = positions.get(qName);
+                
+                position = (position == null) ? 1 : position + 1;
+                
+                positions.put(qName, position);
+                
+                ScreenNodeBean node = new ScreenNodeBean(qName, position);
+                
+                for(int i = 0; i < attributes.getLength(); i++) node.setAttribute(attributes.getQName(i), attributes.getValue(i));
+                
+                add(node);
+                
+            }
+            
+        });
+        
+    }
+    
+    /**
+     * Add an element and index it.
+     * 
+     * @param node 
+     */
+    private void add(ScreenNodeBean node) {
+        
+        nodes.add(node);
+        
+        index(byClassName, node.getClassName(), node);
+        index(byName, node.getName(), node);
+        index(byValue, node.getValue(), node);
+        index(byContentDescription, node.getContentDescription(), node);
+        index(byResourceId, node.getResourceId(), node);
+        
+    }
+    
+    /**
+     * Add an element to an index.
+     * 
+     * @param index
+     * @param key
+     * @param node 
+     */
+    private void index(Map<String, List<ScreenNodeBean>> index, String key, ScreenNodeBean node) {
+        
+        if(key == null) return;
+        
+        List<ScreenNodeBean> list = index.get(key);
+        
+        if(list == null) index.put(key, list = new ArrayList<ScreenNodeBean>());
+        
+        list.add(node);
+        
+    }
+    
+    /**
+     * Look up an index.
+     * 
+     * @param index
+     * @param key
+     * 
+     * @return the elements, empty if there are none
+     */
+    private List<ScreenNodeBean> lookup(Map<String, List<ScreenNodeBean>> index, String key) {
+        
+        List<ScreenNodeBean> list = index.get(key);
+        
+        return (list == null) ? Collections.<ScreenNodeBean>emptyList() : Collections.unmodifiableList(list);
+        
+    }
+    
+    /**
+     * Get all the elements, in document order.
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodes() { return Collections.unmodifiableList(nodes); }
+    
+    /**
+     * Get the elements with the class name, in document order.
+     * 
+     * @param className
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodesByClassName(String className) { return lookup(byClassName, className); }
+    
+    /**
+     * Get the elements with the name, in document order.
+     * 
+     * @param name
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodesByName(String name) { return lookup(byName, name); }
+    
+    /**
+     * Get the elements with the value, in document order.
+     * 
+     * @param value
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodesByValue(String value) { return lookup(byValue, value); }
+    
+    /**
+     * Get the elements with the content description, in document order.
+     * 
+     * @param contentDescription
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodesByContentDescription(String contentDescription) { return lookup(byContentDescription, contentDescription); }
+    
+    /**
+     * Get the elements with the resource id, in document order.
+     * 
+     * @param resourceId
+     * 
+     * @return 
+     */
+    public List<ScreenNodeBean> getNodesByResourceId(String resourceId) { return lookup(byResourceId, resourceId); }
+    
+    /**
+     * Get how long ago (milli-sec) the page source was taken.
+     * 
+     * @return 
+     */
+    public long getAge() { return (System.nanoTime() - taken) / 1000000; }
+    
+    /**
+     * Get the number of commands that may have changed the screen when the page source was taken.
+     * 
+     * @return the number of commands, -1 if not counted
+     */
+    public long getScreenChangeCount() { return this.screenChangeCount; }
+    
+}
@@ -0,0 +1,359 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.mobile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import org.automateit.core.ElementAttributeFetcher;
+import org.automateit.core.TimingCommandExecutor;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.ElementAttributesBean;
+import org.automateit.util.ScreenNodeBean;
+
+/**
+ * This class answers the element queries of the mobile screens (e.g. find the 
+ * TextView containing some text) from a copy of the screen instead of asking 
+ * the Appium server about each element. The page source is taken once and 
+ * parsed into a ScreenSnapshot, and the device is only asked for the element 
+ * a query settles on, to act on it.
+ * 
+ * The copy is taken again after any command that may have changed the screen
+ * (taps, gestures, text input, ...), which are counted as they are sent to the
+ * Appium server, and once it is older than the maximum age, since apps also 
+ * change the screen by themselves. It is configured in automateit.properties:
+ * 
+ * screenSnapshot=false
+ * screenSnapshotMaxAge=1000
+ * 
+ * @author mburnside
+ */
+public class ScreenSnapshotEngine {
+    
+    /**
+     * Property for if the element queries are answered from a copy of the screen
+     */
+    public static final String SCREEN_SNAPSHOT = "screenSnapshot";
+    
+    /**
+     * Property for the maximum age (milli-sec) of a copy of the screen
+     */
+    public static final String SCREEN_SNAPSHOT_MAX_AGE = "screenSnapshotMaxAge";
+    
+    /**
+     * The default maximum age (milli-sec) of a copy of the screen
+     */
+    private static final long DEFAULT_MAX_AGE = 1000;
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ScreenSnapshotEngine.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ScreenSnapshotEngine instance = new ScreenSnapshotEngine();
+    
+    /**
+     * The copy of the screen of each web driver
+     */
+    private final Map<WebDriver, ScreenSnapshot> snapshots = Collections.synchronizedMap(new WeakHashMap<WebDriver, ScreenSnapshot>());
+    
+    /**
+     * The number of copies of the screen taken
+     */
+    private final AtomicLong snapshotCount = new AtomicLong();
+    
+    /**
+     * The time (nano-sec) spent taking and parsing the copies of the screen
+     */
+    private final AtomicLong snapshotTime = new AtomicLong();
+    
+    /**
+     * The number of queries answered from a copy of the screen
+     */
+    private final AtomicLong queryCount = new AtomicLong();
+    
+    /**
+     * The number of web elements found on the device for the queries
+     */
+    private final AtomicLong elementLookupCount = new AtomicLong();
+    
+    /**
+     * Default Constructor.
+     */
+    public ScreenSnapshotEngine() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ScreenSnapshotEngine getInstance() { return instance; }
+    
+    /**
+     * Return if the element queries are answered from a copy of the screen.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        String enabled = CommonProperties.getInstance().get(SCREEN_SNAPSHOT);
+        
+        return (enabled != null) && Boolean.valueOf(enabled.trim());
+        
+    }
+    
+    /**
+     * Get the copy of the screen of the web driver, taking it again if the 
+     * screen may have changed since it was taken.
+     * 
+     * @param driver
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public ScreenSnapshot getSnapshot(WebDriver driver) throws Exception {
+        
+        ScreenSnapshot snapshot = snapshots.get(driver);
+        
+        if((snapshot != null) && isCurrent(driver, snapshot)) return snapshot;
+        
+        long start = System.nanoTime();
+        
+        try {
+            
+            // count the commands that change the screen from now on
+            TimingCommandExecutor.install(driver);
+            
+            snapshot = new ScreenSnapshot(driver.getPageSource(), TimingCommandExecutor.getScreenChangeCount(driver));
+            
+            snapshots.put(driver, snapshot);
+            
+            snapshotCount.incrementAndGet();
+            
+            return snapshot;
+            
+        }
+        catch(Exception e) { throw e; }
+        finally { snapshotTime.addAndGet(System.nanoTime() - start); }
+        
+    }
+    
+    /**
+     * Drop the copy of the screen of the web driver.
+     * 
+     * @param driver 
+     */
+    public void invalidate(WebDriver driver) { snapshots.remove(driver); }
+    
+    /**
+     * Find the elements for the locator with the value of an attribute, from
+     * the copy of the screen.
+     * 
+     * @param driver
+     * @param by a class name, id or name locator
+     * @param attribute the attribute name, or ElementAttributeFetcher.TEXT for the visible text
+     * 
+     * @return the elements in document order, null if the locator is not supported or there are no elements for it
+     */
+    public List<ElementAttributesBean> find(WebDriver driver, By by, String attribute) {
+        
+        try {
+            
+            List<ScreenNodeBean> nodes = getNodes(getSnapshot(driver), by);
+            
+            if((nodes == null) || nodes.isEmpty()) { 
+                
+                // the screen may still be loading, the caller finds the elements on the device and waits for them
+                invalidate(driver);
+                
+                return null;
+                
+            }
+            
+            queryCount.incrementAndGet();
+            
+            List<ElementAttributesBean> elements = new ArrayList<ElementAttributesBean>(nodes.size());
+            
+            for(ScreenNodeBean node: nodes) elements.add(new SnapshotElementBean(driver, node, getAttribute(node, attribute)));
+            
+            return elements;
+            
+        }
+        catch(Exception e) { 
+            
+            logger.debug("Unable to answer the query from a copy of the screen: " + by + "|" + e);
+            
+            invalidate(driver);
+            
+            return null; 
+        
+        }
+        
+    }
+    
+    /**
+     * Count a web element found on the device for a query.
+     */
+    public void addElementLookup() { elementLookupCount.incrementAndGet(); }
+    
+    /**
+     * Get the metrics of the copies of the screen.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        long count = snapshotCount.get();
+        
+        return "Screen snapshots: " + count + " taken (average " + ((count == 0) ? 0 : (snapshotTime.get() / count / 1000000)) + " ms), " 
+                + queryCount.get() + " queries answered, " + elementLookupCount.get() + " elements found on the device";
+        
+    }
+    
+    /**
+     * Clear the copies of the screen and the metrics.
+     */
+    public void clear() {
+        
+        snapshots.clear();
+        snapshotCount.set(0);
+        snapshotTime.set(0);
+        queryCount.set(0);
+        elementLookupCount.set(0);
+        
+    }
+    
+    /**
+     * Check if the screen can not have changed since the copy was taken.
+     * 
+     * @param driver
+     * @param snapshot
+     * 
+     * @return 
+     */
+    private boolean isCurrent(WebDriver driver, ScreenSnapshot snapshot) {
+        
+        if(snapshot.getAge() > getMaxAge()) return false;
+        
+        long screenChangeCount = snapshot.getScreenChangeCount();
+        
+        return (screenChangeCount >= 0) && (screenChangeCount == TimingCommandExecutor.getScreenChangeCount(driver));
+        
+    }
+    
+    /**
+     * Get the elements for a class name, id or name locator.
+     * 
+     * @param snapshot
+     * @param by
+     * 
+     * @return the elements, null if the locator is not supported
+     */
+    private List<ScreenNodeBean> getNodes(ScreenSnapshot snapshot, By by) {
+        
+        String locator = by.toString();
+        
+        int colon = locator.indexOf(": ");
+        
+        if(colon < 0) return null;
+        
+        String value = locator.substring(colon + 2);
+        
+        if(by instanceof By.ByClassName) return snapshot.getNodesByClassName(value);
+        
+        if(by instanceof By.ByName) return snapshot.getNodesByName(value);
+        
+        if(by instanceof By.ById) {
+            
+            List<ScreenNodeBean> nodes = snapshot.getNodesByResourceId(value);
+            
+            if(!nodes.isEmpty()) return nodes;
+            
+            // an Android resource id may be given without the package, an iOS id is the accessibility id (name)
+            nodes = new ArrayList<ScreenNodeBean>();
+            
+            for(ScreenNodeBean node: snapshot.getNodes()) {
+                
+                String resourceId = node.getResourceId();
+                
+                if((resourceId != null) && resourceId.endsWith(":id/" + value)) nodes.add(node);
+                
+            }
+            
+            return nodes.isEmpty() ? snapshot.getNodesByName(value) : nodes;
+            
+        }
+        
+        return null;
+        
+    }
+    
+    /**
+     * Get an attribute of an element as Appium would return it.
+     * 
+     * @param node
+     * @param attribute
+     * 
+     * @return 
+     */
+    private String getAttribute(ScreenNodeBean node, String attribute) {
+        
+        if(ElementAttributeFetcher.TEXT.equals(attribute)) return node.getText();
+        
+        if("name".equals(attribute)) return node.getName();
+        
+        if("value".equals(attribute)) return node.getValue();
+        
+        if("contentDescription".equals(attribute) || "content-desc".equals(attribute)) return node.getContentDescription();
+        
+        if("resourceId".equals(attribute) || "resource-id".equals(attribute)) return node.getResourceId();
+        
+        if("className".equals(attribute) || "class".equals(attribute)) return node.getClassName();
+        
+        return node.getAttribute(attribute);
+        
+    }
+    
+    /**
+     * Get the maximum age (milli-sec) of a copy of the screen.
+     * 
+     * @return 
+     */
+    private long getMaxAge() {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(SCREEN_SNAPSHOT_MAX_AGE).trim()); }
+        catch(Exception e) { return DEFAULT_MAX_AGE; }
+        
+    }
+    
+}
@@ -0,0 +1,140 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.mobile;
+
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import org.automateit.util.ElementAttributesBean;
+import org.automateit.util.ScreenNodeBean;
+
+/**
+ * This class is an element of a copy of the screen with the value of one of 
+ * its attributes. The web element is only found on the device when it is 
+ * asked for, i.e. for the element a search settles on.
+ * 
+ * @author mburnside
+ */
+public class SnapshotElementBean extends ElementAttributesBean {
+    
+    /**
+     * The web driver that finds the web element
+     */
+    private WebDriver driver = null;
+    
+    /**
+     * The element in the copy of the screen
+     */
+    private ScreenNodeBean node = null;
+    
+    /**
+     * The web element, null until it is asked for
+     */
+    private WebElement element = null;
+    
+    /**
+     * Constructor
+     * 
+     * @param driver
+     * @param node
+     * @param value 
+     */
+    public SnapshotElementBean(WebDriver driver, ScreenNodeBean node, String value) { 
+        
+        super(null, value, node.isDisplayed(), node.isEnabled());
+        
+        this.driver = driver;
+        this.node = node;
+        
+    }
+    
+    /**
+     * Get the element in the copy of the screen.
+     * 
+     * @return 
+     */
+    public ScreenNodeBean getNode() { return this.node; }
+    
+    /**
+     * Get the web element the first time it is asked for, by its position among
+     * the elements of its type and the attribute value it was matched on. The copy
+     * of the screen may be old, so if the element at that position no longer has
+     * the value, the screen changed and the element is found by its value instead.
+     * 
+     * @return 
+     * 
+     * @throws NoSuchElementException if no element has the value any more
+     */
+    @Override
+    public WebElement getElement() { 
+        
+        if(this.element == null) {
+            
+            ScreenSnapshotEngine.getInstance().addElementLookup();
+            
+            String name = this.node.getAttributeName(getValue());
+            
+            String predicate = (name == null) ? "" : "[@" + name + "=" + toLiteral(getValue()) + "]";
+            
+            List<WebElement> elements = this.driver.findElements(By.xpath("(//" + this.node.getTagName() + ")[" + this.node.getPosition() + "]" + predicate));
+            
+            if(elements.isEmpty() && (name != null)) {
+                
+                // the screen changed since the copy was taken
+                ScreenSnapshotEngine.getInstance().invalidate(this.driver);
+                
+                elements = this.driver.findElements(By.xpath("//" + this.node.getTagName() + predicate));
+                
+            }
+            
+            if(elements.isEmpty()) throw new NoSuchElementException("Element is no longer on the screen: " + this);
+            
+            this.element = elements.get(0);
+            
+        }
+        
+        return this.element;
+        
+    }
+    
+    /**
+     * Quote a value as an XPath string literal.
+     * 
+     * @param value
+     * 
+     * @return 
+     */
+    private String toLiteral(String value) {
+        
+        if(!value.contains("'")) return "'" + value + "'";
+        
+        if(!value.contains("\"")) return "\"" + value + "\"";
+        
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+        
+    }
+    
+    @Override
+    public String toString() { return this.node.getTagName() + "[" + this.node.getPosition() + "] " + super.toString(); }
+    
+}
@@ -26,7 +26,6 @@ import java.io.File;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import org.openqa.selenium.remote.DesiredCapabilities;
 
@@ -42,7 +41,6 @@ import org.openqa.selenium.remote.RemoteWebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import io.appium.java_client.remote.MobileCapabilityType;
 
@@ -51,16 +49,24 @@ import io.appium.java_client.android.AndroidElement;
 
 import org.apache.log4j.Logger;
 
+import org.automateit.core.ElementAttributeFetcher;
 import org.automateit.core.ViewBase;
+import org.automateit.core.WaitEngine;
 
 import org.automateit.util.CommandList;
 import org.automateit.util.CommonProperties;
+import org.automateit.util.ElementAttributesBean;
 import org.automateit.util.PerformanceCapture;
+import org.automateit.util.PerformanceCaptureBean;
 import org.automateit.util.ScreenshotCapture;
+import org.automateit.util.SleepProfiler;
 import org.automateit.util.Utils;
 
 import org.automateit.core.StringCapabilities;
 import org.automateit.core.BooleanCapabilities;
+
+import org.automateit.web.NavigationTimingCapture;
+import org.automateit.web.PageReadinessProbe;
       
 /**
  * This class is the base class for all other screen classes to use.
@@ -536,8 +542,10 @@ public class MobileWebPageBase extends ViewBase {
             if(locator == null) throw new Exception("Unable to enter data because xpath locator value is null");
             if(value != null) {
                 
-                this.driver.findElement(By.xpath(locator)).sendKeys(value);
-                this.driver.findElement(By.xpath(locator)).sendKeys(Keys.RETURN);
+                WebElement element = find(By.xpath(locator));
+                
+                element.sendKeys(value);
+                element.sendKeys(Keys.RETURN);
                 
             } 
         
@@ -591,7 +599,7 @@ public class MobileWebPageBase extends ViewBase {
           
             waitForConditionElementXPathPresent(locator, timeout);
                 
-            this.driver.findElement(By.xpath(locator)).sendKeys(value);
+            find(By.xpath(locator)).sendKeys(value);
            
         }
         catch(Exception e) { printDOM(); throw new Exception(e); }
@@ -638,9 +646,10 @@ public class MobileWebPageBase extends ViewBase {
         
         commandList.addToList("enterTextIntoFileChooser2: " + value);
         
-        try { driver.findElement(By.id("inputFile")).sendKeys(value); }
+        try { find(By.id("inputFile")).sendKeys(value); }
         catch(Exception e) { 
             
+            // the lookup above already waited, only check once without another wait or screenshot
             try { driver.findElement(By.xpath("//input[@type='file']")); }
             catch(Exception le) { printDOM(); throw new Exception(le); }
             
@@ -745,7 +754,10 @@ public class MobileWebPageBase extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.id(elementId)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.id(elementId), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw e; }
@@ -772,7 +784,10 @@ public class MobileWebPageBase extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.xpath(xpath), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw e; }
@@ -799,7 +814,10 @@ public class MobileWebPageBase extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.className(classname)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.className(classname), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw e; }
@@ -935,7 +953,13 @@ public class MobileWebPageBase extends ViewBase {
         
         commandList.addToList("check: " + locator);
         
-        try { if(!find(By.xpath(locator)).isSelected()) find(By.xpath(locator)).click(); }
+        try { 
+            
+            WebElement element = find(By.xpath(locator));
+            
+            if(!element.isSelected()) element.click(); 
+        
+        }
         catch(Exception e) { throw e; }
     
     }
@@ -1070,14 +1094,7 @@ public class MobileWebPageBase extends ViewBase {
         
         logger.info("Sleep/delay for " + millis + " milliseconds");
         
-        try {        	
-        	
-            Thread.sleep(millis);
-        
-            PerformanceCapture.getInstance().addSleepTime(millis);        	
-       	
-        }
-        catch(Exception e) { }
+        SleepProfiler.getInstance().sleep(millis);
         
     }
     
@@ -1087,8 +1104,18 @@ public class MobileWebPageBase extends ViewBase {
     public void stopPerformanceCapturePageLoaded() {
         
         logger.debug("Stopping perfromance capture after page is loaded");
-            	    
-    	stopPerformanceCapture(getPageName());        
+        
+        PerformanceCaptureBean bean = PerformanceCapture.getInstance().finish(getPageName());
+        
+        if(bean != null) {
+            
+            // one javascript call for the browser's own breakdown of the page load, after the end time is taken
+            bean.setNavigationTiming(NavigationTimingCapture.getInstance().capture(driver));
+            
+            PerformanceCapture.getInstance().record(bean);
+            
+        }
+        else stopPerformanceCapture(getPageName());        
     
     }
     
@@ -1122,13 +1149,13 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
           
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             logger.info("count:" + elements.size());
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-            	String data = element.getAttribute("name").trim();//element.getText().trim();
+            	String data = element.getTrimmedValue();//element.getText().trim();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1136,7 +1163,7 @@ public class MobileWebPageBase extends ViewBase {
                    
                 if(data.contains(text)) {
                     
-                    element.click();
+                    element.getElement().click();
                       
                     return;
                 
@@ -1169,17 +1196,17 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.contains(text1) && data.contains(text2)) {
                    
-                    element.click();
+                    element.getElement().click();
                        
                     return;
                 
@@ -1211,17 +1238,17 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
         
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
                 if(data.equals(text.trim())) {
                    
-                    element.click();
+                    element.getElement().click();
                        
                     return;
                 
@@ -1253,15 +1280,15 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
             logger.info("Elements size: " + elements.size());
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
                 logger.info(element);
                 
-                String data = element.getText();
+                String data = element.getValue();
                 
                 if(data != null) data.trim();
                 
@@ -1297,11 +1324,11 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1333,11 +1360,11 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1369,11 +1396,11 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1405,17 +1432,17 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
           
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.contains(text)) {
                    
-                    element.click();
+                    element.getElement().click();
                    
                     return;
                     
@@ -1447,17 +1474,17 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.equals(text)) {
                     
-                    element.click();
+                    element.getElement().click();
                    
                     return;
                     
@@ -1514,11 +1541,11 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1547,11 +1574,11 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1667,13 +1694,13 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1709,13 +1736,13 @@ public class MobileWebPageBase extends ViewBase {
         
         try {
            
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1754,17 +1781,17 @@ public class MobileWebPageBase extends ViewBase {
        
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                    
-                String value = element.getAttribute("name").trim();
+                String value = element.getTrimmedValue();
                  
                 if((value == null) || (value.trim().length() == 0)) continue; // null or blank, so ignore
                 
                 logger.info("Checking for " + value + "|" + text);
                
-                if(value.trim().equals(text)) return ((RemoteWebElement) element).getId();
+                if(value.trim().equals(text)) return ((RemoteWebElement) element.getElement()).getId();
                 
             }
           
@@ -2258,11 +2285,9 @@ public class MobileWebPageBase extends ViewBase {
 
         try {
             
-            WebDriverWait wait = new WebDriverWait(driver, 5);
-            
             WebElement element = find(By.xpath(xpath));
             
-            wait.until(ExpectedConditions.elementToBeClickable(element));
+            waitUntil("clickable", By.xpath(xpath), 5, ExpectedConditions.elementToBeClickable(element));
             
             return true;
         
@@ -2282,55 +2307,11 @@ public class MobileWebPageBase extends ViewBase {
           
         commandList.addToList("waitForJSandAjaxToLoad: " + timeout);
 
-        WebDriverWait wait = new WebDriverWait(driver, timeout);
+        long start = SleepProfiler.getInstance().startWait();
 
-        // If using jQuery
-        ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
-        
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return jQuery.active") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
-    
-        };
-        
-        // If using prototype
-        ExpectedCondition<Boolean> prototypeLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
-        
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return Ajax.activeRequestCount") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
-    
-        };
-        
-        // If using angular.js
-        ExpectedCondition<Boolean> angularJSLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
-        
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return angular.element(document.body).injector().get(\'$http\').pendingRequests.length;") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
-    
-        };
-
-        ExpectedCondition<Boolean> jsLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) { return ((JavascriptExecutor)driver).executeScript("return document.readyState").toString().equals("complete"); }
-    
-        };
-
-        return wait.until(jQueryLoad) && wait.until(angularJSLoad) && wait.until(prototypeLoad) && wait.until(jsLoad);
+        // one script per poll checks the ready state and the ajax libraries present on the page
+        try { return PageReadinessProbe.getInstance().waitUntilReady(driver, timeout).isReady(); }
+        finally { SleepProfiler.getInstance().addWait(start); }
 
     }
     
@@ -3347,13 +3328,11 @@ public class MobileWebPageBase extends ViewBase {
     
             JavascriptExecutor jse = (JavascriptExecutor) driver;
     
-            WebDriverWait wait = new WebDriverWait(driver, 30);
-
             WebElement input = (WebElement)jse.executeScript(JS_DROP_FILE, element, offsetX, offsetY);
     
             input.sendKeys((new File(file)).getAbsoluteFile().toString());
     
-            wait.until(ExpectedConditions.stalenessOf(input));
+            waitUntil("staleness", null, 30, ExpectedConditions.stalenessOf(input));
             
         }
         catch(Exception e) { throw e; }
@@ -3377,7 +3356,7 @@ public class MobileWebPageBase extends ViewBase {
         
         this.timeout = "0";
         
-        try { driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS); }
+        try { WaitEngine.getInstance().setImplicitWait(driver, 0); }
         catch(Exception e) { throw e; }
         
     }
@@ -3401,7 +3380,7 @@ public class MobileWebPageBase extends ViewBase {
             
             logger.debug("Timeout is set to: " + this.timeout);
             
-            driver.manage().timeouts().implicitlyWait(Long.valueOf(this.timeout), TimeUnit.SECONDS); 
+            WaitEngine.getInstance().setImplicitWait(driver, Long.valueOf(this.timeout)); 
         
         }
         catch(Exception e) { throw e; }
@@ -3657,7 +3636,7 @@ public class MobileWebPageBase extends ViewBase {
         
         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
 
-        Thread.sleep(500); 
+        delay(500); 
     
     }
     
@@ -3712,9 +3691,7 @@ public class MobileWebPageBase extends ViewBase {
                   
                 try {
                         
-                    WebDriverWait wait = new WebDriverWait(this.driver, Long.valueOf(this.timeout));
-                         
-                    Alert alert = wait.until(ExpectedConditions.alertIsPresent()); 
+                    Alert alert = waitUntil("alert", null, Long.valueOf(this.timeout), ExpectedConditions.alertIsPresent()); 
                         
                     alert.accept();
                     
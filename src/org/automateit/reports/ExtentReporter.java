@@ -31,6 +31,11 @@ import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 import com.aventstack.extentreports.reporter.configuration.ChartLocation;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 
+import org.automateit.jfr.ReportWriteEvent;
+
+import org.automateit.screenshot.ScreenshotSink;
+import org.automateit.screenshot.ScreenshotStore;
+
 import org.automateit.util.Utils;
 
 /**
@@ -74,6 +79,8 @@ public class ExtentReporter implements Reporter {
             
             (new Utils()).removeAllImageFilesInDirectory(REPORTS_DIRECTORY);
             
+            ScreenshotStore.getInstance().clear();
+            
             startReport(); 
         
         }
@@ -195,14 +202,22 @@ public class ExtentReporter implements Reporter {
      */
     public void finishReport() throws Exception {
  
+        ReportWriteEvent event = new ReportWriteEvent();
+        
+        event.begin();
+        
         try { 
             
+            // screenshots linked from the report are written in the background
+            ScreenshotSink.getInstance().drain();
+            
             logger.debug("Flushing");
             
             extentReports.flush(); 
         
         }
         catch(Exception e) { logger.error(e); throw e; }
+        finally { event.complete("finishReport", REPORTS_DIRECTORY + REPORTS_FILENAME, this); }
       
     }
     
@@ -0,0 +1,70 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Screenshot policy that captures every Nth screenshot request. A failed
+ * test is always captured.
+ * 
+ * @author mburnside
+ */
+public class EveryNthScreenshotPolicy implements ScreenshotPolicy {
+    
+    /**
+     * Capture every Nth request
+     */
+    private final long n;
+    
+    /**
+     * The number of capture requests seen
+     */
+    private final AtomicLong count = new AtomicLong(0);
+    
+    /**
+     * Constructor
+     * 
+     * @param n 
+     */
+    public EveryNthScreenshotPolicy(long n) { this.n = n < 1 ? 1 : n; }
+    
+    /**
+     * Return if a screenshot should be captured for the event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    public boolean shouldCapture(int event) { 
+        
+        if(event == TEST_FAILED) return true;
+        
+        return count.getAndIncrement() % n == 0;
+        
+    }
+    
+    /**
+     * Get the id of this policy.
+     * 
+     * @return 
+     */
+    public String getId() { return EVERY_NTH; }
+    
+}
@@ -0,0 +1,49 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+/**
+ * Screenshot policy that only captures a screenshot when a test fails.
+ * 
+ * @author mburnside
+ */
+public class OnFailureScreenshotPolicy implements ScreenshotPolicy {
+    
+    /**
+     * Default Constructor.
+     */
+    public OnFailureScreenshotPolicy() { }
+    
+    /**
+     * Return if a screenshot should be captured for the event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    public boolean shouldCapture(int event) { return event == TEST_FAILED; }
+    
+    /**
+     * Get the id of this policy.
+     * 
+     * @return 
+     */
+    public String getId() { return ON_FAILURE; }
+    
+}
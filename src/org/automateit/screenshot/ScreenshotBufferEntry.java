@@ -0,0 +1,87 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+/**
+ * This class is a data transfer object that holds a screenshot captured
+ * in memory, waiting to be written to the test results report.
+ * 
+ * @author mburnside
+ */
+public class ScreenshotBufferEntry {
+    
+    /**
+     * The screenshot (PNG bytes)
+     */
+    private final byte[] screenshot;
+    
+    /**
+     * The title of the screenshot in the report, may be null
+     */
+    private final String title;
+    
+    /**
+     * The time the screenshot was captured
+     */
+    private final long captureTime;
+    
+    /**
+     * Constructor
+     * 
+     * @param screenshot
+     * @param title
+     * @param captureTime 
+     */
+    public ScreenshotBufferEntry(byte[] screenshot, String title, long captureTime) {
+        
+        this.screenshot = screenshot;
+        this.title = title;
+        this.captureTime = captureTime;
+        
+    }
+    
+    /**
+     * Get the screenshot (PNG bytes).
+     * 
+     * @return 
+     */
+    public byte[] getScreenshot() { return this.screenshot; }
+    
+    /**
+     * Get the title of the screenshot.
+     * 
+     * @return 
+     */
+    public String getTitle() { return this.title; }
+    
+    /**
+     * Get the time the screenshot was captured.
+     * 
+     * @return 
+     */
+    public long getCaptureTime() { return this.captureTime; }
+    
+    /**
+     * Get the size of the screenshot in bytes.
+     * 
+     * @return 
+     */
+    public int getSize() { return this.screenshot == null ? 0 : this.screenshot.length; }
+    
+}
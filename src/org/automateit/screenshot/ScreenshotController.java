@@ -0,0 +1,505 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import org.automateit.reports.ExtentReporter;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.Utils;
+
+/**
+ * This class is the control center for all screenshots that are added to 
+ * the test results report. Every capture request is passed through the 
+ * configured <code>ScreenshotPolicy</code> before a screenshot is taken.
+ * 
+ * The policy is set in automateit.properties:
+ * 
+ * screenshotPolicy=always|never|onFailure|onAction|everyNth|timeSampled
+ * screenshotPolicyEveryNth=10
+ * screenshotPolicySampleInterval=5000
+ * 
+ * When the screenshot buffer is enabled, screenshots are held in memory per test
+ * and only written to the report directory when the test fails:
+ * 
+ * screenshotBufferEnabled=true
+ * screenshotBufferSize=20
+ * screenshotBufferMaxBytes=52428800
+ * 
+ * @author mburnside
+ */
+public class ScreenshotController {
+    
+    /**
+     * Property for the screenshot policy id
+     */
+    public static final String SCREENSHOT_POLICY = "screenshotPolicy";
+    
+    /**
+     * Property for N when using the every Nth policy
+     */
+    public static final String SCREENSHOT_POLICY_EVERY_NTH = "screenshotPolicyEveryNth";
+    
+    /**
+     * Property for the sample interval (milliseconds) when using the time sampled policy
+     */
+    public static final String SCREENSHOT_POLICY_SAMPLE_INTERVAL = "screenshotPolicySampleInterval";
+    
+    /**
+     * Property to hold screenshots in memory and only write them to the report on test failure
+     */
+    public static final String SCREENSHOT_BUFFER_ENABLED = "screenshotBufferEnabled";
+    
+    /**
+     * Property for the maximum number of screenshots held in memory per test
+     */
+    public static final String SCREENSHOT_BUFFER_SIZE = "screenshotBufferSize";
+    
+    /**
+     * Property for the maximum number of bytes of screenshots held in memory per test
+     */
+    public static final String SCREENSHOT_BUFFER_MAX_BYTES = "screenshotBufferMaxBytes";
+    
+    /**
+     * Default N for the every Nth policy
+     */
+    public static final long DEFAULT_EVERY_NTH = 10;
+    
+    /**
+     * Default sample interval (milliseconds) for the time sampled policy
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL = 5000;
+    
+    /**
+     * Default maximum number of screenshots held in memory per test
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 20;
+    
+    /**
+     * Default maximum number of bytes of screenshots held in memory per test (50 MB)
+     */
+    public static final long DEFAULT_BUFFER_MAX_BYTES = 50L * 1024L * 1024L;
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ScreenshotController.class);
+    
+    /**
+     * utils class
+     */
+    private Utils utils = new Utils();
+    
+    /**
+     * The screenshot policy to use
+     */
+    private volatile ScreenshotPolicy screenshotPolicy = null;
+    
+    /**
+     * If screenshots are held in memory until a test fails
+     */
+    private final boolean bufferEnabled;
+    
+    /**
+     * The maximum number of screenshots held in memory per test
+     */
+    private final int bufferSize;
+    
+    /**
+     * The maximum number of bytes of screenshots held in memory per test
+     */
+    private final long bufferMaxBytes;
+    
+    /**
+     * The screenshot buffer for the test running on the current thread
+     */
+    private final ThreadLocal<ScreenshotRingBuffer> screenshotBuffer = new ThreadLocal<ScreenshotRingBuffer>() {
+        
+        @Override
+        protected ScreenshotRingBuffer initialValue() { return new ScreenshotRingBuffer(bufferSize, bufferMaxBytes); }
+        
+    };
+    
+    /**
+     * Metric - the number of bytes currently held in all screenshot buffers
+     */
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+    
+    /**
+     * Metric - the peak number of bytes held in all screenshot buffers
+     */
+    private final AtomicLong peakBufferedBytes = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of screenshots added to a screenshot buffer
+     */
+    private final AtomicLong bufferedCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of screenshots evicted from a full screenshot buffer
+     */
+    private final AtomicLong evictedCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of buffered screenshots written to the report on test failure
+     */
+    private final AtomicLong flushedCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of buffered screenshots discarded (test passed or skipped)
+     */
+    private final AtomicLong discardedCount = new AtomicLong(0);
+    
+    /**
+     * The instance of this object
+     */
+    private static ScreenshotController instance = new ScreenshotController();
+    
+    /**
+     * Default Constructor.
+     */
+    public ScreenshotController() { 
+        
+        this.bufferEnabled = Boolean.valueOf(CommonProperties.getInstance().get(SCREENSHOT_BUFFER_ENABLED));
+        this.bufferSize = (int)getLongProperty(SCREENSHOT_BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+        this.bufferMaxBytes = getLongProperty(SCREENSHOT_BUFFER_MAX_BYTES, DEFAULT_BUFFER_MAX_BYTES);
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ScreenshotController getInstance() { return instance; }
+    
+    /**
+     * Take a screenshot and add it to the test results report, if the
+     * screenshot policy allows it for this event.
+     * 
+     * @param event
+     * 
+     * @throws Exception 
+     */
+    public void addScreenshotToReport(int event) throws Exception {
+        
+        try { addScreenshotToReport(event, null); }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Take a screenshot and add it to the test results report, if the
+     * screenshot policy allows it for this event.
+     * 
+     * @param event
+     * @param title
+     * 
+     * @throws Exception 
+     */
+    public void addScreenshotToReport(int event, String title) throws Exception {
+        
+        try { 
+            
+            if(!getScreenshotPolicy().shouldCapture(event)) return;
+            
+            if(!bufferEnabled || event == ScreenshotPolicy.TEST_FAILED) utils.addScreenshotToReport(ExtentReporter.REPORTS_DIRECTORY, title);
+            
+            // when buffering, a passed test never writes its screenshots, so do not take one
+            else if(event != ScreenshotPolicy.TEST_PASSED) addToScreenshotBuffer(utils.getScreenshotAsBytes(), title);
+        
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Start a new test, discarding any screenshots still buffered for this thread.
+     */
+    public void startTest() { discardScreenshotBuffer(); }
+    
+    /**
+     * Write all buffered screenshots for the test on this thread to the report
+     * directory and add them to the report, oldest first.
+     * 
+     * @throws Exception 
+     */
+    public void flushScreenshotBuffer() throws Exception {
+        
+        if(!bufferEnabled) return;
+        
+        try { 
+            
+            List<ScreenshotBufferEntry> entries = drainScreenshotBuffer();
+            
+            logger.info("Writing " + entries.size() + " buffered screenshots to the report");
+            
+            for(ScreenshotBufferEntry entry: entries) {
+                
+                utils.addScreenshotToReport(ExtentReporter.REPORTS_DIRECTORY, entry.getScreenshot(), entry.getTitle());
+                
+                flushedCount.incrementAndGet();
+                
+            }
+        
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Discard all buffered screenshots for the test on this thread.
+     */
+    public void discardScreenshotBuffer() {
+        
+        if(!bufferEnabled) return;
+        
+        discardedCount.addAndGet(drainScreenshotBuffer().size());
+        
+    }
+    
+    /**
+     * Add a screenshot to the buffer for this thread.
+     * 
+     * @param screenshot
+     * @param title 
+     */
+    private void addToScreenshotBuffer(byte[] screenshot, String title) {
+        
+        ScreenshotRingBuffer buffer = screenshotBuffer.get();
+        
+        long before = buffer.getBytes();
+        
+        evictedCount.addAndGet(buffer.add(new ScreenshotBufferEntry(screenshot, title, System.currentTimeMillis())));
+        
+        bufferedCount.incrementAndGet();
+        
+        long total = bufferedBytes.addAndGet(buffer.getBytes() - before);
+        
+        long peak = peakBufferedBytes.get();
+        
+        while(total > peak && !peakBufferedBytes.compareAndSet(peak, total)) peak = peakBufferedBytes.get();
+        
+    }
+    
+    /**
+     * Remove and return all of the screenshots in the buffer for this thread.
+     * 
+     * @return 
+     */
+    private List<ScreenshotBufferEntry> drainScreenshotBuffer() {
+        
+        ScreenshotRingBuffer buffer = screenshotBuffer.get();
+        
+        bufferedBytes.addAndGet(-buffer.getBytes());
+        
+        return buffer.drain();
+        
+    }
+    
+    /**
+     * Return if screenshots are held in memory until a test fails.
+     * 
+     * @return 
+     */
+    public boolean isScreenshotBufferEnabled() { return bufferEnabled; }
+    
+    /**
+     * Get the maximum number of screenshots held in memory per test.
+     * 
+     * @return 
+     */
+    public int getScreenshotBufferSize() { return bufferSize; }
+    
+    /**
+     * Get the maximum number of bytes of screenshots held in memory per test.
+     * 
+     * @return 
+     */
+    public long getScreenshotBufferMaxBytes() { return bufferMaxBytes; }
+    
+    /**
+     * Get the number of bytes currently held in all screenshot buffers.
+     * 
+     * @return 
+     */
+    public long getBufferedScreenshotBytes() { return bufferedBytes.get(); }
+    
+    /**
+     * Get the peak number of bytes held in all screenshot buffers.
+     * 
+     * @return 
+     */
+    public long getPeakBufferedScreenshotBytes() { return peakBufferedBytes.get(); }
+    
+    /**
+     * Get the number of screenshots added to a screenshot buffer.
+     * 
+     * @return 
+     */
+    public long getBufferedScreenshotCount() { return bufferedCount.get(); }
+    
+    /**
+     * Get the number of screenshots evicted from a full screenshot buffer.
+     * 
+     * @return 
+     */
+    public long getEvictedScreenshotCount() { return evictedCount.get(); }
+    
+    /**
+     * Get the number of buffered screenshots written to the report on test failure.
+     * 
+     * @return 
+     */
+    public long getFlushedScreenshotCount() { return flushedCount.get(); }
+    
+    /**
+     * Get the number of buffered screenshots discarded.
+     * 
+     * @return 
+     */
+    public long getDiscardedScreenshotCount() { return discardedCount.get(); }
+    
+    /**
+     * Get a summary of the screenshot buffer metrics for logging.
+     * 
+     * @return 
+     */
+    public String getScreenshotBufferMetrics() {
+        
+        return "Screenshot buffer [size=" + bufferSize + ", maxBytes=" + bufferMaxBytes 
+                + ", buffered=" + getBufferedScreenshotCount() + ", evicted=" + getEvictedScreenshotCount()
+                + ", flushed=" + getFlushedScreenshotCount() + ", discarded=" + getDiscardedScreenshotCount()
+                + ", bytes=" + getBufferedScreenshotBytes() + ", peakBytes=" + getPeakBufferedScreenshotBytes() + "]";
+        
+    }
+    
+    /**
+     * Return if a screenshot would be captured for the event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    public boolean shouldCapture(int event) { return getScreenshotPolicy().shouldCapture(event); }
+    
+    /**
+     * Get the screenshot policy in use, loading it from properties the first time.
+     * 
+     * @return 
+     */
+    public ScreenshotPolicy getScreenshotPolicy() {
+        
+        if(screenshotPolicy == null) {
+            
+            synchronized(this) {
+                
+                if(screenshotPolicy == null) screenshotPolicy = loadScreenshotPolicy();
+                
+            }
+            
+        }
+        
+        return screenshotPolicy;
+        
+    }
+    
+    /**
+     * Set the screenshot policy to use.
+     * 
+     * @param screenshotPolicy 
+     */
+    public void setScreenshotPolicy(ScreenshotPolicy screenshotPolicy) { this.screenshotPolicy = screenshotPolicy; }
+    
+    /**
+     * Get a screenshot policy implementation.
+     * 
+     * @param policyId
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public ScreenshotPolicy getScreenshotPolicy(String policyId) throws Exception {
+        
+        try { 
+            
+            if(policyId == null) throw new Exception("Unable to get screenshot policy with null policy id");
+            
+            policyId = policyId.trim();
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.ALWAYS)) return new AlwaysScreenshotPolicy();
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.NEVER)) return new NeverScreenshotPolicy();
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.ON_FAILURE)) return new OnFailureScreenshotPolicy();
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.ON_ACTION)) return new OnActionScreenshotPolicy();
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.EVERY_NTH)) return new EveryNthScreenshotPolicy(getLongProperty(SCREENSHOT_POLICY_EVERY_NTH, DEFAULT_EVERY_NTH));
+            
+            if(policyId.equalsIgnoreCase(ScreenshotPolicy.TIME_SAMPLED)) return new TimeSampledScreenshotPolicy(getLongProperty(SCREENSHOT_POLICY_SAMPLE_INTERVAL, DEFAULT_SAMPLE_INTERVAL));
+            
+            // if we get here, then we dont know which type of policy instance to return
+            throw new Exception("Unable to find a ScreenshotPolicy instance class for policy id: " + policyId);
+        
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Load the screenshot policy from properties, defaulting to always capture.
+     * 
+     * @return 
+     */
+    private ScreenshotPolicy loadScreenshotPolicy() {
+        
+        String policyId = CommonProperties.getInstance().get(SCREENSHOT_POLICY);
+        
+        logger.info("Setting for screenshot policy id: " + policyId);
+        
+        try { if(policyId != null && policyId.trim().length() > 0) return getScreenshotPolicy(policyId); }
+        catch(Exception e) { logger.error(e); }
+        
+        return new AlwaysScreenshotPolicy();
+        
+    }
+    
+    /**
+     * Get a long property, or the default if not set or invalid.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private long getLongProperty(String key, long defaultValue) {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(key).trim()); }
+        catch(Exception e) { return defaultValue; }
+        
+    }
+    
+}
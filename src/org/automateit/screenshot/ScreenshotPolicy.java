@@ -0,0 +1,106 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+/**
+ * This interface is what screenshot policies need to implement to be used
+ * by this framework. A policy decides, for each capture event, whether a
+ * screenshot is actually taken.
+ * 
+ * @author mburnside
+ */
+public interface ScreenshotPolicy {
+    
+    /**
+     * The policy id to capture a screenshot for every event (default)
+     */
+    public static final String ALWAYS = "always";
+    
+    /**
+     * The policy id to never capture a screenshot
+     */
+    public static final String NEVER = "never";
+    
+    /**
+     * The policy id to capture a screenshot only when a test fails
+     */
+    public static final String ON_FAILURE = "onFailure";
+    
+    /**
+     * The policy id to capture a screenshot on actions and test events, but not element lookups
+     */
+    public static final String ON_ACTION = "onAction";
+    
+    /**
+     * The policy id to capture every Nth screenshot (and always on failure)
+     */
+    public static final String EVERY_NTH = "everyNth";
+    
+    /**
+     * The policy id to capture at most one screenshot per sample interval (and always on failure)
+     */
+    public static final String TIME_SAMPLED = "timeSampled";
+    
+    /**
+     * Capture event - an element lookup (find/findElements)
+     */
+    public static final int ELEMENT_LOOKUP = 0;
+    
+    /**
+     * Capture event - an explicit action by a page/screen/test class
+     */
+    public static final int ACTION = 1;
+    
+    /**
+     * Capture event - a test has started
+     */
+    public static final int TEST_STARTED = 2;
+    
+    /**
+     * Capture event - a test has passed
+     */
+    public static final int TEST_PASSED = 3;
+    
+    /**
+     * Capture event - a test has failed
+     */
+    public static final int TEST_FAILED = 4;
+    
+    /**
+     * Capture event - a cucumber step has completed
+     */
+    public static final int STEP_COMPLETED = 5;
+    
+    /**
+     * Return if a screenshot should be captured for the event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    public boolean shouldCapture(int event);
+    
+    /**
+     * Get the id of this policy.
+     * 
+     * @return 
+     */
+    public String getId();
+    
+}
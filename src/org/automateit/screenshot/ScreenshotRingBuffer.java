@@ -0,0 +1,170 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a bounded ring buffer of screenshots for a single test. When
+ * either the number of screenshots or the total number of bytes exceeds its
+ * limit, the oldest screenshots are evicted.
+ * 
+ * @author mburnside
+ */
+public class ScreenshotRingBuffer {
+    
+    /**
+     * The screenshots in capture order, oldest first
+     */
+    private final ArrayDeque<ScreenshotBufferEntry> entries = new ArrayDeque<ScreenshotBufferEntry>();
+    
+    /**
+     * The maximum number of screenshots to hold
+     */
+    private final int capacity;
+    
+    /**
+     * The maximum number of bytes to hold
+     */
+    private final long maxBytes;
+    
+    /**
+     * The number of bytes currently held
+     */
+    private long bytes = 0;
+    
+    /**
+     * The number of screenshots evicted from this buffer
+     */
+    private long evicted = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity
+     * @param maxBytes 
+     */
+    public ScreenshotRingBuffer(int capacity, long maxBytes) {
+        
+        this.capacity = capacity < 1 ? 1 : capacity;
+        this.maxBytes = maxBytes;
+        
+    }
+    
+    /**
+     * Add a screenshot, evicting the oldest screenshots if over the limits.
+     * 
+     * @param entry
+     * 
+     * @return The number of screenshots evicted
+     */
+    public synchronized int add(ScreenshotBufferEntry entry) {
+        
+        int count = 0;
+        
+        entries.addLast(entry);
+        
+        bytes += entry.getSize();
+        
+        while(!entries.isEmpty() && (entries.size() > capacity || (maxBytes > 0 && bytes > maxBytes))) {
+            
+            bytes -= entries.removeFirst().getSize();
+            
+            count++;
+            
+        }
+        
+        evicted += count;
+        
+        return count;
+        
+    }
+    
+    /**
+     * Remove and return all of the screenshots, oldest first.
+     * 
+     * @return 
+     */
+    public synchronized List<ScreenshotBufferEntry> drain() {
+        
+        List<ScreenshotBufferEntry> list = new ArrayList<ScreenshotBufferEntry>(entries);
+        
+        entries.clear();
+        
+        bytes = 0;
+        
+        return list;
+        
+    }
+    
+    /**
+     * Remove all of the screenshots.
+     * 
+     * @return The number of screenshots removed
+     */
+    public synchronized int clear() { 
+        
+        int count = entries.size();
+        
+        entries.clear(); 
+        
+        bytes = 0;
+        
+        return count;
+        
+    }
+    
+    /**
+     * Get the number of screenshots held.
+     * 
+     * @return 
+     */
+    public synchronized int getSize() { return entries.size(); }
+    
+    /**
+     * Get the number of bytes held.
+     * 
+     * @return 
+     */
+    public synchronized long getBytes() { return bytes; }
+    
+    /**
+     * Get the number of screenshots evicted from this buffer.
+     * 
+     * @return 
+     */
+    public synchronized long getEvicted() { return evicted; }
+    
+    /**
+     * Get the maximum number of screenshots to hold.
+     * 
+     * @return 
+     */
+    public int getCapacity() { return capacity; }
+    
+    /**
+     * Get the maximum number of bytes to hold.
+     * 
+     * @return 
+     */
+    public long getMaxBytes() { return maxBytes; }
+    
+}
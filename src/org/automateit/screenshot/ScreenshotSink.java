@@ -0,0 +1,359 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.io.File;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+
+import org.apache.log4j.Logger;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class writes screenshots to disk on a small pool of background threads, 
+ * so the test thread only pays for taking the screenshot. The filename is known
+ * up front, so a report can link to the screenshot before it has been written.
+ * 
+ * The work queue is bounded. When it is full, the test thread writes the 
+ * screenshot itself, which slows the test down instead of using unbounded memory.
+ * 
+ * Pending writes are drained by <code>drain()</code>, which is called when a report 
+ * is finished, and by a JVM shutdown hook.
+ * 
+ * screenshotSinkThreads=2
+ * screenshotSinkQueueSize=32
+ * screenshotSinkDrainTimeout=30000
+ * 
+ * @author mburnside
+ */
+public class ScreenshotSink {
+    
+    /**
+     * Property for the number of background writer threads
+     */
+    public static final String SCREENSHOT_SINK_THREADS = "screenshotSinkThreads";
+    
+    /**
+     * Property for the maximum number of screenshots waiting to be written
+     */
+    public static final String SCREENSHOT_SINK_QUEUE_SIZE = "screenshotSinkQueueSize";
+    
+    /**
+     * Property for the maximum time (milliseconds) to wait for pending writes to drain
+     */
+    public static final String SCREENSHOT_SINK_DRAIN_TIMEOUT = "screenshotSinkDrainTimeout";
+    
+    /**
+     * Default number of background writer threads
+     */
+    public static final int DEFAULT_THREADS = 2;
+    
+    /**
+     * Default maximum number of screenshots waiting to be written
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 32;
+    
+    /**
+     * Default maximum time (milliseconds) to wait for pending writes to drain
+     */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ScreenshotSink.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ScreenshotSink instance = new ScreenshotSink();
+    
+    /**
+     * The background writer pool
+     */
+    private final ThreadPoolExecutor executor;
+    
+    /**
+     * The maximum time (milliseconds) to wait for pending writes to drain
+     */
+    private final long drainTimeout;
+    
+    /**
+     * Lock used to wait for pending writes
+     */
+    private final Object pendingLock = new Object();
+    
+    /**
+     * The number of writes submitted and not yet complete
+     */
+    private int pending = 0;
+    
+    /**
+     * Metric - the number of screenshots written
+     */
+    private final AtomicLong writtenCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of bytes written
+     */
+    private final AtomicLong writtenBytes = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of screenshots that failed to write
+     */
+    private final AtomicLong failedCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of screenshots written on the test thread because the queue was full
+     */
+    private final AtomicLong callerRunsCount = new AtomicLong(0);
+    
+    /**
+     * Default Constructor.
+     */
+    public ScreenshotSink() {
+        
+        int threads = (int)getLongProperty(SCREENSHOT_SINK_THREADS, DEFAULT_THREADS);
+        int queueSize = (int)getLongProperty(SCREENSHOT_SINK_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+        
+        this.drainTimeout = getLongProperty(SCREENSHOT_SINK_DRAIN_TIMEOUT, DEFAULT_DRAIN_TIMEOUT);
+        
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        
+        ThreadFactory threadFactory = new ThreadFactory() {
+            
+            public Thread newThread(Runnable runnable) {
+                
+                Thread thread = new Thread(runnable, "screenshot-sink-" + threadNumber.incrementAndGet());
+                
+                thread.setDaemon(true);
+                
+                return thread;
+                
+            }
+            
+        };
+        
+        RejectedExecutionHandler backPressure = new RejectedExecutionHandler() {
+            
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                
+                callerRunsCount.incrementAndGet();
+                
+                runnable.run();
+                
+            }
+            
+        };
+        
+        this.executor = new ThreadPoolExecutor(threads < 1 ? 1 : threads, threads < 1 ? 1 : threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize < 1 ? 1 : queueSize), threadFactory, backPressure);
+        
+        Runtime.getRuntime().addShutdownHook(new Thread("screenshot-sink-shutdown") {
+            
+            @Override
+            public void run() { drain(); }
+            
+        });
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ScreenshotSink getInstance() { return instance; }
+    
+    /**
+     * Write a screenshot to a file in the background.
+     * 
+     * @param screenshot The screenshot bytes
+     * @param filename The file to write, including path
+     * 
+     * @return A future for the file written
+     */
+    public Future<File> write(final byte[] screenshot, final String filename) {
+        
+        return submit(new Callable<File>() {
+            
+            public File call() throws Exception {
+                
+                File file = new File(filename);
+                
+                FileUtils.writeByteArrayToFile(file, screenshot);
+                
+                return file;
+                
+            }
+            
+        }, filename);
+        
+    }
+    
+    /**
+     * Run a screenshot task (encoding, thumbnails, file writes) in the background.
+     * The task is tracked so <code>drain()</code> waits for it.
+     * 
+     * @param task The task, returning the file it wrote
+     * @param filename The file the task writes, for logging
+     * 
+     * @return A future for the file written
+     */
+    public Future<File> submit(final Callable<File> task, final String filename) {
+        
+        synchronized(pendingLock) { pending++; }
+        
+        return executor.submit(new Callable<File>() {
+            
+            public File call() throws Exception {
+                
+                try { 
+                    
+                    File file = task.call();
+                    
+                    writtenCount.incrementAndGet();
+                    
+                    if(file != null) writtenBytes.addAndGet(file.length());
+                    
+                    return file;
+                    
+                }
+                catch(Exception e) { 
+                    
+                    failedCount.incrementAndGet();
+                    
+                    logger.error("Unable to write screenshot: " + filename, e);
+                    
+                    throw e; 
+                
+                }
+                finally { 
+                    
+                    synchronized(pendingLock) { 
+                        
+                        pending--; 
+                        
+                        pendingLock.notifyAll(); 
+                        
+                    } 
+                    
+                }
+                
+            }
+            
+        });
+        
+    }
+    
+    /**
+     * Wait for all pending screenshot writes to complete, up to the drain timeout.
+     * 
+     * @return true if all pending writes completed
+     */
+    public boolean drain() {
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeout);
+        
+        synchronized(pendingLock) {
+            
+            while(pending > 0) {
+                
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                
+                if(remaining <= 0) {
+                    
+                    logger.warn("Timed out waiting for " + pending + " screenshot writes to complete");
+                    
+                    return false;
+                    
+                }
+                
+                try { pendingLock.wait(remaining); }
+                catch(InterruptedException e) { Thread.currentThread().interrupt(); return false; }
+                
+            }
+            
+        }
+        
+        return true;
+        
+    }
+    
+    /**
+     * Get the number of screenshot writes not yet complete.
+     * 
+     * @return 
+     */
+    public int getPendingCount() { synchronized(pendingLock) { return pending; } }
+    
+    /**
+     * Get the number of screenshots written.
+     * 
+     * @return 
+     */
+    public long getWrittenCount() { return writtenCount.get(); }
+    
+    /**
+     * Get the number of bytes written.
+     * 
+     * @return 
+     */
+    public long getWrittenBytes() { return writtenBytes.get(); }
+    
+    /**
+     * Get the number of screenshots that failed to write.
+     * 
+     * @return 
+     */
+    public long getFailedCount() { return failedCount.get(); }
+    
+    /**
+     * Get the number of screenshots written on the test thread because the queue was full.
+     * 
+     * @return 
+     */
+    public long getCallerRunsCount() { return callerRunsCount.get(); }
+    
+    /**
+     * Get a long property, or the default if not set or invalid.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private long getLongProperty(String key, long defaultValue) {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(key).trim()); }
+        catch(Exception e) { return defaultValue; }
+        
+    }
+    
+}
@@ -0,0 +1,193 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.io.File;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class is a content-addressed store for report screenshots. Each 
+ * screenshot is named by the SHA-1 hash of its bytes, so identical screenshots
+ * (the page did not change between captures) are written once and every
+ * report entry links to the same file. A screenshot whose write fails is 
+ * forgotten, so the next identical screenshot is written again.
+ * 
+ * @author mburnside
+ */
+public class ScreenshotStore {
+    
+    /**
+     * The file extension for stored screenshots
+     */
+    public static final String EXTENSION = ".png";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ScreenshotStore.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ScreenshotStore instance = new ScreenshotStore();
+    
+    /**
+     * The screenshot files already stored, keyed by full path
+     */
+    private final ConcurrentHashMap<String, Boolean> stored = new ConcurrentHashMap<String, Boolean>();
+    
+    /**
+     * Metric - the number of unique screenshots written
+     */
+    private final AtomicLong uniqueCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of duplicate screenshots not written
+     */
+    private final AtomicLong duplicateCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of bytes not written because of duplicates
+     */
+    private final AtomicLong duplicateBytes = new AtomicLong(0);
+    
+    /**
+     * Default Constructor.
+     */
+    public ScreenshotStore() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ScreenshotStore getInstance() { return instance; }
+    
+    /**
+     * Store a screenshot in the directory, writing it only if an identical 
+     * screenshot has not already been stored there.
+     * 
+     * @param destinationDirectory
+     * @param screenshot
+     * 
+     * @return The filename (without path) of the stored screenshot
+     * 
+     * @throws Exception 
+     */
+    public String store(String destinationDirectory, final byte[] screenshot) throws Exception {
+        
+        try { 
+            
+            String filename = DigestUtils.sha1Hex(screenshot) + EXTENSION;
+            
+            final String path = destinationDirectory + File.separator + filename;
+            
+            if(stored.putIfAbsent(path, Boolean.TRUE) == null) {
+                
+                uniqueCount.incrementAndGet();
+                
+                try {
+                    
+                    ScreenshotSink.getInstance().submit(new Callable<File>() {
+                    
+                        public File call() throws Exception {
+                        
+                            try {
+                            
+                                File file = new File(path);
+                            
+                                FileUtils.writeByteArrayToFile(file, screenshot);
+                            
+                                return file;
+                            
+                            }
+                            catch(Exception e) { forget(path); throw e; }
+                        
+                        }
+                    
+                    }, path);
+                
+                }
+                catch(RuntimeException e) { forget(path); throw e; }
+                
+            }
+            else {
+                
+                logger.debug("Screenshot already stored: " + filename);
+                
+                duplicateCount.incrementAndGet();
+                duplicateBytes.addAndGet(screenshot.length);
+                
+            }
+            
+            return filename;
+        
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Forget a screenshot that could not be written, so the next identical 
+     * screenshot is written again.
+     * 
+     * @param path 
+     */
+    private void forget(String path) {
+        
+        if(stored.remove(path) != null) uniqueCount.decrementAndGet();
+        
+    }
+    
+    /**
+     * Forget all stored screenshots. Call this when the image files in a 
+     * report directory are removed.
+     */
+    public void clear() { stored.clear(); }
+    
+    /**
+     * Get the number of unique screenshots written.
+     * 
+     * @return 
+     */
+    public long getUniqueCount() { return uniqueCount.get(); }
+    
+    /**
+     * Get the number of duplicate screenshots not written.
+     * 
+     * @return 
+     */
+    public long getDuplicateCount() { return duplicateCount.get(); }
+    
+    /**
+     * Get the number of bytes not written because of duplicates.
+     * 
+     * @return 
+     */
+    public long getDuplicateBytes() { return duplicateBytes.get(); }
+    
+}
@@ -0,0 +1,400 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+import org.apache.log4j.Logger;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class creates small JPEG thumbnails next to report screenshots, so a
+ * report page only loads the thumbnails and links to the full image. It can 
+ * also store the full image as a reduced quality JPEG instead of the original PNG.
+ * 
+ * All encoding and file writes are done in the background by the <code>ScreenshotSink</code>.
+ * 
+ * screenshotThumbnailsEnabled=true
+ * screenshotThumbnailWidth=200
+ * screenshotReducedQualityOriginals=false
+ * screenshotReducedQuality=0.7
+ * 
+ * @author mburnside
+ */
+public class ScreenshotThumbnailer {
+    
+    /**
+     * Property to create thumbnails for report screenshots
+     */
+    public static final String SCREENSHOT_THUMBNAILS_ENABLED = "screenshotThumbnailsEnabled";
+    
+    /**
+     * Property for the width (pixels) of thumbnails
+     */
+    public static final String SCREENSHOT_THUMBNAIL_WIDTH = "screenshotThumbnailWidth";
+    
+    /**
+     * Property to store the full image as a reduced quality JPEG
+     */
+    public static final String SCREENSHOT_REDUCED_QUALITY_ORIGINALS = "screenshotReducedQualityOriginals";
+    
+    /**
+     * Property for the JPEG quality (0.0 - 1.0) of reduced quality full images
+     */
+    public static final String SCREENSHOT_REDUCED_QUALITY = "screenshotReducedQuality";
+    
+    /**
+     * The suffix added to the name of a screenshot for its thumbnail
+     */
+    public static final String THUMBNAIL_SUFFIX = "_thumb";
+    
+    /**
+     * The image format of thumbnails and reduced quality images
+     */
+    public static final String JPG = "jpg";
+    
+    /**
+     * Default width (pixels) of thumbnails
+     */
+    public static final int DEFAULT_THUMBNAIL_WIDTH = 200;
+    
+    /**
+     * Default JPEG quality of reduced quality full images
+     */
+    public static final float DEFAULT_REDUCED_QUALITY = 0.7f;
+    
+    /**
+     * The JPEG quality of thumbnails
+     */
+    private static final float THUMBNAIL_QUALITY = 0.8f;
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ScreenshotThumbnailer.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ScreenshotThumbnailer instance = new ScreenshotThumbnailer();
+    
+    /**
+     * If thumbnails are created
+     */
+    private final boolean thumbnailsEnabled;
+    
+    /**
+     * The width (pixels) of thumbnails
+     */
+    private final int thumbnailWidth;
+    
+    /**
+     * If full images are stored as reduced quality JPEGs
+     */
+    private final boolean reducedQualityOriginals;
+    
+    /**
+     * The JPEG quality of reduced quality full images
+     */
+    private final float reducedQuality;
+    
+    /**
+     * Default Constructor.
+     */
+    public ScreenshotThumbnailer() {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        this.thumbnailsEnabled = properties.get(SCREENSHOT_THUMBNAILS_ENABLED) == null || Boolean.valueOf(properties.get(SCREENSHOT_THUMBNAILS_ENABLED));
+        this.reducedQualityOriginals = Boolean.valueOf(properties.get(SCREENSHOT_REDUCED_QUALITY_ORIGINALS));
+        
+        int width = DEFAULT_THUMBNAIL_WIDTH;
+        float quality = DEFAULT_REDUCED_QUALITY;
+        
+        try { width = Integer.parseInt(properties.get(SCREENSHOT_THUMBNAIL_WIDTH).trim()); } catch(Exception e) { }
+        try { quality = Float.parseFloat(properties.get(SCREENSHOT_REDUCED_QUALITY).trim()); } catch(Exception e) { }
+        
+        this.thumbnailWidth = width < 1 ? DEFAULT_THUMBNAIL_WIDTH : width;
+        this.reducedQuality = Math.max(0.05f, Math.min(1.0f, quality));
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ScreenshotThumbnailer getInstance() { return instance; }
+    
+    /**
+     * Write a screenshot and its thumbnail in the background. If reduced quality 
+     * originals are enabled, the full image is written as a JPEG and the extension
+     * of the filename is changed.
+     * 
+     * @param screenshot The screenshot (PNG bytes)
+     * @param filename The file to write, including path
+     * 
+     * @return The file the full image is written to, including path
+     */
+    public String write(final byte[] screenshot, String filename) {
+        
+        ScreenshotSink sink = ScreenshotSink.getInstance();
+        
+        if(!reducedQualityOriginals) sink.write(screenshot, filename);
+        else {
+            
+            final String jpgFilename = replaceExtension(filename, JPG);
+            
+            sink.submit(new Callable<File>() {
+                
+                public File call() throws Exception { return writeJPG(readImage(screenshot), reducedQuality, jpgFilename); }
+                
+            }, jpgFilename);
+            
+            filename = jpgFilename;
+            
+        }
+        
+        if(thumbnailsEnabled) {
+            
+            final String thumbnailFilename = getThumbnailFilename(filename);
+            
+            sink.submit(new Callable<File>() {
+                
+                public File call() throws Exception { return writeJPG(scale(readImage(screenshot)), THUMBNAIL_QUALITY, thumbnailFilename); }
+                
+            }, thumbnailFilename);
+            
+        }
+        
+        return filename;
+        
+    }
+    
+    /**
+     * Create a thumbnail in the background for a screenshot already on disk.
+     * 
+     * @param filename The screenshot file, including path
+     */
+    public void createThumbnail(final String filename) {
+        
+        if(!thumbnailsEnabled) return;
+        
+        final String thumbnailFilename = getThumbnailFilename(filename);
+        
+        ScreenshotSink.getInstance().submit(new Callable<File>() {
+            
+            public File call() throws Exception { return writeJPG(scale(ImageIO.read(new File(filename))), THUMBNAIL_QUALITY, thumbnailFilename); }
+            
+        }, thumbnailFilename);
+        
+    }
+    
+    /**
+     * Get the filename of the image to show in the report for a screenshot:
+     * the thumbnail if thumbnails are enabled, otherwise the screenshot itself.
+     * 
+     * @param filename
+     * 
+     * @return 
+     */
+    public String getDisplayFilename(String filename) { return thumbnailsEnabled ? getThumbnailFilename(filename) : filename; }
+    
+    /**
+     * Get the filename of the thumbnail for a screenshot.
+     * 
+     * @param filename
+     * 
+     * @return 
+     */
+    public String getThumbnailFilename(String filename) { 
+        
+        int index = filename.lastIndexOf(".");
+        
+        String base = index > filename.lastIndexOf(File.separator) ? filename.substring(0, index) : filename;
+        
+        return base + THUMBNAIL_SUFFIX + "." + JPG;
+        
+    }
+    
+    /**
+     * Return if thumbnails are created.
+     * 
+     * @return 
+     */
+    public boolean isThumbnailsEnabled() { return thumbnailsEnabled; }
+    
+    /**
+     * Get the width (pixels) of thumbnails.
+     * 
+     * @return 
+     */
+    public int getThumbnailWidth() { return thumbnailWidth; }
+    
+    /**
+     * Replace the extension of a filename.
+     * 
+     * @param filename
+     * @param extension
+     * 
+     * @return 
+     */
+    private String replaceExtension(String filename, String extension) {
+        
+        int index = filename.lastIndexOf(".");
+        
+        String base = index > filename.lastIndexOf(File.separator) ? filename.substring(0, index) : filename;
+        
+        return base + "." + extension;
+        
+    }
+    
+    /**
+     * Decode an image.
+     * 
+     * @param bytes
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    private BufferedImage readImage(byte[] bytes) throws Exception {
+        
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        
+        if(image == null) throw new Exception("Unable to decode screenshot image");
+        
+        return image;
+        
+    }
+    
+    /**
+     * Scale an image down to the thumbnail width, keeping the aspect ratio.
+     * 
+     * @param image
+     * 
+     * @return 
+     */
+    private BufferedImage scale(BufferedImage image) {
+        
+        int width = Math.min(thumbnailWidth, image.getWidth());
+        int height = Math.max(1, (int)((long)image.getHeight() * width / image.getWidth()));
+        
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        
+        Graphics2D graphics = thumbnail.createGraphics();
+        
+        try {
+            
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            
+            graphics.drawImage(image, 0, 0, width, height, null);
+            
+        }
+        finally { graphics.dispose(); }
+        
+        return thumbnail;
+        
+    }
+    
+    /**
+     * Write an image as a JPEG with the quality.
+     * 
+     * @param image
+     * @param quality
+     * @param filename
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    private File writeJPG(BufferedImage image, float quality, String filename) throws Exception {
+        
+        // JPEG has no alpha channel
+        if(image.getType() != BufferedImage.TYPE_INT_RGB) {
+            
+            BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            
+            Graphics2D graphics = rgb.createGraphics();
+            
+            try { graphics.drawImage(image, 0, 0, null); }
+            finally { graphics.dispose(); }
+            
+            image = rgb;
+            
+        }
+        
+        File file = new File(filename);
+        
+        if(file.getParentFile() != null) FileUtils.forceMkdir(file.getParentFile());
+        
+        // the image output stream does not truncate an existing file
+        if(file.exists()) file.delete();
+        
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(JPG);
+        
+        if(!writers.hasNext()) throw new Exception("No JPEG image writer available");
+        
+        ImageWriter writer = writers.next();
+        
+        ImageOutputStream output = ImageIO.createImageOutputStream(file);
+        
+        try {
+            
+            writer.setOutput(output);
+            
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            
+            writer.write(null, new IIOImage(image, null, null), param);
+            
+        }
+        finally { 
+            
+            output.close(); 
+            
+            writer.dispose(); 
+            
+        }
+        
+        return file;
+        
+    }
+    
+}
@@ -0,0 +1,78 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.screenshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Screenshot policy that captures at most one screenshot per sample interval. 
+ * A failed test is always captured.
+ * 
+ * @author mburnside
+ */
+public class TimeSampledScreenshotPolicy implements ScreenshotPolicy {
+    
+    /**
+     * The sample interval in nanoseconds
+     */
+    private final long intervalNanos;
+    
+    /**
+     * The time of the last capture (System.nanoTime), 0 if none yet
+     */
+    private final AtomicLong lastCapture = new AtomicLong(0);
+    
+    /**
+     * Constructor
+     * 
+     * @param intervalMilliseconds 
+     */
+    public TimeSampledScreenshotPolicy(long intervalMilliseconds) { this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMilliseconds < 0 ? 0 : intervalMilliseconds); }
+    
+    /**
+     * Return if a screenshot should be captured for the event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    public boolean shouldCapture(int event) { 
+        
+        if(event == TEST_FAILED) return true;
+        
+        long now = System.nanoTime();
+        
+        long last = lastCapture.get();
+        
+        if(last != 0 && (now - last) < intervalNanos) return false;
+        
+        // only one thread wins the sample slot
+        return lastCapture.compareAndSet(last, now);
+        
+    }
+    
+    /**
+     * Get the id of this policy.
+     * 
+     * @return 
+     */
+    public String getId() { return TIME_SAMPLED; }
+    
+}
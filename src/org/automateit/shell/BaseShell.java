@@ -31,6 +31,7 @@ import com.jcraft.jsch.Session;
 
 import org.automateit.util.CommandList;
 import org.automateit.util.CommonProperties;
+import org.automateit.util.SleepProfiler;
 import org.automateit.util.Utils;
 
 /**
@@ -236,7 +237,8 @@ public class BaseShell {
     }
     
     /**
-     * Thread.sleep in milliseconds. Makes less code to type.
+     * Thread.sleep in milliseconds. Makes less code to type. The delay is
+     * accounted for by the SleepProfiler.
      * 
      * @param milliseconds 
      */
@@ -246,7 +248,7 @@ public class BaseShell {
             
             commandList.addToList("delay|" + milliseconds);
             
-            Thread.sleep(milliseconds); 
+            SleepProfiler.getInstance().sleep(milliseconds); 
         
         } 
         catch(Exception e) { }
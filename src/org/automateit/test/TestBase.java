@@ -38,6 +38,8 @@ import org.automateit.util.Utils;
 import org.automateit.testng.TestNGUtils;
 
 import org.automateit.util.CommonProperties;
+import org.automateit.util.PerformanceRegressionDetector;
+import org.automateit.util.SleepProfiler;
 
 /**
  * This is the base testing class.
@@ -86,12 +88,7 @@ public class TestBase extends ViewBase {
      * 
      * @param milliseconds 
      */
-    protected void delay(long milliseconds) {
-        
-        try { Thread.sleep(milliseconds); } 
-        catch(Exception e) { }
-        
-    }
+    protected void delay(long milliseconds) { SleepProfiler.getInstance().sleep(milliseconds); }
     
     /**
      * A file filename filter that returns all files in a directory with 
@@ -217,7 +214,13 @@ public class TestBase extends ViewBase {
      */
     protected void createPerformanceReports() throws Exception {
         
-        try { testNGUtils.savePageSummaryPerformance(utils.getBasePagePerformanceDirectory()); }
+        try { 
+            
+            testNGUtils.savePageSummaryPerformance(utils.getBasePagePerformanceDirectory()); 
+            
+            if(testNGUtils.comparePerformanceBaseline(utils.getBasePagePerformanceDirectory())) PerformanceRegressionDetector.getInstance().failOnRegression();
+        
+        }
         catch(Exception e) { throw e; }
         
     }
@@ -27,7 +27,19 @@ import org.testng.TestListenerAdapter;
 import org.automateit.reports.ReportsManager;
 import org.automateit.reports.ExtentReporter;
 
-import org.automateit.util.Utils;
+import org.automateit.screenshot.ScreenshotController;
+import org.automateit.screenshot.ScreenshotPolicy;
+import org.automateit.screenshot.ScreenshotStore;
+
+import org.automateit.mobile.AppiumSessionPool;
+import org.automateit.mobile.ScreenSnapshotEngine;
+
+import org.automateit.core.WaitEngine;
+
+import org.automateit.util.CommandProfiler;
+import org.automateit.util.SleepProfiler;
+
+import org.automateit.web.WebDriverPool;
 
 /**
  * This class is added to testng task to listen for events.
@@ -54,9 +66,9 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     private final ReportsManager reportsManager = ReportsManager.getInstance();
     
     /**
-     * Utilities for convenience methods
+     * The screenshot controller used for this test run
      */
-    protected Utils utils = new Utils();
+    private final ScreenshotController screenshotController = ScreenshotController.getInstance();
     
     /**
      * Default Constructor
@@ -77,9 +89,14 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     @Override
     public void onTestFailure(ITestResult result) { 
         
+        // the last command of the test ends with the test
+        CommandProfiler.getInstance().endCommand();
+        
         try { 
             
-            addScreenshotToReport(reportsManager.TEXT_TEST_COMPLETED);
+            flushScreenshotBuffer();
+            
+            addScreenshotToReport(ScreenshotPolicy.TEST_FAILED, reportsManager.TEXT_TEST_COMPLETED);
             
             addToReportsManager(); extentReporter.logFail(result.getName(), result.getThrowable()); 
         
@@ -96,7 +113,9 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     @Override
     public void onTestSkipped(ITestResult result) { 
         
-        try { addToReportsManager(); extentReporter.logSkip(result.getName()); }
+        CommandProfiler.getInstance().endCommand();
+        
+        try { screenshotController.discardScreenshotBuffer(); addToReportsManager(); extentReporter.logSkip(result.getName()); }
         catch(Exception e) { }
         
     }
@@ -110,9 +129,13 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     @Override
     public void onTestSuccess(ITestResult result) { 
         
+        CommandProfiler.getInstance().endCommand();
+        
         try { 
             
-            addScreenshotToReport(reportsManager.TEXT_TEST_COMPLETED);
+            addScreenshotToReport(ScreenshotPolicy.TEST_PASSED, reportsManager.TEXT_TEST_COMPLETED);
+            
+            screenshotController.discardScreenshotBuffer();
             
             addToReportsManager(); extentReporter.logPass(result.getName()); 
         
@@ -129,11 +152,16 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     @Override
     public void onTestStart(ITestResult result) { 
         
+        // a command of the set up (e.g. before method) does not run into the test
+        CommandProfiler.getInstance().endCommand();
+        
         try { 
             
+            screenshotController.startTest();
+            
             extentReporter.startNewTest(result.getName()); 
             
-            addScreenshotToReport(reportsManager.TEXT_TEST_STARTED);
+            addScreenshotToReport(ScreenshotPolicy.TEST_STARTED, reportsManager.TEXT_TEST_STARTED);
         
         }
         catch(Exception e) { logger.error(e); }
@@ -146,7 +174,27 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     @Override
     public void onFinish(ITestContext context) { 
         
-        try { extentReporter.finishReport(); }
+        try { 
+            
+            if(screenshotController.isScreenshotBufferEnabled()) logger.info(screenshotController.getScreenshotBufferMetrics());
+            
+            logger.info("Report screenshots stored: " + ScreenshotStore.getInstance().getUniqueCount() + ", duplicates not written: " + ScreenshotStore.getInstance().getDuplicateCount());
+            
+            if(WebDriverPool.getInstance().isEnabled()) logger.info(WebDriverPool.getInstance().getMetrics());
+            
+            if(AppiumSessionPool.getInstance().isEnabled()) logger.info(AppiumSessionPool.getInstance().getMetrics());
+            
+            logger.info(SleepProfiler.getInstance().getMetrics());
+            
+            if(CommandProfiler.getInstance().isEnabled()) logger.info(CommandProfiler.getInstance().getMetrics());
+            
+            if(WaitEngine.getInstance().isEnabled()) logger.info(WaitEngine.getInstance().getMetrics());
+            
+            if(ScreenSnapshotEngine.getInstance().isEnabled()) logger.info(ScreenSnapshotEngine.getInstance().getMetrics());
+            
+            extentReporter.finishReport(); 
+        
+        }
         catch(Exception e) { }
     
     }
@@ -162,17 +210,28 @@ public class ExtentReportTestListener extends TestListenerAdapter {
     }
     
     /**
-     * Add the screenshot to the report
+     * Add the screenshot to the report, if the screenshot policy allows it for the event
      * 
+     * @param event
      * @param title
      */
-    private void addScreenshotToReport(String title) {
+    private void addScreenshotToReport(int event, String title) {
         
-        try { utils.addScreenshotToReport(extentReporter.REPORTS_DIRECTORY, title); }    
+        try { screenshotController.addScreenshotToReport(event, title); }    
         catch(Exception le) { }
         
     }
     
+    /**
+     * Write the screenshots buffered in memory for the failed test to the report
+     */
+    private void flushScreenshotBuffer() {
+        
+        try { screenshotController.flushScreenshotBuffer(); }    
+        catch(Exception le) { logger.error(le); }
+        
+    }
+    
 }
 
 
@@ -0,0 +1,94 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.testng;
+
+import org.apache.log4j.Logger;
+
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.TestListenerAdapter;
+
+import org.automateit.metrics.MetricsEndpoint;
+import org.automateit.metrics.PrometheusMetrics;
+
+/**
+ * This class is added to testng task to start the metrics endpoint and record 
+ * test outcomes in the live Prometheus metrics. It does nothing unless the
+ * metrics endpoint is enabled (metricsEndpointEnabled=true).
+ * 
+ * @author mburnside
+ */
+public class MetricsListener extends TestListenerAdapter {
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(MetricsListener.class);
+    
+    /**
+     * Start the metrics endpoint.
+     * 
+     * @param context 
+     */
+    @Override
+    public void onStart(ITestContext context) { 
+        
+        try { MetricsEndpoint.getInstance().start(); }
+        catch(Exception e) { logger.error(e); }
+    
+    }
+    
+    /**
+     * Record a passed test.
+     * 
+     * @param result 
+     */
+    @Override
+    public void onTestSuccess(ITestResult result) { record("passed", result); }
+    
+    /**
+     * Record a failed test.
+     * 
+     * @param result 
+     */
+    @Override
+    public void onTestFailure(ITestResult result) { record("failed", result); }
+    
+    /**
+     * Record a skipped test.
+     * 
+     * @param result 
+     */
+    @Override
+    public void onTestSkipped(ITestResult result) { record("skipped", result); }
+    
+    /**
+     * Record a test outcome.
+     * 
+     * @param outcome
+     * @param result 
+     */
+    private void record(String outcome, ITestResult result) {
+        
+        try { PrometheusMetrics.getInstance().recordTest(outcome, Math.max(0, result.getEndMillis() - result.getStartMillis())); }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+}
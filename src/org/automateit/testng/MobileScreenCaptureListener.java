@@ -18,19 +18,14 @@
 
 package org.automateit.testng;
 
-import java.io.File;
-
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
-
-import org.apache.commons.io.FileUtils;
-
 import org.apache.log4j.Logger;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
 
-import org.automateit.core.CommonWebDriver;
+import org.automateit.screenshot.ScreenshotSink;
+import org.automateit.screenshot.ScreenshotThumbnailer;
+
 import org.automateit.util.ScreenshotCapture;
 import org.automateit.util.Utils;
 
@@ -101,6 +96,9 @@ public class MobileScreenCaptureListener extends TestListenerAdapter {
      */
     @Override
     public void onFinish(ITestContext context) { 
+        
+        // make sure all screenshots linked from the report are on disk
+        ScreenshotSink.getInstance().drain();
     	
         if (testNGUtils.capturePageLoadPerformance()) {
 	    	
@@ -124,7 +122,7 @@ public class MobileScreenCaptureListener extends TestListenerAdapter {
            
             String screenshotFilename = path + utils.getFirstToken(result.getName(), " ") + Long.toHexString( System.currentTimeMillis()) + "." + ScreenshotCapture.PNG;
         
-            createScreenshot(screenshotFilename);
+            screenshotFilename = createScreenshot(screenshotFilename);
             testNGUtils.appendToReport(result, screenshotFilename, divIdNumber++);
        
         }
@@ -133,19 +131,21 @@ public class MobileScreenCaptureListener extends TestListenerAdapter {
     }
     
     /**
-     * Create the screenshot in JPG format.
+     * Create the screenshot and its thumbnail. The files are written in the background.
      * 
      * @param screenshotFilename the name of the screenshot image file
      * 
+     * @return the name of the screenshot image file written (the extension changes for reduced quality images)
+     * 
      * @throws Exception 
      */ 
-    private void createScreenshot(String screenshotFilename) throws Exception {
+    private String createScreenshot(String screenshotFilename) throws Exception {
        
         try { 
            
             log.debug("Filename to save mobile screenshot to: " + screenshotFilename);
           
-            FileUtils.copyFile(((TakesScreenshot)CommonWebDriver.getInstance().getWebDriver()).getScreenshotAs(OutputType.FILE), new File(screenshotFilename)); 
+            return ScreenshotThumbnailer.getInstance().write(utils.getScreenshotAsBytes(), screenshotFilename);
            
         }
         catch(Exception e) { throw e; }
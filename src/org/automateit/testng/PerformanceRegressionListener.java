@@ -0,0 +1,90 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.testng;
+
+import org.apache.log4j.Logger;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import org.automateit.util.PerformanceRegressionDetector;
+import org.automateit.util.PerformanceRegressionException;
+import org.automateit.util.Utils;
+
+/**
+ * This class is added to testng task to compare the page load times of the run 
+ * against the performance baseline once all tests of the suite have finished. 
+ * The comparison and the baseline are saved once per run. When failOnPerformanceRegression
+ * is set and pages regressed, the suite is marked as failed; no exception is thrown,
+ * so the other listeners still finish their reports.
+ * 
+ * @author mburnside
+ */
+public class PerformanceRegressionListener implements ISuiteListener {
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(PerformanceRegressionListener.class);
+    
+    /**
+     * Utils class instance
+     */
+    private final Utils utils = new Utils();
+    
+    /**
+     * TestNGUtils class instance
+     */
+    private final TestNGUtils testNGUtils = new TestNGUtils();
+    
+    /**
+     * Do actions before the suite starts.
+     * 
+     * @param suite 
+     */
+    @Override
+    public void onStart(ISuite suite) { }
+    
+    /**
+     * Compare the run against the performance baseline and mark the suite as 
+     * failed on regressions, if configured.
+     * 
+     * @param suite 
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        
+        try { 
+            
+            if(!testNGUtils.comparePerformanceBaseline(utils.getBasePagePerformanceDirectory())) return;
+            
+            PerformanceRegressionDetector.getInstance().failOnRegression(); 
+        
+        }
+        catch(PerformanceRegressionException e) { 
+            
+            logger.error(e.getMessage());
+            
+            suite.getSuiteState().failed();
+            
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+}
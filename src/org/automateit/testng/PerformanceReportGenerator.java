@@ -0,0 +1,163 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.testng;
+
+import java.io.File;
+
+import java.sql.Timestamp;
+
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import org.automateit.data.DataArchive;
+import org.automateit.data.XLSXDataArchive;
+
+import org.automateit.util.PerformanceCaptureBean;
+import org.automateit.util.PerformanceSink;
+import org.automateit.util.SummaryPerformance;
+import org.automateit.util.Utils;
+
+/**
+ * This class generates the page performance XLSX files and charts from the 
+ * JSON lines files of the performance sink, after a suite has run (or died):
+ * 
+ * java -cp ... org.automateit.testng.PerformanceReportGenerator [sink directory] [report directory] [run id]
+ * 
+ * Both directories default to the performance directory. The sink directory 
+ * keeps the files of several runs, so only the files of one run are read: the 
+ * run id is the time stamp in the file names (e.g. 20261017_093000_123), and 
+ * defaults to the newest run. The report directory has the page summary 
+ * reports and PageLoads.xlsx with every page load.
+ * 
+ * @author mburnside
+ */
+public class PerformanceReportGenerator {
+    
+    /**
+     * The name of the file with every page load
+     */
+    public static final String PAGE_PERFORMANCE_FILENAME = "PageLoads.xlsx";
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(PerformanceReportGenerator.class);
+    
+    /**
+     * Default Constructor
+     */
+    public PerformanceReportGenerator() { }
+    
+    /**
+     * Generate the reports from the performance sink files of the newest run
+     * in the sink directory.
+     * 
+     * @param sinkDirectory
+     * @param reportDirectory
+     * 
+     * @return the number of page loads read
+     * 
+     * @throws Exception 
+     */
+    public int generate(String sinkDirectory, String reportDirectory) throws Exception { return generate(sinkDirectory, reportDirectory, null); }
+    
+    /**
+     * Generate the reports from the performance sink files of a run in the 
+     * sink directory.
+     * 
+     * @param sinkDirectory
+     * @param reportDirectory
+     * @param runId the run id, or null for the newest run
+     * 
+     * @return the number of page loads read
+     * 
+     * @throws Exception 
+     */
+    public int generate(String sinkDirectory, String reportDirectory, String runId) throws Exception {
+        
+        int count = 0;
+        
+        try {
+            
+            if(!reportDirectory.endsWith(File.separator)) reportDirectory += File.separator;
+            
+            (new File(reportDirectory)).mkdirs();
+            
+            DataArchive pageLoadArchive = new XLSXDataArchive();
+            
+            pageLoadArchive.addData(new String[] { "Start Time", "Test", "Thread", "From Page", "Page", "Load Time (ms)", "Hard-coded Delay (ms)", "Readiness Wait (ms)" });
+            
+            for(File file: PerformanceSink.getFiles(new File(sinkDirectory), runId)) {
+                
+                List<PerformanceCaptureBean> beans = PerformanceSink.read(file);
+                
+                logger.info("Read " + beans.size() + " page loads from: " + file.getPath());
+                
+                for(PerformanceCaptureBean bean: beans) {
+                    
+                    SummaryPerformance.getInstance().add(bean);
+                    
+                    pageLoadArchive.addData(new String[] { new Timestamp(bean.getTimestamp()).toString(), String.valueOf(bean.getTestName()), String.valueOf(bean.getThreadId()), 
+                        String.valueOf(bean.getFromPageName()), String.valueOf(bean.getPageName()), String.valueOf(bean.getTime()), String.valueOf(bean.getSleepTime()), String.valueOf(bean.getReadinessWaitTime()) });
+                    
+                    count++;
+                    
+                }
+                
+            }
+            
+            if(count == 0) return count;
+            
+            pageLoadArchive.saveData(reportDirectory + PAGE_PERFORMANCE_FILENAME);
+            
+            // only the page summaries and charts, the baseline is compared and saved by the suite itself
+            (new TestNGUtils()).savePageSummaryPerformance(reportDirectory, false);
+            
+            return count;
+            
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Generate the reports.
+     * 
+     * @param args [sink directory] [report directory] [run id]
+     * 
+     * @throws Exception 
+     */
+    public static void main(String[] args) throws Exception {
+        
+        String performanceDirectory = (new Utils()).getBasePagePerformanceDirectory();
+        
+        String sinkDirectory = (args.length > 0) ? args[0] : performanceDirectory;
+        
+        String reportDirectory = (args.length > 1) ? args[1] : performanceDirectory;
+        
+        String runId = (args.length > 2) ? args[2] : null;
+        
+        int count = (new PerformanceReportGenerator()).generate(sinkDirectory, reportDirectory, runId);
+        
+        logger.info("Generated the page performance reports from " + count + " page loads in: " + reportDirectory);
+        
+    }
+    
+}
@@ -18,23 +18,22 @@
 
 package org.automateit.testng;
 
-import java.io.File;
-
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
-
-import org.apache.commons.io.FileUtils;
-
 import org.apache.log4j.Logger;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
+import org.openqa.selenium.WebDriver;
 
 import org.automateit.core.CommonWebDriver;
 
+import org.automateit.screenshot.ScreenshotSink;
+import org.automateit.screenshot.ScreenshotThumbnailer;
+
 import org.automateit.util.ScreenshotCapture;
 import org.automateit.util.Utils;
 
+import org.automateit.web.ChromePerformanceLog;
+
 /**
  * This class is added to testng task to listen for events.
  * 
@@ -78,7 +77,13 @@ public class SeleniumScreenCaptureListener extends TestListenerAdapter {
      * @param result 
      */
     @Override
-    public void onTestFailure(ITestResult result) { if(utils.doReportingOnTestFail()) doReporting(result); }
+    public void onTestFailure(ITestResult result) { 
+        
+        captureTimeline(result); 
+        
+        if(utils.doReportingOnTestFail()) doReporting(result); 
+    
+    }
 
     /**
      * Do actions after a test case execution skipped.
@@ -95,13 +100,32 @@ public class SeleniumScreenCaptureListener extends TestListenerAdapter {
      * @param result 
      */
     @Override
-    public void onTestSuccess(ITestResult result) { if(utils.doReportingOnTestSuccess()) doReporting(result); }
+    public void onTestSuccess(ITestResult result) { 
+        
+        captureTimeline(result); 
+        
+        if(utils.doReportingOnTestSuccess()) doReporting(result); 
+    
+    }
+    
+    /**
+     * Do actions before a test case execution starts. Only the driver owned by
+     * this thread has its performance log reset, so parallel tests do not empty
+     * each other's logs.
+     * 
+     * @param result 
+     */
+    @Override
+    public void onTestStart(ITestResult result) { ChromePerformanceLog.getInstance().start(CommonWebDriver.getInstance().getThreadWebDriver()); }
    
     /**
      * This method is invoked after all the tests have run and all their Configuration methods have been called.
      */
     @Override
     public void onFinish(ITestContext context) { 
+        
+        // make sure all screenshots linked from the report are on disk
+        ScreenshotSink.getInstance().drain();
     	
         if (testNGUtils.capturePageLoadPerformance()) {
 	    	
@@ -125,7 +149,7 @@ public class SeleniumScreenCaptureListener extends TestListenerAdapter {
 
             String screenshotFilename = path + utils.getFirstToken(result.getName(), " ") + Long.toHexString( System.currentTimeMillis()) + "." + ScreenshotCapture.PNG;
 
-            createScreenshot(screenshotFilename);
+            screenshotFilename = createScreenshot(screenshotFilename);
             
             testNGUtils.appendToReport(result, screenshotFilename, divIdNumber++);
        
@@ -135,19 +159,47 @@ public class SeleniumScreenCaptureListener extends TestListenerAdapter {
     }
     
     /**
-     * Create the screenshot in JPG format.
+     * Capture the Chrome performance log of the test, if enabled, and save its 
+     * timeline next to the screenshots. Nothing is captured when this thread 
+     * does not own a driver.
+     * 
+     * @param result 
+     */
+    private void captureTimeline(ITestResult result) {
+        
+        if(!ChromePerformanceLog.getInstance().isEnabled()) return;
+        
+        WebDriver driver = CommonWebDriver.getInstance().getThreadWebDriver();
+        
+        if(driver == null) return;
+        
+        try {
+            
+            String timelineFilename = utils.getBaseScreenshotsDirectory() + utils.getFirstToken(result.getName(), " ") + Long.toHexString( System.currentTimeMillis()) + ChromePerformanceLog.TIMELINE_SUFFIX;
+            
+            ChromePerformanceLog.getInstance().capture(result, driver, timelineFilename);
+            
+        }
+        catch(Exception e) { log.error(e); }
+        
+    }
+    
+    /**
+     * Create the screenshot and its thumbnail. The files are written in the background.
      * 
      * @param screenshotFilename the name of the screenshot image file
      * 
+     * @return the name of the screenshot image file written (the extension changes for reduced quality images)
+     * 
      * @throws Exception 
      */ 
-    private void createScreenshot(String screenshotFilename) throws Exception {
+    private String createScreenshot(String screenshotFilename) throws Exception {
        
         try { 
            
-            log.debug("Filename to save screenshot to: " + screenshotFilename + "|" + CommonWebDriver.getInstance().getWebDriver());
+            log.debug("Filename to save screenshot to: " + screenshotFilename + "|" + CommonWebDriver.getInstance().getThreadWebDriver());
            
-            FileUtils.copyFile(((TakesScreenshot)CommonWebDriver.getInstance().getWebDriver()).getScreenshotAs(OutputType.FILE), new File(screenshotFilename));
+            return ScreenshotThumbnailer.getInstance().write(utils.getScreenshotAsBytes(), screenshotFilename);
            
         }
         catch(Exception e) { throw e; }
@@ -26,6 +26,8 @@ import org.testng.ITestResult;
 import org.testng.Reporter;
 import org.testng.TestListenerAdapter;
 
+import org.automateit.screenshot.ScreenshotThumbnailer;
+
 import org.automateit.util.CommonProperties;
 import org.automateit.util.ScreenshotCapture;
 
@@ -75,6 +77,8 @@ public class TestNGListener extends TestListenerAdapter {
            
            screenshotCapture.doScreenshot(path + File.separator + SCREENSHOTS_DIR + File.separator + result.getName(), ScreenshotCapture.JPG);
            
+           ScreenshotThumbnailer.getInstance().createThumbnail(path + File.separator + SCREENSHOTS_DIR + File.separator + result.getName() + "." + ScreenshotCapture.JPG);
+           
            Reporter.setCurrentTestResult(result);
 
            Object[] parameters = result.getParameters();
@@ -88,7 +92,7 @@ public class TestNGListener extends TestListenerAdapter {
            Reporter.log("<b>Screenshot</b><br>");
            
            Reporter.log("<p><a href='" + screenshotFileLocation + "'>" +
-                   "<img src='" + screenshotFileLocation + "' height='100' width='100'/></a>");
+                   "<img src='" + ScreenshotThumbnailer.getInstance().getDisplayFilename(screenshotFileLocation) + "' width='" + ScreenshotThumbnailer.getInstance().getThumbnailWidth() + "' loading='lazy'/></a>");
            
            Reporter.log("<p>");   
            
@@ -121,6 +125,8 @@ public class TestNGListener extends TestListenerAdapter {
            
            screenshotCapture.doScreenshot(path + File.separator + SCREENSHOTS_DIR + File.separator + result.getName(), ScreenshotCapture.JPG);
            
+           ScreenshotThumbnailer.getInstance().createThumbnail(path + File.separator + SCREENSHOTS_DIR + File.separator + result.getName() + "." + ScreenshotCapture.JPG);
+           
            Reporter.setCurrentTestResult(result);
            
            Object[] parameters = result.getParameters();
@@ -135,7 +141,7 @@ public class TestNGListener extends TestListenerAdapter {
            Reporter.log("<b>Screenshot</b><br>");
            
            Reporter.log("<p><a href='" + screenshotFileLocation + "'>" +
-                   "<img src='" + screenshotFileLocation + "' height='100' width='100'/></a>");
+                   "<img src='" + ScreenshotThumbnailer.getInstance().getDisplayFilename(screenshotFileLocation) + "' width='" + ScreenshotThumbnailer.getInstance().getThumbnailWidth() + "' loading='lazy'/></a>");
            
            Reporter.log("<p>");   
            
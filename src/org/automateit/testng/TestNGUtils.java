@@ -24,8 +24,12 @@ import java.io.FileWriter;
 import java.io.StringWriter;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.imageio.ImageIO;
 
@@ -58,14 +62,34 @@ import org.automateit.data.DataArchive;
 import org.automateit.data.DataDrivenInput;
 import org.automateit.data.PipeDelimitedAppendDataArchive;
 import org.automateit.data.XLSXDataArchive;
+import org.automateit.core.WaitEngine;
+import org.automateit.screenshot.ScreenshotThumbnailer;
+import org.automateit.jfr.ReportWriteEvent;
+
 import org.automateit.util.CommandList;
 import org.automateit.util.CommonProperties;
 import org.automateit.util.PerformanceCapture;
+import org.automateit.util.PerformanceBaseline;
 import org.automateit.util.PerformanceCaptureBean;
+import org.automateit.util.PerformanceRegressionBean;
+import org.automateit.util.ChromeTimelineBean;
+import org.automateit.util.CommandProfiler;
+import org.automateit.util.CommandTimingBean;
+import org.automateit.util.PerformanceRegressionDetector;
+import org.automateit.util.PerformanceSink;
+import org.automateit.util.SleepProfiler;
+import org.automateit.util.SleepStatisticsBean;
 import org.automateit.util.ScreenshotCapture;
+import org.automateit.util.LaunchPerformanceBean;
+import org.automateit.util.NetworkRequestBean;
+import org.automateit.util.PaintTimingBean;
+import org.automateit.util.StartupPerformanceBean;
 import org.automateit.util.SummaryPerformance;
 import org.automateit.util.SummaryPerformanceBean;
 import org.automateit.util.Utils;
+import org.automateit.util.WaitStatisticsBean;
+import org.automateit.web.ChromePerformanceLog;
+import org.automateit.web.NavigationTimingCapture;
 
 /**
  * This class is a utility class that can be used by TestNG listeners to 
@@ -80,6 +104,11 @@ public class TestNGUtils {
      */
     protected static Logger logger = Logger.getLogger(TestNGUtils.class);
     
+    /**
+     * If this run was already compared against the performance baseline
+     */
+    private static final AtomicBoolean baselineCompared = new AtomicBoolean(false);
+    
     /**
      * Utils class instance
      */
@@ -131,6 +160,12 @@ public class TestNGUtils {
         String performanceFile = screenshotFile.substring(0, index) + "_perf." + ScreenshotCapture.PNG;
         printPerformanceNumbers(performanceFile, divId, utils.getFirstToken(result.getName(), " "));
         
+        printSleepProfile(result);
+        
+        printCommandTiming(result);
+        
+        printChromeTimeline(result);
+        
         Reporter.log("<p><font face=arial size=2 color=000099>");
         
         if(parameters.length > 0) Reporter.log("<p>Total number of input parameters: " + parameters.length + "<p>");         
@@ -141,21 +176,27 @@ public class TestNGUtils {
         
         String screenshotFileURL = null;
         
+        String thumbnailFileURL = null;
+        
+        String thumbnailFile = ScreenshotThumbnailer.getInstance().getDisplayFilename(screenshotFile);
+        
         if(useLocalFilePathForReporting()) { 
             
             screenshotFileURL = utils.LINKIMAGEFILEPREFIX + screenshotFile;
+            thumbnailFileURL = utils.LINKIMAGEFILEPREFIX + thumbnailFile;
            
         }
         else {
             
             screenshotFileURL = getScreenshotsDirectory() + "/" + getFilenameWithoutPath(screenshotFile);
+            thumbnailFileURL = getScreenshotsDirectory() + "/" + getFilenameWithoutPath(thumbnailFile);
             
         }
         
         logger.debug("useLocalFilePathForReporting: " + useLocalFilePathForReporting());
         logger.debug("screenshotFileURL: " + screenshotFileURL);
           
-        Reporter.log("<p><a href='" + screenshotFileURL + "'>" + "<img src='" + screenshotFileURL + "' height='100' width='100'/></a>");
+        Reporter.log("<p><a href='" + screenshotFileURL + "'>" + "<img src='" + thumbnailFileURL + "' width='" + ScreenshotThumbnailer.getInstance().getThumbnailWidth() + "' loading='lazy'/></a>");
                            
         Reporter.log("<p>");   
         
@@ -163,12 +204,16 @@ public class TestNGUtils {
                
         Reporter.setCurrentTestResult(null);
         
-        savePerformanceToXLSXFile(screenshotFile + "_DataArchive.xlsx");
+        if(savePerformanceTestArchives()) {
+            
+            savePerformanceToXLSXFile(screenshotFile + "_DataArchive.xlsx");
         
-        savePerformanceToCSVFile(screenshotFile + "_DataArchive.txt");
+            savePerformanceToCSVFile(screenshotFile + "_DataArchive.txt");
         
-        try { dataArchive.clearData(); }
-        catch(Exception e) { }
+            try { dataArchive.clearData(); }
+            catch(Exception e) { }
+            
+        }
         
     }
     
@@ -248,7 +293,18 @@ public class TestNGUtils {
      * 
      * @param performancePath
      */
-    public void savePageSummaryPerformance(String performancePath) {
+    public void savePageSummaryPerformance(String performancePath) { savePageSummaryPerformance(performancePath, true); }
+    
+    /**
+     * This method retrieves the page summary from the SummaryPerformance singleton class and
+     * write the data in a Pipe Delimited format.
+     * 
+     * @param performancePath
+     * @param suiteReports false to only save the page summaries and charts (e.g. when the reports 
+     *                     are generated again from the performance sink files), without the startup, 
+     *                     timing and wait reports of this JVM and without comparing to or saving the baseline
+     */
+    public void savePageSummaryPerformance(String performancePath, boolean suiteReports) {
         
         logger.debug("Saving page summary performance: " + capturePageLoadPerformance() + "|" + performancePath);
     	
@@ -275,14 +331,25 @@ public class TestNGUtils {
                 DataArchive averageTimeOverThresholdArchive = new XLSXDataArchive();
 
                 DataArchive maxTimeOverThresholdArchive = new XLSXDataArchive();
+                
+                DataArchive percentileTimeOverThresholdArchive = new XLSXDataArchive();
 		    
                 // Add Header Row
 
-                pageSummaryArchive.addData(new String[] { "Page", "Total Load Time (ms)", "Max Load Time (milli sec)", "Average Load Time (ms)", "Page Hit" });
+                List<String> header = new ArrayList<String>(Arrays.asList("Page", "Total Load Time (ms)", "Max Load Time (milli sec)", "Average Load Time (ms)", "Page Hit"));
+                
+                for(double percentile: SummaryPerformanceBean.PERCENTILES) header.add("p" + formatPercentile(percentile) + " Load Time (ms)");
+                
+                // breakdown measured by the browser (navigation timing)
+                header.addAll(Arrays.asList("Average DNS (ms)", "Average Connect (ms)", "Average TTFB (ms)", "Average DOMContentLoaded (ms)", "Average Load Event (ms)"));
+                
+                pageSummaryArchive.addData(header.toArray(new String[header.size()]));
 		
                 averageTimeOverThresholdArchive.addData(new String[] { "Page", "Average Load Time (ms)> " + getAveragePageLoadTimeThreshold() });
 
                 maxTimeOverThresholdArchive.addData(new String[] { "Page", "Max Load Time (ms)> " + getMaxPageLoadTimeThreshold() });
+                
+                percentileTimeOverThresholdArchive.addData(new String[] { "Page", "p" + formatPercentile(getPercentilePageLoadTimeThresholdPercentile()) + " Load Time (ms)> " + getPercentilePageLoadTimeThreshold(), "Page Hit" });
 		    	
                 // Retrieve data for each pages
 
@@ -305,14 +372,22 @@ public class TestNGUtils {
 		    
                     pageHitDataset.setValue(pageSummary.getPageName(), pageSummary.getPageHit());
 		    
-                    String[] data = { pageSummary.getPageName(),
+                    List<String> data = new ArrayList<String>(Arrays.asList(pageSummary.getPageName(),
                         String.valueOf(pageSummary.getTotalPageLoadTime()), 
                         String.valueOf(pageSummary.getMaxPageLoadTime()),
                         String.valueOf(pageSummary.getAveragePageLoadTime()),
-                        String.valueOf(pageSummary.getPageHit()) 
-                    };
+                        String.valueOf(pageSummary.getPageHit()))); 
+                    
+                    for(double percentile: SummaryPerformanceBean.PERCENTILES) data.add(String.valueOf(pageSummary.getPercentilePageLoadTime(percentile)));
+                    
+                    if(pageSummary.getNavigationTimingCount() > 0) {
+                        
+                        data.addAll(Arrays.asList(String.valueOf(pageSummary.getAverageDns()), String.valueOf(pageSummary.getAverageConnect()), String.valueOf(pageSummary.getAverageTimeToFirstByte()), 
+                                String.valueOf(pageSummary.getAverageDomContentLoaded()), String.valueOf(pageSummary.getAverageLoad())));
+                        
+                    }
 		    
-                    pageSummaryArchive.addData(data);
+                    pageSummaryArchive.addData(data.toArray(new String[data.size()]));
 		
                     if (getAveragePageLoadTimeThreshold() > 0 && pageSummary.isAverageTimeOverThreshold(getAveragePageLoadTimeThreshold())) {
 	    				
@@ -329,6 +404,14 @@ public class TestNGUtils {
                         maxTimeOverThresholdArchive.addData(data1);
 	    		
                     }
+                    
+                    if (getPercentilePageLoadTimeThreshold() > 0 && pageSummary.isPercentileTimeOverThreshold(getPercentilePageLoadTimeThresholdPercentile(), getPercentilePageLoadTimeThreshold())) {
+	    				
+                        String[] data1 = { pageSummary.getPageName(), String.valueOf(pageSummary.getPercentilePageLoadTime(getPercentilePageLoadTimeThresholdPercentile())), String.valueOf(pageSummary.getPageHit()) };
+	    		
+                        percentileTimeOverThresholdArchive.addData(data1);
+	    		
+                    }
 	    			
 	    	
                     pageCount++;
@@ -344,13 +427,38 @@ public class TestNGUtils {
 		
                 // Generate overall page summary
                 pageSummaryArchive.saveData(performancePath + "PerformanceSummary.xlsx");
+                
+                // Generate web driver session startup summary, kept separate from page load time
+                if(suiteReports) saveStartupPerformance(performancePath + "StartupPerformance.xlsx");
+                
+                if(suiteReports) saveLaunchPerformance(performancePath + "LaunchProfilePerformance.xlsx");
 	    	
                 // Generate page over Threshold
                 String avgLoadThresholdFile = performancePath + "AverageTimeOverThreshold.xlsx";
                 String maxLoadThresholdFile = performancePath + "MaxTimeOverThreshold.xlsx";
+                String percentileLoadThresholdFile = performancePath + "PercentileTimeOverThreshold.xlsx";
 	    	
                 if (getAveragePageLoadTimeThreshold() > 0) averageTimeOverThresholdArchive.saveData(avgLoadThresholdFile);
                 if (getMaxPageLoadTimeThreshold() > 0) maxTimeOverThresholdArchive.saveData(maxLoadThresholdFile);
+                if (getPercentilePageLoadTimeThreshold() > 0) percentileTimeOverThresholdArchive.saveData(percentileLoadThresholdFile);
+                
+                // The comparison against the baseline of previous runs, once it was done at the end of the suite
+                List<PerformanceRegressionBean> regressions = suiteReports ? PerformanceRegressionDetector.getInstance().getResults() : new ArrayList<PerformanceRegressionBean>();
+                
+                if(suiteReports) {
+                    
+                    // Save the time spent in hard-coded delays versus condition waits
+                    saveSleepProfile(performancePath + "SleepProfileByTest.xlsx", SleepProfiler.getInstance().getTestStatistics(), "Test");
+                
+                    saveSleepProfile(performancePath + "SleepProfileByCallSite.xlsx", SleepProfiler.getInstance().getCallSiteStatistics(), "Call Site");
+                
+                    // Save the split of command time into framework, web driver round trips and waits
+                    saveCommandTiming(performancePath + "CommandTiming.xlsx");
+                
+                    // Save how long each wait condition took, to tune the wait budgets
+                    saveWaitStatistics(performancePath + "WaitStatistics.xlsx");
+                    
+                }
 	    	
                 // Generate HTML report
                 Collections.sort(individualPageLoadFile);
@@ -361,7 +469,9 @@ public class TestNGUtils {
                         totalHitsImageFile,		    	
                         avgLoadThresholdFile,		    	
                         maxLoadThresholdFile,		    	
-                        individualPageLoadFile);
+                        percentileLoadThresholdFile,		    	
+                        individualPageLoadFile,
+                        regressions);
 	    	}
 	        catch(Exception e) { }
     	
@@ -428,6 +538,8 @@ public class TestNGUtils {
             
             PerformanceCapture.getInstance().clear();
             
+            PerformanceCapture.getInstance().clearInFlight();
+            
             return;
         
         }
@@ -436,6 +548,9 @@ public class TestNGUtils {
         
         logger.debug("Writing the performance log with : " + list.size() + " entries");
         
+        // every page load is in the performance sink, the archives and chart are optional
+        boolean archive = savePerformanceTestArchives();
+        
         String newId = PERFORMANCELOGDIV + divId;
                 
         // note: toggleElement is a javascript function provided by ReportsNG
@@ -457,36 +572,59 @@ public class TestNGUtils {
             PerformanceCaptureBean bean = list.get(i);
             Reporter.log(bean.getTime() + " - " + bean.getPageName());
             
-            barChartDataset.addValue(bean.getTime(), "Label", (i+1) + "."+bean.getPageName());            
+            // breakdown measured by the browser
+            if(bean.getNavigationTiming() != null) {
+                
+                Reporter.log(" (" + bean.getNavigationTiming() + ")");
+                
+                if(!bean.getNavigationTiming().getSlowestResources().isEmpty()) Reporter.log("<br>&nbsp;&nbsp;slowest resources: " + bean.getNavigationTiming().getSlowestResourcesString());
+                
+            }
+            
+            if(archive) barChartDataset.addValue(bean.getTime(), "Label", (i+1) + "."+bean.getPageName());            
             
             String[] dataToArchive = { bean.getFromPageName(), bean.getPageName(), String.valueOf(bean.getTime()) };                        
             try { 
                 
-                dataArchive.addData(dataToArchive); 
-                csvDataArchive.addData(dataToArchive);
+                // the archives are shared by tests running in parallel
+                if(archive) synchronized(dataArchive) {
+                    
+                    dataArchive.addData(dataToArchive); 
+                    csvDataArchive.addData(dataToArchive);
+                
+                }
+                
                 SummaryPerformance.getInstance().add(bean);
             }
             catch(Exception e) { }
         
         }
         
-        generateBarChart(barChartDataset, datarowcount, filename, testMethod);
+        Reporter.log("</font>");
+        
+        if(archive) {
+            
+            generateBarChart(barChartDataset, datarowcount, filename, testMethod);
         
-        String performanceFileURL = null;
+            String performanceFileURL = null;
         
-        if(useLocalFilePathForReporting())              
-        	performanceFileURL = utils.LINKIMAGEFILEPREFIX + filename;                   
-        else             
-        	performanceFileURL = getScreenshotsDirectory() + "/" + getFilenameWithoutPath(filename);                    
+            if(useLocalFilePathForReporting())              
+                performanceFileURL = utils.LINKIMAGEFILEPREFIX + filename;                   
+            else             
+                performanceFileURL = getScreenshotsDirectory() + "/" + getFilenameWithoutPath(filename);                    
 
-        Reporter.log("</font>");
-        Reporter.log("<p><a href='" + performanceFileURL + "'>" + "<img src='" + performanceFileURL + "' height='100' width='100'/></a><p><br>");
-        Reporter.log("<font size=1>Click on thumbnail image to view page performance chart</font><p><br></font>");
+            Reporter.log("<p><a href='" + performanceFileURL + "'>" + "<img src='" + performanceFileURL + "' height='100' width='100'/></a><p><br>");
+            Reporter.log("<font size=1>Click on thumbnail image to view page performance chart</font><p><br></font>");
+            
+        }
         
         Reporter.log("</div>");               
         
         PerformanceCapture.getInstance().clear();
         
+        // page loads that were started but never stopped in this test
+        PerformanceCapture.getInstance().clearInFlight();
+        
     }
     
     /**
@@ -498,6 +636,21 @@ public class TestNGUtils {
      */
     private boolean captureSeleniumCommands() { return true; }
     
+    /**
+     * Determine if the page loads of each test are saved to XLSX and text 
+     * archives with a bar chart. They are always saved when the performance 
+     * sink is not enabled.
+     * 
+     * @return 
+     */
+    public boolean savePerformanceTestArchives() {
+        
+        if(!PerformanceSink.getInstance().isEnabled()) return true;
+        
+        return "true".equals(properties.getProperty("performanceTestArchives"));
+       
+    }
+    
     /**
      * Determine if we should print the list of page load numbers.
      * 
@@ -541,6 +694,51 @@ public class TestNGUtils {
     
     }
     
+    /**     
+     * @return page load time threshold (in milli-second) at the percentile of percentilePageLoadTimeThresholdPercentile
+     */
+    private long getPercentilePageLoadTimeThreshold() {
+    	
+        long threshold = 0;
+    	
+        String thresholdStr = properties.getProperty("percentilePageLoadTimeThreshold");
+    	
+    	if (thresholdStr != null) threshold = Long.parseLong(thresholdStr);
+    	
+    	return threshold;
+    
+    }
+    
+    /**     
+     * @return the percentile checked against percentilePageLoadTimeThreshold, default 95
+     */
+    private double getPercentilePageLoadTimeThresholdPercentile() {
+    	
+        double percentile = 95.0;
+    	
+        String percentileStr = properties.getProperty("percentilePageLoadTimeThresholdPercentile");
+    	
+    	if (percentileStr != null) percentile = Double.parseDouble(percentileStr);
+    	
+    	return percentile;
+    
+    }
+    
+    /**
+     * Format a percentile for a column heading, e.g. 95 or 99.9.
+     * 
+     * @param percentile
+     * 
+     * @return 
+     */
+    private String formatPercentile(double percentile) {
+        
+        if(percentile == Math.rint(percentile)) return String.valueOf((long)percentile);
+        
+        return String.valueOf(percentile);
+        
+    }
+    
     /**
      * Save performance data to an XLSX (Excel) file.
      * 
@@ -553,6 +751,96 @@ public class TestNGUtils {
         
     }
     
+    /**
+     * Save web driver session startup times to an XLSX file.
+     * 
+     * @param filename 
+     */
+    public void saveStartupPerformance(String filename) {
+        
+        List<StartupPerformanceBean> startups = PerformanceCapture.getInstance().getAllStartupsInList();
+        
+        if(startups.isEmpty()) return;
+        
+        try { 
+            
+            DataArchive startupArchive = new XLSXDataArchive();
+            
+            startupArchive.addData(new String[] { "Session", "Pre-warmed", "Startup Time (ms)", "Test Wait Time (ms)" });
+            
+            for(StartupPerformanceBean startup: startups) {
+                
+                startupArchive.addData(new String[] { startup.getSessionName(), String.valueOf(startup.isPrewarmed()), String.valueOf(startup.getStartupTime()), String.valueOf(startup.getWaitTime()) });
+                
+            }
+            
+            startupArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+    /**
+     * Save browser launch startup times and resident memory by launch profile 
+     * to an XLSX file, so launch profiles can be compared.
+     * 
+     * @param filename 
+     */
+    public void saveLaunchPerformance(String filename) {
+        
+        List<LaunchPerformanceBean> launches = PerformanceCapture.getInstance().getAllLaunchesInList();
+        
+        if(launches.isEmpty()) return;
+        
+        try { 
+            
+            // profile|browser -> launches
+            Map<String, List<LaunchPerformanceBean>> profiles = new TreeMap<String, List<LaunchPerformanceBean>>();
+            
+            for(LaunchPerformanceBean launch: launches) {
+                
+                String key = launch.getProfileName() + "|" + launch.getWebDriverId();
+                
+                if(!profiles.containsKey(key)) profiles.put(key, new ArrayList<LaunchPerformanceBean>());
+                
+                profiles.get(key).add(launch);
+                
+            }
+            
+            DataArchive launchArchive = new XLSXDataArchive();
+            
+            launchArchive.addData(new String[] { "Profile", "Browser", "Launches", "Average Startup Time (ms)", "Max Startup Time (ms)", "Average RSS After Launch (KB)", "Max RSS (KB)" });
+            
+            for(List<LaunchPerformanceBean> profile: profiles.values()) {
+                
+                long totalStartup = 0, maxStartup = 0, totalRss = 0, rssCount = 0, maxRss = -1;
+                
+                for(LaunchPerformanceBean launch: profile) {
+                    
+                    totalStartup += launch.getStartupTime();
+                    
+                    maxStartup = Math.max(maxStartup, launch.getStartupTime());
+                    
+                    if(launch.getStartupResidentMemory() >= 0) { totalRss += launch.getStartupResidentMemory(); rssCount++; }
+                    
+                    maxRss = Math.max(maxRss, launch.getPeakResidentMemory());
+                    
+                }
+                
+                launchArchive.addData(new String[] { profile.get(0).getProfileName(), profile.get(0).getWebDriverId(), String.valueOf(profile.size()), 
+                    String.valueOf(totalStartup / profile.size()), String.valueOf(maxStartup), 
+                    (rssCount == 0) ? "" : String.valueOf(totalRss / rssCount), (maxRss < 0) ? "" : String.valueOf(maxRss) });
+                
+            }
+            
+            launchArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
     /**
      * Save performance data to a CSV file.
      * 
@@ -652,7 +940,9 @@ public class TestNGUtils {
      * @param totalHitsImageFile	- file path of the image file for total page hits
      * @param avgLoadThresholdFile	- file path of average page load threshold
      * @param maxLoadThresholdFile	- file path of max page load threshold
+     * @param percentileLoadThresholdFile	- file path of percentile page load threshold
      * @param pageLoadFiles		- list of individual page loads
+     * @param regressions		- comparison of each page against the performance baseline
      */
     private void generatePageSummaryReport(String filename,
             String totalTimeImageFile,
@@ -660,7 +950,9 @@ public class TestNGUtils {
             String totalHitsImageFile,
             String avgLoadThresholdFile,
             String maxLoadThresholdFile,
-            ArrayList<String> pageLoadFiles) {
+            String percentileLoadThresholdFile,
+            ArrayList<String> pageLoadFiles,
+            List<PerformanceRegressionBean> regressions) {
         
         logger.debug("Generating Page Summary Report: " + filename);
     	
@@ -669,6 +961,7 @@ public class TestNGUtils {
     	String totalHitsImageURL = null;
     	String avgLoadThresholdURL = null;
     	String maxLoadThresholdURL = null;
+    	String percentileLoadThresholdURL = null;
     	String fileseparator = File.separator;
     	
         if (useLocalFilePathForReporting()) {
@@ -678,6 +971,7 @@ public class TestNGUtils {
             totalHitsImageURL = utils.LINKIMAGEFILEPREFIX + totalHitsImageFile;
             avgLoadThresholdURL = utils.LINKIMAGEFILEPREFIX + avgLoadThresholdFile;
             maxLoadThresholdURL = utils.LINKIMAGEFILEPREFIX + maxLoadThresholdFile;
+            percentileLoadThresholdURL = utils.LINKIMAGEFILEPREFIX + percentileLoadThresholdFile;
 
         }
         else {
@@ -687,6 +981,7 @@ public class TestNGUtils {
             totalHitsImageURL = getPerformanceDataDirectory() + "/" + getFilenameWithoutPath(totalHitsImageFile);
             avgLoadThresholdURL = getPerformanceDataDirectory() + "/" + getFilenameWithoutPath(avgLoadThresholdFile);
             maxLoadThresholdURL = getPerformanceDataDirectory() + "/" + getFilenameWithoutPath(maxLoadThresholdFile);
+            percentileLoadThresholdURL = getPerformanceDataDirectory() + "/" + getFilenameWithoutPath(percentileLoadThresholdFile);
             fileseparator = "/";
         
         }
@@ -701,12 +996,19 @@ public class TestNGUtils {
         context.put("totalHitsImageFile", totalHitsImageURL);
         context.put("avgLoadThresholdFile", avgLoadThresholdURL);
         context.put("maxLoadThresholdFile", maxLoadThresholdURL);
+        context.put("percentileLoadThresholdFile", percentileLoadThresholdURL);
         context.put("pageLoadFiles", pageLoadFiles);
+        context.put("pageSummaries", SummaryPerformance.getInstance().getPageSummaries());
+        context.put("regressions", regressions);
         context.put("pathseparator", fileseparator);
 
         VelocityEngine ve = new VelocityEngine();
         ve.setProperty("file.resource.loader.class", ClasspathResourceLoader.class.getName());
         
+        ReportWriteEvent event = new ReportWriteEvent();
+        
+        event.begin();
+        
         try {
             
             ve.init();
@@ -715,15 +1017,342 @@ public class TestNGUtils {
             StringWriter writer = new StringWriter();
             t.merge(context, writer);
             FileWriter fileWriter = new FileWriter(filename, false);
-            fileWriter.write(writer.toString());
+            fileWriter.write(addRegressionsToReport(writer.toString(), regressions));
             fileWriter.flush();
             fileWriter.close();
 
         }
         catch (Exception e) { }
+        finally { event.complete("generatePageSummaryReport", filename, this); }
 
     }
 
+    /**
+     * Add the comparison against the performance baseline to the page summary
+     * report, with regressions flagged.
+     * 
+     * @param html
+     * @param regressions
+     * 
+     * @return 
+     */
+    private String addRegressionsToReport(String html, List<PerformanceRegressionBean> regressions) {
+        
+        if(regressions.isEmpty()) return html;
+        
+        StringBuilder table = new StringBuilder();
+        
+        table.append("<h3>Page Load Regressions (").append(PerformanceRegressionDetector.getInstance().getRegressionCount()).append(" of ").append(regressions.size()).append(" pages)</h3>");
+        table.append("<table border=1 cellpadding=3><tr><th>Page</th><th>Percentile</th><th>Baseline (ms)</th><th>This Run (ms)</th><th>Change (%)</th><th>p-value</th><th>Baseline / This Run Page Loads</th><th>Regression</th></tr>");
+        
+        for(PerformanceRegressionBean regression: regressions) {
+            
+            table.append(regression.isRegression() ? "<tr style=\"color:red;font-weight:bold\">" : "<tr>");
+            table.append("<td>").append(regression.getPageName()).append("</td>");
+            table.append("<td>p").append(formatPercentile(regression.getPercentile())).append("</td>");
+            table.append("<td>").append(regression.getBaselineTime()).append("</td>");
+            table.append("<td>").append(regression.getCurrentTime()).append("</td>");
+            table.append("<td>").append(String.format("%.1f", regression.getChange())).append("</td>");
+            table.append("<td>").append(String.format("%.4f", regression.getPValue())).append("</td>");
+            table.append("<td>").append(regression.getBaselineCount()).append(" / ").append(regression.getCurrentCount()).append("</td>");
+            table.append("<td>").append(regression.isRegression() ? "REGRESSION" : "").append("</td></tr>");
+            
+        }
+        
+        table.append("</table>");
+        
+        int end = html.toLowerCase().lastIndexOf("</body>");
+        
+        if(end < 0) return html + table;
+        
+        return html.substring(0, end) + table + html.substring(end);
+        
+    }
+    
+    /**
+     * Save the time spent in hard-coded delays (sleeps) versus waiting on 
+     * conditions to an XLSX file.
+     * 
+     * @param filename
+     * @param statistics
+     * @param name the title of the name column
+     */
+    public void saveSleepProfile(String filename, List<SleepStatisticsBean> statistics, String name) {
+        
+        if(statistics.isEmpty()) return;
+        
+        try { 
+            
+            DataArchive sleepArchive = new XLSXDataArchive();
+            
+            sleepArchive.addData(new String[] { name, "Sleep Time (ms)", "Sleeps", "Condition Wait Time (ms)", "Condition Waits", "Sleep Share (%)" });
+            
+            for(SleepStatisticsBean bean: statistics) {
+                
+                sleepArchive.addData(new String[] { bean.getName(), String.valueOf(bean.getSleepTime()), String.valueOf(bean.getSleepCount()), 
+                    String.valueOf(bean.getWaitTime()), String.valueOf(bean.getWaitCount()), String.format("%.1f", bean.getSleepShare()) });
+                
+            }
+            
+            sleepArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+    /**
+     * Save how long each wait condition took to become true, its polls and 
+     * timeouts, to an XLSX file.
+     * 
+     * @param filename
+     */
+    public void saveWaitStatistics(String filename) {
+        
+        List<WaitStatisticsBean> statistics = WaitEngine.getInstance().getStatistics();
+        
+        if(statistics.isEmpty()) return;
+        
+        try { 
+            
+            DataArchive waitArchive = new XLSXDataArchive();
+            
+            waitArchive.addData(new String[] { "Condition", "Met", "Timeouts", "Average Polls", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)", "Total Time (ms)", "Suggested Budget (s)" });
+            
+            for(WaitStatisticsBean bean: statistics) {
+                
+                waitArchive.addData(new String[] { bean.getCondition(), String.valueOf(bean.getCount()), String.valueOf(bean.getTimeoutCount()), String.format("%.1f", bean.getAveragePolls()), 
+                    String.valueOf(bean.getTime(50)), String.valueOf(bean.getTime(95)), String.valueOf(bean.getTime(99)), String.valueOf(bean.getMaxTime()), 
+                    String.valueOf(bean.getTotalTime()), String.valueOf(bean.getSuggestedBudget()) });
+                
+            }
+            
+            waitArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+    /**
+     * Save the timing of the commands of each test, split into framework, web 
+     * driver round trips and explicit waits, to an XLSX file.
+     * 
+     * @param filename
+     */
+    public void saveCommandTiming(String filename) {
+        
+        List<String> testNames = CommandProfiler.getInstance().getTestNames();
+        
+        if(testNames.isEmpty()) return;
+        
+        try { 
+            
+            DataArchive commandArchive = new XLSXDataArchive();
+            
+            commandArchive.addData(new String[] { "Test", "Command", "Runs", "Total (ms)", "Framework (ms)", "Web Driver (ms)", "Round Trips", "Explicit Waits (ms)", "Framework (%)" });
+            
+            for(String testName: testNames) {
+                
+                for(CommandTimingBean bean: CommandProfiler.getInstance().getTestStatistics(testName)) commandArchive.addData(getCommandTimingRow(testName, bean));
+                
+            }
+            
+            for(CommandTimingBean bean: CommandProfiler.getInstance().getStatistics()) commandArchive.addData(getCommandTimingRow("All Tests", bean));
+            
+            commandArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+    }
+    
+    /**
+     * Get the row of the command timing XLSX file.
+     * 
+     * @param testName
+     * @param bean
+     * 
+     * @return 
+     */
+    private String[] getCommandTimingRow(String testName, CommandTimingBean bean) {
+        
+        return new String[] { testName, bean.getCommand(), String.valueOf(bean.getCount()), String.valueOf(bean.getElapsedTime()), String.valueOf(bean.getFrameworkTime()), 
+            String.valueOf(bean.getWireTime()), String.valueOf(bean.getWireCount()), String.valueOf(bean.getWaitTime()), String.format("%.1f", bean.getFrameworkShare()) };
+        
+    }
+    
+    /**
+     * Log the timing of the commands of the test, split into framework, web 
+     * driver round trips and explicit waits, to the testNG report area.
+     * 
+     * @param result 
+     */
+    private void printCommandTiming(ITestResult result) {
+        
+        List<CommandTimingBean> commands = CommandProfiler.getInstance().getTestStatistics(result);
+        
+        if(commands.isEmpty()) return;
+        
+        commands.add(CommandProfiler.getInstance().getTotal(commands));
+        
+        Reporter.log("<p><font face=arial size=2 color=000099><b>Command timing</b></font>");
+        
+        Reporter.log("<table border=1 cellpadding=2 style=\"font-family:arial;font-size:11px\"><tr><th>Command</th><th>Runs</th><th>Total (ms)</th><th>Framework (ms)</th><th>Web Driver (ms)</th><th>Round Trips</th><th>Explicit Waits (ms)</th><th>Framework (%)</th></tr>");
+        
+        for(CommandTimingBean bean: commands) {
+            
+            Reporter.log("<tr><td>" + bean.getCommand() + "</td><td>" + bean.getCount() + "</td><td>" + bean.getElapsedTime() + "</td><td>" + bean.getFrameworkTime() + "</td><td>" + bean.getWireTime() 
+                    + "</td><td>" + bean.getWireCount() + "</td><td>" + bean.getWaitTime() + "</td><td>" + String.format("%.1f", bean.getFrameworkShare()) + "</td></tr>");
+            
+        }
+        
+        Reporter.log("</table></p>");
+        
+    }
+    
+    /**
+     * Log the frontend timeline of the test from the Chrome performance log 
+     * (paint timings, slowest requests and long tasks) to the testNG report area,
+     * with a link to the saved timeline.
+     * 
+     * @param result 
+     */
+    private void printChromeTimeline(ITestResult result) {
+        
+        ChromeTimelineBean timeline = ChromePerformanceLog.getInstance().getTimeline(result);
+        
+        if(timeline == null) return;
+        
+        Reporter.log("<p><font face=arial size=2 color=000099><b>Chrome timeline</b>: " + timeline);
+        
+        if(timeline.getFilename() != null) {
+            
+            String timelineURL = useLocalFilePathForReporting() ? utils.LINKIMAGEFILEPREFIX + timeline.getFilename() : getScreenshotsDirectory() + "/" + getFilenameWithoutPath(timeline.getFilename());
+            
+            Reporter.log(" (<a href='" + timelineURL + "'>" + getFilenameWithoutPath(timeline.getFilename()) + "</a>)");
+            
+        }
+        
+        Reporter.log("</font></p>");
+        
+        if(!timeline.getPaints().isEmpty()) {
+            
+            Reporter.log("<table border=1 cellpadding=2 style=\"font-family:arial;font-size:11px\"><tr><th>Navigation</th><th>Start (ms)</th><th>First Paint (ms)</th><th>First Contentful Paint (ms)</th><th>Largest Contentful Paint (ms)</th></tr>");
+            
+            for(PaintTimingBean paint: timeline.getPaints()) 
+                Reporter.log("<tr><td>" + paint.getUrl() + "</td><td>" + paint.getNavigationStart() + "</td><td>" + paint.getFirstPaint() + "</td><td>" + paint.getFirstContentfulPaint() + "</td><td>" + paint.getLargestContentfulPaint() + "</td></tr>");
+            
+            Reporter.log("</table><br>");
+            
+        }
+        
+        if(timeline.getRequests().isEmpty()) return;
+        
+        Reporter.log("<table border=1 cellpadding=2 style=\"font-family:arial;font-size:11px\"><tr><th>Slowest Requests</th><th>Type</th><th>Status</th><th>Start (ms)</th><th>TTFB (ms)</th><th>Duration (ms)</th><th>Bytes</th></tr>");
+        
+        for(NetworkRequestBean request: timeline.getSlowestRequests(getSlowestRequestCount())) 
+            Reporter.log("<tr><td>" + request.getMethod() + " " + request.getUrl() + "</td><td>" + request.getType() + "</td><td>" + ((request.getError() != null) ? request.getError() : String.valueOf(request.getStatus())) 
+                    + "</td><td>" + request.getStart() + "</td><td>" + request.getTimeToFirstByte() + "</td><td>" + request.getDuration() + "</td><td>" + request.getBytes() + "</td></tr>");
+        
+        Reporter.log("</table></p>");
+        
+    }
+    
+    /**
+     * Get the number of slowest requests of the Chrome timeline to show in the report.
+     * 
+     * @return 
+     */
+    private int getSlowestRequestCount() {
+        
+        try { return Integer.parseInt(properties.get(NavigationTimingCapture.NAVIGATION_TIMING_SLOWEST_RESOURCES).trim()); }
+        catch(Exception e) { return 5; }
+        
+    }
+    
+    /**
+     * Log the time the test spent in hard-coded delays versus waiting on 
+     * conditions to the testNG report area.
+     * 
+     * @param result 
+     */
+    private void printSleepProfile(ITestResult result) {
+        
+        SleepStatisticsBean bean = SleepProfiler.getInstance().getTestStatistics(result);
+        
+        if((bean == null) || (bean.getSleepCount() == 0)) return;
+        
+        Reporter.log("<p><font face=arial size=2 color=000099>Hard-coded delays: " + bean.getSleepTime() + " ms in " + bean.getSleepCount() + " sleeps, condition waits: " + bean.getWaitTime() + " ms in " + bean.getWaitCount() + " waits (" + String.format("%.1f", bean.getSleepShare()) + "% sleeping)</font></p>");
+        
+    }
+    
+    /**
+     * Compare the page load times of this run against the performance baseline
+     * of previous runs, save this run to the baseline and save the comparison, 
+     * then save the page summary again so its report shows the comparison. This
+     * is done once per run, at the end of the suite; later calls do nothing.
+     * 
+     * @param performancePath
+     * 
+     * @return true if the comparison was done by this call
+     */
+    public boolean comparePerformanceBaseline(String performancePath) {
+        
+        if(!capturePageLoadPerformance() || !baselineCompared.compareAndSet(false, true)) return false;
+        
+        savePerformanceRegressions(performancePath + "PerformanceRegression.xlsx", SummaryPerformance.getInstance().getPageSummaries());
+        
+        savePageSummaryPerformance(performancePath);
+        
+        return true;
+        
+    }
+    
+    /**
+     * Compare the page load times of this run against the performance baseline
+     * of previous runs, save this run to the baseline, and save the comparison
+     * to an XLSX file.
+     * 
+     * @param filename
+     * @param pageSummaries
+     * 
+     * @return the comparison, empty if the performance baseline is not enabled
+     */
+    public List<PerformanceRegressionBean> savePerformanceRegressions(String filename, List<SummaryPerformanceBean> pageSummaries) {
+        
+        PerformanceBaseline baseline = PerformanceBaseline.getInstance();
+        
+        if(!baseline.isEnabled()) return new ArrayList<PerformanceRegressionBean>();
+        
+        List<PerformanceRegressionBean> regressions = PerformanceRegressionDetector.getInstance().compare(baseline.load(), pageSummaries);
+        
+        baseline.save(pageSummaries);
+        
+        if(regressions.isEmpty()) return regressions;
+        
+        try { 
+            
+            DataArchive regressionArchive = new XLSXDataArchive();
+            
+            regressionArchive.addData(new String[] { "Page", "Percentile", "Baseline (ms)", "This Run (ms)", "Change (%)", "p-value", "Baseline Page Loads", "This Run Page Loads", "Regression" });
+            
+            for(PerformanceRegressionBean regression: regressions) {
+                
+                regressionArchive.addData(new String[] { regression.getPageName(), formatPercentile(regression.getPercentile()), String.valueOf(regression.getBaselineTime()), String.valueOf(regression.getCurrentTime()),
+                    String.format("%.1f", regression.getChange()), String.format("%.4f", regression.getPValue()), String.valueOf(regression.getBaselineCount()), String.valueOf(regression.getCurrentCount()), String.valueOf(regression.isRegression()) });
+                
+            }
+            
+            regressionArchive.saveData(filename); 
+        
+        }
+        catch(Exception e) { logger.error(e); }
+        
+        return regressions;
+        
+    }
+    
     /**
      * Determine if we should use local file path for reporting. 
      * 
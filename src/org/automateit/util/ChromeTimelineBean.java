@@ -0,0 +1,200 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class is a data transfer object that has the frontend timeline of one 
+ * test derived from the Chrome performance log: the long tasks of the main 
+ * thread, the network waterfall and the paint timings of each navigation.
+ * 
+ * @author mburnside
+ */
+public class ChromeTimelineBean {
+    
+    /**
+     * The name of the test
+     */
+    private String testName = null;
+    
+    /**
+     * The file the timeline is saved to, null if it was not saved
+     */
+    private String filename = null;
+    
+    /**
+     * The long tasks of the main thread, in the order they started
+     */
+    private final List<LongTaskBean> longTasks = new ArrayList<LongTaskBean>();
+    
+    /**
+     * The requests of the network waterfall, in the order they were sent
+     */
+    private final List<NetworkRequestBean> requests = new ArrayList<NetworkRequestBean>();
+    
+    /**
+     * The paint timings of each navigation of the main frame
+     */
+    private final List<PaintTimingBean> paints = new ArrayList<PaintTimingBean>();
+    
+    /**
+     * Constructor
+     * 
+     * @param testName 
+     */
+    public ChromeTimelineBean(String testName) { this.testName = testName; }
+    
+    /**
+     * Get the name of the test.
+     * 
+     * @return 
+     */
+    public String getTestName() { return this.testName; }
+    
+    /**
+     * Get the file the timeline is saved to, null if it was not saved.
+     * 
+     * @return 
+     */
+    public String getFilename() { return this.filename; }
+    
+    /**
+     * Set the file the timeline is saved to.
+     * 
+     * @param filename 
+     */
+    public void setFilename(String filename) { this.filename = filename; }
+    
+    /**
+     * Get the long tasks of the main thread.
+     * 
+     * @return 
+     */
+    public List<LongTaskBean> getLongTasks() { return this.longTasks; }
+    
+    /**
+     * Get the requests of the network waterfall.
+     * 
+     * @return 
+     */
+    public List<NetworkRequestBean> getRequests() { return this.requests; }
+    
+    /**
+     * Get the paint timings of each navigation.
+     * 
+     * @return 
+     */
+    public List<PaintTimingBean> getPaints() { return this.paints; }
+    
+    /**
+     * Get the total amount of time (milli-sec) the main thread was blocked by long tasks.
+     * 
+     * @return 
+     */
+    public long getLongTaskTime() {
+        
+        long total = 0;
+        
+        for(LongTaskBean task: longTasks) total += task.getDuration();
+        
+        return total;
+        
+    }
+    
+    /**
+     * Get the amount of time (milli-sec) of the longest task, 0 if there were none.
+     * 
+     * @return 
+     */
+    public long getLongestTask() {
+        
+        long longest = 0;
+        
+        for(LongTaskBean task: longTasks) longest = Math.max(longest, task.getDuration());
+        
+        return longest;
+        
+    }
+    
+    /**
+     * Get the bytes transferred by all requests.
+     * 
+     * @return 
+     */
+    public long getBytes() {
+        
+        long total = 0;
+        
+        for(NetworkRequestBean request: requests) total += request.getBytes();
+        
+        return total;
+        
+    }
+    
+    /**
+     * Get the number of requests that failed or had an error status (400 and up).
+     * 
+     * @return 
+     */
+    public long getFailedRequestCount() {
+        
+        long failed = 0;
+        
+        for(NetworkRequestBean request: requests) if((request.getError() != null) || (request.getStatus() >= 400)) failed++;
+        
+        return failed;
+        
+    }
+    
+    /**
+     * Get the slowest requests, slowest first.
+     * 
+     * @param count the number of requests to return
+     * 
+     * @return 
+     */
+    public List<NetworkRequestBean> getSlowestRequests(int count) {
+        
+        List<NetworkRequestBean> slowest = new ArrayList<NetworkRequestBean>(requests);
+        
+        slowest.sort(new Comparator<NetworkRequestBean>() {
+            
+            public int compare(NetworkRequestBean a, NetworkRequestBean b) { return Long.compare(b.getDuration(), a.getDuration()); }
+        
+        });
+        
+        return slowest.subList(0, Math.min(count, slowest.size()));
+        
+    }
+    
+    /**
+     * Get a short summary of the timeline for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { 
+        
+        return requests.size() + " requests (" + getBytes() + " bytes, " + getFailedRequestCount() + " failed), " + longTasks.size() + " long tasks (" + getLongTaskTime() + " ms, longest " + getLongestTask() + " ms), " + paints.size() + " navigations"; 
+    
+    }
+    
+}
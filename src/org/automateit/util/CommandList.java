@@ -23,6 +23,8 @@ import java.util.LinkedList;
 
 import org.apache.log4j.Logger;
 
+import org.automateit.metrics.PrometheusMetrics;
+
 /**
  * This class contains the list of commands that were run by selenium.
  * 
@@ -62,7 +64,15 @@ public class CommandList {
      * 
      * @param s the command that was run 
      */
-    public void addToList(String s) { list.add(s); }
+    public void addToList(String s) { 
+        
+        list.add(s); 
+        
+        CommandProfiler.getInstance().startCommand(s);
+        
+        PrometheusMetrics.getInstance().recordCommand(s);
+    
+    }
     
     /**
      * Removes all commands in the list.
@@ -0,0 +1,519 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * This class splits the time spent in each framework command (everything added 
+ * to the CommandList: click, type, tap, ...) into:
+ * 
+ * wire time     - web driver round trips (the TimingCommandExecutor), also 
+ *                 the ones made while polling a condition
+ * explicit wait - condition waits and hard-coded delays (the SleepProfiler), 
+ *                 without their round trips: the time spent between polls
+ * framework     - the rest: logging, reporting, screenshots 
+ * 
+ * A command starts when it is added to the CommandList and ends when the next 
+ * command starts or the test ends, so the work done after its last round trip
+ * (report writes, logging) is counted as framework time. Commands added by a 
+ * framework method while it runs inside another command (e.g. the wait done 
+ * by click) are part of that command. The commands are kept per test and per 
+ * command name.
+ * 
+ * commandTimingEnabled=true
+ * 
+ * @author mburnside
+ */
+public class CommandProfiler {
+    
+    /**
+     * Property to enable the command timing
+     */
+    public static final String COMMAND_TIMING_ENABLED = "commandTimingEnabled";
+    
+    /**
+     * The instance of this object
+     */
+    private static CommandProfiler instance = new CommandProfiler();
+    
+    /**
+     * If commands are timed
+     */
+    private final boolean enabled;
+    
+    /**
+     * The command in progress on each thread
+     */
+    private final ThreadLocal<ActiveCommand> active = new ThreadLocal<ActiveCommand>();
+    
+    /**
+     * The timing of the commands, by test and command name
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, CommandTimingBean>> tests = new ConcurrentHashMap<String, ConcurrentMap<String, CommandTimingBean>>();
+    
+    /**
+     * Default Constructor
+     */
+    public CommandProfiler() { this.enabled = !"false".equalsIgnoreCase(String.valueOf(CommonProperties.getInstance().get(COMMAND_TIMING_ENABLED)).trim()); }
+    
+    /**
+     * Get the instance of this object.
+     * 
+     * @return 
+     */
+    public static CommandProfiler getInstance() { return instance; }
+    
+    /**
+     * Return if commands are timed.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return this.enabled; }
+    
+    /**
+     * Start a command on this thread, ending the command in progress. A command
+     * added by a method that runs inside the method of the command in progress
+     * is part of it and does not start a new command.
+     * 
+     * @param command the command, as added to the CommandList
+     */
+    public void startCommand(String command) {
+        
+        if(!enabled) return;
+        
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        
+        int caller = getCaller(stack);
+        
+        ActiveCommand current = active.get();
+        
+        if((current != null) && isNested(current, stack, caller)) return;
+        
+        endCommand();
+        
+        active.set(new ActiveCommand(getCommandName(command), SleepProfiler.getTestName(Reporter.getCurrentTestResult()), stack, caller));
+        
+    }
+    
+    /**
+     * Add a web driver round trip of the command in progress on this thread.
+     * 
+     * @param nanos the duration of the round trip
+     * @param framework if the round trip is done for the framework (e.g. a screenshot for the report)
+     */
+    public void addWireTime(long nanos, boolean framework) {
+        
+        ActiveCommand command = active.get();
+        
+        if((command == null) || framework) return;
+        
+        command.wireTime += nanos;
+        
+        command.wireCount++;
+        
+    }
+    
+    /**
+     * Start an explicit wait of the command in progress on this thread.
+     */
+    public void startWait() {
+        
+        ActiveCommand command = active.get();
+        
+        if(command == null) return;
+        
+        if(command.waitDepth == 0) command.waitStartWireTime = command.wireTime;
+        
+        command.waitDepth++;
+        
+    }
+    
+    /**
+     * End an explicit wait of the command in progress on this thread. 
+     * 
+     * @param nanos the duration of the wait
+     */
+    public void endWait(long nanos) {
+        
+        ActiveCommand command = active.get();
+        
+        if((command == null) || (command.waitDepth == 0)) return;
+        
+        command.waitDepth--;
+        
+        // a wait inside another wait is part of it, the round trips while polling are wire time
+        if(command.waitDepth == 0) command.waitTime += Math.max(0, nanos - (command.wireTime - command.waitStartWireTime));
+        
+    }
+    
+    /**
+     * Add a hard-coded delay of the command in progress on this thread.
+     * 
+     * @param nanos 
+     */
+    public void addSleepTime(long nanos) { 
+        
+        ActiveCommand command = active.get();
+        
+        if(command == null) return;
+        
+        // a delay inside a wait is part of it
+        if(command.waitDepth == 0) command.waitTime += nanos;
+    
+    }
+    
+    /**
+     * End the command in progress on this thread.
+     */
+    public void endCommand() {
+        
+        ActiveCommand command = active.get();
+        
+        if(command == null) return;
+        
+        active.remove();
+        
+        long elapsed = System.nanoTime() - command.start;
+        
+        ConcurrentMap<String, CommandTimingBean> commands = tests.get(command.testName);
+        
+        if(commands == null) {
+            
+            commands = new ConcurrentHashMap<String, CommandTimingBean>();
+            
+            ConcurrentMap<String, CommandTimingBean> existing = tests.putIfAbsent(command.testName, commands);
+            
+            if(existing != null) commands = existing;
+            
+        }
+        
+        CommandTimingBean bean = commands.get(command.name);
+        
+        if(bean == null) {
+            
+            bean = new CommandTimingBean(command.name);
+            
+            CommandTimingBean existing = commands.putIfAbsent(command.name, bean);
+            
+            if(existing != null) bean = existing;
+            
+        }
+        
+        bean.add(elapsed, command.wireTime, command.wireCount, command.waitTime);
+        
+    }
+    
+    /**
+     * Get the timing of the commands of a test, the most time first. The 
+     * command in progress on this thread is ended.
+     * 
+     * @param result
+     * 
+     * @return 
+     */
+    public List<CommandTimingBean> getTestStatistics(ITestResult result) {
+        
+        endCommand();
+        
+        Map<String, CommandTimingBean> commands = tests.get(SleepProfiler.getTestName(result));
+        
+        if(commands == null) return new ArrayList<CommandTimingBean>();
+        
+        return sort(commands.values());
+        
+    }
+    
+    /**
+     * Get the names of the tests with timed commands.
+     * 
+     * @return 
+     */
+    public List<String> getTestNames() {
+        
+        List<String> names = new ArrayList<String>(tests.keySet());
+        
+        Collections.sort(names);
+        
+        return names;
+        
+    }
+    
+    /**
+     * Get the timing of the commands of a test by name, the most time first.
+     * 
+     * @param testName
+     * 
+     * @return 
+     */
+    public List<CommandTimingBean> getTestStatistics(String testName) {
+        
+        Map<String, CommandTimingBean> commands = tests.get(testName);
+        
+        if(commands == null) return new ArrayList<CommandTimingBean>();
+        
+        return sort(commands.values());
+        
+    }
+    
+    /**
+     * Get the timing of the commands of all tests, the most time first.
+     * 
+     * @return 
+     */
+    public List<CommandTimingBean> getStatistics() {
+        
+        Map<String, CommandTimingBean> totals = new HashMap<String, CommandTimingBean>();
+        
+        for(Map<String, CommandTimingBean> commands: tests.values()) {
+            
+            for(CommandTimingBean bean: commands.values()) {
+                
+                if(!totals.containsKey(bean.getCommand())) totals.put(bean.getCommand(), new CommandTimingBean(bean.getCommand()));
+                
+                totals.get(bean.getCommand()).merge(bean);
+                
+            }
+            
+        }
+        
+        return sort(totals.values());
+        
+    }
+    
+    /**
+     * Get the sum of the timing of the commands.
+     * 
+     * @param commands
+     * 
+     * @return 
+     */
+    public CommandTimingBean getTotal(List<CommandTimingBean> commands) {
+        
+        CommandTimingBean total = new CommandTimingBean("Total");
+        
+        for(CommandTimingBean bean: commands) total.merge(bean);
+        
+        return total;
+        
+    }
+    
+    /**
+     * Clear the timing of all commands.
+     */
+    public void clear() { tests.clear(); }
+    
+    /**
+     * Get a summary of the timing of all commands.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        CommandTimingBean total = getTotal(getStatistics());
+        
+        return "Command timing: " + total.getCount() + " commands, " + total.getElapsedTime() + " ms; framework: " + total.getFrameworkTime() + " ms (" + String.format("%.1f", total.getFrameworkShare()) 
+                + "%), web driver: " + total.getWireTime() + " ms in " + total.getWireCount() + " round trips, explicit waits: " + total.getWaitTime() + " ms";
+        
+    }
+    
+    /**
+     * Get the name of a command, the command up to its first argument.
+     * 
+     * @param command
+     * 
+     * @return 
+     */
+    private String getCommandName(String command) {
+        
+        if(command == null) return "unknown";
+        
+        int end = command.length();
+        
+        for(char separator: new char[] { ':', '|' }) {
+            
+            int index = command.indexOf(separator);
+            
+            if((index > 0) && (index < end)) end = index;
+            
+        }
+        
+        return command.substring(0, end).trim();
+        
+    }
+    
+    /**
+     * Get the index of the frame that added the command: the first frame 
+     * outside of this class and the CommandList.
+     * 
+     * @param stack
+     * 
+     * @return 
+     */
+    private int getCaller(StackTraceElement[] stack) {
+        
+        for(int i = 0; i < stack.length; i++) {
+            
+            String className = stack[i].getClassName();
+            
+            if(!className.equals(CommandProfiler.class.getName()) && !className.equals(CommandList.class.getName())) return i;
+            
+        }
+        
+        return stack.length - 1;
+        
+    }
+    
+    /**
+     * Check if the method that added the command in progress is still running
+     * further up the stack, i.e. the new command is added inside it.
+     * 
+     * @param command the command in progress
+     * @param stack
+     * @param caller
+     * 
+     * @return 
+     */
+    private boolean isNested(ActiveCommand command, StackTraceElement[] stack, int caller) {
+        
+        // the frames are compared counting from the bottom of the stack
+        int depth = stack.length - caller;
+        
+        if(depth <= command.depth) return false;
+        
+        StackTraceElement frame = stack[stack.length - command.depth];
+        
+        return frame.getClassName().equals(command.className) && frame.getMethodName().equals(command.methodName);
+        
+    }
+    
+    /**
+     * Sort the timing of commands, the most time first.
+     * 
+     * @param commands
+     * 
+     * @return 
+     */
+    private List<CommandTimingBean> sort(Collection<CommandTimingBean> commands) {
+        
+        List<CommandTimingBean> list = new ArrayList<CommandTimingBean>(commands);
+        
+        Collections.sort(list, new Comparator<CommandTimingBean>() {
+            
+            public int compare(CommandTimingBean a, CommandTimingBean b) { return Long.compare(b.getElapsedTime(), a.getElapsedTime()); }
+            
+        });
+        
+        return list;
+        
+    }
+    
+    /**
+     * The timing of a command in progress. It is only used by the thread running the command.
+     */
+    private static class ActiveCommand {
+        
+        /**
+         * The name of the command
+         */
+        private final String name;
+        
+        /**
+         * The name of the test running the command
+         */
+        private final String testName;
+        
+        /**
+         * The start time (nano-sec) of the command
+         */
+        private final long start = System.nanoTime();
+        
+        /**
+         * The time (nano-sec) spent in round trips
+         */
+        private long wireTime = 0;
+        
+        /**
+         * The number of round trips
+         */
+        private long wireCount = 0;
+        
+        /**
+         * The time (nano-sec) spent in explicit waits, without their round trips
+         */
+        private long waitTime = 0;
+        
+        /**
+         * The number of explicit waits in progress
+         */
+        private int waitDepth = 0;
+        
+        /**
+         * The wire time (nano-sec) when the outermost explicit wait in progress started
+         */
+        private long waitStartWireTime = 0;
+        
+        /**
+         * The class of the method that added the command
+         */
+        private final String className;
+        
+        /**
+         * The method that added the command
+         */
+        private final String methodName;
+        
+        /**
+         * The depth of the method that added the command, counting from the bottom of the stack
+         */
+        private final int depth;
+        
+        /**
+         * Constructor
+         * 
+         * @param name
+         * @param testName 
+         * @param stack the stack when the command was added
+         * @param caller the index of the frame that added the command
+         */
+        private ActiveCommand(String name, String testName, StackTraceElement[] stack, int caller) { 
+            
+            this.name = name; 
+            this.testName = testName; 
+            this.className = stack[caller].getClassName();
+            this.methodName = stack[caller].getMethodName();
+            this.depth = stack.length - caller;
+            
+        }
+        
+    }
+    
+}
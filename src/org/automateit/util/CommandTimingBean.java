@@ -0,0 +1,179 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a data transfer object that has the time spent in a framework
+ * command (click, type, tap, ...), split into the web driver round trips (wire
+ * time), explicit waits (condition waits and hard-coded delays) and the 
+ * framework itself (logging, reporting, screenshots).
+ * 
+ * @author mburnside
+ */
+public class CommandTimingBean {
+    
+    /**
+     * The name of the command
+     */
+    private String command = null;
+    
+    /**
+     * The number of times the command was run
+     */
+    private long count = 0;
+    
+    /**
+     * The time (nano-sec) spent in the command
+     */
+    private long elapsedTime = 0;
+    
+    /**
+     * The time (nano-sec) spent in web driver round trips
+     */
+    private long wireTime = 0;
+    
+    /**
+     * The number of web driver round trips
+     */
+    private long wireCount = 0;
+    
+    /**
+     * The time (nano-sec) spent in explicit waits, without their round trips
+     */
+    private long waitTime = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param command 
+     */
+    public CommandTimingBean(String command) { this.command = command; }
+    
+    /**
+     * Add a run of the command.
+     * 
+     * @param elapsedTime
+     * @param wireTime
+     * @param wireCount
+     * @param waitTime 
+     */
+    public synchronized void add(long elapsedTime, long wireTime, long wireCount, long waitTime) {
+        
+        this.count++;
+        this.elapsedTime += elapsedTime;
+        this.wireTime += wireTime;
+        this.wireCount += wireCount;
+        this.waitTime += waitTime;
+        
+    }
+    
+    /**
+     * Add the runs of the command of another test.
+     * 
+     * @param bean 
+     */
+    public void merge(CommandTimingBean bean) {
+        
+        long[] values = bean.getValues();
+        
+        synchronized(this) {
+            
+            this.count += values[0];
+            this.elapsedTime += values[1];
+            this.wireTime += values[2];
+            this.wireCount += values[3];
+            this.waitTime += values[4];
+            
+        }
+        
+    }
+    
+    /**
+     * Get the name of the command.
+     * 
+     * @return 
+     */
+    public String getCommand() { return this.command; }
+    
+    /**
+     * Get the number of times the command was run.
+     * 
+     * @return 
+     */
+    public synchronized long getCount() { return this.count; }
+    
+    /**
+     * Get the time (milli-sec) spent in the command.
+     * 
+     * @return 
+     */
+    public synchronized long getElapsedTime() { return TimeUnit.NANOSECONDS.toMillis(this.elapsedTime); }
+    
+    /**
+     * Get the time (milli-sec) spent in web driver round trips.
+     * 
+     * @return 
+     */
+    public synchronized long getWireTime() { return TimeUnit.NANOSECONDS.toMillis(this.wireTime); }
+    
+    /**
+     * Get the number of web driver round trips.
+     * 
+     * @return 
+     */
+    public synchronized long getWireCount() { return this.wireCount; }
+    
+    /**
+     * Get the time (milli-sec) spent in explicit waits, without their round trips.
+     * 
+     * @return 
+     */
+    public synchronized long getWaitTime() { return TimeUnit.NANOSECONDS.toMillis(this.waitTime); }
+    
+    /**
+     * Get the time (milli-sec) spent in the framework: the time in the command
+     * that is not wire time or explicit waits.
+     * 
+     * @return 
+     */
+    public synchronized long getFrameworkTime() { return TimeUnit.NANOSECONDS.toMillis(Math.max(0, this.elapsedTime - this.wireTime - this.waitTime)); }
+    
+    /**
+     * Get the share (%) of the framework in the time spent in the command.
+     * 
+     * @return 
+     */
+    public synchronized double getFrameworkShare() { 
+        
+        if(this.elapsedTime == 0) return 0;
+        
+        return (Math.max(0, this.elapsedTime - this.wireTime - this.waitTime) * 100.0) / this.elapsedTime; 
+    
+    }
+    
+    /**
+     * Get the values, consistent with each other.
+     * 
+     * @return count, elapsed, wire, wire count and wait time
+     */
+    private synchronized long[] getValues() { return new long[] { count, elapsedTime, wireTime, wireCount, waitTime }; }
+    
+}
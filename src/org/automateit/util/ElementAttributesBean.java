@@ -0,0 +1,137 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * This class is a data transfer object that has a web element with the value 
+ * of one of its attributes, and whether it is displayed and enabled, as 
+ * fetched for all candidates of a search in one call.
+ * 
+ * If the displayed and enabled state were not fetched with the value, they are
+ * asked of the web element the first time they are needed.
+ * 
+ * @author mburnside
+ */
+public class ElementAttributesBean {
+    
+    /**
+     * The web element
+     */
+    private WebElement element = null;
+    
+    /**
+     * The value of the attribute, null if the element does not have it
+     */
+    private String value = null;
+    
+    /**
+     * If the element is displayed, null if not fetched yet
+     */
+    private Boolean displayed = null;
+    
+    /**
+     * If the element is enabled, null if not fetched yet
+     */
+    private Boolean enabled = null;
+    
+    /**
+     * Constructor
+     * 
+     * @param element
+     * @param value
+     * @param displayed null if not fetched
+     * @param enabled null if not fetched
+     */
+    public ElementAttributesBean(WebElement element, String value, Boolean displayed, Boolean enabled) { 
+        
+        this.element = element; 
+        this.value = value;
+        this.displayed = displayed;
+        this.enabled = enabled;
+        
+    }
+    
+    /**
+     * Get the web element.
+     * 
+     * @return 
+     */
+    public WebElement getElement() { return this.element; }
+    
+    /**
+     * Get the value of the attribute.
+     * 
+     * @return the value, null if the element does not have the attribute
+     */
+    public String getValue() { return this.value; }
+    
+    /**
+     * Get the trimmed value of the attribute.
+     * 
+     * @return the trimmed value, null if the value is null or blank
+     */
+    public String getTrimmedValue() { 
+        
+        if(this.value == null) return null;
+        
+        String trimmed = this.value.trim();
+        
+        return (trimmed.length() == 0) ? null : trimmed;
+        
+    }
+    
+    /**
+     * Check if the web element is displayed.
+     * 
+     * @return 
+     */
+    public boolean isDisplayed() { 
+        
+        if(this.displayed == null) this.displayed = this.element.isDisplayed();
+        
+        return this.displayed;
+        
+    }
+    
+    /**
+     * Check if the web element is enabled.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        if(this.enabled == null) this.enabled = this.element.isEnabled();
+        
+        return this.enabled;
+        
+    }
+    
+    /**
+     * Check if the web element is displayed and enabled.
+     * 
+     * @return 
+     */
+    public boolean isUsable() { return isDisplayed() && isEnabled(); }
+    
+    @Override
+    public String toString() { return this.value + " (displayed " + this.displayed + ", enabled " + this.enabled + ")"; }
+    
+}
@@ -0,0 +1,353 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.Arrays;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a fixed memory, streaming latency histogram (HDR style). Values 
+ * (nano-sec) are counted in log-linear buckets: 64 linear sub-buckets for each 
+ * power of 2, so a percentile is within 1.6% of the recorded value, and the 
+ * memory used does not grow with the number of values recorded.
+ * 
+ * Histograms can be merged, e.g. to combine page loads from several runs, and
+ * a snapshot (copy) can be taken while values are still being recorded.
+ * 
+ * @author mburnside
+ */
+public class LatencyHistogram {
+    
+    /**
+     * The number of bits of the sub-bucket index, values below 2^SUB_BUCKET_BITS are counted exactly
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+    
+    /**
+     * The number of values counted exactly
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    
+    /**
+     * The number of sub-buckets for each power of 2 above SUB_BUCKET_COUNT
+     */
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    
+    /**
+     * The number of buckets, enough for all positive long values
+     */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+    
+    /**
+     * The number of values in each bucket
+     */
+    private final long[] counts;
+    
+    /**
+     * The number of values recorded
+     */
+    private long count = 0;
+    
+    /**
+     * The total of the values recorded
+     */
+    private long total = 0;
+    
+    /**
+     * The smallest value recorded
+     */
+    private long min = Long.MAX_VALUE;
+    
+    /**
+     * The largest value recorded
+     */
+    private long max = 0;
+    
+    /**
+     * Default Constructor
+     */
+    public LatencyHistogram() { this.counts = new long[BUCKET_COUNT]; }
+    
+    /**
+     * Record a value (nano-sec). Negative values are recorded as 0.
+     * 
+     * @param nanos 
+     */
+    public synchronized void record(long nanos) {
+        
+        long value = Math.max(0, nanos);
+        
+        counts[getBucketIndex(value)]++;
+        
+        count++;
+        total += value;
+        
+        if(value < min) min = value;
+        if(value > max) max = value;
+        
+    }
+    
+    /**
+     * Add the values of another histogram to this histogram.
+     * 
+     * @param histogram 
+     */
+    public void merge(LatencyHistogram histogram) {
+        
+        // copy first so the two histograms are never locked at the same time
+        LatencyHistogram snapshot = histogram.getSnapshot();
+        
+        synchronized(this) {
+            
+            for(int i = 0; i < BUCKET_COUNT; i++) counts[i] += snapshot.counts[i];
+            
+            count += snapshot.count;
+            total += snapshot.total;
+            
+            if(snapshot.min < min) min = snapshot.min;
+            if(snapshot.max > max) max = snapshot.max;
+            
+        }
+        
+    }
+    
+    /**
+     * Get a copy of this histogram.
+     * 
+     * @return 
+     */
+    public synchronized LatencyHistogram getSnapshot() {
+        
+        LatencyHistogram snapshot = new LatencyHistogram();
+        
+        System.arraycopy(counts, 0, snapshot.counts, 0, BUCKET_COUNT);
+        
+        snapshot.count = count;
+        snapshot.total = total;
+        snapshot.min = min;
+        snapshot.max = max;
+        
+        return snapshot;
+        
+    }
+    
+    /**
+     * Removes all values.
+     */
+    public synchronized void clear() {
+        
+        Arrays.fill(counts, 0);
+        
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        
+    }
+    
+    /**
+     * Get the number of values recorded.
+     * 
+     * @return 
+     */
+    public synchronized long getCount() { return count; }
+    
+    /**
+     * Get the total of the values recorded (nano-sec).
+     * 
+     * @return 
+     */
+    public synchronized long getTotal() { return total; }
+    
+    /**
+     * Get the smallest value recorded (nano-sec), 0 if none.
+     * 
+     * @return 
+     */
+    public synchronized long getMin() { return (count == 0) ? 0 : min; }
+    
+    /**
+     * Get the largest value recorded (nano-sec).
+     * 
+     * @return 
+     */
+    public synchronized long getMax() { return max; }
+    
+    /**
+     * Get the average of the values recorded (nano-sec), 0 if none.
+     * 
+     * @return 
+     */
+    public synchronized long getMean() { return (count == 0) ? 0 : total / count; }
+    
+    /**
+     * Get the value (nano-sec) at a percentile (e.g. 99.9): the largest value in
+     * the bucket of the percentile, never more than the largest value recorded.
+     * 
+     * @param percentile 0 to 100
+     * 
+     * @return the value, 0 if no values were recorded
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        
+        if(count == 0) return 0;
+        
+        double bounded = Math.min(100.0, Math.max(0.0, percentile));
+        
+        // the rank of the value, at least the first value
+        long rank = Math.max(1, (long)Math.ceil((bounded / 100.0) * count));
+        
+        long seen = 0;
+        
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            
+            seen += counts[i];
+            
+            if(seen >= rank) return Math.min(max, Math.max(min, getHighestValueInBucket(i)));
+            
+        }
+        
+        return max;
+        
+    }
+    
+    /**
+     * Get the value (milli-sec) at a percentile.
+     * 
+     * @param percentile 0 to 100
+     * 
+     * @return 
+     */
+    public long getValueAtPercentileMillis(double percentile) { return TimeUnit.NANOSECONDS.toMillis(getValueAtPercentile(percentile)); }
+    
+    /**
+     * Get a copy of the number of values in each bucket. Buckets are in order of
+     * value, and the same for all histograms, so histograms can be compared bucket 
+     * by bucket.
+     * 
+     * @return 
+     */
+    public synchronized long[] getBucketCounts() { return Arrays.copyOf(counts, BUCKET_COUNT); }
+    
+    /**
+     * Encode this histogram as text (only the buckets with values), e.g. to store 
+     * it on disk.
+     * 
+     * @return 
+     */
+    public synchronized String encode() {
+        
+        StringBuilder encoded = new StringBuilder();
+        
+        encoded.append(count).append(",").append(total).append(",").append(getMin()).append(",").append(max).append(";");
+        
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            
+            if(counts[i] > 0) encoded.append(i).append(":").append(counts[i]).append(" ");
+            
+        }
+        
+        return encoded.toString().trim();
+        
+    }
+    
+    /**
+     * Decode a histogram encoded by <code>encode</code>.
+     * 
+     * @param encoded
+     * 
+     * @return
+     * 
+     * @throws Exception if the text is not an encoded histogram
+     */
+    public static LatencyHistogram decode(String encoded) throws Exception {
+        
+        try {
+            
+            LatencyHistogram histogram = new LatencyHistogram();
+            
+            String[] parts = encoded.split(";", -1);
+            
+            String[] totals = parts[0].split(",");
+            
+            histogram.count = Long.parseLong(totals[0]);
+            histogram.total = Long.parseLong(totals[1]);
+            histogram.min = (histogram.count == 0) ? Long.MAX_VALUE : Long.parseLong(totals[2]);
+            histogram.max = Long.parseLong(totals[3]);
+            
+            for(String bucket: parts[1].trim().split(" ")) {
+                
+                if(bucket.length() == 0) continue;
+                
+                String[] indexCount = bucket.split(":");
+                
+                histogram.counts[Integer.parseInt(indexCount[0])] = Long.parseLong(indexCount[1]);
+                
+            }
+            
+            return histogram;
+            
+        }
+        catch(Exception e) { throw new Exception("Unable to decode latency histogram: " + encoded, e); }
+        
+    }
+    
+    /**
+     * Get the bucket index of a value.
+     * 
+     * @param value
+     * 
+     * @return 
+     */
+    private static int getBucketIndex(long value) {
+        
+        if(value < SUB_BUCKET_COUNT) return (int)value;
+        
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        
+        // the top SUB_BUCKET_BITS of the value, between SUB_BUCKET_HALF_COUNT and SUB_BUCKET_COUNT
+        int subBucket = (int)(value >>> shift);
+        
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+        
+    }
+    
+    /**
+     * Get the largest value counted in a bucket.
+     * 
+     * @param index
+     * 
+     * @return 
+     */
+    private static long getHighestValueInBucket(int index) {
+        
+        if(index < SUB_BUCKET_COUNT) return index;
+        
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        
+        return ((subBucket + 1) << shift) - 1;
+        
+    }
+    
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has details of the launch of a
+ * browser with a launch profile: the startup time and the resident memory (RSS)
+ * of the browser processes, so launch profiles can be compared.
+ * 
+ * @author mburnside
+ */
+public class LaunchPerformanceBean {
+    
+    /**
+     * The name of the launch profile
+     */
+    private String profileName = null;
+    
+    /**
+     * The web driver id (browser)
+     */
+    private String webDriverId = null;
+    
+    /**
+     * The amount of time (milli-sec) it took to launch the browser
+     */
+    private long startupTime = 0;
+    
+    /**
+     * The resident memory (KB) of the browser processes after launch, -1 if not measured
+     */
+    private long startupResidentMemory = -1;
+    
+    /**
+     * The largest resident memory (KB) of the browser processes measured after a test, -1 if not measured
+     */
+    private volatile long peakResidentMemory = -1;
+    
+    /**
+     * Constructor
+     * 
+     * @param profileName
+     * @param webDriverId
+     * @param startupTime
+     * @param startupResidentMemory 
+     */
+    public LaunchPerformanceBean(String profileName, String webDriverId, long startupTime, long startupResidentMemory) {
+        
+        this.profileName = profileName;
+        this.webDriverId = webDriverId;
+        this.startupTime = startupTime;
+        this.startupResidentMemory = startupResidentMemory;
+        this.peakResidentMemory = startupResidentMemory;
+        
+    }
+    
+    /**
+     * Get the name of the launch profile.
+     * 
+     * @return 
+     */
+    public String getProfileName() { return this.profileName; }
+    
+    /**
+     * Get the web driver id (browser).
+     * 
+     * @return 
+     */
+    public String getWebDriverId() { return this.webDriverId; }
+    
+    /**
+     * Get the amount of time (milli-sec) it took to launch the browser.
+     * 
+     * @return 
+     */
+    public long getStartupTime() { return this.startupTime; }
+    
+    /**
+     * Get the resident memory (KB) of the browser processes after launch, -1 if not measured.
+     * 
+     * @return 
+     */
+    public long getStartupResidentMemory() { return this.startupResidentMemory; }
+    
+    /**
+     * Get the largest resident memory (KB) of the browser processes, -1 if not measured.
+     * 
+     * @return 
+     */
+    public long getPeakResidentMemory() { return this.peakResidentMemory; }
+    
+    /**
+     * Record a resident memory (KB) measurement of the browser processes.
+     * 
+     * @param residentMemory 
+     */
+    public synchronized void addResidentMemory(long residentMemory) { if(residentMemory > this.peakResidentMemory) this.peakResidentMemory = residentMemory; }
+    
+}
@@ -0,0 +1,74 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has one long task of the browser's
+ * main (renderer) thread, a task that blocked the page for longer than the 
+ * long task threshold, as recorded in the Chrome performance log.
+ * 
+ * @author mburnside
+ */
+public class LongTaskBean {
+    
+    /**
+     * The time (milli-sec) the task started, from the start of the test's timeline
+     */
+    private long start = 0;
+    
+    /**
+     * The amount of time (milli-sec) the task ran
+     */
+    private long duration = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param start
+     * @param duration 
+     */
+    public LongTaskBean(long start, long duration) {
+        
+        this.start = start;
+        this.duration = duration;
+        
+    }
+    
+    /**
+     * Get the time (milli-sec) the task started, from the start of the test's timeline.
+     * 
+     * @return 
+     */
+    public long getStart() { return this.start; }
+    
+    /**
+     * Get the amount of time (milli-sec) the task ran.
+     * 
+     * @return 
+     */
+    public long getDuration() { return this.duration; }
+    
+    /**
+     * Get the task as text for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { return duration + " ms at " + start + " ms"; }
+    
+}
@@ -0,0 +1,181 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a data transfer object that has the Navigation Timing of a 
+ * page load as measured by the browser (all times in milli-sec from the start 
+ * of the navigation), and the slowest resources the page loaded.
+ * 
+ * Unlike the page load time measured by the test, these times do not include
+ * web driver overhead or waiting for javascript/ajax to complete.
+ * 
+ * @author mburnside
+ */
+public class NavigationTimingBean {
+    
+    /**
+     * The amount of time (milli-sec) of the DNS lookup
+     */
+    private long dns = 0;
+    
+    /**
+     * The amount of time (milli-sec) to connect to the server (including TLS)
+     */
+    private long connect = 0;
+    
+    /**
+     * The time (milli-sec) to the first byte of the response
+     */
+    private long timeToFirstByte = 0;
+    
+    /**
+     * The time (milli-sec) the DOMContentLoaded event completed
+     */
+    private long domContentLoaded = 0;
+    
+    /**
+     * The time (milli-sec) the load event completed, 0 if it has not completed
+     */
+    private long load = 0;
+    
+    /**
+     * The number of resources the page loaded
+     */
+    private long resourceCount = 0;
+    
+    /**
+     * The slowest resources the page loaded, slowest first
+     */
+    private List<ResourceTimingBean> slowestResources = new ArrayList<ResourceTimingBean>();
+    
+    /**
+     * Constructor
+     * 
+     * @param dns
+     * @param connect
+     * @param timeToFirstByte
+     * @param domContentLoaded
+     * @param load
+     * @param resourceCount 
+     */
+    public NavigationTimingBean(long dns, long connect, long timeToFirstByte, long domContentLoaded, long load, long resourceCount) {
+        
+        this.dns = dns;
+        this.connect = connect;
+        this.timeToFirstByte = timeToFirstByte;
+        this.domContentLoaded = domContentLoaded;
+        this.load = load;
+        this.resourceCount = resourceCount;
+        
+    }
+    
+    /**
+     * Get the amount of time (milli-sec) of the DNS lookup.
+     * 
+     * @return 
+     */
+    public long getDns() { return this.dns; }
+    
+    /**
+     * Get the amount of time (milli-sec) to connect to the server.
+     * 
+     * @return 
+     */
+    public long getConnect() { return this.connect; }
+    
+    /**
+     * Get the time (milli-sec) to the first byte of the response.
+     * 
+     * @return 
+     */
+    public long getTimeToFirstByte() { return this.timeToFirstByte; }
+    
+    /**
+     * Get the time (milli-sec) the DOMContentLoaded event completed.
+     * 
+     * @return 
+     */
+    public long getDomContentLoaded() { return this.domContentLoaded; }
+    
+    /**
+     * Get the time (milli-sec) the load event completed, 0 if it has not completed.
+     * 
+     * @return 
+     */
+    public long getLoad() { return this.load; }
+    
+    /**
+     * Get the number of resources the page loaded.
+     * 
+     * @return 
+     */
+    public long getResourceCount() { return this.resourceCount; }
+    
+    /**
+     * Add one of the slowest resources.
+     * 
+     * @param resource 
+     */
+    public void addSlowestResource(ResourceTimingBean resource) { this.slowestResources.add(resource); }
+    
+    /**
+     * Get the slowest resources the page loaded, slowest first.
+     * 
+     * @return 
+     */
+    public List<ResourceTimingBean> getSlowestResources() { return this.slowestResources; }
+    
+    /**
+     * Get the slowest resources as text for reports.
+     * 
+     * @return 
+     */
+    public String getSlowestResourcesString() {
+        
+        StringBuilder resources = new StringBuilder();
+        
+        for(ResourceTimingBean resource: slowestResources) {
+            
+            if(resources.length() > 0) resources.append("; ");
+            
+            resources.append(resource);
+            
+        }
+        
+        return resources.toString();
+        
+    }
+    
+    /**
+     * Get a short breakdown of the timing for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { 
+        
+        return "dns " + dns + ", connect " + connect + ", ttfb " + timeToFirstByte + ", DOMContentLoaded " + domContentLoaded + ", load " + load + ", resources " + resourceCount; 
+    
+    }
+    
+}
@@ -0,0 +1,223 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has one request of the network 
+ * waterfall of a test, as recorded in the Chrome performance log. A redirect
+ * is a request of its own.
+ * 
+ * @author mburnside
+ */
+public class NetworkRequestBean {
+    
+    /**
+     * The URL of the request
+     */
+    private String url = null;
+    
+    /**
+     * The method of the request (GET, POST ...)
+     */
+    private String method = null;
+    
+    /**
+     * The type of resource (Document, Script, Image, XHR, Fetch ...)
+     */
+    private String type = null;
+    
+    /**
+     * The HTTP status of the response, 0 if there was no response
+     */
+    private long status = 0;
+    
+    /**
+     * The time (milli-sec) the request was sent, from the start of the test's timeline
+     */
+    private long start = 0;
+    
+    /**
+     * The amount of time (milli-sec) from sending the request to the response headers, 0 if there was no response
+     */
+    private long timeToFirstByte = 0;
+    
+    /**
+     * The amount of time (milli-sec) from sending the request to the end of the response
+     */
+    private long duration = 0;
+    
+    /**
+     * The bytes transferred for the response
+     */
+    private long bytes = 0;
+    
+    /**
+     * The response was served from the browser cache
+     */
+    private boolean fromCache = false;
+    
+    /**
+     * The error if the request failed, null if it did not fail
+     */
+    private String error = null;
+    
+    /**
+     * Constructor
+     * 
+     * @param url
+     * @param method
+     * @param type
+     * @param start 
+     */
+    public NetworkRequestBean(String url, String method, String type, long start) {
+        
+        this.url = url;
+        this.method = method;
+        this.type = type;
+        this.start = start;
+        
+    }
+    
+    /**
+     * Get the URL of the request.
+     * 
+     * @return 
+     */
+    public String getUrl() { return this.url; }
+    
+    /**
+     * Get the method of the request.
+     * 
+     * @return 
+     */
+    public String getMethod() { return this.method; }
+    
+    /**
+     * Get the type of resource.
+     * 
+     * @return 
+     */
+    public String getType() { return this.type; }
+    
+    /**
+     * Set the type of resource.
+     * 
+     * @param type 
+     */
+    public void setType(String type) { this.type = type; }
+    
+    /**
+     * Get the HTTP status of the response.
+     * 
+     * @return 
+     */
+    public long getStatus() { return this.status; }
+    
+    /**
+     * Set the HTTP status of the response.
+     * 
+     * @param status 
+     */
+    public void setStatus(long status) { this.status = status; }
+    
+    /**
+     * Get the time (milli-sec) the request was sent, from the start of the test's timeline.
+     * 
+     * @return 
+     */
+    public long getStart() { return this.start; }
+    
+    /**
+     * Get the amount of time (milli-sec) from sending the request to the response headers.
+     * 
+     * @return 
+     */
+    public long getTimeToFirstByte() { return this.timeToFirstByte; }
+    
+    /**
+     * Set the amount of time (milli-sec) from sending the request to the response headers.
+     * 
+     * @param timeToFirstByte 
+     */
+    public void setTimeToFirstByte(long timeToFirstByte) { this.timeToFirstByte = timeToFirstByte; }
+    
+    /**
+     * Get the amount of time (milli-sec) from sending the request to the end of the response.
+     * 
+     * @return 
+     */
+    public long getDuration() { return this.duration; }
+    
+    /**
+     * Set the amount of time (milli-sec) from sending the request to the end of the response.
+     * 
+     * @param duration 
+     */
+    public void setDuration(long duration) { this.duration = duration; }
+    
+    /**
+     * Get the bytes transferred for the response.
+     * 
+     * @return 
+     */
+    public long getBytes() { return this.bytes; }
+    
+    /**
+     * Set the bytes transferred for the response.
+     * 
+     * @param bytes 
+     */
+    public void setBytes(long bytes) { this.bytes = bytes; }
+    
+    /**
+     * Return if the response was served from the browser cache.
+     * 
+     * @return 
+     */
+    public boolean isFromCache() { return this.fromCache; }
+    
+    /**
+     * Set if the response was served from the browser cache.
+     * 
+     * @param fromCache 
+     */
+    public void setFromCache(boolean fromCache) { this.fromCache = fromCache; }
+    
+    /**
+     * Get the error if the request failed, null if it did not fail.
+     * 
+     * @return 
+     */
+    public String getError() { return this.error; }
+    
+    /**
+     * Set the error of a failed request.
+     * 
+     * @param error 
+     */
+    public void setError(String error) { this.error = error; }
+    
+    /**
+     * Get the request as text for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { return duration + " ms " + method + " " + status + " " + type + " " + url; }
+    
+}
@@ -0,0 +1,182 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a data transfer object that has the readiness of a page as
+ * returned by one poll of the page readiness probe: the document ready state,
+ * the ajax libraries present on the page and their pending requests.
+ * 
+ * @author mburnside
+ */
+public class PageReadinessBean {
+    
+    /**
+     * The page is ready: the document is complete and no library has pending requests
+     */
+    private boolean ready = false;
+    
+    /**
+     * The document ready state (loading, interactive, complete)
+     */
+    private String readyState = null;
+    
+    /**
+     * The pending requests of each ajax library present on the page
+     */
+    private final Map<String, Long> pendingRequests = new LinkedHashMap<String, Long>();
+    
+    /**
+     * The XHR/fetch requests in flight, when waiting for the page to be quiet
+     */
+    private long inFlightRequests = 0;
+    
+    /**
+     * The amount of time (milli-sec) the DOM and network have been quiet, when waiting for the page to be quiet
+     */
+    private long quietTime = 0;
+    
+    /**
+     * The number of polls it took for the page to be ready
+     */
+    private long polls = 0;
+    
+    /**
+     * The amount of time (milli-sec) waited for the page to be ready
+     */
+    private long waitTime = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param ready
+     * @param readyState 
+     */
+    public PageReadinessBean(boolean ready, String readyState) {
+        
+        this.ready = ready;
+        this.readyState = readyState;
+        
+    }
+    
+    /**
+     * Return if the page is ready.
+     * 
+     * @return 
+     */
+    public boolean isReady() { return this.ready; }
+    
+    /**
+     * Get the document ready state.
+     * 
+     * @return 
+     */
+    public String getReadyState() { return this.readyState; }
+    
+    /**
+     * Set the pending requests of an ajax library present on the page.
+     * 
+     * @param library
+     * @param pending 
+     */
+    public void setPendingRequests(String library, long pending) { this.pendingRequests.put(library, pending); }
+    
+    /**
+     * Get the pending requests of each ajax library present on the page.
+     * 
+     * @return 
+     */
+    public Map<String, Long> getPendingRequests() { return this.pendingRequests; }
+    
+    /**
+     * Get the ajax libraries present on the page.
+     * 
+     * @return 
+     */
+    public List<String> getLibraries() { return new ArrayList<String>(this.pendingRequests.keySet()); }
+    
+    /**
+     * Get the XHR/fetch requests in flight.
+     * 
+     * @return 
+     */
+    public long getInFlightRequests() { return this.inFlightRequests; }
+    
+    /**
+     * Set the XHR/fetch requests in flight.
+     * 
+     * @param inFlightRequests 
+     */
+    public void setInFlightRequests(long inFlightRequests) { this.inFlightRequests = inFlightRequests; }
+    
+    /**
+     * Get the amount of time (milli-sec) the DOM and network have been quiet.
+     * 
+     * @return 
+     */
+    public long getQuietTime() { return this.quietTime; }
+    
+    /**
+     * Set the amount of time (milli-sec) the DOM and network have been quiet.
+     * 
+     * @param quietTime 
+     */
+    public void setQuietTime(long quietTime) { this.quietTime = quietTime; }
+    
+    /**
+     * Get the number of polls it took for the page to be ready.
+     * 
+     * @return 
+     */
+    public long getPolls() { return this.polls; }
+    
+    /**
+     * Set the number of polls it took for the page to be ready.
+     * 
+     * @param polls 
+     */
+    public void setPolls(long polls) { this.polls = polls; }
+    
+    /**
+     * Get the amount of time (milli-sec) waited for the page to be ready.
+     * 
+     * @return 
+     */
+    public long getWaitTime() { return this.waitTime; }
+    
+    /**
+     * Set the amount of time (milli-sec) waited for the page to be ready.
+     * 
+     * @param waitTime 
+     */
+    public void setWaitTime(long waitTime) { this.waitTime = waitTime; }
+    
+    /**
+     * Get the readiness as text for logs.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { return (ready ? "ready" : "not ready") + ", readyState " + readyState + ", pending " + pendingRequests + ", in flight " + inFlightRequests + ", quiet " + quietTime + " ms, " + polls + " polls, " + waitTime + " ms"; }
+    
+}
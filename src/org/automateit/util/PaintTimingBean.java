@@ -0,0 +1,143 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has the paint timings of one 
+ * navigation of the main frame, as recorded in the Chrome performance log.
+ * The timings are from the start of the navigation, 0 if the browser did
+ * not paint.
+ * 
+ * @author mburnside
+ */
+public class PaintTimingBean {
+    
+    /**
+     * The URL of the document
+     */
+    private String url = null;
+    
+    /**
+     * The time (milli-sec) the navigation started, from the start of the test's timeline
+     */
+    private long navigationStart = 0;
+    
+    /**
+     * The time (milli-sec) of the first paint
+     */
+    private long firstPaint = 0;
+    
+    /**
+     * The time (milli-sec) of the first paint with content (text, image, canvas)
+     */
+    private long firstContentfulPaint = 0;
+    
+    /**
+     * The time (milli-sec) the largest content element was painted
+     */
+    private long largestContentfulPaint = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param url
+     * @param navigationStart 
+     */
+    public PaintTimingBean(String url, long navigationStart) {
+        
+        this.url = url;
+        this.navigationStart = navigationStart;
+        
+    }
+    
+    /**
+     * Get the URL of the document.
+     * 
+     * @return 
+     */
+    public String getUrl() { return this.url; }
+    
+    /**
+     * Set the URL of the document.
+     * 
+     * @param url 
+     */
+    public void setUrl(String url) { this.url = url; }
+    
+    /**
+     * Get the time (milli-sec) the navigation started, from the start of the test's timeline.
+     * 
+     * @return 
+     */
+    public long getNavigationStart() { return this.navigationStart; }
+    
+    /**
+     * Get the time (milli-sec) of the first paint.
+     * 
+     * @return 
+     */
+    public long getFirstPaint() { return this.firstPaint; }
+    
+    /**
+     * Set the time (milli-sec) of the first paint.
+     * 
+     * @param firstPaint 
+     */
+    public void setFirstPaint(long firstPaint) { this.firstPaint = firstPaint; }
+    
+    /**
+     * Get the time (milli-sec) of the first paint with content.
+     * 
+     * @return 
+     */
+    public long getFirstContentfulPaint() { return this.firstContentfulPaint; }
+    
+    /**
+     * Set the time (milli-sec) of the first paint with content.
+     * 
+     * @param firstContentfulPaint 
+     */
+    public void setFirstContentfulPaint(long firstContentfulPaint) { this.firstContentfulPaint = firstContentfulPaint; }
+    
+    /**
+     * Get the time (milli-sec) the largest content element was painted.
+     * 
+     * @return 
+     */
+    public long getLargestContentfulPaint() { return this.largestContentfulPaint; }
+    
+    /**
+     * Set the time (milli-sec) the largest content element was painted.
+     * 
+     * @param largestContentfulPaint 
+     */
+    public void setLargestContentfulPaint(long largestContentfulPaint) { this.largestContentfulPaint = largestContentfulPaint; }
+    
+    /**
+     * Get the paint timings as text for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { 
+        
+        return "first paint " + firstPaint + ", first contentful paint " + firstContentfulPaint + ", largest contentful paint " + largestContentfulPaint + " " + url; 
+    
+    }
+    
+}
@@ -0,0 +1,262 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import java.text.SimpleDateFormat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class is the on disk store of page load time baselines. Each run saves 
+ * the page load time histogram of each page to its own file, and the baseline
+ * is the merge of the most recent previous runs, so one slow or fast run does 
+ * not decide the baseline.
+ * 
+ * It is configured in automateit.properties:
+ * 
+ * performanceBaselineEnabled=false
+ * performanceBaselineDirectory=baseline
+ * performanceBaselineRuns=5
+ * 
+ * @author mburnside
+ */
+public class PerformanceBaseline {
+    
+    /**
+     * Property to enable the baseline store and regression check
+     */
+    public static final String PERFORMANCE_BASELINE_ENABLED = "performanceBaselineEnabled";
+    
+    /**
+     * Property for the directory of the baseline files
+     */
+    public static final String PERFORMANCE_BASELINE_DIRECTORY = "performanceBaselineDirectory";
+    
+    /**
+     * Property for the number of previous runs in the baseline
+     */
+    public static final String PERFORMANCE_BASELINE_RUNS = "performanceBaselineRuns";
+    
+    /**
+     * The prefix of the baseline file of a run
+     */
+    public static final String RUN_FILE_PREFIX = "PageLoadBaseline_";
+    
+    /**
+     * The extension of the baseline file of a run
+     */
+    public static final String RUN_FILE_EXTENSION = ".properties";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(PerformanceBaseline.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static PerformanceBaseline instance = new PerformanceBaseline();
+    
+    /**
+     * The id of this run, the start time, so the run is saved to the same file
+     * however many times the summary is saved
+     */
+    private final String runId = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+    
+    /**
+     * Default Constructor.
+     */
+    public PerformanceBaseline() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static PerformanceBaseline getInstance() { return instance; }
+    
+    /**
+     * Return if the baseline store and regression check is enabled.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return Boolean.valueOf(CommonProperties.getInstance().get(PERFORMANCE_BASELINE_ENABLED)); }
+    
+    /**
+     * Load the baseline: the page load time histograms of the most recent 
+     * previous runs, merged by page.
+     * 
+     * @return page name -> histogram
+     */
+    public Map<String, LatencyHistogram> load() {
+        
+        Map<String, LatencyHistogram> baseline = new HashMap<String, LatencyHistogram>();
+        
+        for(File runFile: getPreviousRunFiles()) {
+            
+            try {
+                
+                Properties run = (new Utils()).loadProperties(runFile.getAbsolutePath());
+                
+                for(String pageName: run.stringPropertyNames()) {
+                    
+                    LatencyHistogram histogram = LatencyHistogram.decode(run.getProperty(pageName));
+                    
+                    if(baseline.containsKey(pageName)) baseline.get(pageName).merge(histogram);
+                    else baseline.put(pageName, histogram);
+                    
+                }
+                
+            }
+            catch(Exception e) { logger.warn("Unable to load performance baseline file: " + runFile + ", " + e.getMessage()); }
+            
+        }
+        
+        return baseline;
+        
+    }
+    
+    /**
+     * Save the page load time histograms of this run, and remove the files of
+     * runs that are no longer in the baseline.
+     * 
+     * @param pageSummaries 
+     */
+    public void save(List<SummaryPerformanceBean> pageSummaries) {
+        
+        File directory = getDirectory();
+        
+        directory.mkdirs();
+        
+        Properties run = new Properties();
+        
+        for(SummaryPerformanceBean pageSummary: pageSummaries) run.setProperty(pageSummary.getPageName(), pageSummary.getSnapshot().encode());
+        
+        OutputStream out = null;
+        
+        try {
+            
+            out = new FileOutputStream(new File(directory, RUN_FILE_PREFIX + runId + RUN_FILE_EXTENSION));
+            
+            run.store(out, "Page load time histograms (nano-sec)");
+            
+        }
+        catch(Exception e) { logger.error("Unable to save performance baseline: " + e.getMessage()); }
+        finally { 
+            
+            try { if(out != null) out.close(); }
+            catch(Exception e) { }
+            
+        }
+        
+        // the previous runs still in the baseline plus this run
+        List<File> keep = getPreviousRunFiles();
+        
+        for(File runFile: getRunFiles()) {
+            
+            if(!keep.contains(runFile) && !runFile.getName().contains(runId)) runFile.delete();
+            
+        }
+        
+    }
+    
+    /**
+     * Get the id of this run.
+     * 
+     * @return 
+     */
+    public String getRunId() { return runId; }
+    
+    /**
+     * Get the files of the most recent previous runs (not this run), most recent first.
+     * 
+     * @return 
+     */
+    private List<File> getPreviousRunFiles() {
+        
+        List<File> previous = new ArrayList<File>();
+        
+        int runs = 5;
+        
+        try { runs = Integer.parseInt(CommonProperties.getInstance().get(PERFORMANCE_BASELINE_RUNS).trim()); }
+        catch(Exception e) { }
+        
+        List<File> runFiles = getRunFiles();
+        
+        for(int i = runFiles.size() - 1; i >= 0 && previous.size() < runs; i--) {
+            
+            if(!runFiles.get(i).getName().contains(runId)) previous.add(runFiles.get(i));
+            
+        }
+        
+        return previous;
+        
+    }
+    
+    /**
+     * Get the files of all runs, oldest first (the run id is the start time).
+     * 
+     * @return 
+     */
+    private List<File> getRunFiles() {
+        
+        File[] files = getDirectory().listFiles();
+        
+        List<File> runFiles = new ArrayList<File>();
+        
+        if(files == null) return runFiles;
+        
+        Arrays.sort(files);
+        
+        for(File file: files) {
+            
+            if(file.getName().startsWith(RUN_FILE_PREFIX) && file.getName().endsWith(RUN_FILE_EXTENSION)) runFiles.add(file);
+            
+        }
+        
+        return runFiles;
+        
+    }
+    
+    /**
+     * Get the directory of the baseline files.
+     * 
+     * @return 
+     */
+    private File getDirectory() {
+        
+        String directory = CommonProperties.getInstance().get(PERFORMANCE_BASELINE_DIRECTORY);
+        
+        return new File((directory == null || directory.trim().length() == 0) ? "baseline" : directory.trim());
+        
+    }
+    
+}
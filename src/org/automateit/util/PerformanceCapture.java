@@ -18,24 +18,50 @@
 
 package org.automateit.util;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import org.apache.log4j.Logger;
 
+import org.automateit.metrics.PrometheusMetrics;
+
 /**
  * This class keeps track of page loading performance.
  * 
+ * Each thread has its own page load in progress, so tests running in parallel 
+ * do not overwrite each other's measurements. A new start on a thread replaces
+ * a start that was never stopped (e.g. an action that did not load a page), and
+ * a stop without a start does nothing. Completed page loads are 
+ * added to a lock-free collector, and each thread reads back (and clears) the 
+ * page loads it captured.
+ * 
  * @author mburnside
  */
 public class PerformanceCapture {
     
-    private PerformanceCaptureBean bean = null;
+    /**
+     * The page load in progress on each thread
+     */
+    private final ThreadLocal<PerformanceCaptureBean> inFlight = new ThreadLocal<PerformanceCaptureBean>();
+    
+    /**
+     * Lock-free collector of completed page loads from all threads
+     */
+    private final ConcurrentLinkedQueue<PerformanceCaptureBean> list = new ConcurrentLinkedQueue<PerformanceCaptureBean>();
     
     /**
-     * Queue object for collecting commands
+     * Web driver session startups, kept separate from page loads
      */
-    private List<PerformanceCaptureBean> list = new LinkedList<PerformanceCaptureBean>();
+    private List<StartupPerformanceBean> startupList = Collections.synchronizedList(new ArrayList<StartupPerformanceBean>());
+    
+    /**
+     * Browser launches with their launch profile, startup time and resident memory
+     */
+    private List<LaunchPerformanceBean> launchList = Collections.synchronizedList(new ArrayList<LaunchPerformanceBean>());
     
     /**
      *  logging object
@@ -60,60 +86,232 @@ public class PerformanceCapture {
     public static PerformanceCapture getInstance() { return instance; }
     
     /**
-     * Stop the timer and mark the end time of the page load.
+     * Stop the timer and mark the end time of the page load in progress on 
+     * this thread.
      * 
      * @param pageName the name of the page that just loaded 
      */
     public void stop(String pageName) { 
         
-        if(bean == null) return;
+        PerformanceCaptureBean bean = finish(pageName);
+        
+        if(bean != null) record(bean);
+        
+    }
+    
+    /**
+     * Stop the timer and mark the end time of the page load in progress on 
+     * this thread, without recording it yet, so more data (e.g. the navigation
+     * timing measured by the browser) can be added to it after the end time 
+     * is taken. The page load is recorded with record().
+     * 
+     * @param pageName the name of the page that just loaded 
+     * 
+     * @return the page load, null if none was in progress
+     */
+    public PerformanceCaptureBean finish(String pageName) { 
+        
+        PerformanceCaptureBean bean = inFlight.get();
+        
+        if(bean == null) return null;
+        
+        inFlight.remove();
         
         logger.debug("Marking the end time for page loading: " + pageName);
         
-        this.bean.markEndTime(pageName);
+        bean.markEndTime(pageName);
+        
+        return bean;
         
-        list.add(this.bean);
+    }
+    
+    /**
+     * Record a finished page load.
+     * 
+     * @param bean 
+     */
+    public void record(PerformanceCaptureBean bean) { 
         
-        this.bean = null;
+        list.add(bean);
+        
+        PerformanceSink.getInstance().write(bean);
+        
+        PrometheusMetrics.getInstance().recordPageLoad(bean.getPageName(), bean.getTimeNanos());
         
     }
     
     /**
-     * Mark the start of page load.
+     * Return if a page load is in progress on this thread.
+     * 
+     * @return 
+     */
+    public boolean isInFlight() { return inFlight.get() != null; }
+    
+    /**
+     * Mark the start of page load on this thread, replacing a page load that
+     * was started and never stopped.
      * 
      * @param fromPageName the name of the page that was loaded from
      */
     public void start(String fromPageName) {
         
-        this.bean = new PerformanceCaptureBean();
+        PerformanceCaptureBean bean = new PerformanceCaptureBean();
+        
+        bean.markStartTime(fromPageName);
+        
+        inFlight.set(bean);
+        
+    }
+    
+    /**
+     * Add hard-coded delay time to the page load in progress on this thread.
+     * 
+     * @param millis 
+     */
+    public void addSleepTime(long millis) { 
+        
+        PerformanceCaptureBean bean = inFlight.get();
+        
+        if(bean != null) bean.addSleepTime(millis); 
+    
+    } 
+    
+    /**
+     * Add time waited for the page to be ready to the page load in progress 
+     * on this thread.
+     * 
+     * @param millis 
+     */
+    public void addReadinessWaitTime(long millis) { 
+        
+        PerformanceCaptureBean bean = inFlight.get();
+        
+        if(bean != null) bean.addReadinessWaitTime(millis); 
+    
+    } 
+    
+    /**
+     * Discard the page load in progress on this thread (e.g. at the end of a test).
+     */
+    public void clearInFlight() { inFlight.remove(); }
+    
+    /**
+     * Record the startup of a web driver session.
+     * 
+     * @param bean 
+     */
+    public void addStartup(StartupPerformanceBean bean) { 
+        
+        logger.debug("Web driver session startup: " + bean.getSessionName() + ", startup: " + bean.getStartupTime() + " ms, waited: " + bean.getWaitTime() + " ms, prewarmed: " + bean.isPrewarmed());
         
-        this.bean.markStartTime(fromPageName);
+        startupList.add(bean); 
         
+        PrometheusMetrics.getInstance().recordSessionStartup(bean.getStartupTime(), bean.isPrewarmed());
+    
     }
     
-    public void addSleepTime(long millis) { if(this.bean!=null) this.bean.addSleepTime(millis); } 
+    /**
+     * Get all of the web driver session startups.
+     * 
+     * @return 
+     */
+    public List<StartupPerformanceBean> getAllStartupsInList() { 
+        
+        synchronized(startupList) { return new ArrayList<StartupPerformanceBean>(startupList); }
+    
+    }
     
     /**
-     * Removes all commands in the list.
+     * Removes all web driver session startups.
      */
-    public void clear() { list.clear(); }
+    public void clearStartups() { startupList.clear(); }
+    
+    /**
+     * Record the launch of a browser with a launch profile.
+     * 
+     * @param bean 
+     */
+    public void addLaunch(LaunchPerformanceBean bean) { 
+        
+        logger.debug("Browser launch: " + bean.getWebDriverId() + ", profile: " + bean.getProfileName() + ", startup: " + bean.getStartupTime() + " ms, rss: " + bean.getStartupResidentMemory() + " KB");
+        
+        launchList.add(bean); 
+    
+    }
+    
+    /**
+     * Get all of the browser launches.
+     * 
+     * @return 
+     */
+    public List<LaunchPerformanceBean> getAllLaunchesInList() { 
+        
+        synchronized(launchList) { return new ArrayList<LaunchPerformanceBean>(launchList); }
+    
+    }
+    
+    /**
+     * Removes all browser launches.
+     */
+    public void clearLaunches() { launchList.clear(); }
+    
+    /**
+     * Removes the page loads captured by this thread.
+     */
+    public void clear() { 
+        
+        long threadId = Thread.currentThread().getId();
+        
+        for(Iterator<PerformanceCaptureBean> iterator = list.iterator(); iterator.hasNext();) {
+            
+            if(iterator.next().getThreadId() == threadId) iterator.remove();
+            
+        }
+        
+    }
+    
+    /**
+     * Removes the page loads captured by all threads.
+     */
+    public void clearAll() { list.clear(); }
+    
+    /**
+     * Get the page loads captured by this thread, in the order they completed.
+     * 
+     * @return 
+     */
+    public List<PerformanceCaptureBean> getAllInList() { 
+        
+        long threadId = Thread.currentThread().getId();
+        
+        List<PerformanceCaptureBean> beans = new ArrayList<PerformanceCaptureBean>();
+        
+        for(PerformanceCaptureBean bean: list) {
+            
+            if(bean.getThreadId() == threadId) beans.add(bean);
+            
+        }
+        
+        return beans; 
+    
+    }
     
     /**
-     * Get all of the commands in the list.
+     * Get the page loads captured by all threads.
      * 
      * @return 
      */
-    public List<PerformanceCaptureBean> getAllInList() { return this.list; }
+    public List<PerformanceCaptureBean> getAllSamplesInList() { return new ArrayList<PerformanceCaptureBean>(list); }
     
     /**
-     * Get the size of the list.
+     * Get the number of page loads captured by this thread.
      * 
      * @return 
      */
-    public int getSize() { return list.size(); }
+    public int getSize() { return getAllInList().size(); }
     
     /**
-     * Indicates if command list contains no commands
+     * Indicates if this thread has captured no page loads
      * 
      * @return 
      */
@@ -18,7 +18,7 @@
 
 package org.automateit.util;
 
-import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is a data transfer object that has details of web page load
@@ -29,20 +29,40 @@ import java.util.Date;
 public class PerformanceCaptureBean  {
 
     /**
-     * Page load start time
+     * Page load start time (nano-sec, monotonic clock)
      */
     private long startTime = 0;
     
     /**
-     * Page load end time
+     * Page load end time (nano-sec, monotonic clock)
      */
     private long endTime = 0;
     
+    /**
+     * The id of the thread that captured the page load
+     */
+    private final long threadId;
+    
+    /**
+     * Page load start time (milli-sec, wall clock)
+     */
+    private long timestamp = 0;
+    
+    /**
+     * The name of the test that captured the page load, if known
+     */
+    private String testName = null;
+    
     /**
      * Amount of time (milli-sec) hard-coded delay
      */
     private long sleepTime = 0;
     
+    /**
+     * Amount of time (milli-sec) waited for the page to be ready (javascript and ajax)
+     */
+    private long readinessWaitTime = 0;
+    
     /**
      * The name of the page that was loaded
      */
@@ -53,10 +73,39 @@ public class PerformanceCaptureBean  {
      */
     private String fromPageName = null;
     
+    /**
+     * The navigation timing measured by the browser, null if not captured
+     */
+    private NavigationTimingBean navigationTiming = null;
+    
     /**
      * Default Constructor
      */
-    public PerformanceCaptureBean() { }
+    public PerformanceCaptureBean() { this.threadId = Thread.currentThread().getId(); }
+    
+    /**
+     * Constructor for a page load that was captured before, e.g. read back from
+     * the performance sink.
+     * 
+     * @param fromPageName
+     * @param pageName
+     * @param timeNanos
+     * @param sleepTime
+     * @param timestamp
+     * @param threadId 
+     * @param testName
+     */
+    public PerformanceCaptureBean(String fromPageName, String pageName, long timeNanos, long sleepTime, long timestamp, long threadId, String testName) { 
+        
+        this.fromPageName = fromPageName;
+        this.pageName = pageName;
+        this.endTime = timeNanos;
+        this.sleepTime = sleepTime;
+        this.timestamp = timestamp;
+        this.threadId = threadId;
+        this.testName = testName;
+        
+    }
     
     /**
      * Mark the start time.
@@ -66,6 +115,7 @@ public class PerformanceCaptureBean  {
     public void markStartTime(String fromPageName) { 
     	
     	this.startTime = getCurrentTime();
+    	this.timestamp = System.currentTimeMillis();
     	this.fromPageName = fromPageName;
     }
     
@@ -82,18 +132,47 @@ public class PerformanceCaptureBean  {
     }
     
     /**
-     * Get the current time in <code>long</code> format.
+     * Get the current time of the monotonic clock (nano-sec). Unlike the wall 
+     * clock, it is not changed by clock adjustments.
      * 
      * @return the current time 
      */
-    private long getCurrentTime() { return (new Date()).getTime(); }
+    private long getCurrentTime() { return System.nanoTime(); }
     
     /**
-     * Get the total time for page load.
+     * Get the total time (milli-sec) for page load.
      * 
      * @return 
      */
-    public long getTime() { return endTime - startTime; }
+    public long getTime() { return TimeUnit.NANOSECONDS.toMillis(getTimeNanos()); }
+    
+    /**
+     * Get the total time (nano-sec) for page load.
+     * 
+     * @return 
+     */
+    public long getTimeNanos() { return endTime - startTime; }
+    
+    /**
+     * Get the page load start time (milli-sec, wall clock).
+     * 
+     * @return 
+     */
+    public long getTimestamp() { return this.timestamp; }
+    
+    /**
+     * Get the name of the test that captured the page load, null if not known.
+     * 
+     * @return 
+     */
+    public String getTestName() { return this.testName; }
+    
+    /**
+     * Get the id of the thread that captured the page load.
+     * 
+     * @return 
+     */
+    public long getThreadId() { return this.threadId; }
     
     /**
      * Get the page name (or message).
@@ -117,6 +196,34 @@ public class PerformanceCaptureBean  {
     
     public long getSleepTime() { return this.sleepTime; }
     
+    /**
+     * Add time waited for the page to be ready.
+     * 
+     * @param millis (in milli-sec) waited for javascript and ajax to complete
+     */
+    public void addReadinessWaitTime(long millis) { this.readinessWaitTime += millis; }
+    
+    /**
+     * Get the amount of time (milli-sec) waited for the page to be ready.
+     * 
+     * @return 
+     */
+    public long getReadinessWaitTime() { return this.readinessWaitTime; }
+    
+    /**
+     * Set the navigation timing measured by the browser.
+     * 
+     * @param navigationTiming 
+     */
+    public void setNavigationTiming(NavigationTimingBean navigationTiming) { this.navigationTiming = navigationTiming; }
+    
+    /**
+     * Get the navigation timing measured by the browser, null if not captured.
+     * 
+     * @return 
+     */
+    public NavigationTimingBean getNavigationTiming() { return this.navigationTiming; }
+    
     public String getSleepTimeString() {
     	    	
     	String s = "";
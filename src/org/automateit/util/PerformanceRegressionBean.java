@@ -0,0 +1,157 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has the comparison of a page's 
+ * load times in this run against its baseline.
+ * 
+ * @author mburnside
+ */
+public class PerformanceRegressionBean {
+    
+    /**
+     * The name of the page
+     */
+    private String pageName = null;
+    
+    /**
+     * The percentile compared (e.g. 95)
+     */
+    private double percentile = 0;
+    
+    /**
+     * The page load time (milli-sec) at the percentile in the baseline
+     */
+    private long baselineTime = 0;
+    
+    /**
+     * The page load time (milli-sec) at the percentile in this run
+     */
+    private long currentTime = 0;
+    
+    /**
+     * The number of page loads in the baseline
+     */
+    private long baselineCount = 0;
+    
+    /**
+     * The number of page loads in this run
+     */
+    private long currentCount = 0;
+    
+    /**
+     * The probability that page loads in this run are not slower than the baseline
+     */
+    private double pValue = 1.0;
+    
+    /**
+     * If the page is flagged as a regression
+     */
+    private boolean regression = false;
+    
+    /**
+     * Constructor
+     * 
+     * @param pageName
+     * @param percentile
+     * @param baselineTime
+     * @param currentTime
+     * @param baselineCount
+     * @param currentCount
+     * @param pValue
+     * @param regression 
+     */
+    public PerformanceRegressionBean(String pageName, double percentile, long baselineTime, long currentTime, long baselineCount, long currentCount, double pValue, boolean regression) {
+        
+        this.pageName = pageName;
+        this.percentile = percentile;
+        this.baselineTime = baselineTime;
+        this.currentTime = currentTime;
+        this.baselineCount = baselineCount;
+        this.currentCount = currentCount;
+        this.pValue = pValue;
+        this.regression = regression;
+        
+    }
+    
+    /**
+     * Get the name of the page.
+     * 
+     * @return 
+     */
+    public String getPageName() { return this.pageName; }
+    
+    /**
+     * Get the percentile compared.
+     * 
+     * @return 
+     */
+    public double getPercentile() { return this.percentile; }
+    
+    /**
+     * Get the page load time (milli-sec) at the percentile in the baseline.
+     * 
+     * @return 
+     */
+    public long getBaselineTime() { return this.baselineTime; }
+    
+    /**
+     * Get the page load time (milli-sec) at the percentile in this run.
+     * 
+     * @return 
+     */
+    public long getCurrentTime() { return this.currentTime; }
+    
+    /**
+     * Get the change (percent) of the page load time at the percentile.
+     * 
+     * @return 
+     */
+    public double getChange() { return (baselineTime == 0) ? 0 : 100.0 * (currentTime - baselineTime) / baselineTime; }
+    
+    /**
+     * Get the number of page loads in the baseline.
+     * 
+     * @return 
+     */
+    public long getBaselineCount() { return this.baselineCount; }
+    
+    /**
+     * Get the number of page loads in this run.
+     * 
+     * @return 
+     */
+    public long getCurrentCount() { return this.currentCount; }
+    
+    /**
+     * Get the probability that page loads in this run are not slower than the baseline.
+     * 
+     * @return 
+     */
+    public double getPValue() { return this.pValue; }
+    
+    /**
+     * Return if the page is flagged as a regression.
+     * 
+     * @return 
+     */
+    public boolean isRegression() { return this.regression; }
+    
+}
@@ -0,0 +1,274 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class compares the page load times of this run against the baseline of
+ * previous runs and flags regressions. A page is flagged when:
+ * 
+ * 1) the page load time at the percentile grew more than the tolerance (and more
+ *    than the minimum change in milli-sec), and
+ * 2) page loads in this run are slower than the baseline with statistical 
+ *    significance (one-sided Mann-Whitney U test on the histograms).
+ * 
+ * It is configured in automateit.properties:
+ * 
+ * performanceRegressionPercentile=95
+ * performanceRegressionTolerance=10
+ * performanceRegressionMinChange=100
+ * performanceRegressionSignificance=0.01
+ * performanceRegressionMinSamples=10
+ * failOnPerformanceRegression=false
+ * 
+ * @author mburnside
+ */
+public class PerformanceRegressionDetector {
+    
+    /**
+     * Property for the percentile compared
+     */
+    public static final String PERFORMANCE_REGRESSION_PERCENTILE = "performanceRegressionPercentile";
+    
+    /**
+     * Property for the tolerance (percent) of the change at the percentile
+     */
+    public static final String PERFORMANCE_REGRESSION_TOLERANCE = "performanceRegressionTolerance";
+    
+    /**
+     * Property for the minimum change (milli-sec) at the percentile
+     */
+    public static final String PERFORMANCE_REGRESSION_MIN_CHANGE = "performanceRegressionMinChange";
+    
+    /**
+     * Property for the significance level of the test
+     */
+    public static final String PERFORMANCE_REGRESSION_SIGNIFICANCE = "performanceRegressionSignificance";
+    
+    /**
+     * Property for the minimum number of page loads in both the baseline and this run
+     */
+    public static final String PERFORMANCE_REGRESSION_MIN_SAMPLES = "performanceRegressionMinSamples";
+    
+    /**
+     * Property to fail the suite when a regression is found
+     */
+    public static final String FAIL_ON_PERFORMANCE_REGRESSION = "failOnPerformanceRegression";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(PerformanceRegressionDetector.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static PerformanceRegressionDetector instance = new PerformanceRegressionDetector();
+    
+    /**
+     * The results of the last comparison
+     */
+    private volatile List<PerformanceRegressionBean> results = new ArrayList<PerformanceRegressionBean>();
+    
+    /**
+     * Default Constructor.
+     */
+    public PerformanceRegressionDetector() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static PerformanceRegressionDetector getInstance() { return instance; }
+    
+    /**
+     * Compare the page load times of this run against the baseline.
+     * 
+     * @param baseline page name -> histogram of previous runs
+     * @param pageSummaries this run
+     * 
+     * @return the comparison of each page in both the baseline and this run
+     */
+    public List<PerformanceRegressionBean> compare(Map<String, LatencyHistogram> baseline, List<SummaryPerformanceBean> pageSummaries) {
+        
+        double percentile = getDoubleProperty(PERFORMANCE_REGRESSION_PERCENTILE, 95.0);
+        double tolerance = getDoubleProperty(PERFORMANCE_REGRESSION_TOLERANCE, 10.0);
+        double minChange = getDoubleProperty(PERFORMANCE_REGRESSION_MIN_CHANGE, 100.0);
+        double significance = getDoubleProperty(PERFORMANCE_REGRESSION_SIGNIFICANCE, 0.01);
+        double minSamples = getDoubleProperty(PERFORMANCE_REGRESSION_MIN_SAMPLES, 10.0);
+        
+        List<PerformanceRegressionBean> comparison = new ArrayList<PerformanceRegressionBean>();
+        
+        for(SummaryPerformanceBean pageSummary: pageSummaries) {
+            
+            LatencyHistogram previous = baseline.get(pageSummary.getPageName());
+            
+            LatencyHistogram current = pageSummary.getSnapshot();
+            
+            if(previous == null || previous.getCount() < minSamples || current.getCount() < minSamples) continue;
+            
+            long baselineTime = previous.getValueAtPercentileMillis(percentile);
+            long currentTime = current.getValueAtPercentileMillis(percentile);
+            
+            double pValue = getSlowerPValue(previous, current);
+            
+            boolean regression = (currentTime > baselineTime * (1.0 + tolerance / 100.0)) && (currentTime - baselineTime > minChange) && (pValue < significance);
+            
+            if(regression) logger.warn("Page load regression: " + pageSummary.getPageName() + ", p" + percentile + " " + baselineTime + " ms -> " + currentTime + " ms, p-value " + pValue);
+            
+            comparison.add(new PerformanceRegressionBean(pageSummary.getPageName(), percentile, baselineTime, currentTime, previous.getCount(), current.getCount(), pValue, regression));
+            
+        }
+        
+        this.results = comparison;
+        
+        return comparison;
+        
+    }
+    
+    /**
+     * Get the results of the last comparison.
+     * 
+     * @return 
+     */
+    public List<PerformanceRegressionBean> getResults() { return this.results; }
+    
+    /**
+     * Get the number of regressions in the last comparison.
+     * 
+     * @return 
+     */
+    public int getRegressionCount() {
+        
+        int count = 0;
+        
+        for(PerformanceRegressionBean result: results) if(result.isRegression()) count++;
+        
+        return count;
+        
+    }
+    
+    /**
+     * Fail the suite if the last comparison found regressions and 
+     * failOnPerformanceRegression is set.
+     * 
+     * @throws PerformanceRegressionException 
+     */
+    public void failOnRegression() throws PerformanceRegressionException {
+        
+        if(!Boolean.valueOf(CommonProperties.getInstance().get(FAIL_ON_PERFORMANCE_REGRESSION))) return;
+        
+        int count = getRegressionCount();
+        
+        if(count > 0) throw new PerformanceRegressionException(count + " page load regression(s) found against the performance baseline");
+        
+    }
+    
+    /**
+     * Get the p-value of a one-sided Mann-Whitney U test that values of the 
+     * current histogram are larger than values of the baseline histogram. Values
+     * in the same bucket are ties. Uses the normal approximation, with tie and 
+     * continuity correction.
+     * 
+     * @param baseline
+     * @param current
+     * 
+     * @return 
+     */
+    private double getSlowerPValue(LatencyHistogram baseline, LatencyHistogram current) {
+        
+        long[] baselineCounts = baseline.getBucketCounts();
+        long[] currentCounts = current.getBucketCounts();
+        
+        double n1 = baseline.getCount();
+        double n2 = current.getCount();
+        double n = n1 + n2;
+        
+        double currentRankSum = 0;
+        double ties = 0;
+        double seen = 0;
+        
+        for(int i = 0; i < baselineCounts.length; i++) {
+            
+            double inBucket = baselineCounts[i] + currentCounts[i];
+            
+            if(inBucket == 0) continue;
+            
+            // the values in the bucket share the average of their ranks
+            currentRankSum += currentCounts[i] * (seen + (inBucket + 1) / 2.0);
+            
+            ties += inBucket * inBucket * inBucket - inBucket;
+            
+            seen += inBucket;
+            
+        }
+        
+        double u = currentRankSum - n2 * (n2 + 1) / 2.0;
+        
+        double variance = (n1 * n2 / 12.0) * ((n + 1) - ties / (n * (n - 1)));
+        
+        if(variance <= 0) return 1.0;
+        
+        double z = (u - n1 * n2 / 2.0 - 0.5) / Math.sqrt(variance);
+        
+        return 1.0 - getNormalDistribution(z);
+        
+    }
+    
+    /**
+     * Get the standard normal cumulative distribution at z (Abramowitz and Stegun 7.1.26).
+     * 
+     * @param z
+     * 
+     * @return 
+     */
+    private double getNormalDistribution(double z) {
+        
+        double x = Math.abs(z) / Math.sqrt(2.0);
+        
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        
+        double erf = 1.0 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        
+        return (z >= 0) ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+        
+    }
+    
+    /**
+     * Get a double property, or the default if not set or invalid.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private double getDoubleProperty(String key, double defaultValue) {
+        
+        try { return Double.parseDouble(CommonProperties.getInstance().get(key).trim()); }
+        catch(Exception e) { return defaultValue; }
+        
+    }
+    
+}
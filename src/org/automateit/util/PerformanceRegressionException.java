@@ -0,0 +1,56 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+/**
+ * This class is used as a special exception to fail a test suite when page 
+ * load regressions are found against the performance baseline. It is unchecked,
+ * so it can be thrown from a TestNG listener to stop the suite.
+ * 
+ * @author mburnside
+ */
+public class PerformanceRegressionException extends RuntimeException {
+    
+    /**
+     * Default Constructor.
+     * 
+     * Constructs a new exception with null as its detail message.
+     */
+    public PerformanceRegressionException() { super(); }
+    
+    /**
+     * Copy constructor.
+     * 
+     * Constructs a new exception with the specified detail message.
+     * 
+     * @param message
+     */
+    public PerformanceRegressionException(String message) { super(message); }
+    
+    /**
+     * Copy constructor.
+     * 
+     * Constructs a new exception with the specified detail message and cause.
+     * 
+     * @param message
+     * @param cause
+     */
+    public PerformanceRegressionException(String message, Throwable cause) { super(message, cause); }
+    
+}
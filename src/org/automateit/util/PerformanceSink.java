@@ -0,0 +1,547 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.text.SimpleDateFormat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+
+import org.apache.log4j.Logger;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * This class streams every captured page load to a JSON lines file as soon as
+ * it is captured, one JSON object per line. Each line is flushed when it is 
+ * written, so nothing is lost if the JVM dies in the middle of a suite, and 
+ * nothing is kept in memory.
+ * 
+ * The files are rotated when they reach the maximum size, and only the most 
+ * recent files are kept:
+ * 
+ * PageLoads_20261017_093000_123_001.jsonl
+ * 
+ * performanceSinkEnabled=true
+ * performanceSinkDirectory=performance
+ * performanceSinkMaxFileSize=10485760
+ * performanceSinkMaxFiles=10
+ * 
+ * The XLSX files and charts can be generated from the files afterwards with
+ * the PerformanceReportGenerator.
+ * 
+ * @author mburnside
+ */
+public class PerformanceSink {
+    
+    /**
+     * Property to enable the performance sink
+     */
+    public static final String PERFORMANCE_SINK_ENABLED = "performanceSinkEnabled";
+    
+    /**
+     * Property for the directory of the performance sink files
+     */
+    public static final String PERFORMANCE_SINK_DIRECTORY = "performanceSinkDirectory";
+    
+    /**
+     * Property for the size (bytes) at which a performance sink file is rotated
+     */
+    public static final String PERFORMANCE_SINK_MAX_FILE_SIZE = "performanceSinkMaxFileSize";
+    
+    /**
+     * Property for the number of performance sink files to keep
+     */
+    public static final String PERFORMANCE_SINK_MAX_FILES = "performanceSinkMaxFiles";
+    
+    /**
+     * The prefix of the performance sink files
+     */
+    public static final String FILE_PREFIX = "PageLoads_";
+    
+    /**
+     * The extension of the performance sink files
+     */
+    public static final String FILE_EXTENSION = ".jsonl";
+    
+    /**
+     * Default size (bytes) at which a file is rotated
+     */
+    public static final long DEFAULT_MAX_FILE_SIZE = 10 * 1024 * 1024;
+    
+    /**
+     * Default number of files to keep
+     */
+    public static final int DEFAULT_MAX_FILES = 10;
+    
+    /**
+     * The instance of this object
+     */
+    private static PerformanceSink instance = new PerformanceSink();
+    
+    /**
+     * The id of this run, part of the file names
+     */
+    private final String runId = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+    
+    /**
+     * If page loads are written
+     */
+    private final boolean enabled;
+    
+    /**
+     * The directory of the files
+     */
+    private final File directory;
+    
+    /**
+     * The size (bytes) at which a file is rotated
+     */
+    private final long maxFileSize;
+    
+    /**
+     * The number of files to keep
+     */
+    private final int maxFiles;
+    
+    /**
+     * The writer of the current file, null if no file is open
+     */
+    private Writer writer = null;
+    
+    /**
+     * The number of bytes written to the current file
+     */
+    private long fileSize = 0;
+    
+    /**
+     * The sequence number of the current file
+     */
+    private int fileSequence = 0;
+    
+    /**
+     * The number of page loads written
+     */
+    private long written = 0;
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(PerformanceSink.class);
+    
+    /**
+     * Default Constructor
+     */
+    public PerformanceSink() { 
+        
+        this.enabled = !"false".equalsIgnoreCase(String.valueOf(CommonProperties.getInstance().get(PERFORMANCE_SINK_ENABLED)).trim());
+        
+        String directoryName = CommonProperties.getInstance().get(PERFORMANCE_SINK_DIRECTORY);
+        
+        this.directory = new File(((directoryName == null) || directoryName.trim().isEmpty()) ? Utils.PAGEPERFORMANCE_DIR : directoryName.trim());
+        
+        this.maxFileSize = getLongProperty(PERFORMANCE_SINK_MAX_FILE_SIZE, DEFAULT_MAX_FILE_SIZE);
+        
+        this.maxFiles = (int)getLongProperty(PERFORMANCE_SINK_MAX_FILES, DEFAULT_MAX_FILES);
+        
+        Runtime.getRuntime().addShutdownHook(new Thread("performance-sink-shutdown") { 
+            
+            public void run() { close(); } 
+            
+        });
+        
+    }
+    
+    /**
+     * Get the instance of this object.
+     * 
+     * @return 
+     */
+    public static PerformanceSink getInstance() { return instance; }
+    
+    /**
+     * Return if page loads are written.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return this.enabled; }
+    
+    /**
+     * Write a captured page load as a line of the current file. 
+     * 
+     * @param bean 
+     */
+    public void write(PerformanceCaptureBean bean) {
+        
+        if(!enabled) return;
+        
+        String line = toJson(bean, getTestName()) + "\n";
+        
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        
+        synchronized(this) {
+            
+            try { 
+                
+                if((writer == null) || ((fileSize > 0) && (fileSize + bytes.length > maxFileSize))) rotate();
+                
+                writer.write(line);
+                
+                writer.flush();
+                
+                fileSize += bytes.length;
+                
+                written++;
+                
+            }
+            catch(Exception e) { logger.error("Unable to write page load to the performance sink: " + e); }
+            
+        }
+        
+    }
+    
+    /**
+     * Get the number of page loads written.
+     * 
+     * @return 
+     */
+    public synchronized long getWrittenCount() { return this.written; }
+    
+    /**
+     * Close the current file. The next page load starts a new file.
+     */
+    public synchronized void close() {
+        
+        try { if(writer != null) writer.close(); }
+        catch(Exception e) { }
+        finally { writer = null; }
+        
+    }
+    
+    /**
+     * Get the performance sink files in the directory, oldest first.
+     * 
+     * @param directory
+     * 
+     * @return 
+     */
+    public static List<File> getFiles(File directory) {
+        
+        File[] files = directory.listFiles(new FilenameFilter() { 
+            
+            public boolean accept(File dir, String name) { return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_EXTENSION); } 
+        
+        });
+        
+        if(files == null) return new ArrayList<File>();
+        
+        Arrays.sort(files);
+        
+        return new ArrayList<File>(Arrays.asList(files));
+        
+    }
+    
+    /**
+     * Get the performance sink files of one run in the directory, oldest first.
+     * 
+     * @param directory
+     * @param runId the run id, or null for the newest run
+     * 
+     * @return 
+     */
+    public static List<File> getFiles(File directory, String runId) {
+        
+        List<File> files = getFiles(directory);
+        
+        // the run ids sort by the time the run started
+        if((runId == null) && !files.isEmpty()) runId = getRunId(files.get(files.size() - 1));
+        
+        List<File> runFiles = new ArrayList<File>();
+        
+        for(File file: files) {
+            
+            if(getRunId(file).equals(runId)) runFiles.add(file);
+            
+        }
+        
+        return runFiles;
+        
+    }
+    
+    /**
+     * Get the run id of a performance sink file (PageLoads_[run id]_[sequence].jsonl).
+     * 
+     * @param file
+     * 
+     * @return 
+     */
+    public static String getRunId(File file) {
+        
+        String name = file.getName();
+        
+        name = name.substring(FILE_PREFIX.length(), name.length() - FILE_EXTENSION.length());
+        
+        int sequence = name.lastIndexOf('_');
+        
+        return (sequence < 0) ? name : name.substring(0, sequence);
+        
+    }
+    
+    /**
+     * Read the page loads of a performance sink file.
+     * 
+     * @param file
+     * 
+     * @return the page loads
+     * 
+     * @throws Exception 
+     */
+    public static List<PerformanceCaptureBean> read(File file) throws Exception {
+        
+        List<PerformanceCaptureBean> beans = new ArrayList<PerformanceCaptureBean>();
+        
+        BufferedReader reader = null;
+        
+        try {
+            
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            
+            String line = null;
+            
+            while((line = reader.readLine()) != null) {
+                
+                if(line.trim().isEmpty()) continue;
+                
+                // a line cut short by the JVM dying is skipped
+                try { beans.add(fromJson(line)); }
+                catch(Exception e) { logger.warn("Skipping unreadable line in: " + file + ": " + e); }
+                
+            }
+            
+        }
+        catch(Exception e) { throw e; }
+        finally { if(reader != null) reader.close(); }
+        
+        return beans;
+        
+    }
+    
+    /**
+     * Convert a page load to a JSON line.
+     * 
+     * @param bean
+     * @param testName
+     * 
+     * @return 
+     */
+    private String toJson(PerformanceCaptureBean bean, String testName) {
+        
+        JsonObjectBuilder json = Json.createObjectBuilder();
+        
+        json.add("timestamp", bean.getTimestamp());
+        add(json, "test", testName);
+        json.add("thread", bean.getThreadId());
+        add(json, "fromPage", bean.getFromPageName());
+        add(json, "page", bean.getPageName());
+        json.add("time", bean.getTime());
+        json.add("timeNanos", bean.getTimeNanos());
+        json.add("sleep", bean.getSleepTime());
+        json.add("readinessWait", bean.getReadinessWaitTime());
+        
+        NavigationTimingBean timing = bean.getNavigationTiming();
+        
+        if(timing != null) {
+            
+            JsonArrayBuilder resources = Json.createArrayBuilder();
+            
+            for(ResourceTimingBean resource: timing.getSlowestResources()) {
+                
+                JsonObjectBuilder resourceJson = Json.createObjectBuilder();
+                
+                add(resourceJson, "name", resource.getName());
+                add(resourceJson, "initiatorType", resource.getInitiatorType());
+                resourceJson.add("duration", resource.getDuration());
+                resourceJson.add("transferSize", resource.getTransferSize());
+                
+                resources.add(resourceJson);
+                
+            }
+            
+            json.add("navigation", Json.createObjectBuilder()
+                    .add("dns", timing.getDns())
+                    .add("connect", timing.getConnect())
+                    .add("ttfb", timing.getTimeToFirstByte())
+                    .add("domContentLoaded", timing.getDomContentLoaded())
+                    .add("load", timing.getLoad())
+                    .add("resourceCount", timing.getResourceCount())
+                    .add("slowestResources", resources));
+            
+        }
+        
+        return json.build().toString();
+        
+    }
+    
+    /**
+     * Convert a JSON line to a page load.
+     * 
+     * @param line
+     * 
+     * @return 
+     */
+    private static PerformanceCaptureBean fromJson(String line) {
+        
+        JsonReader reader = Json.createReader(new StringReader(line));
+        
+        try {
+            
+            JsonObject json = reader.readObject();
+            
+            PerformanceCaptureBean bean = new PerformanceCaptureBean(json.getString("fromPage", null), json.getString("page", null), json.getJsonNumber("timeNanos").longValue(), 
+                    json.getJsonNumber("sleep").longValue(), json.getJsonNumber("timestamp").longValue(), json.getJsonNumber("thread").longValue(), json.getString("test", null));
+            
+            // files written before the readiness wait was recorded do not have it
+            if(json.containsKey("readinessWait")) bean.addReadinessWaitTime(json.getJsonNumber("readinessWait").longValue());
+            
+            JsonObject navigation = json.getJsonObject("navigation");
+            
+            if(navigation != null) {
+                
+                NavigationTimingBean timing = new NavigationTimingBean(navigation.getJsonNumber("dns").longValue(), navigation.getJsonNumber("connect").longValue(), navigation.getJsonNumber("ttfb").longValue(), 
+                        navigation.getJsonNumber("domContentLoaded").longValue(), navigation.getJsonNumber("load").longValue(), navigation.getJsonNumber("resourceCount").longValue());
+                
+                JsonArray resources = navigation.getJsonArray("slowestResources");
+                
+                for(int i = 0; (resources != null) && (i < resources.size()); i++) {
+                    
+                    JsonObject resource = resources.getJsonObject(i);
+                    
+                    timing.addSlowestResource(new ResourceTimingBean(resource.getString("name", null), resource.getString("initiatorType", null), resource.getJsonNumber("duration").longValue(), resource.getJsonNumber("transferSize").longValue()));
+                    
+                }
+                
+                bean.setNavigationTiming(timing);
+                
+            }
+            
+            return bean;
+            
+        }
+        finally { reader.close(); }
+        
+    }
+    
+    /**
+     * Add a string that may be null to the JSON object.
+     * 
+     * @param json
+     * @param name
+     * @param value 
+     */
+    private void add(JsonObjectBuilder json, String name, String value) {
+        
+        if(value == null) json.addNull(name);
+        else json.add(name, value);
+        
+    }
+    
+    /**
+     * Start a new file and remove the oldest files over the number of files to keep.
+     * 
+     * @throws Exception 
+     */
+    private void rotate() throws Exception {
+        
+        close();
+        
+        directory.mkdirs();
+        
+        fileSequence++;
+        
+        File file = new File(directory, FILE_PREFIX + runId + "_" + String.format("%03d", fileSequence) + FILE_EXTENSION);
+        
+        writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+        
+        fileSize = file.length();
+        
+        logger.info("Writing page loads to: " + file.getPath());
+        
+        List<File> files = getFiles(directory);
+        
+        for(int i = 0; i < files.size() - maxFiles; i++) {
+            
+            if(!files.get(i).equals(file)) files.get(i).delete();
+            
+        }
+        
+    }
+    
+    /**
+     * Get the name of the test running on this thread.
+     * 
+     * @return 
+     */
+    private String getTestName() {
+        
+        ITestResult result = Reporter.getCurrentTestResult();
+        
+        if((result == null) || (result.getMethod() == null)) return null;
+        
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getName();
+        
+    }
+    
+    /**
+     * Get a property as a number, or the default value if it is not set.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private long getLongProperty(String key, long defaultValue) {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(key).trim()); }
+        catch(Exception e) { return defaultValue; }
+        
+    }
+    
+}
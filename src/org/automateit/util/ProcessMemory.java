@@ -0,0 +1,134 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.io.File;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import java.util.stream.Collectors;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class reads the resident memory (RSS) of the processes started by this 
+ * JVM (web drivers and their browsers). RSS is read from /proc, so it is only
+ * available on Linux.
+ * 
+ * @author mburnside
+ */
+public class ProcessMemory {
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ProcessMemory.class);
+    
+    /**
+     * Default Constructor.
+     */
+    public ProcessMemory() { }
+    
+    /**
+     * Return if the resident memory can be read on this host.
+     * 
+     * @return 
+     */
+    public boolean isSupported() { return new File("/proc/self/status").exists(); }
+    
+    /**
+     * Get the ids of the processes started by this JVM.
+     * 
+     * @return 
+     */
+    public Set<Long> getChildProcessIds() {
+        
+        Set<Long> ids = new HashSet<Long>();
+        
+        for(ProcessHandle process: ProcessHandle.current().children().collect(Collectors.toList())) ids.add(process.pid());
+        
+        return ids;
+        
+    }
+    
+    /**
+     * Get the id of a process and the ids of all of its descendants.
+     * 
+     * @param pid
+     * 
+     * @return 
+     */
+    public List<Long> getProcessTree(long pid) {
+        
+        List<Long> ids = new ArrayList<Long>();
+        
+        ids.add(pid);
+        
+        Optional<ProcessHandle> process = ProcessHandle.of(pid);
+        
+        if(!process.isPresent()) return ids;
+        
+        for(ProcessHandle descendant: process.get().descendants().collect(Collectors.toList())) ids.add(descendant.pid());
+        
+        return ids;
+        
+    }
+    
+    /**
+     * Get the total resident memory (KB) of the processes, -1 if it cannot be read.
+     * Processes that have exited are not counted.
+     * 
+     * @param pids
+     * 
+     * @return 
+     */
+    public long getResidentMemory(List<Long> pids) {
+        
+        if(!isSupported()) return -1;
+        
+        long total = 0;
+        
+        for(Long pid: pids) {
+            
+            try {
+                
+                for(String line: Files.readAllLines(new File("/proc/" + pid + "/status").toPath(), StandardCharsets.UTF_8)) {
+                    
+                    // VmRSS:    123456 kB
+                    if(line.startsWith("VmRSS:")) total += Long.parseLong(line.substring(6).replace("kB", "").trim());
+                    
+                }
+                
+            }
+            catch(Exception e) { logger.debug("Unable to read the resident memory of process: " + pid); }
+            
+        }
+        
+        return total;
+        
+    }
+    
+}
@@ -0,0 +1,103 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has the Resource Timing of one 
+ * resource (script, image, stylesheet, xhr ...) loaded by a page, as measured 
+ * by the browser.
+ * 
+ * @author mburnside
+ */
+public class ResourceTimingBean {
+    
+    /**
+     * The URL of the resource
+     */
+    private String name = null;
+    
+    /**
+     * What loaded the resource (script, img, link, xmlhttprequest, fetch ...)
+     */
+    private String initiatorType = null;
+    
+    /**
+     * The amount of time (milli-sec) it took to load the resource
+     */
+    private long duration = 0;
+    
+    /**
+     * The bytes transferred for the resource, 0 if cached or not exposed (cross origin)
+     */
+    private long transferSize = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param name
+     * @param initiatorType
+     * @param duration
+     * @param transferSize 
+     */
+    public ResourceTimingBean(String name, String initiatorType, long duration, long transferSize) {
+        
+        this.name = name;
+        this.initiatorType = initiatorType;
+        this.duration = duration;
+        this.transferSize = transferSize;
+        
+    }
+    
+    /**
+     * Get the URL of the resource.
+     * 
+     * @return 
+     */
+    public String getName() { return this.name; }
+    
+    /**
+     * Get what loaded the resource.
+     * 
+     * @return 
+     */
+    public String getInitiatorType() { return this.initiatorType; }
+    
+    /**
+     * Get the amount of time (milli-sec) it took to load the resource.
+     * 
+     * @return 
+     */
+    public long getDuration() { return this.duration; }
+    
+    /**
+     * Get the bytes transferred for the resource.
+     * 
+     * @return 
+     */
+    public long getTransferSize() { return this.transferSize; }
+    
+    /**
+     * Get a short description of the resource for reports.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() { return duration + " ms " + initiatorType + " " + name; }
+    
+}
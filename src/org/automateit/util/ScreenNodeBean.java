@@ -0,0 +1,203 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is a data transfer object that has one element of a copy of the 
+ * screen (parsed from the page source of a mobile app), with the attributes 
+ * the element queries use and its position among the elements of its type.
+ * 
+ * Android and iOS name the attributes differently, so the common ones are 
+ * worked out as Appium would return them (e.g. the name of an Android element
+ * is its content-desc, or its text if it has none).
+ * 
+ * @author mburnside
+ */
+public class ScreenNodeBean {
+    
+    /**
+     * The tag name of the element in the page source
+     */
+    private String tagName = null;
+    
+    /**
+     * The position (1-based) of the element among the elements with the same tag name, in document order
+     */
+    private int position = 0;
+    
+    /**
+     * All the attributes of the element in the page source
+     */
+    private Map<String, String> attributes = new HashMap<String, String>();
+    
+    /**
+     * Constructor
+     * 
+     * @param tagName
+     * @param position
+     */
+    public ScreenNodeBean(String tagName, int position) { 
+        
+        this.tagName = tagName; 
+        this.position = position;
+        
+    }
+    
+    /**
+     * Get the tag name of the element in the page source.
+     * 
+     * @return 
+     */
+    public String getTagName() { return this.tagName; }
+    
+    /**
+     * Get the position (1-based) of the element among the elements with the same tag name.
+     * 
+     * @return 
+     */
+    public int getPosition() { return this.position; }
+    
+    /**
+     * Set an attribute of the element.
+     * 
+     * @param name
+     * @param value 
+     */
+    public void setAttribute(String name, String value) { this.attributes.put(name, value); }
+    
+    /**
+     * Get an attribute of the element as it is in the page source.
+     * 
+     * @param name
+     * 
+     * @return the value, null if the element does not have the attribute
+     */
+    public String getAttribute(String name) { return this.attributes.get(name); }
+    
+    /**
+     * Get the name of an attribute of the element that has the value.
+     * 
+     * @param value
+     * 
+     * @return the attribute name, null if no attribute has the value
+     */
+    public String getAttributeName(String value) { 
+        
+        if(value == null) return null;
+        
+        for(Map.Entry<String, String> attribute: this.attributes.entrySet()) if(value.equals(attribute.getValue())) return attribute.getKey();
+        
+        return null;
+    
+    }
+    
+    /**
+     * Get the class name (type) of the element.
+     * 
+     * @return 
+     */
+    public String getClassName() { 
+        
+        String className = firstOf("class", "type", null);
+        
+        return (className == null) ? this.tagName : className;
+        
+    }
+    
+    /**
+     * Get the name of the element (iOS name, else Android content-desc or text).
+     * 
+     * @return 
+     */
+    public String getName() { return firstOf("name", "content-desc", "text"); }
+    
+    /**
+     * Get the value of the element (iOS value, else Android text).
+     * 
+     * @return 
+     */
+    public String getValue() { return firstOf("value", "text", null); }
+    
+    /**
+     * Get the text of the element (Android text, else iOS label or value).
+     * 
+     * @return 
+     */
+    public String getText() { return firstOf("text", "label", "value"); }
+    
+    /**
+     * Get the content description of the element.
+     * 
+     * @return 
+     */
+    public String getContentDescription() { return getAttribute("content-desc"); }
+    
+    /**
+     * Get the resource id of the element.
+     * 
+     * @return 
+     */
+    public String getResourceId() { return getAttribute("resource-id"); }
+    
+    /**
+     * Check if the element is displayed (true if the page source does not say).
+     * 
+     * @return 
+     */
+    public boolean isDisplayed() { return !"false".equals(firstOf("displayed", "visible", null)); }
+    
+    /**
+     * Check if the element is enabled (true if the page source does not say).
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return !"false".equals(getAttribute("enabled")); }
+    
+    /**
+     * Get the first of the attributes that is not blank.
+     * 
+     * @param first
+     * @param second
+     * @param third null if there is no third attribute
+     * 
+     * @return the value, null if none of the attributes is set
+     */
+    private String firstOf(String first, String second, String third) {
+        
+        String[] names = { first, second, third };
+        
+        for(String name: names) {
+            
+            String value = (name == null) ? null : getAttribute(name);
+            
+            if((value != null) && (value.length() > 0)) return value;
+            
+        }
+        
+        return null;
+        
+    }
+    
+    @Override
+    public String toString() { return this.tagName + "[" + this.position + "] " + this.attributes; }
+    
+}
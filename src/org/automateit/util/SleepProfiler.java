@@ -0,0 +1,390 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * This class accounts for the hard-coded delays (sleeps) of the framework and 
+ * the tests, and for the time spent waiting on real conditions (elements present,
+ * javascript and ajax complete). All delays go through sleep(), so the time 
+ * spent sleeping is known per test and per call site and the fixed delays worth 
+ * removing can be found.
+ * 
+ * The call site of a sleep is the line calling the delay/sleep method, followed 
+ * by the first line of the test code (outside the framework) leading to it:
+ * 
+ * BaseScreen.enterDataIntoWebElement:2487 <- LoginScreen.login:58
+ * 
+ * @author mburnside
+ */
+public class SleepProfiler {
+    
+    /**
+     * The test name used for sleeps and waits outside of a test method
+     */
+    public static final String NO_TEST = "(outside of test)";
+    
+    /**
+     * The names of the methods that only wrap a sleep and are not a call site
+     */
+    private static final String[] SLEEP_METHODS = { "delay", "sleep" };
+    
+    /**
+     * The instance of this object
+     */
+    private static SleepProfiler instance = new SleepProfiler();
+    
+    /**
+     * The sleeps and waits by test
+     */
+    private final ConcurrentMap<String, SleepStatisticsBean> tests = new ConcurrentHashMap<String, SleepStatisticsBean>();
+    
+    /**
+     * The sleeps and waits by call site
+     */
+    private final ConcurrentMap<String, SleepStatisticsBean> callSites = new ConcurrentHashMap<String, SleepStatisticsBean>();
+    
+    /**
+     *  logging object
+     */
+    private static Logger logger = Logger.getLogger(SleepProfiler.class);
+    
+    /**
+     * Default Constructor
+     */
+    public SleepProfiler() { }
+    
+    /**
+     * Get the instance of this object.
+     * 
+     * @return 
+     */
+    public static SleepProfiler getInstance() { return instance; }
+    
+    /**
+     * Sleep for the specified number of milliseconds and account for it. The 
+     * sleep is also added to the page load in progress on this thread.
+     * 
+     * @param millis 
+     */
+    public void sleep(long millis) {
+        
+        if(millis <= 0) return;
+        
+        long start = System.nanoTime();
+        
+        try { Thread.sleep(millis); } 
+        catch(InterruptedException e) { Thread.currentThread().interrupt(); }
+        finally {
+            
+            long nanos = System.nanoTime() - start;
+            
+            String callSite = getCallSite();
+            
+            getStatistics(tests, getTestName()).addSleep(nanos);
+            
+            getStatistics(callSites, callSite).addSleep(nanos);
+            
+            PerformanceCapture.getInstance().addSleepTime(millis);
+            
+            CommandProfiler.getInstance().addSleepTime(nanos);
+            
+            logger.debug("Slept " + millis + " ms at: " + callSite);
+            
+        }
+        
+    }
+    
+    /**
+     * Start waiting on a real condition. 
+     * 
+     * @return the start of the wait, for addWait()
+     */
+    public long startWait() {
+        
+        CommandProfiler.getInstance().startWait();
+        
+        return System.nanoTime();
+        
+    }
+    
+    /**
+     * Account for the time spent waiting on a real condition.
+     * 
+     * @param start the start of the wait, from startWait()
+     */
+    public void addWait(long start) {
+        
+        long nanos = System.nanoTime() - start;
+        
+        CommandProfiler.getInstance().endWait(nanos);
+        
+        getStatistics(tests, getTestName()).addWait(nanos);
+        
+        getStatistics(callSites, getCallSite()).addWait(nanos);
+        
+    }
+    
+    /**
+     * Get the sleeps and waits by test, the most time sleeping first.
+     * 
+     * @return 
+     */
+    public List<SleepStatisticsBean> getTestStatistics() { return sort(tests); }
+    
+    /**
+     * Get the sleeps and waits of a test.
+     * 
+     * @param result
+     * 
+     * @return the sleeps and waits, null if the test did not sleep or wait
+     */
+    public SleepStatisticsBean getTestStatistics(ITestResult result) { return tests.get(getTestName(result)); }
+    
+    /**
+     * Get the sleeps and waits by call site, the most time sleeping first.
+     * 
+     * @return 
+     */
+    public List<SleepStatisticsBean> getCallSiteStatistics() { return sort(callSites); }
+    
+    /**
+     * Get the total time (milli-sec) spent sleeping.
+     * 
+     * @return 
+     */
+    public long getTotalSleepTime() {
+        
+        long total = 0;
+        
+        for(SleepStatisticsBean bean: tests.values()) total += bean.getSleepTime();
+        
+        return total;
+        
+    }
+    
+    /**
+     * Get the total time (milli-sec) spent waiting on conditions.
+     * 
+     * @return 
+     */
+    public long getTotalWaitTime() {
+        
+        long total = 0;
+        
+        for(SleepStatisticsBean bean: tests.values()) total += bean.getWaitTime();
+        
+        return total;
+        
+    }
+    
+    /**
+     * Clear all the sleeps and waits.
+     */
+    public void clear() { tests.clear(); callSites.clear(); }
+    
+    /**
+     * Get a summary of the sleeps, with the call sites that slept the most.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        StringBuilder metrics = new StringBuilder();
+        
+        metrics.append("Sleep profile: slept ").append(getTotalSleepTime()).append(" ms, waited on conditions ").append(getTotalWaitTime()).append(" ms");
+        
+        List<SleepStatisticsBean> sites = getCallSiteStatistics();
+        
+        for(int i = 0; (i < sites.size()) && (i < 5); i++) {
+            
+            if(sites.get(i).getSleepCount() == 0) break;
+            
+            metrics.append(i == 0 ? ", top sleeps: " : ", ").append(sites.get(i).getName()).append(" ").append(sites.get(i).getSleepTime()).append(" ms/").append(sites.get(i).getSleepCount());
+            
+        }
+        
+        return metrics.toString();
+        
+    }
+    
+    /**
+     * Get the statistics with the name, adding them if they do not exist.
+     * 
+     * @param map
+     * @param name
+     * 
+     * @return 
+     */
+    private SleepStatisticsBean getStatistics(ConcurrentMap<String, SleepStatisticsBean> map, String name) {
+        
+        SleepStatisticsBean bean = map.get(name);
+        
+        if(bean != null) return bean;
+        
+        bean = new SleepStatisticsBean(name);
+        
+        SleepStatisticsBean existing = map.putIfAbsent(name, bean);
+        
+        return (existing == null) ? bean : existing;
+        
+    }
+    
+    /**
+     * Sort the statistics, the most time sleeping (then waiting) first.
+     * 
+     * @param map
+     * 
+     * @return 
+     */
+    private List<SleepStatisticsBean> sort(ConcurrentMap<String, SleepStatisticsBean> map) {
+        
+        List<SleepStatisticsBean> list = new ArrayList<SleepStatisticsBean>(map.values());
+        
+        Collections.sort(list, new Comparator<SleepStatisticsBean>() {
+            
+            public int compare(SleepStatisticsBean a, SleepStatisticsBean b) {
+                
+                if(a.getSleepTime() != b.getSleepTime()) return Long.compare(b.getSleepTime(), a.getSleepTime());
+                
+                return Long.compare(b.getWaitTime(), a.getWaitTime());
+                
+            }
+            
+        });
+        
+        return list;
+        
+    }
+    
+    /**
+     * Get the name of the test running on this thread.
+     * 
+     * @return 
+     */
+    private String getTestName() { return getTestName(Reporter.getCurrentTestResult()); }
+    
+    /**
+     * Get the name of the test: the test class and method.
+     * 
+     * @param result
+     * 
+     * @return the name, NO_TEST if the result is not a test
+     */
+    public static String getTestName(ITestResult result) {
+        
+        if((result == null) || (result.getMethod() == null)) return NO_TEST;
+        
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getName();
+        
+    }
+    
+    /**
+     * Get the call site of the sleep or wait: the first line that is not this 
+     * class or a method wrapping a sleep, and the first line of test code leading to it.
+     * 
+     * @return 
+     */
+    private String getCallSite() {
+        
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        
+        int site = 0;
+        
+        while((site < stack.length) && (stack[site].getClassName().equals(SleepProfiler.class.getName()) || isSleepMethod(stack[site].getMethodName()))) site++;
+        
+        if(site == stack.length) return "unknown";
+        
+        String callSite = format(stack[site]);
+        
+        if(!isFrameworkClass(stack[site].getClassName())) return callSite;
+        
+        for(int i = site + 1; i < stack.length; i++) {
+            
+            if(!isFrameworkClass(stack[i].getClassName())) return callSite + " <- " + format(stack[i]);
+            
+        }
+        
+        return callSite;
+        
+    }
+    
+    /**
+     * Determine if the method only wraps a sleep.
+     * 
+     * @param methodName
+     * 
+     * @return 
+     */
+    private boolean isSleepMethod(String methodName) {
+        
+        for(String sleepMethod: SLEEP_METHODS) {
+            
+            if(sleepMethod.equals(methodName)) return true;
+            
+        }
+        
+        return false;
+        
+    }
+    
+    /**
+     * Determine if the class is part of the framework (not test code) or the 
+     * java runtime, test runner and drivers under it.
+     * 
+     * @param className
+     * 
+     * @return 
+     */
+    private boolean isFrameworkClass(String className) {
+        
+        if(className.startsWith("org.automateit.example.")) return false;
+        
+        return className.startsWith("org.automateit.") || className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.") || className.startsWith("org.testng.") || className.startsWith("org.openqa.") || className.startsWith("io.appium.");
+        
+    }
+    
+    /**
+     * Format a stack frame as Class.method:line.
+     * 
+     * @param frame
+     * 
+     * @return 
+     */
+    private String format(StackTraceElement frame) {
+        
+        String className = frame.getClassName();
+        
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+        
+    }
+    
+}
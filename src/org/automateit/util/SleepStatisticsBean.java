@@ -0,0 +1,126 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a data transfer object that has the time a test or a call 
+ * site spent in hard-coded delays (sleeps) and the time it spent waiting on 
+ * real conditions (elements present, javascript and ajax complete).
+ * 
+ * @author mburnside
+ */
+public class SleepStatisticsBean {
+    
+    /**
+     * The name of the test or call site
+     */
+    private String name = null;
+    
+    /**
+     * The number of sleeps
+     */
+    private long sleepCount = 0;
+    
+    /**
+     * The time (nano-sec) spent sleeping
+     */
+    private long sleepTime = 0;
+    
+    /**
+     * The number of condition waits
+     */
+    private long waitCount = 0;
+    
+    /**
+     * The time (nano-sec) spent waiting on conditions
+     */
+    private long waitTime = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param name 
+     */
+    public SleepStatisticsBean(String name) { this.name = name; }
+    
+    /**
+     * Add a sleep.
+     * 
+     * @param nanos 
+     */
+    public synchronized void addSleep(long nanos) { this.sleepCount++; this.sleepTime += nanos; }
+    
+    /**
+     * Add a condition wait.
+     * 
+     * @param nanos 
+     */
+    public synchronized void addWait(long nanos) { this.waitCount++; this.waitTime += nanos; }
+    
+    /**
+     * Get the name of the test or call site.
+     * 
+     * @return 
+     */
+    public String getName() { return this.name; }
+    
+    /**
+     * Get the number of sleeps.
+     * 
+     * @return 
+     */
+    public synchronized long getSleepCount() { return this.sleepCount; }
+    
+    /**
+     * Get the time (milli-sec) spent sleeping.
+     * 
+     * @return 
+     */
+    public synchronized long getSleepTime() { return TimeUnit.NANOSECONDS.toMillis(this.sleepTime); }
+    
+    /**
+     * Get the number of condition waits.
+     * 
+     * @return 
+     */
+    public synchronized long getWaitCount() { return this.waitCount; }
+    
+    /**
+     * Get the time (milli-sec) spent waiting on conditions.
+     * 
+     * @return 
+     */
+    public synchronized long getWaitTime() { return TimeUnit.NANOSECONDS.toMillis(this.waitTime); }
+    
+    /**
+     * Get the share (%) of sleeping in the time spent sleeping and waiting.
+     * 
+     * @return 
+     */
+    public synchronized double getSleepShare() { 
+        
+        if((this.sleepTime + this.waitTime) == 0) return 0;
+        
+        return (this.sleepTime * 100.0) / (this.sleepTime + this.waitTime); 
+    
+    }
+    
+}
@@ -0,0 +1,95 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.util;
+
+/**
+ * This class is a data transfer object that has details of the startup of a 
+ * web driver session (browser or mobile app), kept separate from page load
+ * and test time.
+ * 
+ * @author mburnside
+ */
+public class StartupPerformanceBean {
+    
+    /**
+     * The name (key) of the session
+     */
+    private String sessionName = null;
+    
+    /**
+     * The amount of time (milli-sec) it took to create the session
+     */
+    private long startupTime = 0;
+    
+    /**
+     * The amount of time (milli-sec) the test waited for the session
+     */
+    private long waitTime = 0;
+    
+    /**
+     * If the session was created in the background before the test asked for it
+     */
+    private boolean prewarmed = false;
+    
+    /**
+     * Constructor
+     * 
+     * @param sessionName
+     * @param startupTime
+     * @param waitTime
+     * @param prewarmed 
+     */
+    public StartupPerformanceBean(String sessionName, long startupTime, long waitTime, boolean prewarmed) {
+        
+        this.sessionName = sessionName;
+        this.startupTime = startupTime;
+        this.waitTime = waitTime;
+        this.prewarmed = prewarmed;
+        
+    }
+    
+    /**
+     * Get the name (key) of the session.
+     * 
+     * @return 
+     */
+    public String getSessionName() { return this.sessionName; }
+    
+    /**
+     * Get the amount of time (milli-sec) it took to create the session.
+     * 
+     * @return 
+     */
+    public long getStartupTime() { return this.startupTime; }
+    
+    /**
+     * Get the amount of time (milli-sec) the test waited for the session.
+     * 
+     * @return 
+     */
+    public long getWaitTime() { return this.waitTime; }
+    
+    /**
+     * Return if the session was created in the background.
+     * 
+     * @return 
+     */
+    public boolean isPrewarmed() { return this.prewarmed; }
+    
+}
@@ -58,11 +58,12 @@ public class SummaryPerformance {
     public static SummaryPerformance getInstance() { return instance; }
     
     /**
-     * Add to the record of performance data.
+     * Add to the record of performance data. Synchronized, tests running in 
+     * parallel add to the same page summaries.
      * 
      * @param pagePerformance 
      */
-    public void add(PerformanceCaptureBean pagePerformance) {
+    public synchronized void add(PerformanceCaptureBean pagePerformance) {
     	    
     	SummaryPerformanceBean pageSummary = pagePerformanceSummaries.get(pagePerformance.getPageName());
     	
@@ -18,7 +18,12 @@
 
 package org.automateit.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
@@ -26,48 +31,61 @@ import org.automateit.data.DataArchive;
 import org.automateit.data.XLSXDataArchive;
 
 /**
- * This class keeps track of page summary (total page load time, max page load time, average page load time, page hits) for a page.
- * It contains a class variable (pageLoadTime) which is a capture of each individual page load for the page.
- * This class then does the calculation for the total, average, max time
+ * This class keeps track of page summary (total page load time, max page load time, average page load time, page hits,
+ * page load time percentiles) for a page.
+ * 
+ * Page load times are counted in a fixed memory, streaming histogram (LatencyHistogram), so memory does not grow
+ * with the number of page loads (e.g. in long soak runs). Only the most recent page loads are kept for the
+ * individual page performance file (pagePerformanceSampleLimit, default 1000).
  * 
  * @author mburnside
  */
 public class SummaryPerformanceBean  {
 
     /**
-     * Page load time (total)
+     * Property for the number of most recent page loads kept for the individual page performance file
      */
-    private long totalPageLoadTime = 0;
+    public static final String PAGE_PERFORMANCE_SAMPLE_LIMIT = "pagePerformanceSampleLimit";
     
     /**
-     * Page load time (average)
+     * The percentiles reported for each page
      */
-    private long averagePageLoadTime = 0;    
+    public static final double[] PERCENTILES = { 50.0, 90.0, 95.0, 99.0, 99.9 };
     
     /**
-     * Page load time (max)
+     * The default number of most recent page loads kept
      */
-    private long maxPageLoadTime = 0;
+    private static final int DEFAULT_SAMPLE_LIMIT = 1000;
     
     /**
-     * Page Hit
+     * The name of the page that was loaded
      */
-    private long pageHit = 0;    
+    private String pageName = null;
     
     /**
-     * The name of the page that was loaded
+     * The histogram of all the page load times for this page
      */
-    private String pageName = null;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    
+    /**
+     * The most recent page loads for this page
+     */
+    private final Deque<PerformanceCaptureBean> recentPageLoads = new ArrayDeque<PerformanceCaptureBean>();
     
     /**
-     * a list of all the page load time for this page
+     * The number of most recent page loads kept
      */
-    private ArrayList<PerformanceCaptureBean> pageLoadTime = new ArrayList<PerformanceCaptureBean>();
+    private final int sampleLimit;
     
     /**
-     * flag to tell if total, average, page hits have been calculated or not
+     * The number of page loads with navigation timing measured by the browser
      */
-    private boolean calculated = false;
+    private long navigationTimingCount = 0;
+    
+    /**
+     * The totals (milli-sec) of the navigation timing: dns, connect, ttfb, DOMContentLoaded, load
+     */
+    private final long[] navigationTimingTotals = new long[5];
     
     /**
      * The logger class
@@ -77,7 +95,18 @@ public class SummaryPerformanceBean  {
     /**
      * Default Constructor
      */
-    public SummaryPerformanceBean(String pageName) { this.pageName = pageName; }
+    public SummaryPerformanceBean(String pageName) { 
+        
+        this.pageName = pageName; 
+        
+        int limit = DEFAULT_SAMPLE_LIMIT;
+        
+        try { limit = Integer.parseInt(CommonProperties.getInstance().get(PAGE_PERFORMANCE_SAMPLE_LIMIT).trim()); }
+        catch(Exception e) { }
+        
+        this.sampleLimit = Math.max(0, limit);
+    
+    }
         
     /**
      * Add the Page level performance capture info to this summary
@@ -88,93 +117,153 @@ public class SummaryPerformanceBean  {
     	// just making sure we are adding page performance data to the right summary
     	if(getPageName().equals(pagePerformance.getPageName())) {
     	
-            pageLoadTime.add(pagePerformance);	
-    	
-            calculated = false;
+            histogram.record(pagePerformance.getTimeNanos());
+            
+            NavigationTimingBean navigationTiming = pagePerformance.getNavigationTiming();
+            
+            if(navigationTiming != null) {
+                
+                synchronized(navigationTimingTotals) {
+                    
+                    navigationTimingCount++;
+                    
+                    navigationTimingTotals[0] += navigationTiming.getDns();
+                    navigationTimingTotals[1] += navigationTiming.getConnect();
+                    navigationTimingTotals[2] += navigationTiming.getTimeToFirstByte();
+                    navigationTimingTotals[3] += navigationTiming.getDomContentLoaded();
+                    navigationTimingTotals[4] += navigationTiming.getLoad();
+                    
+                }
+                
+            }
+            
+            synchronized(recentPageLoads) {
+                
+                if(sampleLimit == 0) return;
+                
+                if(recentPageLoads.size() >= sampleLimit) recentPageLoads.pollFirst();
+                
+                recentPageLoads.addLast(pagePerformance);
+                
+            }
     	
         }
         
     }
     
     /**
-     * Get the page name (or message).
+     * Add the page loads of another summary of the same page to this summary
+     * (e.g. a summary from another run).
      * 
-     * @return 
+     * @param pageSummary 
      */
-    public String getPageName() { return pageName; }
+    public void merge(SummaryPerformanceBean pageSummary) {
         
-    /**
-     * Calculate the performance of page loads.
-     */
-    private void calculatePerformance() {
-    	
-    	totalPageLoadTime = 0;               
-        averagePageLoadTime = 0;
-        maxPageLoadTime = 0;
-        pageHit = 0;
+        if(!getPageName().equals(pageSummary.getPageName())) return;
         
-    	for(PerformanceCaptureBean pageTime:pageLoadTime) {
-    		
-            if (pageTime.getTime() > maxPageLoadTime)
-    	
-                maxPageLoadTime = pageTime.getTime();
-    		
-    		totalPageLoadTime += pageTime.getTime();
-    	
-                pageHit++;    		
-    	
-        }
-    	
-    	averagePageLoadTime = totalPageLoadTime / pageHit;
-    	
-    	calculated = true;
+        histogram.merge(pageSummary.histogram);
         
     }
     
+    /**
+     * Get a snapshot (copy) of the page load time histogram, which can be merged 
+     * with the histograms of other runs.
+     * 
+     * @return 
+     */
+    public LatencyHistogram getSnapshot() { return histogram.getSnapshot(); }
+    
+    /**
+     * Get the page name (or message).
+     * 
+     * @return 
+     */
+    public String getPageName() { return pageName; }
     
     /**    
      * @return Total Page Load Time for this page
      */
-    public long getTotalPageLoadTime() {
-    	
-    	if (!calculated) calculatePerformance();
-    	
-    	return totalPageLoadTime; 
-   	
-    }
+    public long getTotalPageLoadTime() { return TimeUnit.NANOSECONDS.toMillis(histogram.getTotal()); }
     
     /**    
      * @return Average Page Load Time for this page
      */    
-    public long getAveragePageLoadTime() {
-    	
-    	if (!calculated) calculatePerformance();
-    	
-    	return averagePageLoadTime; 
+    public long getAveragePageLoadTime() { return TimeUnit.NANOSECONDS.toMillis(histogram.getMean()); }
     
-    }
     /**
      * Get the max page load time.
      * 
      * @return 
      */
-    public long getMaxPageLoadTime() {
-    	
-    	if (!calculated) calculatePerformance();
-    	
-    	return maxPageLoadTime; 
+    public long getMaxPageLoadTime() { return TimeUnit.NANOSECONDS.toMillis(histogram.getMax()); }
     
-    }
+    /**
+     * Get the page load time (milli-sec) at a percentile (e.g. 95 or 99.9).
+     * 
+     * @param percentile
+     * 
+     * @return 
+     */
+    public long getPercentilePageLoadTime(double percentile) { return histogram.getValueAtPercentileMillis(percentile); }
     
     /**    
      * @return Total Page Hits for this page
      */
-    public long getPageHit() {
-    	
-    	if (!calculated) calculatePerformance();
-    	
-    	return pageHit; 
-   	
+    public long getPageHit() { return histogram.getCount(); }
+    
+    /**
+     * Get the number of page loads with navigation timing measured by the browser.
+     * 
+     * @return 
+     */
+    public long getNavigationTimingCount() { synchronized(navigationTimingTotals) { return navigationTimingCount; } }
+    
+    /**
+     * Get the average DNS lookup time (milli-sec) measured by the browser.
+     * 
+     * @return 
+     */
+    public long getAverageDns() { return getAverageNavigationTiming(0); }
+    
+    /**
+     * Get the average connect time (milli-sec) measured by the browser.
+     * 
+     * @return 
+     */
+    public long getAverageConnect() { return getAverageNavigationTiming(1); }
+    
+    /**
+     * Get the average time to first byte (milli-sec) measured by the browser.
+     * 
+     * @return 
+     */
+    public long getAverageTimeToFirstByte() { return getAverageNavigationTiming(2); }
+    
+    /**
+     * Get the average DOMContentLoaded time (milli-sec) measured by the browser.
+     * 
+     * @return 
+     */
+    public long getAverageDomContentLoaded() { return getAverageNavigationTiming(3); }
+    
+    /**
+     * Get the average load event time (milli-sec) measured by the browser.
+     * 
+     * @return 
+     */
+    public long getAverageLoad() { return getAverageNavigationTiming(4); }
+    
+    /**
+     * Get the average of a navigation timing, 0 if none were measured.
+     * 
+     * @param index
+     * 
+     * @return 
+     */
+    private long getAverageNavigationTiming(int index) {
+        
+        synchronized(navigationTimingTotals) { return (navigationTimingCount == 0) ? 0 : navigationTimingTotals[index] / navigationTimingCount; }
+        
     }
     
     /**
@@ -195,9 +284,20 @@ public class SummaryPerformanceBean  {
      */
     public boolean isMaxTimeOverThreshold(long ms) { return (getMaxPageLoadTime() > ms); }
     
+    /**
+     * Return true if the page load time at a percentile is greater than specified threshold
+     * 
+     * @param percentile - e.g. 95
+     * @param ms - threshold in milli-second
+     * 
+     * @return
+     */
+    public boolean isPercentileTimeOverThreshold(double percentile, long ms) { return (getPercentilePageLoadTime(percentile) > ms); }
+    
     /**
      * This method generate the page performance info for this particular page
      * (eg. Page Loaded From, Page Loaded, Load Time, Notes on hard-coded delays)
+     * for the most recent page loads
      * 
      * @param path: directory path to save file
      * 
@@ -211,13 +311,27 @@ public class SummaryPerformanceBean  {
     	
     	try {
     		DataArchive dataArchive = new XLSXDataArchive();    	
-	    	dataArchive.addData(new String[]{ "Page Loaded From", "Page", "Load Time (ms)", "Note" });
+	    	dataArchive.addData(new String[]{ "Page Loaded From", "Page", "Load Time (ms)", "Note", "DNS (ms)", "Connect (ms)", "TTFB (ms)", "DOMContentLoaded (ms)", "Load Event (ms)", "Resources", "Slowest Resources" });
+	    	
+	    	List<PerformanceCaptureBean> pageLoadTime = null;
+	    	
+	    	synchronized(recentPageLoads) { pageLoadTime = new ArrayList<PerformanceCaptureBean>(recentPageLoads); }
 	    	
 	    	for (PerformanceCaptureBean pageTime : pageLoadTime) {
+	    		
+	    		NavigationTimingBean navigationTiming = pageTime.getNavigationTiming();
+	    		
 	    		String[] data = { pageTime.getFromPageName(), 
 	    						  pageTime.getPageName(), 
 	    						  String.valueOf(pageTime.getTime()),
-	    						  pageTime.getSleepTimeString() };
+	    						  pageTime.getSleepTimeString(),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getDns()),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getConnect()),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getTimeToFirstByte()),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getDomContentLoaded()),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getLoad()),
+	    						  (navigationTiming == null) ? "" : String.valueOf(navigationTiming.getResourceCount()),
+	    						  (navigationTiming == null) ? "" : navigationTiming.getSlowestResourcesString() };
 	    		
 	    		
 					dataArchive.addData(data);
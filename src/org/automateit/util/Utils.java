@@ -35,7 +35,6 @@ import java.util.regex.Pattern;
 import java.util.Random;
 
 import java.util.Base64;
-import java.util.Date;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +56,7 @@ import org.apache.commons.io.FileUtils;
 
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.WebDriver;
 
 import org.automateit.data.DataDrivenInputFactory;
 import org.automateit.data.DataDrivenInput;
@@ -64,6 +64,8 @@ import org.automateit.data.DataArchive;
 import org.automateit.data.CSVAppendDataArchive;
 import org.automateit.data.CSVDataArchive;
 
+import org.automateit.jfr.ScreenshotEvent;
+
 import org.automateit.media.JarvisTextToSpeechConverter;
 import org.automateit.media.JLayerAudioPlayer;
 import org.automateit.media.JMFAudioPlayer;
@@ -71,6 +73,8 @@ import org.automateit.media.JavaSoundAPIAudioPlayer;
 
 import org.automateit.reports.ReportsManager;
 
+import org.automateit.screenshot.ScreenshotStore;
+
 import org.automateit.core.CommonWebDriver;
 
 public class Utils {
@@ -944,15 +948,58 @@ public class Utils {
      */
     public void addScreenshotToReport(String destinationDirectory, String title) throws Exception {
                
+        try { addScreenshotToReport(destinationDirectory, getScreenshotAsBytes(), title); }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Take a screenshot of the web driver of the current thread as PNG bytes, 
+     * without writing anything to disk.
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public byte[] getScreenshotAsBytes() throws Exception {
+        
+        ScreenshotEvent event = new ScreenshotEvent();
+        
+        event.begin();
+        
         try { 
             
-            Date now = new Date();
+            WebDriver webDriver = CommonWebDriver.getInstance().getThreadWebDriver();
+            
+            if(webDriver == null) throw new Exception("Unable to take a screenshot, the current thread has no web driver");
             
-            String filename = String.valueOf(now.getTime()) + ".png";
+            byte[] screenshot = ((TakesScreenshot)webDriver).getScreenshotAs(OutputType.BYTES); 
             
-            String screenshotFilename = destinationDirectory + File.separator + filename;
+            event.setSize(screenshot.length);
+            
+            return screenshot;
+        
+        }
+        catch(Exception e) { throw e; }
+        finally { event.complete("screenshot", null, null); }
+        
+    }
+    
+    /**
+     * Store a screenshot (PNG bytes) in the directory and add it to the test results report.
+     * Identical screenshots are stored once and share the same file.
+     * 
+     * @param destinationDirectory
+     * @param screenshot
+     * @param title
+     * 
+     * @throws Exception 
+     */
+    public void addScreenshotToReport(String destinationDirectory, byte[] screenshot, String title) throws Exception {
+               
+        try { 
             
-            FileUtils.copyFile(((TakesScreenshot)CommonWebDriver.getInstance().getWebDriver()).getScreenshotAs(OutputType.FILE), new File(screenshotFilename));
+            String filename = ScreenshotStore.getInstance().store(destinationDirectory, screenshot);
             
             if(title == null) ReportsManager.getInstance().addImageToReport(filename);
             else ReportsManager.getInstance().addImageToReport(filename, title);
@@ -0,0 +1,136 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a data transfer object that has how long a wait condition 
+ * (e.g. finding an element by id) took to become true, how many polls it 
+ * took, and how often it timed out, so wait budgets can be tuned from real data.
+ * 
+ * @author mburnside
+ */
+public class WaitStatisticsBean {
+    
+    /**
+     * The name of the condition
+     */
+    private String condition = null;
+    
+    /**
+     * The time (nano-sec) each wait took for the condition to become true
+     */
+    private final LatencyHistogram times = new LatencyHistogram();
+    
+    /**
+     * The number of polls of the waits that were met
+     */
+    private long polls = 0;
+    
+    /**
+     * The number of waits that timed out
+     */
+    private long timeoutCount = 0;
+    
+    /**
+     * The time (nano-sec) spent in waits that timed out
+     */
+    private long timeoutTime = 0;
+    
+    /**
+     * Constructor
+     * 
+     * @param condition 
+     */
+    public WaitStatisticsBean(String condition) { this.condition = condition; }
+    
+    /**
+     * Add a wait where the condition became true.
+     * 
+     * @param nanos
+     * @param polls 
+     */
+    public synchronized void addMet(long nanos, long polls) { this.times.record(nanos); this.polls += polls; }
+    
+    /**
+     * Add a wait that timed out.
+     * 
+     * @param nanos 
+     */
+    public synchronized void addTimeout(long nanos) { this.timeoutCount++; this.timeoutTime += nanos; }
+    
+    /**
+     * Get the name of the condition.
+     * 
+     * @return 
+     */
+    public String getCondition() { return this.condition; }
+    
+    /**
+     * Get the number of waits where the condition became true.
+     * 
+     * @return 
+     */
+    public synchronized long getCount() { return this.times.getCount(); }
+    
+    /**
+     * Get the average number of polls of the waits where the condition became true.
+     * 
+     * @return 
+     */
+    public synchronized double getAveragePolls() { return (getCount() == 0) ? 0 : ((double)this.polls / getCount()); }
+    
+    /**
+     * Get the number of waits that timed out.
+     * 
+     * @return 
+     */
+    public synchronized long getTimeoutCount() { return this.timeoutCount; }
+    
+    /**
+     * Get the total time (milli-sec) spent waiting, met and timed out.
+     * 
+     * @return 
+     */
+    public synchronized long getTotalTime() { return TimeUnit.NANOSECONDS.toMillis(this.times.getTotal() + this.timeoutTime); }
+    
+    /**
+     * Get the time (milli-sec) at a percentile of the waits where the condition became true.
+     * 
+     * @param percentile
+     * 
+     * @return 
+     */
+    public synchronized long getTime(double percentile) { return this.times.getValueAtPercentileMillis(percentile); }
+    
+    /**
+     * Get the longest time (milli-sec) of the waits where the condition became true.
+     * 
+     * @return 
+     */
+    public synchronized long getMaxTime() { return TimeUnit.NANOSECONDS.toMillis(this.times.getMax()); }
+    
+    /**
+     * Get a budget (seconds) for the condition: twice the 99th percentile, at least one second.
+     * 
+     * @return 
+     */
+    public synchronized long getSuggestedBudget() { return Math.max(1, (long)Math.ceil(getTime(99) * 2 / 1000.0)); }
+    
+}
@@ -0,0 +1,718 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.web;
+
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.logging.Level;
+
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.CapabilityType;
+
+import org.testng.ITestResult;
+
+import org.automateit.util.ChromeTimelineBean;
+import org.automateit.util.CommonProperties;
+import org.automateit.util.LongTaskBean;
+import org.automateit.util.NetworkRequestBean;
+import org.automateit.util.PaintTimingBean;
+import org.automateit.util.SleepProfiler;
+
+/**
+ * This class enables Chrome's performance log and turns the DevTools timeline 
+ * and network events of each test into a frontend timeline: the long tasks of
+ * the main thread, the network waterfall and the paint timings (first paint,
+ * first contentful paint, largest contentful paint) of each navigation. The 
+ * timeline is saved gzipped next to the screenshots and summarized in the report.
+ * 
+ * It is off by default and configured in automateit.properties:
+ * 
+ * chromePerformanceLog=false
+ * chromePerformanceLogTraceCategories=devtools.timeline,toplevel,loading,blink.user_timing
+ * chromePerformanceLogLongTaskThreshold=50
+ * 
+ * @author mburnside
+ */
+public class ChromePerformanceLog {
+    
+    /**
+     * Property to enable the Chrome performance log
+     */
+    public static final String CHROME_PERFORMANCE_LOG = "chromePerformanceLog";
+    
+    /**
+     * Property for the trace categories recorded with the performance log
+     */
+    public static final String CHROME_PERFORMANCE_LOG_TRACE_CATEGORIES = "chromePerformanceLogTraceCategories";
+    
+    /**
+     * Property for the amount of time (milli-sec) a main thread task must run to be a long task
+     */
+    public static final String CHROME_PERFORMANCE_LOG_LONG_TASK_THRESHOLD = "chromePerformanceLogLongTaskThreshold";
+    
+    /**
+     * The end of the name of timeline files
+     */
+    public static final String TIMELINE_SUFFIX = "_timeline.json.gz";
+    
+    /**
+     * The default trace categories: main thread tasks, loading and paint timings
+     */
+    private static final String DEFAULT_TRACE_CATEGORIES = "devtools.timeline,toplevel,loading,blink.user_timing";
+    
+    /**
+     * The default long task threshold (milli-sec), as defined by the Long Tasks API
+     */
+    private static final long DEFAULT_LONG_TASK_THRESHOLD = 50;
+    
+    /**
+     * The capability that enables the logs of the Chrome driver
+     */
+    private static final String CHROME_LOGGING_PREFS = "goog:loggingPrefs";
+    
+    /**
+     * The names of the trace events of one main thread task, by Chrome version
+     */
+    private static final Set<String> TASK_EVENTS = new HashSet<String>(Arrays.asList("RunTask", "ThreadControllerImpl::RunTask", "ThreadControllerImpl::DoWork", "TaskQueueManager::ProcessTaskFromWorkQueue"));
+    
+    /**
+     * The name of the renderer main thread
+     */
+    private static final String RENDERER_MAIN_THREAD = "CrRendererMain";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(ChromePerformanceLog.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static ChromePerformanceLog instance = new ChromePerformanceLog();
+    
+    /**
+     * The timeline of each test
+     */
+    private final Map<String, ChromeTimelineBean> timelines = Collections.synchronizedMap(new HashMap<String, ChromeTimelineBean>());
+    
+    /**
+     * Default Constructor.
+     */
+    public ChromePerformanceLog() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static ChromePerformanceLog getInstance() { return instance; }
+    
+    /**
+     * Return if the Chrome performance log is enabled.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        String enabled = CommonProperties.getInstance().get(CHROME_PERFORMANCE_LOG);
+        
+        return (enabled != null) && Boolean.valueOf(enabled.trim());
+        
+    }
+    
+    /**
+     * Enable the performance log, with network, page and trace events, in the
+     * Chrome options if the performance log is enabled.
+     * 
+     * @param options 
+     */
+    public void apply(ChromeOptions options) {
+        
+        if(!isEnabled()) return;
+        
+        LoggingPreferences loggingPreferences = new LoggingPreferences();
+        
+        loggingPreferences.enable(LogType.PERFORMANCE, Level.ALL);
+        
+        // newer drivers read the vendor prefixed capability, older drivers the legacy one
+        options.setCapability(CHROME_LOGGING_PREFS, loggingPreferences);
+        options.setCapability(CapabilityType.LOGGING_PREFS, loggingPreferences);
+        
+        Map<String, Object> performanceLoggingPreferences = new HashMap<String, Object>();
+        
+        performanceLoggingPreferences.put("enableNetwork", true);
+        performanceLoggingPreferences.put("enablePage", true);
+        performanceLoggingPreferences.put("traceCategories", getTraceCategories());
+        
+        options.setExperimentalOption("perfLoggingPrefs", performanceLoggingPreferences);
+        
+        logger.debug("Enabled the Chrome performance log with trace categories: " + getTraceCategories());
+        
+    }
+    
+    /**
+     * Start the timeline of a test by discarding the events recorded before it.
+     * 
+     * @param driver 
+     */
+    public void start(WebDriver driver) {
+        
+        if(!isEnabled() || (driver == null)) return;
+        
+        logger.debug("Discarded " + read(driver).size() + " performance log events before the test");
+        
+    }
+    
+    /**
+     * Capture the timeline of the test from the events recorded since it 
+     * started, and save it gzipped to the file.
+     * 
+     * @param result
+     * @param driver
+     * @param filename the file to save the timeline to
+     * 
+     * @return the timeline, or null if not enabled or there were no events
+     */
+    public ChromeTimelineBean capture(ITestResult result, WebDriver driver, String filename) {
+        
+        if(!isEnabled() || (driver == null)) return null;
+        
+        try {
+            
+            List<JsonObject> events = read(driver);
+            
+            if(events.isEmpty()) return null;
+            
+            ChromeTimelineBean timeline = parse(SleepProfiler.getTestName(result), events);
+            
+            save(timeline, filename);
+            
+            timelines.put(timeline.getTestName(), timeline);
+            
+            logger.debug("Captured the timeline of " + timeline.getTestName() + ": " + timeline);
+            
+            return timeline;
+            
+        }
+        catch(Exception e) { logger.error("Unable to capture the Chrome performance log: " + e.getMessage()); return null; }
+        
+    }
+    
+    /**
+     * Get the timeline of a test.
+     * 
+     * @param result
+     * 
+     * @return the timeline, or null if it was not captured
+     */
+    public ChromeTimelineBean getTimeline(ITestResult result) { return timelines.get(SleepProfiler.getTestName(result)); }
+    
+    /**
+     * Read the events recorded in the performance log since the last read.
+     * 
+     * @param driver
+     * 
+     * @return the events (method and params), empty if the browser has no performance log
+     */
+    private List<JsonObject> read(WebDriver driver) {
+        
+        List<JsonObject> events = new ArrayList<JsonObject>();
+        
+        try {
+            
+            for(LogEntry entry: driver.manage().logs().get(LogType.PERFORMANCE).getAll()) {
+                
+                JsonReader reader = Json.createReader(new StringReader(entry.getMessage()));
+                
+                try { events.add(reader.readObject().getJsonObject("message")); }
+                catch(Exception e) { logger.debug("Skipping performance log entry: " + e.getMessage()); }
+                finally { reader.close(); }
+                
+            }
+            
+        }
+        catch(Exception e) { logger.debug("Unable to read the performance log: " + e.getMessage()); }
+        
+        return events;
+        
+    }
+    
+    /**
+     * Derive the long tasks, the network waterfall and the paint timings from
+     * the events. All times are from the first event.
+     * 
+     * @param testName
+     * @param events
+     * 
+     * @return 
+     */
+    private ChromeTimelineBean parse(String testName, List<JsonObject> events) {
+        
+        ChromeTimelineBean timeline = new ChromeTimelineBean(testName);
+        
+        List<JsonObject> traceEvents = new ArrayList<JsonObject>();
+        
+        List<JsonObject> networkEvents = new ArrayList<JsonObject>();
+        
+        Set<String> mainThreads = new HashSet<String>();
+        
+        double origin = Double.MAX_VALUE;
+        
+        // both the network timestamps (seconds) and the trace timestamps (micro-seconds) are on the browser's monotonic clock
+        for(JsonObject event: events) {
+            
+            String method = event.getString("method", "");
+            
+            JsonObject params = event.getJsonObject("params");
+            
+            if(params == null) continue;
+            
+            if(method.equals("Tracing.dataCollected")) {
+                
+                if("M".equals(params.getString("ph", "")) && "thread_name".equals(params.getString("name", "")) && RENDERER_MAIN_THREAD.equals(getString(params, "args", "name"))) 
+                    mainThreads.add(getThread(params));
+                
+                else if(getNumber(params, "ts") > 0) { traceEvents.add(params); origin = Math.min(origin, getNumber(params, "ts")); }
+                
+            }
+            
+            else if(method.startsWith("Network.")) { networkEvents.add(event); origin = Math.min(origin, getNumber(params, "timestamp") * 1000000); }
+            
+        }
+        
+        parseNetwork(timeline, networkEvents, origin);
+        
+        parseTrace(timeline, traceEvents, mainThreads, origin);
+        
+        return timeline;
+        
+    }
+    
+    /**
+     * Build the network waterfall from the network events.
+     * 
+     * @param timeline
+     * @param events
+     * @param origin the time (micro-sec) of the first event
+     */
+    private void parseNetwork(ChromeTimelineBean timeline, List<JsonObject> events, double origin) {
+        
+        Map<String, NetworkRequestBean> requests = new HashMap<String, NetworkRequestBean>();
+        
+        for(JsonObject event: events) {
+            
+            String method = event.getString("method");
+            
+            JsonObject params = event.getJsonObject("params");
+            
+            String requestId = params.getString("requestId", null);
+            
+            if(requestId == null) continue;
+            
+            long time = toMillis(getNumber(params, "timestamp") * 1000000, origin);
+            
+            NetworkRequestBean request = requests.get(requestId);
+            
+            if(method.equals("Network.requestWillBeSent")) {
+                
+                // a redirect ends the request it redirects and continues with the same id
+                if((request != null) && (params.get("redirectResponse") instanceof JsonObject)) {
+                    
+                    setResponse(request, params.getJsonObject("redirectResponse"), time);
+                    
+                    request.setDuration(time - request.getStart());
+                    
+                }
+                
+                JsonObject requestParams = params.getJsonObject("request");
+                
+                request = new NetworkRequestBean(getString(requestParams, "url"), getString(requestParams, "method"), params.getString("type", null), time);
+                
+                requests.put(requestId, request);
+                
+                timeline.getRequests().add(request);
+                
+            }
+            
+            else if(request == null) continue;
+            
+            else if(method.equals("Network.responseReceived")) {
+                
+                if(params.containsKey("type")) request.setType(params.getString("type", null));
+                
+                if(params.get("response") instanceof JsonObject) setResponse(request, params.getJsonObject("response"), time);
+                
+            }
+            
+            else if(method.equals("Network.requestServedFromCache")) request.setFromCache(true);
+            
+            else if(method.equals("Network.loadingFinished")) {
+                
+                request.setDuration(time - request.getStart());
+                
+                request.setBytes((long)getNumber(params, "encodedDataLength"));
+                
+            }
+            
+            else if(method.equals("Network.loadingFailed")) {
+                
+                request.setDuration(time - request.getStart());
+                
+                request.setError(params.getBoolean("canceled", false) ? "canceled" : params.getString("errorText", "failed"));
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Set the status, cache and time to first byte of a request from its response.
+     * 
+     * @param request
+     * @param response
+     * @param time the time (milli-sec) the response was received
+     */
+    private void setResponse(NetworkRequestBean request, JsonObject response, long time) {
+        
+        request.setStatus((long)getNumber(response, "status"));
+        
+        request.setFromCache(request.isFromCache() || response.getBoolean("fromDiskCache", false) || response.getBoolean("fromServiceWorker", false));
+        
+        // the resource timing of the response is more precise than the time of the event
+        if((response.get("timing") instanceof JsonObject) && (getNumber(response.getJsonObject("timing"), "receiveHeadersEnd") > 0))
+            request.setTimeToFirstByte(Math.round(getNumber(response.getJsonObject("timing"), "receiveHeadersEnd")));
+        else 
+            request.setTimeToFirstByte(time - request.getStart());
+        
+    }
+    
+    /**
+     * Find the long tasks of the main thread and the paint timings of each 
+     * navigation in the trace events.
+     * 
+     * @param timeline
+     * @param events
+     * @param mainThreads the renderer main threads, all threads if none were named
+     * @param origin the time (micro-sec) of the first event
+     */
+    private void parseTrace(ChromeTimelineBean timeline, List<JsonObject> events, Set<String> mainThreads, double origin) {
+        
+        long threshold = getLongTaskThreshold() * 1000;
+        
+        Map<String, PaintTimingBean> navigations = new HashMap<String, PaintTimingBean>();
+        
+        Map<PaintTimingBean, Double> navigationStarts = new HashMap<PaintTimingBean, Double>();
+        
+        Map<String, Double> taskEnds = new HashMap<String, Double>();
+        
+        PaintTimingBean lastNavigation = null;
+        
+        // trace events are collected per thread, a paint must follow the start of its navigation and an outer task must come before its nested tasks
+        Collections.sort(events, new Comparator<JsonObject>() {
+            
+            public int compare(JsonObject a, JsonObject b) { 
+                
+                int compare = Double.compare(getNumber(a, "ts"), getNumber(b, "ts"));
+                
+                return (compare != 0) ? compare : Double.compare(getNumber(b, "dur"), getNumber(a, "dur"));
+            
+            }
+        
+        });
+        
+        for(JsonObject event: events) {
+            
+            String name = event.getString("name", "");
+            
+            double ts = getNumber(event, "ts");
+            
+            if(TASK_EVENTS.contains(name)) {
+                
+                String thread = getThread(event);
+                
+                // chrome versions nest some of the task events, only the outermost task counts
+                if(!"X".equals(event.getString("ph", "")) || (taskEnds.containsKey(thread) && (ts < taskEnds.get(thread)))) continue;
+                
+                taskEnds.put(thread, ts + getNumber(event, "dur"));
+                
+                if((getNumber(event, "dur") >= threshold) && (mainThreads.isEmpty() || mainThreads.contains(thread)))
+                    timeline.getLongTasks().add(new LongTaskBean(toMillis(ts, origin), Math.round(getNumber(event, "dur") / 1000)));
+                
+                continue;
+                
+            }
+            
+            String frame = getString(event, "args", "frame");
+            
+            if(name.equals("navigationStart")) {
+                
+                JsonObject data = getObject(event, "args", "data");
+                
+                String url = (data == null) ? null : data.getString("documentLoaderURL", null);
+                
+                if((url == null) || url.isEmpty() || ((data != null) && !data.getBoolean("isLoadingMainFrame", true))) continue;
+                
+                lastNavigation = new PaintTimingBean(url, toMillis(ts, origin));
+                
+                navigations.put(frame, lastNavigation);
+                
+                navigationStarts.put(lastNavigation, ts);
+                
+                timeline.getPaints().add(lastNavigation);
+                
+                continue;
+                
+            }
+            
+            PaintTimingBean navigation = navigations.containsKey(frame) ? navigations.get(frame) : lastNavigation;
+            
+            if(navigation == null) continue;
+            
+            long time = Math.round((ts - navigationStarts.get(navigation)) / 1000);
+            
+            if(name.equals("firstPaint")) navigation.setFirstPaint(time);
+            
+            else if(name.equals("firstContentfulPaint")) navigation.setFirstContentfulPaint(time);
+            
+            // the last candidate is the largest contentful paint
+            else if(name.equals("largestContentfulPaint::Candidate")) navigation.setLargestContentfulPaint(time);
+            
+        }
+        
+    }
+    
+    /**
+     * Save the timeline gzipped to the file.
+     * 
+     * @param timeline
+     * @param filename
+     * 
+     * @throws Exception 
+     */
+    private void save(ChromeTimelineBean timeline, String filename) throws Exception {
+        
+        JsonArrayBuilder longTasks = Json.createArrayBuilder();
+        
+        for(LongTaskBean task: timeline.getLongTasks()) longTasks.add(Json.createObjectBuilder().add("start", task.getStart()).add("duration", task.getDuration()));
+        
+        JsonArrayBuilder requests = Json.createArrayBuilder();
+        
+        for(NetworkRequestBean request: timeline.getRequests()) {
+            
+            JsonObjectBuilder json = Json.createObjectBuilder();
+            
+            add(json, "url", request.getUrl());
+            add(json, "method", request.getMethod());
+            add(json, "type", request.getType());
+            json.add("status", request.getStatus());
+            json.add("start", request.getStart());
+            json.add("ttfb", request.getTimeToFirstByte());
+            json.add("duration", request.getDuration());
+            json.add("bytes", request.getBytes());
+            json.add("fromCache", request.isFromCache());
+            add(json, "error", request.getError());
+            
+            requests.add(json);
+            
+        }
+        
+        JsonArrayBuilder paints = Json.createArrayBuilder();
+        
+        for(PaintTimingBean paint: timeline.getPaints()) {
+            
+            JsonObjectBuilder json = Json.createObjectBuilder();
+            
+            add(json, "url", paint.getUrl());
+            json.add("navigationStart", paint.getNavigationStart());
+            json.add("firstPaint", paint.getFirstPaint());
+            json.add("firstContentfulPaint", paint.getFirstContentfulPaint());
+            json.add("largestContentfulPaint", paint.getLargestContentfulPaint());
+            
+            paints.add(json);
+            
+        }
+        
+        JsonObjectBuilder json = Json.createObjectBuilder();
+        
+        add(json, "test", timeline.getTestName());
+        json.add("longTasks", longTasks);
+        json.add("requests", requests);
+        json.add("paints", paints);
+        
+        Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(filename)), "UTF-8");
+        
+        try { Json.createWriter(writer).writeObject(json.build()); }
+        finally { writer.close(); }
+        
+        timeline.setFilename(filename);
+        
+    }
+    
+    /**
+     * Add a string that may be null to the JSON object.
+     * 
+     * @param json
+     * @param name
+     * @param value 
+     */
+    private void add(JsonObjectBuilder json, String name, String value) {
+        
+        if(value == null) json.addNull(name);
+        else json.add(name, value);
+        
+    }
+    
+    /**
+     * Get the process and thread of a trace event.
+     * 
+     * @param event
+     * 
+     * @return 
+     */
+    private String getThread(JsonObject event) { return (long)getNumber(event, "pid") + ":" + (long)getNumber(event, "tid"); }
+    
+    /**
+     * Get a number of a JSON object.
+     * 
+     * @param json
+     * @param name
+     * 
+     * @return the number, 0 if there is none
+     */
+    private double getNumber(JsonObject json, String name) {
+        
+        JsonValue value = json.get(name);
+        
+        return (value instanceof JsonNumber) ? ((JsonNumber)value).doubleValue() : 0;
+        
+    }
+    
+    /**
+     * Get a string of a JSON object.
+     * 
+     * @param json
+     * @param name
+     * 
+     * @return the string, null if there is none
+     */
+    private String getString(JsonObject json, String name) { return (json == null) ? null : json.getString(name, null); }
+    
+    /**
+     * Get a string of an object of a JSON object.
+     * 
+     * @param json
+     * @param objectName
+     * @param name
+     * 
+     * @return the string, null if there is none
+     */
+    private String getString(JsonObject json, String objectName, String name) { return getString(getObject(json, objectName), name); }
+    
+    /**
+     * Get an object of an object of a JSON object.
+     * 
+     * @param json
+     * @param objectName
+     * @param name
+     * 
+     * @return the object, null if there is none
+     */
+    private JsonObject getObject(JsonObject json, String objectName, String name) { return getObject(getObject(json, objectName), name); }
+    
+    /**
+     * Get an object of a JSON object.
+     * 
+     * @param json
+     * @param name
+     * 
+     * @return the object, null if there is none
+     */
+    private JsonObject getObject(JsonObject json, String name) { 
+        
+        if((json == null) || !(json.get(name) instanceof JsonObject)) return null;
+        
+        return json.getJsonObject(name); 
+    
+    }
+    
+    /**
+     * Convert a time (micro-sec) to milli-sec from the first event.
+     * 
+     * @param micros
+     * @param origin
+     * 
+     * @return 
+     */
+    private long toMillis(double micros, double origin) { return Math.max(0, Math.round((micros - origin) / 1000)); }
+    
+    /**
+     * Get the trace categories recorded with the performance log.
+     * 
+     * @return 
+     */
+    private String getTraceCategories() {
+        
+        String categories = CommonProperties.getInstance().get(CHROME_PERFORMANCE_LOG_TRACE_CATEGORIES);
+        
+        return ((categories == null) || (categories.trim().length() == 0)) ? DEFAULT_TRACE_CATEGORIES : categories.trim();
+        
+    }
+    
+    /**
+     * Get the amount of time (milli-sec) a main thread task must run to be a long task.
+     * 
+     * @return 
+     */
+    private long getLongTaskThreshold() {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(CHROME_PERFORMANCE_LOG_LONG_TASK_THRESHOLD).trim()); }
+        catch(Exception e) { return DEFAULT_LONG_TASK_THRESHOLD; }
+        
+    }
+    
+}
@@ -0,0 +1,357 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.web;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import org.automateit.util.CommonProperties;
+
+/**
+ * This class is the launch profile of a browser: headless, image and font loading,
+ * window size, GPU and extra browser arguments. A lean profile lets more browsers
+ * run at the same time on one host.
+ * 
+ * The profile is configured in automateit.properties or the browser configuration
+ * file (configuration.properties.*):
+ * 
+ * browserProfile=default (or lean: headless, no images, no fonts, no GPU, 1280x800 window)
+ * browserHeadless=
+ * browserDisableImages=
+ * browserDisableFonts=
+ * browserDisableGpu=
+ * browserWindowSize=
+ * browserArguments=
+ * 
+ * A setting that is set overrides the named profile.
+ * 
+ * @author mburnside
+ */
+public class LaunchProfile {
+    
+    /**
+     * Property for the name of the profile
+     */
+    public static final String BROWSER_PROFILE = "browserProfile";
+    
+    /**
+     * Property to run the browser headless
+     */
+    public static final String BROWSER_HEADLESS = "browserHeadless";
+    
+    /**
+     * Property to disable image loading
+     */
+    public static final String BROWSER_DISABLE_IMAGES = "browserDisableImages";
+    
+    /**
+     * Property to disable web font loading
+     */
+    public static final String BROWSER_DISABLE_FONTS = "browserDisableFonts";
+    
+    /**
+     * Property to disable the GPU
+     */
+    public static final String BROWSER_DISABLE_GPU = "browserDisableGpu";
+    
+    /**
+     * Property for the window size (width x height, e.g. 1280x800)
+     */
+    public static final String BROWSER_WINDOW_SIZE = "browserWindowSize";
+    
+    /**
+     * Property for extra browser arguments (comma separated)
+     */
+    public static final String BROWSER_ARGUMENTS = "browserArguments";
+    
+    /**
+     * The default profile, the browser as it is
+     */
+    public static final String DEFAULT = "default";
+    
+    /**
+     * The lean profile: headless, no images, no fonts, no GPU and a small window
+     */
+    public static final String LEAN = "lean";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(LaunchProfile.class);
+    
+    /**
+     * The name of the profile
+     */
+    private String name = DEFAULT;
+    
+    /**
+     * Run the browser headless
+     */
+    private boolean headless = false;
+    
+    /**
+     * Do not load images
+     */
+    private boolean disableImages = false;
+    
+    /**
+     * Do not load web fonts
+     */
+    private boolean disableFonts = false;
+    
+    /**
+     * Do not use the GPU
+     */
+    private boolean disableGpu = false;
+    
+    /**
+     * The window size, null to leave the window as it is
+     */
+    private Dimension windowSize = null;
+    
+    /**
+     * Extra browser arguments
+     */
+    private List<String> arguments = new ArrayList<String>();
+    
+    /**
+     * Default Constructor. Loads the profile from the properties.
+     */
+    public LaunchProfile() {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        String profile = properties.get(BROWSER_PROFILE);
+        
+        if(profile != null && profile.trim().length() > 0) this.name = profile.trim();
+        
+        if(LEAN.equalsIgnoreCase(this.name)) {
+            
+            this.headless = true;
+            this.disableImages = true;
+            this.disableFonts = true;
+            this.disableGpu = true;
+            this.windowSize = new Dimension(1280, 800);
+            
+        }
+        else if(!DEFAULT.equalsIgnoreCase(this.name)) logger.warn("Unknown browser profile: " + this.name + ", using the browser settings only");
+        
+        this.headless = getBooleanProperty(BROWSER_HEADLESS, this.headless);
+        this.disableImages = getBooleanProperty(BROWSER_DISABLE_IMAGES, this.disableImages);
+        this.disableFonts = getBooleanProperty(BROWSER_DISABLE_FONTS, this.disableFonts);
+        this.disableGpu = getBooleanProperty(BROWSER_DISABLE_GPU, this.disableGpu);
+        
+        String windowSize = properties.get(BROWSER_WINDOW_SIZE);
+        
+        if(windowSize != null && windowSize.trim().length() > 0) {
+            
+            try {
+                
+                String[] size = windowSize.toLowerCase().split("x");
+                
+                this.windowSize = new Dimension(Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()));
+                
+            }
+            catch(Exception e) { logger.warn("Invalid browser window size: " + windowSize + ", expected width x height (e.g. 1280x800)"); }
+            
+        }
+        
+        String extraArguments = properties.get(BROWSER_ARGUMENTS);
+        
+        if(extraArguments != null) {
+            
+            for(String argument: extraArguments.split(",")) {
+                
+                if(argument.trim().length() > 0) this.arguments.add(argument.trim());
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Get the name of the profile.
+     * 
+     * @return 
+     */
+    public String getName() { return this.name; }
+    
+    /**
+     * Return if the browser runs headless.
+     * 
+     * @return 
+     */
+    public boolean isHeadless() { return this.headless; }
+    
+    /**
+     * Get the window size, null if the window is left as it is.
+     * 
+     * @return 
+     */
+    public Dimension getWindowSize() { return this.windowSize; }
+    
+    /**
+     * Apply the profile to Chrome options.
+     * 
+     * @param options 
+     */
+    public void apply(ChromeOptions options) {
+        
+        options.addArguments(getChromiumArguments());
+        
+        if(disableImages) options.setExperimentalOption("prefs", getChromiumPreferences());
+        
+    }
+    
+    /**
+     * Apply the profile to Firefox options.
+     * 
+     * @param options 
+     */
+    public void apply(FirefoxOptions options) {
+        
+        options.setHeadless(headless);
+        
+        if(disableImages) options.addPreference("permissions.default.image", 2);
+        
+        if(disableFonts) options.addPreference("browser.display.use_document_fonts", 0);
+        
+        if(disableGpu) options.addPreference("layers.acceleration.disabled", true);
+        
+        if(windowSize != null) options.addArguments("--width=" + windowSize.getWidth(), "--height=" + windowSize.getHeight());
+        
+        options.addArguments(arguments);
+        
+    }
+    
+    /**
+     * Apply the profile to Edge options. The options are passed to the Chromium 
+     * based Edge driver, the legacy Edge driver ignores them.
+     * 
+     * @param options 
+     */
+    public void apply(EdgeOptions options) {
+        
+        Map<String, Object> edgeOptions = new HashMap<String, Object>();
+        
+        edgeOptions.put("args", getChromiumArguments());
+        
+        if(disableImages) edgeOptions.put("prefs", getChromiumPreferences());
+        
+        options.setCapability("ms:edgeOptions", edgeOptions);
+        
+    }
+    
+    /**
+     * Set the window size of a browser that was not started with it.
+     * 
+     * @param driver 
+     */
+    public void applyWindowSize(WebDriver driver) {
+        
+        if(windowSize == null) return;
+        
+        try { driver.manage().window().setSize(windowSize); }
+        catch(Exception e) { logger.warn("Unable to set the browser window size: " + e.getMessage()); }
+        
+    }
+    
+    /**
+     * Get a description of the profile settings, used to tell apart browsers 
+     * started with different profiles.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() {
+        
+        return name + "[headless=" + headless + ", disableImages=" + disableImages + ", disableFonts=" + disableFonts + ", disableGpu=" + disableGpu
+                + ", windowSize=" + (windowSize == null ? "" : windowSize.getWidth() + "x" + windowSize.getHeight()) + ", arguments=" + arguments + "]";
+        
+    }
+    
+    /**
+     * Get the arguments for Chromium based browsers (Chrome and Edge).
+     * 
+     * @return 
+     */
+    private List<String> getChromiumArguments() {
+        
+        List<String> chromiumArguments = new ArrayList<String>();
+        
+        if(headless) chromiumArguments.add("--headless");
+        
+        if(disableGpu) chromiumArguments.add("--disable-gpu");
+        
+        if(disableFonts) chromiumArguments.add("--disable-remote-fonts");
+        
+        if(windowSize != null) chromiumArguments.add("--window-size=" + windowSize.getWidth() + "," + windowSize.getHeight());
+        
+        chromiumArguments.addAll(arguments);
+        
+        return chromiumArguments;
+        
+    }
+    
+    /**
+     * Get the preferences for Chromium based browsers (Chrome and Edge).
+     * 
+     * @return 
+     */
+    private Map<String, Object> getChromiumPreferences() {
+        
+        Map<String, Object> preferences = new HashMap<String, Object>();
+        
+        // 2 is block
+        preferences.put("profile.managed_default_content_settings.images", 2);
+        
+        return preferences;
+        
+    }
+    
+    /**
+     * Get a boolean property, or the default if not set.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private boolean getBooleanProperty(String key, boolean defaultValue) {
+        
+        String value = CommonProperties.getInstance().get(key);
+        
+        if(value == null || value.trim().length() == 0) return defaultValue;
+        
+        return Boolean.valueOf(value.trim());
+        
+    }
+    
+}
@@ -0,0 +1,194 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.web;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.NavigationTimingBean;
+import org.automateit.util.ResourceTimingBean;
+
+/**
+ * This class reads the browser's Navigation Timing and Resource Timing of the 
+ * page that just loaded, in one javascript call, so page load time can be 
+ * broken down into DNS, connect, time to first byte, DOMContentLoaded and load, 
+ * plus the slowest resources.
+ * 
+ * It is configured in automateit.properties:
+ * 
+ * captureNavigationTiming=true
+ * navigationTimingSlowestResources=5
+ * 
+ * @author mburnside
+ */
+public class NavigationTimingCapture {
+    
+    /**
+     * Property to capture navigation timing
+     */
+    public static final String CAPTURE_NAVIGATION_TIMING = "captureNavigationTiming";
+    
+    /**
+     * Property for the number of slowest resources to keep
+     */
+    public static final String NAVIGATION_TIMING_SLOWEST_RESOURCES = "navigationTimingSlowestResources";
+    
+    /**
+     * Reads the navigation entry (or the older performance.timing) and the slowest resource entries
+     */
+    private static final String SCRIPT = 
+            "var p = window.performance; if (!p) return null;"
+            + "var n = p.getEntriesByType ? p.getEntriesByType('navigation')[0] : null;"
+            + "var origin = p.timeOrigin || (p.timing && p.timing.navigationStart) || 0;"
+            + "if (!n && p.timing) { var t = p.timing, s = t.navigationStart;"
+            + "  n = { domainLookupStart: t.domainLookupStart - s, domainLookupEnd: t.domainLookupEnd - s, connectStart: t.connectStart - s, connectEnd: t.connectEnd - s,"
+            + "        responseStart: t.responseStart - s, domContentLoadedEventEnd: t.domContentLoadedEventEnd - s, loadEventEnd: t.loadEventEnd > 0 ? t.loadEventEnd - s : 0 }; }"
+            + "if (!n) return null;"
+            + "var r = p.getEntriesByType ? p.getEntriesByType('resource') : [];"
+            + "var slowest = r.slice().sort(function(a, b) { return b.duration - a.duration; }).slice(0, arguments[0]).map(function(e) {"
+            + "  return { name: e.name, initiatorType: e.initiatorType, duration: e.duration, transferSize: e.transferSize || 0 }; });"
+            + "return { origin: origin, dns: n.domainLookupEnd - n.domainLookupStart, connect: n.connectEnd - n.connectStart, ttfb: n.responseStart,"
+            + "  domContentLoaded: n.domContentLoadedEventEnd, load: n.loadEventEnd, resourceCount: r.length, resources: slowest };";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(NavigationTimingCapture.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static NavigationTimingCapture instance = new NavigationTimingCapture();
+    
+    /**
+     * The time origin of the last document captured for each browser, so the 
+     * same document is not captured twice (e.g. an ajax update without navigation)
+     */
+    private final Map<WebDriver, Object> lastOrigin = Collections.synchronizedMap(new WeakHashMap<WebDriver, Object>());
+    
+    /**
+     * Default Constructor.
+     */
+    public NavigationTimingCapture() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static NavigationTimingCapture getInstance() { return instance; }
+    
+    /**
+     * Return if navigation timing is captured.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { 
+        
+        String enabled = CommonProperties.getInstance().get(CAPTURE_NAVIGATION_TIMING);
+        
+        return (enabled == null) || Boolean.valueOf(enabled.trim());
+        
+    }
+    
+    /**
+     * Capture the navigation and resource timing of the page in the browser.
+     * 
+     * @param driver
+     * 
+     * @return the timing, or null if not enabled, not supported by the browser,
+     *         or the page has not changed since the last capture
+     */
+    @SuppressWarnings("unchecked")
+    public NavigationTimingBean capture(WebDriver driver) {
+        
+        if(driver == null || !isEnabled() || !(driver instanceof JavascriptExecutor)) return null;
+        
+        try {
+            
+            Object result = ((JavascriptExecutor)driver).executeScript(SCRIPT, getSlowestResourceCount());
+            
+            if(!(result instanceof Map)) return null;
+            
+            Map<String, Object> timing = (Map<String, Object>)result;
+            
+            Object origin = timing.get("origin");
+            
+            if(origin != null && origin.equals(lastOrigin.put(driver, origin))) return null;
+            
+            NavigationTimingBean bean = new NavigationTimingBean(toLong(timing.get("dns")), toLong(timing.get("connect")), toLong(timing.get("ttfb")), 
+                    toLong(timing.get("domContentLoaded")), toLong(timing.get("load")), toLong(timing.get("resourceCount")));
+            
+            Object resources = timing.get("resources");
+            
+            if(resources instanceof List) {
+                
+                for(Object resource: (List<Object>)resources) {
+                    
+                    Map<String, Object> entry = (Map<String, Object>)resource;
+                    
+                    bean.addSlowestResource(new ResourceTimingBean(String.valueOf(entry.get("name")), String.valueOf(entry.get("initiatorType")), toLong(entry.get("duration")), toLong(entry.get("transferSize"))));
+                    
+                }
+                
+            }
+            
+            return bean;
+            
+        }
+        catch(Exception e) { logger.debug("Unable to capture navigation timing: " + e.getMessage()); return null; }
+        
+    }
+    
+    /**
+     * Get the number of slowest resources to keep.
+     * 
+     * @return 
+     */
+    private long getSlowestResourceCount() {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(NAVIGATION_TIMING_SLOWEST_RESOURCES).trim()); }
+        catch(Exception e) { return 5; }
+        
+    }
+    
+    /**
+     * Convert a javascript number (Long or Double) to milli-sec (or bytes).
+     * 
+     * @param value
+     * 
+     * @return 
+     */
+    private long toLong(Object value) {
+        
+        if(value instanceof Number) return Math.max(0, Math.round(((Number)value).doubleValue()));
+        
+        return 0;
+        
+    }
+    
+}
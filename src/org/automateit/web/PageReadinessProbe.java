@@ -0,0 +1,387 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package org.automateit.web;
+
+import java.time.Duration;
+
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.PageReadinessBean;
+import org.automateit.util.PerformanceCapture;
+
+/**
+ * This class waits for a page to be ready with one javascript call per poll.
+ * The probe checks the document ready state and the pending requests of each
+ * ajax library (jQuery, AngularJS, Prototype) in a single script and returns
+ * the status of all of them.
+ * 
+ * The libraries present on a document are detected once the document is 
+ * complete and remembered in the document, so later polls only check the 
+ * libraries the page actually uses. The time waited is added to the page load
+ * in progress.
+ * 
+ * Pages that do not use these libraries (e.g. single page applications) can use
+ * the quiescence mode: the page is ready when the DOM and network have been quiet
+ * for the quiet window. A mutation observer and an XHR/fetch in-flight counter are
+ * installed once per document by the quiescence probe, so in quiescence mode they
+ * are in place once the page load has been waited for. In libraries mode the page
+ * is left untouched and the hooks are only installed by installQuiescenceHooks or 
+ * a quiet wait. Requests started before the hooks are installed are not counted,
+ * so the first quiet wait on a document without hooks is not reliable. It is 
+ * configured in automateit.properties:
+ * 
+ * pageReadinessMode=libraries (or quiescence)
+ * pageQuietWindow=500
+ * 
+ * @author mburnside
+ */
+public class PageReadinessProbe {
+    
+    /**
+     * Property for how page readiness is checked: libraries (ready state and ajax libraries) or quiescence (also a quiet DOM and network)
+     */
+    public static final String PAGE_READINESS_MODE = "pageReadinessMode";
+    
+    /**
+     * Property for the amount of time (milli-sec) the DOM and network must be quiet in quiescence mode
+     */
+    public static final String PAGE_QUIET_WINDOW = "pageQuietWindow";
+    
+    /**
+     * Readiness mode: the document is complete and the ajax libraries have no pending requests
+     */
+    public static final String LIBRARIES = "libraries";
+    
+    /**
+     * Readiness mode: as libraries, and there were no DOM changes and no XHR/fetch requests for the quiet window
+     */
+    public static final String QUIESCENCE = "quiescence";
+    
+    /**
+     * The default quiet window (milli-sec)
+     */
+    private static final long DEFAULT_QUIET_WINDOW = 500;
+    
+    /**
+     * The longest time (milli-sec) between polls
+     */
+    private static final long MAX_POLL_INTERVAL = 500;
+    
+    /**
+     * Detects the ajax libraries (remembered once the document is complete) and sets the ready state and pending requests of each library
+     */
+    private static final String LIBRARY_SCRIPT = 
+            "var w = window, d = document, s = w.__automateitReadiness;"
+            + "if (!s || !s.cached) { s = { libraries: [] };"
+            + "  if (w.jQuery) s.libraries.push('jquery');"
+            + "  if (w.angular && w.angular.element) s.libraries.push('angular');"
+            + "  if (w.Ajax && typeof w.Ajax.activeRequestCount === 'number') s.libraries.push('prototype');"
+            + "  s.cached = d.readyState === 'complete'; w.__automateitReadiness = s; }"
+            + "var ready = d.readyState === 'complete', pending = {};"
+            + "for (var i = 0; i < s.libraries.length; i++) { var l = s.libraries[i], n = 0;"
+            + "  try { n = l === 'jquery' ? w.jQuery.active : l === 'angular' ? w.angular.element(d.body).injector().get('$http').pendingRequests.length : w.Ajax.activeRequestCount; } catch (e) { n = 0; }"
+            + "  pending[l] = n || 0; if (n > 0) ready = false; }";
+    
+    /**
+     * Installs a mutation observer and an XHR/fetch in-flight counter once per document
+     */
+    private static final String HOOKS_SCRIPT = 
+            "var w = window, d = document;"
+            + "var now = function() { return (w.performance && w.performance.now) ? w.performance.now() : new Date().getTime(); };"
+            + "var q = w.__automateitQuiet;"
+            + "if (!q) { q = w.__automateitQuiet = { inflight: 0, last: now() };"
+            + "  var touch = function() { q.last = now(); };"
+            + "  var done = function() { q.inflight = Math.max(0, q.inflight - 1); touch(); };"
+            + "  if (w.MutationObserver && d.documentElement) new w.MutationObserver(touch).observe(d.documentElement, { childList: true, subtree: true, attributes: true, characterData: true });"
+            + "  if (w.XMLHttpRequest) { var send = w.XMLHttpRequest.prototype.send;"
+            + "    w.XMLHttpRequest.prototype.send = function() { q.inflight++; touch(); this.addEventListener('loadend', done);"
+            + "      try { return send.apply(this, arguments); } catch (e) { done(); throw e; } }; }"
+            + "  if (w.fetch) { var fetch = w.fetch;"
+            + "    w.fetch = function() { q.inflight++; touch();"
+            + "      try { return fetch.apply(w, arguments).then(function(r) { done(); return r; }, function(e) { done(); throw e; }); } catch (e) { done(); throw e; } }; } }";
+    
+    /**
+     * Returns the ready state and pending requests of each library
+     */
+    private static final String SCRIPT = LIBRARY_SCRIPT + "return { ready: ready, readyState: d.readyState, pending: pending };";
+    
+    /**
+     * Installs the quiescence hooks and returns the library status plus the requests 
+     * in flight and how long the page has been quiet (arguments[0] is the quiet window)
+     */
+    private static final String QUIESCENCE_SCRIPT = HOOKS_SCRIPT + LIBRARY_SCRIPT
+            + "var quietFor = now() - q.last;"
+            + "return { ready: ready && q.inflight === 0 && quietFor >= arguments[0], readyState: d.readyState, pending: pending, inflight: q.inflight, quietFor: quietFor };";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(PageReadinessProbe.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static PageReadinessProbe instance = new PageReadinessProbe();
+    
+    /**
+     * Default Constructor.
+     */
+    public PageReadinessProbe() { }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static PageReadinessProbe getInstance() { return instance; }
+    
+    /**
+     * Wait until the page is ready, as configured by the readiness mode: the 
+     * document is complete and no ajax library has pending requests, and in 
+     * quiescence mode the DOM and network have also been quiet for the quiet window.
+     * 
+     * @param driver
+     * @param timeout (seconds)
+     * 
+     * @return the readiness of the page
+     * 
+     * @throws org.openqa.selenium.TimeoutException if the page is not ready in time
+     */
+    public PageReadinessBean waitUntilReady(WebDriver driver, long timeout) {
+        
+        if(isQuiescenceMode()) return waitUntilQuiet(driver, timeout, getQuietWindow());
+        
+        return waitUntil(driver, timeout, new ReadinessCondition(-1), MAX_POLL_INTERVAL);
+        
+    }
+    
+    /**
+     * Wait until the document is complete, no ajax library has pending requests,
+     * and there were no DOM changes and no XHR/fetch requests for the quiet window. 
+     * Pages that do not use an ajax library are ready when they stop changing.
+     * 
+     * @param driver
+     * @param timeout (seconds)
+     * @param quietWindow (milli-sec)
+     * 
+     * @return the readiness of the page
+     * 
+     * @throws org.openqa.selenium.TimeoutException if the page is not quiet in time
+     */
+    public PageReadinessBean waitUntilQuiet(WebDriver driver, long timeout, long quietWindow) {
+        
+        // poll often enough to notice the end of the quiet window soon after it passes
+        return waitUntil(driver, timeout, new ReadinessCondition(quietWindow), Math.max(50, Math.min(MAX_POLL_INTERVAL, quietWindow / 2)));
+        
+    }
+    
+    /**
+     * Install the mutation observer and the XHR/fetch in-flight counter on the 
+     * document, if not installed yet, so requests started by a following action
+     * are counted by the next quiet wait.
+     * 
+     * @param driver 
+     */
+    public void installQuiescenceHooks(WebDriver driver) {
+        
+        if(driver instanceof JavascriptExecutor) ((JavascriptExecutor)driver).executeScript(HOOKS_SCRIPT);
+        
+    }
+    
+    /**
+     * Poll the readiness of the page once.
+     * 
+     * @param driver
+     * 
+     * @return the readiness of the page, always ready if the driver does not run javascript
+     */
+    public PageReadinessBean probe(WebDriver driver) { return probe(driver, -1); }
+    
+    /**
+     * Poll the readiness of the page once, and if a quiet window is given also 
+     * if the DOM and network have been quiet for it.
+     * 
+     * @param driver
+     * @param quietWindow (milli-sec), negative to not check if the page is quiet
+     * 
+     * @return the readiness of the page, always ready if the driver does not run javascript
+     */
+    @SuppressWarnings("unchecked")
+    public PageReadinessBean probe(WebDriver driver, long quietWindow) {
+        
+        if(!(driver instanceof JavascriptExecutor)) return new PageReadinessBean(true, null);
+        
+        Object result = (quietWindow < 0) ? ((JavascriptExecutor)driver).executeScript(SCRIPT) : ((JavascriptExecutor)driver).executeScript(QUIESCENCE_SCRIPT, quietWindow);
+        
+        if(!(result instanceof Map)) return new PageReadinessBean(true, null);
+        
+        Map<String, Object> status = (Map<String, Object>)result;
+        
+        PageReadinessBean readiness = new PageReadinessBean(Boolean.TRUE.equals(status.get("ready")), String.valueOf(status.get("readyState")));
+        
+        if(status.get("pending") instanceof Map) {
+            
+            for(Map.Entry<String, Object> pending: ((Map<String, Object>)status.get("pending")).entrySet()) 
+                readiness.setPendingRequests(pending.getKey(), (pending.getValue() instanceof Number) ? ((Number)pending.getValue()).longValue() : 0);
+            
+        }
+        
+        if(status.get("inflight") instanceof Number) readiness.setInFlightRequests(((Number)status.get("inflight")).longValue());
+        
+        if(status.get("quietFor") instanceof Number) readiness.setQuietTime(Math.round(((Number)status.get("quietFor")).doubleValue()));
+        
+        return readiness;
+        
+    }
+    
+    /**
+     * Return if the readiness mode is quiescence.
+     * 
+     * @return 
+     */
+    public boolean isQuiescenceMode() {
+        
+        String mode = CommonProperties.getInstance().get(PAGE_READINESS_MODE);
+        
+        return (mode != null) && mode.trim().equalsIgnoreCase(QUIESCENCE);
+        
+    }
+    
+    /**
+     * Get the amount of time (milli-sec) the DOM and network must be quiet in quiescence mode.
+     * 
+     * @return 
+     */
+    public long getQuietWindow() {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(PAGE_QUIET_WINDOW).trim()); }
+        catch(Exception e) { return DEFAULT_QUIET_WINDOW; }
+        
+    }
+    
+    /**
+     * Wait until the condition is met and add the time waited to the page load in progress.
+     * 
+     * @param driver
+     * @param timeout (seconds)
+     * @param condition
+     * @param pollInterval (milli-sec)
+     * 
+     * @return the readiness of the page
+     */
+    private PageReadinessBean waitUntil(WebDriver driver, long timeout, ReadinessCondition condition, long pollInterval) {
+        
+        long start = System.nanoTime();
+        
+        try { 
+            
+            (new WebDriverWait(driver, timeout)).pollingEvery(Duration.ofMillis(pollInterval)).until(condition); 
+            
+            return condition.getReadiness();
+        
+        }
+        finally { 
+            
+            long waitTime = (System.nanoTime() - start) / 1000000;
+            
+            PerformanceCapture.getInstance().addReadinessWaitTime(waitTime);
+            
+            if(condition.getReadiness() != null) {
+                
+                condition.getReadiness().setPolls(condition.getPolls());
+                
+                condition.getReadiness().setWaitTime(waitTime);
+                
+            }
+            
+            logger.debug("Page readiness: " + condition.getReadiness());
+            
+        }
+        
+    }
+    
+    /**
+     * The wait condition: one probe per poll, keeping the last readiness.
+     */
+    private class ReadinessCondition implements ExpectedCondition<Boolean> {
+        
+        /**
+         * The readiness of the last poll
+         */
+        private PageReadinessBean readiness = null;
+        
+        /**
+         * The number of polls
+         */
+        private long polls = 0;
+        
+        /**
+         * The quiet window (milli-sec), negative to not check if the page is quiet
+         */
+        private final long quietWindow;
+        
+        /**
+         * Constructor
+         * 
+         * @param quietWindow 
+         */
+        public ReadinessCondition(long quietWindow) { this.quietWindow = quietWindow; }
+        
+        /**
+         * Poll the readiness of the page.
+         * 
+         * @param driver
+         * 
+         * @return 
+         */
+        @Override
+        public Boolean apply(WebDriver driver) {
+            
+            polls++;
+            
+            readiness = probe(driver, quietWindow);
+            
+            return readiness.isReady();
+            
+        }
+        
+        /**
+         * Get the readiness of the last poll.
+         * 
+         * @return 
+         */
+        public PageReadinessBean getReadiness() { return this.readiness; }
+        
+        /**
+         * Get the number of polls.
+         * 
+         * @return 
+         */
+        public long getPolls() { return this.polls; }
+        
+    }
+    
+}
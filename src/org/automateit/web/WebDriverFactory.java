@@ -21,22 +21,36 @@ package org.automateit.web;
 import java.io.File;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.ie.InternetExplorerDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.opera.OperaDriver;
 
+import org.automateit.core.CommonWebDriver;
+import org.automateit.core.SessionPrewarmer;
 import org.automateit.core.StringCapabilities;
 import org.automateit.util.CommonProperties;
+import org.automateit.util.LaunchPerformanceBean;
+import org.automateit.util.PerformanceCapture;
+import org.automateit.util.ProcessMemory;
 
 /**
  * This class returns a class implementing webdriver interface.
@@ -49,6 +63,11 @@ import org.automateit.util.CommonProperties;
  * 4) ChromeDriver
  * 5) SafariDriver
  * 
+ * Browsers are launched with the launch profile (headless, images, fonts, 
+ * window size, GPU, extra arguments) configured in the properties, and the
+ * startup time and resident memory of each launch is recorded so profiles
+ * can be compared.
+ * 
  * @author mburnside
  */
 public class WebDriverFactory {
@@ -93,11 +112,114 @@ public class WebDriverFactory {
      */
     protected static Logger logger = Logger.getLogger(WebDriverFactory.class);
     
+    /**
+     * The browser launches and their processes, to measure resident memory after a test
+     */
+    private static Map<WebDriver, BrowserLaunch> launches = Collections.synchronizedMap(new WeakHashMap<WebDriver, BrowserLaunch>());
+    
+    /**
+     * Reads the resident memory of browser processes
+     */
+    private static ProcessMemory processMemory = new ProcessMemory();
+    
     /**
      * Default Constructor.
      */
     public WebDriverFactory() { }
     
+    /**
+     * Lease a web driver from the session pool if it is enabled, otherwise
+     * use a pre-warmed web driver or create a new one. The startup time is
+     * recorded in the performance capture data.
+     * 
+     * @param webDriverId the id of the WebDriver to use
+     * @param browserURL the starting URL including just a domain name
+     * 
+     * @return Instance of a WebDriver implementation
+     * 
+     * @throws Exception 
+     */
+    public WebDriver leaseWebDriver(String webDriverId, String browserURL) throws Exception {
+        
+        if(webDriverId == null) throw new Exception("webDriverId cannot be null."); 
+        
+        try { 
+            
+            if(WebDriverPool.getInstance().isEnabled()) return WebDriverPool.getInstance().lease(getCapabilitiesKey(webDriverId), this, webDriverId, browserURL); 
+            
+            final String id = webDriverId;
+            final String url = browserURL;
+            
+            Callable<WebDriver> creator = new Callable<WebDriver>() {
+                
+                public WebDriver call() throws Exception { return getWebDriver(id, url); }
+                
+            };
+            
+            String key = getCapabilitiesKey(webDriverId);
+            
+            WebDriver driver = SessionPrewarmer.getInstance().getWebDriver(key, creator);
+            
+            // start the browser for the next test while this test runs
+            SessionPrewarmer.getInstance().prewarm(key, creator);
+            
+            return driver;
+        
+        }
+        catch(Exception e) { throw e; }
+        
+    }
+    
+    /**
+     * Return a web driver to the session pool if it is enabled, otherwise quit it.
+     * The web driver is removed from CommonWebDriver first, so screenshots and logs
+     * of this test never read the session once another test leases it.
+     * 
+     * @param driver 
+     */
+    public void releaseWebDriver(WebDriver driver) {
+        
+        if(driver == null) return;
+        
+        recordResidentMemory(driver);
+        
+        CommonWebDriver.getInstance().release(driver);
+        
+        if(WebDriverPool.getInstance().isEnabled()) WebDriverPool.getInstance().release(driver);
+        else {
+            
+            try { driver.quit(); }
+            catch(Exception e) { }
+            
+        }
+        
+    }
+    
+    /**
+     * Get the key that identifies web drivers created with the same settings: 
+     * the web driver id plus the capabilities used to create it.
+     * 
+     * @param webDriverId
+     * 
+     * @return 
+     */
+    public String getCapabilitiesKey(String webDriverId) {
+        
+        StringBuilder key = new StringBuilder(webDriverId);
+        
+        key.append("|").append(new LaunchProfile());
+        
+        if(webDriverId.equals(CHROMEMOBILEBDRIVER)) {
+            
+            key.append("|").append(CommonProperties.getInstance().get(StringCapabilities.DEVICE_NAME.getCapability()));
+            key.append("|").append(CommonProperties.getInstance().get(StringCapabilities.BROWSER_NAME.getCapability()));
+            
+        }
+        
+        return key.toString();
+        
+    }
+    
     /**
      * Use this constructor if you want to get an implementation of Selenium
      * using a WebDriver.
@@ -115,6 +237,67 @@ public class WebDriverFactory {
         
         if(webDriverId == null) throw new Exception("webDriverId cannot be null."); 
         
+        LaunchProfile profile = new LaunchProfile();
+        
+        Set<Long> childProcesses = processMemory.getChildProcessIds();
+        
+        long start = System.nanoTime();
+        
+        WebDriver driver = getWebDriver(webDriverId, profile);
+        
+        // mobile emulation sets its own screen size
+        if(!webDriverId.equals(CHROMEWEBDRIVER) && !webDriverId.equals(FIREFOXWEBDRIVER) && !webDriverId.equals(CHROMEMOBILEBDRIVER)) profile.applyWindowSize(driver);
+        
+        long startupTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // the web driver process started for this browser, only known if one browser launched at a time
+        Set<Long> newProcesses = processMemory.getChildProcessIds();
+        
+        newProcesses.removeAll(childProcesses);
+        
+        List<Long> processTree = (newProcesses.size() == 1) ? processMemory.getProcessTree(newProcesses.iterator().next()) : null;
+        
+        LaunchPerformanceBean bean = new LaunchPerformanceBean(profile.getName(), webDriverId, startupTime, (processTree == null) ? -1 : processMemory.getResidentMemory(processTree));
+        
+        PerformanceCapture.getInstance().addLaunch(bean);
+        
+        if(processTree != null) launches.put(driver, new BrowserLaunch(bean, processTree));
+        
+        return driver;
+        
+    }
+    
+    /**
+     * Record the resident memory of the browser processes, so the memory after
+     * tests have run can be compared between launch profiles.
+     * 
+     * @param driver 
+     */
+    public void recordResidentMemory(WebDriver driver) {
+        
+        BrowserLaunch launch = launches.get(driver);
+        
+        if(launch == null) return;
+        
+        // the browser may have started more processes (e.g. renderers) since launch
+        List<Long> processTree = processMemory.getProcessTree(launch.processTree.get(0));
+        
+        launch.bean.addResidentMemory(processMemory.getResidentMemory(processTree));
+        
+    }
+    
+    /**
+     * Create a web driver with the launch profile.
+     * 
+     * @param webDriverId the id of the WebDriver to use
+     * @param profile the launch profile
+     * 
+     * @return Instance of a WebDriver implementation
+     * 
+     * @throws Exception 
+     */
+    private WebDriver getWebDriver(String webDriverId, LaunchProfile profile) throws Exception {
+        
         if(webDriverId.equals(FIREFOXWEBDRIVER)) {
             
             logger.debug("Creating an instance of Firefox Driver");
@@ -134,7 +317,11 @@ public class WebDriverFactory {
             
             CommonProperties.getInstance().setBrowserType(CommonProperties.getInstance().FIREFOX);
             
-            return ((WebDriver)new FirefoxDriver());
+            FirefoxOptions options = new FirefoxOptions();
+            
+            profile.apply(options);
+            
+            return ((WebDriver)new FirefoxDriver(options));
            
         }
         
@@ -180,7 +367,11 @@ public class WebDriverFactory {
             
             CommonProperties.getInstance().setBrowserType(CommonProperties.getInstance().EDGE);
             
-            return ((WebDriver)new EdgeDriver());
+            EdgeOptions options = new EdgeOptions();
+            
+            profile.apply(options);
+            
+            return ((WebDriver)new EdgeDriver(options));
             
         }
         
@@ -218,6 +409,10 @@ public class WebDriverFactory {
             options.addArguments("disable-infobars");
             options.setExperimentalOption("excludeSwitches", Arrays.asList("enable-automation"));
             
+            profile.apply(options);
+            
+            ChromePerformanceLog.getInstance().apply(options);
+            
             return ((WebDriver)new ChromeDriver(options));
            
         }
@@ -253,6 +448,10 @@ public class WebDriverFactory {
             //options.addArguments("disable-infobars");
             //options.setExperimentalOption("excludeSwitches", Arrays.asList("enable-automation"));
             
+            profile.apply(options);
+            
+            ChromePerformanceLog.getInstance().apply(options);
+            
             return ((WebDriver)new ChromeDriver(options));
            
         }
@@ -272,4 +471,34 @@ public class WebDriverFactory {
         
     }
     
-}
\ No newline at end of file
+    /**
+     * A browser launch and the ids of its processes.
+     */
+    private static class BrowserLaunch {
+        
+        /**
+         * The launch performance
+         */
+        private final LaunchPerformanceBean bean;
+        
+        /**
+         * The web driver process and its descendants
+         */
+        private final List<Long> processTree;
+        
+        /**
+         * Constructor
+         * 
+         * @param bean
+         * @param processTree 
+         */
+        private BrowserLaunch(LaunchPerformanceBean bean, List<Long> processTree) {
+            
+            this.bean = bean;
+            this.processTree = processTree;
+            
+        }
+        
+    }
+    
+}
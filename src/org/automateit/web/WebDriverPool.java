@@ -0,0 +1,671 @@
+/**
+ * This file is part of Automate It!'s free and open source web and mobile 
+ * application testing framework.
+ * 
+ * Automate It! is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Automate It! is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Automate It!.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.automateit.web;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import org.automateit.util.CommonProperties;
+import org.automateit.util.PerformanceCapture;
+import org.automateit.util.StartupPerformanceBean;
+
+/**
+ * This class is a pool of web driver sessions (browsers), so tests can reuse
+ * a running browser instead of launching a new one for every page object.
+ * 
+ * Sessions are pooled by key (web driver id plus the capabilities used to create it). 
+ * A session is reset when it is returned (cookies, local/session storage, extra 
+ * windows, navigation to about:blank), is health checked before it is leased again,
+ * and is quit after it has been used the maximum number of times.
+ * 
+ * WebDriver can only clear the cookies and storage of the page the session is on, 
+ * so the reset does not remove the cookies and storage of other domains the test 
+ * visited; the next test that leases the session sees them. Only enable the pool 
+ * for suites whose tests stay on one origin (or do not depend on a clean state 
+ * for the other origins).
+ * 
+ * webDriverPoolEnabled=false
+ * webDriverPoolMaxSize=4
+ * webDriverPoolMaxUses=50
+ * webDriverPoolLeaseTimeout=60000
+ * 
+ * @author mburnside
+ */
+public class WebDriverPool {
+    
+    /**
+     * Property to enable the web driver session pool
+     */
+    public static final String WEBDRIVER_POOL_ENABLED = "webDriverPoolEnabled";
+    
+    /**
+     * Property for the maximum number of sessions per key (leased and idle)
+     */
+    public static final String WEBDRIVER_POOL_MAX_SIZE = "webDriverPoolMaxSize";
+    
+    /**
+     * Property for the maximum number of times a session is leased before it is quit
+     */
+    public static final String WEBDRIVER_POOL_MAX_USES = "webDriverPoolMaxUses";
+    
+    /**
+     * Property for the maximum time (milliseconds) to wait for a session when the pool is full
+     */
+    public static final String WEBDRIVER_POOL_LEASE_TIMEOUT = "webDriverPoolLeaseTimeout";
+    
+    /**
+     * Default maximum number of sessions per key
+     */
+    public static final int DEFAULT_MAX_SIZE = 4;
+    
+    /**
+     * Default maximum number of times a session is leased
+     */
+    public static final int DEFAULT_MAX_USES = 50;
+    
+    /**
+     * Default maximum time (milliseconds) to wait for a session
+     */
+    public static final long DEFAULT_LEASE_TIMEOUT = 60000;
+    
+    /**
+     * The page every returned session is navigated to
+     */
+    public static final String BLANK_PAGE = "about:blank";
+    
+    /**
+     * The script that clears the browser storage of the current page
+     */
+    private static final String CLEAR_STORAGE_SCRIPT = "try { window.localStorage.clear(); } catch(e) { } try { window.sessionStorage.clear(); } catch(e) { }";
+    
+    /**
+     *  Logging object
+     */
+    protected static Logger logger = Logger.getLogger(WebDriverPool.class);
+    
+    /**
+     * The instance of this object
+     */
+    private static WebDriverPool instance = new WebDriverPool();
+    
+    /**
+     * If the pool is enabled
+     */
+    private final boolean enabled;
+    
+    /**
+     * The maximum number of sessions per key
+     */
+    private final int maxSize;
+    
+    /**
+     * The maximum number of times a session is leased
+     */
+    private final int maxUses;
+    
+    /**
+     * The maximum time (milliseconds) to wait for a session
+     */
+    private final long leaseTimeout;
+    
+    /**
+     * The idle sessions for each key
+     */
+    private final Map<String, ArrayDeque<PooledWebDriver>> idle = new HashMap<String, ArrayDeque<PooledWebDriver>>();
+    
+    /**
+     * The number of sessions (leased and idle) for each key
+     */
+    private final Map<String, Integer> sizes = new HashMap<String, Integer>();
+    
+    /**
+     * The leased sessions
+     */
+    private final Map<WebDriver, PooledWebDriver> leased = new IdentityHashMap<WebDriver, PooledWebDriver>();
+    
+    /**
+     * All sessions owned by the pool (leased and idle)
+     */
+    private final Map<WebDriver, PooledWebDriver> owned = new IdentityHashMap<WebDriver, PooledWebDriver>();
+    
+    /**
+     * Metric - the number of leases
+     */
+    private final AtomicLong leaseCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of leases served by an idle session
+     */
+    private final AtomicLong hitCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of sessions created
+     */
+    private final AtomicLong createdCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of sessions quit because they reached the maximum uses
+     */
+    private final AtomicLong maxUseEvictionCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the number of sessions quit because a health check or reset failed
+     */
+    private final AtomicLong unhealthyEvictionCount = new AtomicLong(0);
+    
+    /**
+     * Metric - the total time (nanoseconds) leases waited for a full pool
+     */
+    private final AtomicLong leaseWaitNanos = new AtomicLong(0);
+    
+    /**
+     * Metric - the longest time (nanoseconds) a lease waited for a full pool
+     */
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong(0);
+    
+    /**
+     * Default Constructor.
+     */
+    public WebDriverPool() {
+        
+        CommonProperties properties = CommonProperties.getInstance();
+        
+        this.enabled = Boolean.valueOf(properties.get(WEBDRIVER_POOL_ENABLED));
+        this.maxSize = (int)getLongProperty(WEBDRIVER_POOL_MAX_SIZE, DEFAULT_MAX_SIZE);
+        this.maxUses = (int)getLongProperty(WEBDRIVER_POOL_MAX_USES, DEFAULT_MAX_USES);
+        this.leaseTimeout = getLongProperty(WEBDRIVER_POOL_LEASE_TIMEOUT, DEFAULT_LEASE_TIMEOUT);
+        
+        Runtime.getRuntime().addShutdownHook(new Thread("webdriver-pool-shutdown") {
+            
+            @Override
+            public void run() { shutdown(); }
+            
+        });
+        
+    }
+    
+    /**
+     * Return the instance of this object.
+     * 
+     * @return The instance of this object 
+     */
+    public static WebDriverPool getInstance() { return instance; }
+    
+    /**
+     * Return if the pool is enabled.
+     * 
+     * @return 
+     */
+    public boolean isEnabled() { return enabled; }
+    
+    /**
+     * Lease a web driver session for the key. An idle healthy session is reused,
+     * otherwise a new one is created with the factory. If the pool for the key is 
+     * full, wait for a session to be returned.
+     * 
+     * @param key The pool key (web driver id plus capabilities)
+     * @param webDriverFactory The factory used to create a new session
+     * @param webDriverId
+     * @param browserURL
+     * 
+     * @return
+     * 
+     * @throws Exception 
+     */
+    public WebDriver lease(String key, WebDriverFactory webDriverFactory, String webDriverId, String browserURL) throws Exception {
+        
+        leaseCount.incrementAndGet();
+        
+        long start = System.nanoTime();
+        
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(leaseTimeout);
+        
+        boolean waited = false;
+        
+        try {
+            
+            while(true) {
+                
+                PooledWebDriver pooled = null;
+                
+                synchronized(this) {
+                    
+                    ArrayDeque<PooledWebDriver> sessions = idle.get(key);
+                    
+                    if(sessions != null && !sessions.isEmpty()) pooled = sessions.pollFirst();
+                    else if(getSize(key) < maxSize) { sizes.put(key, getSize(key) + 1); break; }
+                    else {
+                        
+                        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        
+                        if(remaining <= 0) throw new Exception("Timed out waiting " + leaseTimeout + " ms for a web driver session from the pool: " + key);
+                        
+                        waited = true;
+                        
+                        wait(remaining);
+                        
+                        continue;
+                        
+                    }
+                    
+                }
+                
+                // health check outside of the lock, it is a round trip to the browser
+                if(isHealthy(pooled.driver)) {
+                    
+                    pooled.uses++;
+                    
+                    synchronized(this) { leased.put(pooled.driver, pooled); }
+                    
+                    hitCount.incrementAndGet();
+                    
+                    logger.debug("Leased web driver session from the pool: " + key + ", uses: " + pooled.uses);
+                    
+                    return pooled.driver;
+                    
+                }
+                
+                unhealthyEvictionCount.incrementAndGet();
+                
+                evict(pooled);
+                
+            }
+            
+        }
+        finally { if(waited) recordLeaseWait(System.nanoTime() - start); }
+        
+        // we have reserved a slot for a new session
+        try {
+            
+            long createStart = System.nanoTime();
+            
+            WebDriver driver = webDriverFactory.getWebDriver(webDriverId, browserURL);
+            
+            createdCount.incrementAndGet();
+            
+            long startupTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createStart);
+            
+            PerformanceCapture.getInstance().addStartup(new StartupPerformanceBean(key, startupTime, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false));
+            
+            PooledWebDriver pooled = new PooledWebDriver(key, driver);
+            
+            pooled.uses++;
+            
+            synchronized(this) { leased.put(driver, pooled); owned.put(driver, pooled); }
+            
+            logger.debug("Created new web driver session for the pool: " + key);
+            
+            return driver;
+            
+        }
+        catch(Exception e) {
+            
+            synchronized(this) { sizes.put(key, getSize(key) - 1); notifyAll(); }
+            
+            throw e;
+            
+        }
+        
+    }
+    
+    /**
+     * Return a leased web driver session to the pool. The session is reset, or
+     * quit if it reached the maximum uses or can not be reset. A session of the 
+     * pool that is not leased (returned twice, e.g. by pages sharing the session)
+     * is left alone, it may be idle or leased again by another test. A web driver
+     * that the pool never owned is quit.
+     * 
+     * @param driver 
+     */
+    public void release(WebDriver driver) {
+        
+        if(driver == null) return;
+        
+        PooledWebDriver pooled = null;
+        
+        boolean pooledSession = false;
+        
+        synchronized(this) { pooled = leased.remove(driver); pooledSession = owned.containsKey(driver); }
+        
+        if(pooled == null) {
+            
+            if(pooledSession) {
+                
+                logger.debug("Web driver session was already returned to the pool, ignoring the release");
+                
+                return;
+                
+            }
+            
+            try { driver.quit(); }
+            catch(Exception e) { }
+            
+            return;
+            
+        }
+        
+        if(pooled.uses >= maxUses) {
+            
+            logger.debug("Web driver session reached the maximum uses: " + maxUses);
+            
+            maxUseEvictionCount.incrementAndGet();
+            
+            evict(pooled);
+            
+            return;
+            
+        }
+        
+        if(!reset(driver)) {
+            
+            unhealthyEvictionCount.incrementAndGet();
+            
+            evict(pooled);
+            
+            return;
+            
+        }
+        
+        synchronized(this) {
+            
+            ArrayDeque<PooledWebDriver> sessions = idle.get(pooled.key);
+            
+            if(sessions == null) { sessions = new ArrayDeque<PooledWebDriver>(); idle.put(pooled.key, sessions); }
+            
+            sessions.addFirst(pooled);
+            
+            notifyAll();
+            
+        }
+        
+    }
+    
+    /**
+     * Quit all idle sessions. Leased sessions are quit when they are returned.
+     */
+    public void shutdown() {
+        
+        List<PooledWebDriver> sessions = new ArrayList<PooledWebDriver>();
+        
+        synchronized(this) {
+            
+            for(ArrayDeque<PooledWebDriver> queue: idle.values()) { sessions.addAll(queue); queue.clear(); }
+            
+        }
+        
+        for(PooledWebDriver pooled: sessions) evict(pooled);
+        
+    }
+    
+    /**
+     * Reset a session so the next test starts clean. The cookies and storage are
+     * only cleared for the origin of the current page.
+     * 
+     * @param driver
+     * 
+     * @return false if the session could not be reset
+     */
+    private boolean reset(WebDriver driver) {
+        
+        try {
+            
+            Set<String> handles = driver.getWindowHandles();
+            
+            // close all but one window
+            if(handles.size() > 1) {
+                
+                String keep = handles.iterator().next();
+                
+                for(String handle: handles) {
+                    
+                    if(handle.equals(keep)) continue;
+                    
+                    driver.switchTo().window(handle);
+                    driver.close();
+                    
+                }
+                
+                driver.switchTo().window(keep);
+                
+            }
+            
+            driver.manage().deleteAllCookies();
+            
+            if(driver instanceof JavascriptExecutor) ((JavascriptExecutor)driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            
+            driver.get(BLANK_PAGE);
+            
+            return true;
+            
+        }
+        catch(Exception e) { 
+            
+            logger.warn("Unable to reset web driver session, it will be removed from the pool: " + e.getMessage());
+            
+            return false; 
+        
+        }
+        
+    }
+    
+    /**
+     * Health check a session.
+     * 
+     * @param driver
+     * 
+     * @return 
+     */
+    private boolean isHealthy(WebDriver driver) {
+        
+        try { return driver.getWindowHandle() != null; }
+        catch(Exception e) { return false; }
+        
+    }
+    
+    /**
+     * Quit a session and remove it from the pool.
+     * 
+     * @param pooled 
+     */
+    private void evict(PooledWebDriver pooled) {
+        
+        try { pooled.driver.quit(); }
+        catch(Exception e) { }
+        
+        synchronized(this) { 
+            
+            owned.remove(pooled.driver);
+            
+            sizes.put(pooled.key, getSize(pooled.key) - 1); 
+            
+            notifyAll(); 
+            
+        }
+        
+    }
+    
+    /**
+     * Get the number of sessions for a key. Must hold the lock.
+     * 
+     * @param key
+     * 
+     * @return 
+     */
+    private int getSize(String key) {
+        
+        Integer size = sizes.get(key);
+        
+        return size == null ? 0 : size;
+        
+    }
+    
+    /**
+     * Record the time a lease waited for a full pool.
+     * 
+     * @param nanos 
+     */
+    private void recordLeaseWait(long nanos) {
+        
+        leaseWaitNanos.addAndGet(nanos);
+        
+        long max = maxLeaseWaitNanos.get();
+        
+        while(nanos > max && !maxLeaseWaitNanos.compareAndSet(max, nanos)) max = maxLeaseWaitNanos.get();
+        
+    }
+    
+    /**
+     * Get the number of leases.
+     * 
+     * @return 
+     */
+    public long getLeaseCount() { return leaseCount.get(); }
+    
+    /**
+     * Get the number of leases served by an idle session.
+     * 
+     * @return 
+     */
+    public long getHitCount() { return hitCount.get(); }
+    
+    /**
+     * Get the ratio of leases served by an idle session.
+     * 
+     * @return 
+     */
+    public double getHitRate() { 
+        
+        long leases = leaseCount.get();
+        
+        return leases == 0 ? 0.0 : (double)hitCount.get() / (double)leases; 
+    
+    }
+    
+    /**
+     * Get the number of sessions created.
+     * 
+     * @return 
+     */
+    public long getCreatedCount() { return createdCount.get(); }
+    
+    /**
+     * Get the number of sessions quit because they reached the maximum uses.
+     * 
+     * @return 
+     */
+    public long getMaxUseEvictionCount() { return maxUseEvictionCount.get(); }
+    
+    /**
+     * Get the number of sessions quit because a health check or reset failed.
+     * 
+     * @return 
+     */
+    public long getUnhealthyEvictionCount() { return unhealthyEvictionCount.get(); }
+    
+    /**
+     * Get the total time (milliseconds) leases waited for a full pool.
+     * 
+     * @return 
+     */
+    public long getLeaseWaitTime() { return TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.get()); }
+    
+    /**
+     * Get the longest time (milliseconds) a lease waited for a full pool.
+     * 
+     * @return 
+     */
+    public long getMaxLeaseWaitTime() { return TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get()); }
+    
+    /**
+     * Get a summary of the pool metrics for logging.
+     * 
+     * @return 
+     */
+    public String getMetrics() {
+        
+        return "WebDriver pool [leases=" + getLeaseCount() + ", hits=" + getHitCount() + ", hitRate=" + String.format("%.2f", getHitRate())
+                + ", created=" + getCreatedCount() + ", maxUseEvictions=" + getMaxUseEvictionCount() + ", unhealthyEvictions=" + getUnhealthyEvictionCount()
+                + ", leaseWaitMs=" + getLeaseWaitTime() + ", maxLeaseWaitMs=" + getMaxLeaseWaitTime() + "]";
+        
+    }
+    
+    /**
+     * Get a long property, or the default if not set or invalid.
+     * 
+     * @param key
+     * @param defaultValue
+     * 
+     * @return 
+     */
+    private long getLongProperty(String key, long defaultValue) {
+        
+        try { return Long.parseLong(CommonProperties.getInstance().get(key).trim()); }
+        catch(Exception e) { return defaultValue; }
+        
+    }
+    
+    /**
+     * A web driver session in the pool.
+     */
+    private static class PooledWebDriver {
+        
+        /**
+         * The pool key
+         */
+        private final String key;
+        
+        /**
+         * The web driver session
+         */
+        private final WebDriver driver;
+        
+        /**
+         * The number of times this session has been leased
+         */
+        private int uses = 0;
+        
+        /**
+         * Constructor
+         * 
+         * @param key
+         * @param driver 
+         */
+        private PooledWebDriver(String key, WebDriver driver) {
+            
+            this.key = key;
+            this.driver = driver;
+            
+        }
+        
+    }
+    
+}
@@ -18,7 +18,6 @@
 
 package org.automateit.web.pages;
 
-import java.util.concurrent.TimeUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,21 +39,29 @@ import org.openqa.selenium.remote.RemoteWebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import org.apache.log4j.Logger;
 
+import org.automateit.core.ElementAttributeFetcher;
 import org.automateit.core.ViewBase;
+import org.automateit.core.WaitEngine;
+
+import org.automateit.jfr.PageOperationEvent;
 
 import org.automateit.util.CommandList;
 import org.automateit.util.CommonProperties;
+import org.automateit.util.ElementAttributesBean;
 import org.automateit.util.PerformanceCapture;
+import org.automateit.util.PerformanceCaptureBean;
 import org.automateit.util.ScreenshotCapture;
+import org.automateit.util.SleepProfiler;
 import org.automateit.util.Utils;
 
 import org.automateit.core.StringCapabilities;
 import org.automateit.core.BooleanCapabilities;
 
+import org.automateit.web.NavigationTimingCapture;
+import org.automateit.web.PageReadinessProbe;
 import org.automateit.web.WebDriverFactory;
 
 /**
@@ -401,6 +408,10 @@ public class BasePage extends ViewBase {
         
         PerformanceCapture.getInstance().start(getPageName());
         
+        PageOperationEvent event = new PageOperationEvent();
+        
+        event.begin();
+        
         try {
         
             if(useHTTPAuth) passHTTPAuthentication(httpAuthUsername, httpAuthPassword, url);
@@ -414,7 +425,13 @@ public class BasePage extends ViewBase {
             throw new BasePageException(e);
         
         }
-        finally { completeOpen(); }
+        finally { 
+            
+            completeOpen(); 
+            
+            event.complete("open", url, this);
+        
+        }
         
     }
     
@@ -496,9 +513,7 @@ public class BasePage extends ViewBase {
                     
                 try {
                         
-                    WebDriverWait wait = new WebDriverWait(this.driver, Long.valueOf(this.timeout));
-                         
-                    Alert alert = wait.until(ExpectedConditions.alertIsPresent()); 
+                    Alert alert = waitUntil("alert", null, Long.valueOf(this.timeout), ExpectedConditions.alertIsPresent()); 
                         
                     alert.accept();
                     
@@ -554,7 +569,7 @@ public class BasePage extends ViewBase {
             
             try {
             
-                this.driver.manage().timeouts().implicitlyWait(Long.valueOf(this.timeout), TimeUnit.SECONDS);
+                WaitEngine.getInstance().setImplicitWait(this.driver, Long.valueOf(this.timeout));
                   
                 logger.debug("Page content has been loaded, now waiting for Ajax completion");
                    
@@ -664,7 +679,8 @@ public class BasePage extends ViewBase {
         
         commandList.addToList("close");
         
-        try { if(driver != null) driver.quit(); }
+        // returns the browser to the session pool when pooling is enabled
+        try { webDriverFactory.releaseWebDriver(driver); }
         catch(Exception e) { }
         
     }
@@ -745,18 +761,25 @@ public class BasePage extends ViewBase {
         
         commandList.addToList("type: " + locator + "|" + value);
         
+        PageOperationEvent event = new PageOperationEvent();
+        
+        event.begin();
+        
         try { 
             
             if(locator == null) throw new BasePageException("Unable to enter data because xpath locator value is null");
             if(value != null) {
                 
-                this.driver.findElement(By.xpath(locator)).sendKeys(value);
-                this.driver.findElement(By.xpath(locator)).sendKeys(Keys.RETURN);
+                WebElement element = find(By.xpath(locator));
+                
+                element.sendKeys(value);
+                element.sendKeys(Keys.RETURN);
                 
             } 
         
         }
         catch(Exception e) { throw new BasePageException(e); }
+        finally { event.complete("type", locator, this); }
     
     }
 
@@ -799,18 +822,23 @@ public class BasePage extends ViewBase {
         
         commandList.addToList("type: " + locator + "|" + value+ "|ajaxCheck:" + checkAjax);
         
+        PageOperationEvent event = new PageOperationEvent();
+        
+        event.begin();
+        
         try {
         	
             PerformanceCapture.getInstance().start(getPageName());
           
             waitForConditionElementXPathPresent(locator, timeout);
                 
-            this.driver.findElement(By.xpath(locator)).sendKeys(value);
+            find(By.xpath(locator)).sendKeys(value);
             
             waitForPageToLoad(timeout, checkAjax);
             
         }
         catch(Exception e) { printDOM(); throw new BasePageException(e); }
+        finally { event.complete("type", locator, this); }
     
     }
     
@@ -854,9 +882,10 @@ public class BasePage extends ViewBase {
         
         commandList.addToList("enterTextIntoFileChooser2: " + value);
         
-        try { driver.findElement(By.id("inputFile")).sendKeys(value); }
+        try { find(By.id("inputFile")).sendKeys(value); }
         catch(Exception e) { 
             
+            // the lookup above already waited, only check once without another wait or screenshot
             try { driver.findElement(By.xpath("//input[@type='file']")); }
             catch(Exception le) { printDOM(); throw new BasePageException(le); }
             
@@ -881,12 +910,21 @@ public class BasePage extends ViewBase {
         commandList.addToList("click: " + locator + "|ajaxCheck:" + checkAjax);
         
         PerformanceCapture.getInstance().start(getPageName());
+        
+        PageOperationEvent event = new PageOperationEvent();
+        
+        event.begin();
+        
+        try {
 
-        waitForConditionElementXPathPresent(locator, timeout);
+            waitForConditionElementXPathPresent(locator, timeout);
               
-        find(By.xpath(locator)).click();
+            find(By.xpath(locator)).click();
 
-        waitForPageToLoad(timeout, checkAjax);
+            waitForPageToLoad(timeout, checkAjax);
+            
+        }
+        finally { event.complete("click", locator, this); }
 
     }
 
@@ -921,7 +959,7 @@ public class BasePage extends ViewBase {
     
         commandList.addToList("stop");
         
-        try { this.driver.quit(); }
+        try { webDriverFactory.releaseWebDriver(this.driver); }
         catch(Exception e) { throw new BasePageException(e); }
     
     }
@@ -963,7 +1001,10 @@ public class BasePage extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.id(elementId)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.id(elementId), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw new BasePageException(e); }
@@ -990,7 +1031,10 @@ public class BasePage extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.xpath(xpath), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw new BasePageException(e); }
@@ -1017,7 +1061,10 @@ public class BasePage extends ViewBase {
             
             waitForAjaxCompletion(Long.valueOf(timeout));
             
-            WebElement myDynamicElement = (new WebDriverWait(driver, Long.valueOf(timeout))).until(ExpectedConditions.presenceOfElementLocated(By.className(classname)));
+            long start = SleepProfiler.getInstance().startWait();
+            
+            try { waitForPresence(By.className(classname), Long.valueOf(timeout)); }
+            finally { SleepProfiler.getInstance().addWait(start); }
             
         }
         catch(Exception e) { printDOM(); throw new BasePageException(e); }
@@ -1153,7 +1200,13 @@ public class BasePage extends ViewBase {
         
         commandList.addToList("check: " + locator);
         
-        try { if(!find(By.xpath(locator)).isSelected()) find(By.xpath(locator)).click(); }
+        try { 
+            
+            WebElement element = find(By.xpath(locator));
+            
+            if(!element.isSelected()) element.click(); 
+        
+        }
         catch(Exception e) { throw new BasePageException(e); }
     
     }
@@ -1288,14 +1341,7 @@ public class BasePage extends ViewBase {
         
         logger.info("Sleep/delay for " + millis + " milliseconds");
         
-        try {        	
-        	
-            Thread.sleep(millis);
-        
-            PerformanceCapture.getInstance().addSleepTime(millis);        	
-       	
-        }
-        catch(Exception e) { }
+        SleepProfiler.getInstance().sleep(millis);
         
     }
     
@@ -1305,8 +1351,18 @@ public class BasePage extends ViewBase {
     public void stopPerformanceCapturePageLoaded() {
         
         logger.debug("Stopping perfromance capture after page is loaded");
-            	    
-    	stopPerformanceCapture(getPageName());        
+        
+        PerformanceCaptureBean bean = PerformanceCapture.getInstance().finish(getPageName());
+        
+        if(bean != null) {
+            
+            // one javascript call for the browser's own breakdown of the page load, after the end time is taken
+            bean.setNavigationTiming(NavigationTimingCapture.getInstance().capture(driver));
+            
+            PerformanceCapture.getInstance().record(bean);
+            
+        }
+        else stopPerformanceCapture(getPageName());        
     
     }
     
@@ -1340,13 +1396,13 @@ public class BasePage extends ViewBase {
         
         try {
           
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             logger.info("count:" + elements.size());
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-            	String data = element.getAttribute("name").trim();//element.getText().trim();
+            	String data = element.getTrimmedValue();//element.getText().trim();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1354,7 +1410,7 @@ public class BasePage extends ViewBase {
                    
                 if(data.contains(text)) {
                     
-                    element.click();
+                    element.getElement().click();
                     
                     waitForPageToLoad(timeout);
                         
@@ -1389,17 +1445,17 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.contains(text1) && data.contains(text2)) {
                    
-                    element.click();
+                    element.getElement().click();
                     
                     waitForPageToLoad(timeout);
                         
@@ -1433,17 +1489,17 @@ public class BasePage extends ViewBase {
         
         try {
         
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
                 if(data.equals(text.trim())) {
                    
-                    element.click();
+                    element.getElement().click();
                     
                     waitForPageToLoad(timeout);
                         
@@ -1477,15 +1533,15 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
             logger.info("Elements size: " + elements.size());
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
                 logger.info(element);
                 
-                String data = element.getText();
+                String data = element.getValue();
                 
                 if(data != null) data.trim();
                 
@@ -1521,11 +1577,11 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1557,11 +1613,11 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1593,11 +1649,11 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1629,17 +1685,17 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
           
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.contains(text)) {
                    
-                    element.click();
+                    element.getElement().click();
                     
                     waitForPageToLoad(timeout);
                   
@@ -1673,17 +1729,17 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
                 if(data.equals(text)) {
                     
-                    element.click();
+                    element.getElement().click();
                     
                     waitForPageToLoad(timeout);
                     
@@ -1742,11 +1798,11 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1775,11 +1831,11 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), ElementAttributeFetcher.TEXT);
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getText().trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1895,13 +1951,13 @@ public class BasePage extends ViewBase {
         
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                    
@@ -1937,13 +1993,13 @@ public class BasePage extends ViewBase {
         
         try {
            
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
             
             int index = 1;
             
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                 
-                String data = element.getAttribute("name").trim();
+                String data = element.getTrimmedValue();
                 
                 if((data == null) || (data.trim().length() == 0)) continue; // blank, so ignore
                 
@@ -1982,17 +2038,17 @@ public class BasePage extends ViewBase {
        
         try {
             
-            List<WebElement> elements = findElements(By.className(className));
+            List<ElementAttributesBean> elements = findElementsWithAttribute(By.className(className), "name");
            
-            for(WebElement element:elements) {
+            for(ElementAttributesBean element:elements) {
                    
-                String value = element.getAttribute("name").trim();
+                String value = element.getTrimmedValue();
                  
                 if((value == null) || (value.trim().length() == 0)) continue; // null or blank, so ignore
                 
                 logger.info("Checking for " + value + "|" + text);
                
-                if(value.trim().equals(text)) return ((RemoteWebElement) element).getId();
+                if(value.trim().equals(text)) return ((RemoteWebElement) element.getElement()).getId();
                 
             }
           
@@ -2488,11 +2544,9 @@ public class BasePage extends ViewBase {
 
         try {
             
-            WebDriverWait wait = new WebDriverWait(driver, 5);
-            
             WebElement element = find(By.xpath(xpath));
             
-            wait.until(ExpectedConditions.elementToBeClickable(element));
+            waitUntil("clickable", By.xpath(xpath), 5, ExpectedConditions.elementToBeClickable(element));
             
             return true;
         
@@ -2512,55 +2566,53 @@ public class BasePage extends ViewBase {
           
         commandList.addToList("waitForJSandAjaxToLoad: " + timeout);
 
-        WebDriverWait wait = new WebDriverWait(driver, timeout);
+        long start = SleepProfiler.getInstance().startWait();
 
-        // If using jQuery
-        ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
-        
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return jQuery.active") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
+        // one script per poll checks the ready state and the ajax libraries present on the page
+        try { return PageReadinessProbe.getInstance().waitUntilReady(driver, timeout).isReady(); }
+        finally { SleepProfiler.getInstance().addWait(start); }
+
+    }
     
-        };
-        
-        // If using prototype
-        ExpectedCondition<Boolean> prototypeLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
+    /**
+     * Install the DOM and network (XHR/fetch) hooks used by waitForPageToBeQuiet 
+     * on the current document, if not installed yet. In quiescence mode the hooks
+     * are installed when the page load is waited for; in libraries mode (or on a 
+     * document that was not waited for) call this before the action, so the 
+     * requests the action starts are counted.
+     */
+    public void prepareForPageToBeQuiet() {
         
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return Ajax.activeRequestCount") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
-    
-        };
+        logger.debug("Prepare for the DOM and network to be quiet");
         
-        // If using angular.js
-        ExpectedCondition<Boolean> angularJSLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) {
+        try { PageReadinessProbe.getInstance().installQuiescenceHooks(driver); }
+        catch(Exception e) { logger.debug("Unable to install the DOM and network hooks: " + e); }
         
-                try { return ((Long)((JavascriptExecutor)driver).executeScript("return angular.element(document.body).injector().get(\'$http\').pendingRequests.length;") == 0); }
-                catch (Exception e) { return true; }
-      
-            }
+    }
     
-        };
+    /**
+     * Wait until the DOM and network (XHR/fetch) have been quiet for the quiet window 
+     * (pageQuietWindow), for pages that do not use an ajax library. Use it instead
+     * of a fixed delay after an action that updates the page. Requests are only 
+     * counted once the hooks are installed on the document (when its load is waited
+     * for in quiescence mode, or by prepareForPageToBeQuiet), so the first wait on a 
+     * document that was not prepared can report the page quiet while requests are 
+     * still in flight.
+     * 
+     * @param timeout (seconds)
+     * 
+     * @return 
+     */
+    public boolean waitForPageToBeQuiet(long timeout) {
+        
+        logger.debug("Wait for the DOM and network to be quiet:" + timeout);
+          
+        commandList.addToList("waitForPageToBeQuiet: " + timeout);
 
-        ExpectedCondition<Boolean> jsLoad = new ExpectedCondition<Boolean>() {
-      
-            @Override
-            public Boolean apply(WebDriver driver) { return ((JavascriptExecutor)driver).executeScript("return document.readyState").toString().equals("complete"); }
-    
-        };
+        long start = SleepProfiler.getInstance().startWait();
 
-        return wait.until(jQueryLoad) && wait.until(angularJSLoad) && wait.until(prototypeLoad) && wait.until(jsLoad);
+        try { return PageReadinessProbe.getInstance().waitUntilQuiet(driver, timeout, PageReadinessProbe.getInstance().getQuietWindow()).isReady(); }
+        finally { SleepProfiler.getInstance().addWait(start); }
 
     }
     
@@ -3567,13 +3619,11 @@ public class BasePage extends ViewBase {
     
             JavascriptExecutor jse = (JavascriptExecutor) driver;
     
-            WebDriverWait wait = new WebDriverWait(driver, 30);
-
             WebElement input = (WebElement)jse.executeScript(JS_DROP_FILE, element, offsetX, offsetY);
     
             input.sendKeys((new File(file)).getAbsoluteFile().toString());
     
-            wait.until(ExpectedConditions.stalenessOf(input));
+            waitUntil("staleness", null, 30, ExpectedConditions.stalenessOf(input));
             
         }
         catch(Exception e) { throw e; }
@@ -3597,7 +3647,7 @@ public class BasePage extends ViewBase {
         
         this.timeout = "0";
         
-        try { driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS); }
+        try { WaitEngine.getInstance().setImplicitWait(driver, 0); }
         catch(Exception e) { throw e; }
         
     }
@@ -3621,7 +3671,7 @@ public class BasePage extends ViewBase {
             
             logger.debug("Timeout is set to: " + this.timeout);
             
-            driver.manage().timeouts().implicitlyWait(Long.valueOf(this.timeout), TimeUnit.SECONDS); 
+            WaitEngine.getInstance().setImplicitWait(driver, Long.valueOf(this.timeout)); 
         
         }
         catch(Exception e) { throw e; }
@@ -3683,7 +3733,7 @@ public class BasePage extends ViewBase {
            
             if(properties.get(StringCapabilities.JS_LIBRARY.getCapability()) != null) jsLibrary = properties.get(StringCapabilities.JS_LIBRARY.getCapability());
                         
-            this.driver = webDriverFactory.getWebDriver(properties.get(StringCapabilities.ID_SELENIUM_DRIVER.getCapability()), properties.get(StringCapabilities.URL.getCapability()));
+            this.driver = webDriverFactory.leaseWebDriver(properties.get(StringCapabilities.ID_SELENIUM_DRIVER.getCapability()), properties.get(StringCapabilities.URL.getCapability()));
                 
             logger.debug("Finished initializing Selenium/WebDriver 3.0: " + this.driver);
                 
@@ -3952,7 +4002,7 @@ public class BasePage extends ViewBase {
         
         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
 
-        Thread.sleep(500); 
+        delay(500); 
     
     }
     